@@ -0,0 +1,96 @@
+/*
+ * Beans
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.example.bean.Person;
+import gras.presley.example.bean.Team;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyList;
+import gras.presley.metadata.TypeManager;
+import lombok.NonNull;
+
+/**
+ * The beans of the benchmarks: the example {@link Person} and the generated {@code WideBean10}, {@code WideBean100}
+ * and {@code WideBean500} having 10, 100 and 500 properties. The even properties of the wide beans are ints,
+ * the odd ones are strings.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class Beans {
+
+    private static final String WIDE_BEAN_PACKAGE = "gras.presley.benchmark.bean.";
+
+    private Beans() {
+    }
+
+    /**
+     * Gets the class of the bean by its simple name.
+     */
+    @NonNull
+    static Class<?> beanClass(@NonNull String simpleName) {
+        if (simpleName.equals("Person"))
+            return Person.class;
+
+        try {
+            return Class.forName(WIDE_BEAN_PACKAGE + simpleName);
+        }
+        catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown benchmark bean " + simpleName, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    static BeanType<Object> beanType(@NonNull String simpleName) {
+        return (BeanType<Object>) TypeManager.forClass(beanClass(simpleName));
+    }
+
+    /**
+     * Creates a bean with all of its properties set.
+     */
+    @NonNull
+    static Object newBean(@NonNull BeanType<Object> beanType) {
+        if (Person.class.equals(beanType.getTypeClass())) {
+            Team team = new Team();
+            team.name = "Packers";
+
+            Person person = new Person();
+            person.firstName = "Aaron";
+            person.lastName = "Rodgers";
+            person.name = "Aaron Rodgers";
+            person.weight = 225;
+            person.isPlayer = true;
+            person.team = team;
+            return person;
+        }
+
+        Object bean = beanType.newInstance();
+        PropertyList<PlainBeanProp<Object, ?>> props = beanType.getProperties();
+        for (int i = 0, n = props.size(); i < n; i++) {
+            @SuppressWarnings("unchecked")
+            PlainBeanProp<Object, Object> prop = (PlainBeanProp<Object, Object>) props.get(i);
+            prop.setValue(bean, i % 2 == 0 ? (Object) i : "value" + i);
+        }
+        return bean;
+    }
+
+    /**
+     * Gets the last string property of the bean, which is the slowest to find by a linear search.
+     */
+    @SuppressWarnings("unchecked")
+    @NonNull
+    static PlainBeanProp<Object, Object> lastStringProperty(@NonNull BeanType<Object> beanType) {
+        PropertyList<PlainBeanProp<Object, ?>> props = beanType.getProperties();
+        for (int i = props.size(); --i >= 0; ) {
+            if (props.get(i).getValueType().getTypeClass() == String.class)
+                return (PlainBeanProp<Object, Object>) props.get(i);
+        }
+        throw new IllegalArgumentException("No string property in " + beanType);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * BenchmarkContext
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.DefaultEvaluatorRegistry;
+import gras.presley.evaluator.EvaluatorRegistry;
+import gras.presley.evaluator.StateManager;
+import gras.presley.example.evaluator.PersonSEvaluator;
+import gras.presley.example.evaluator.PlayerMEvaluator;
+import gras.presley.example.operation.NewPlayer;
+import gras.presley.example.operation.NewTeamOp;
+import gras.presley.interceptor.DefaultInterceptorRegistry;
+import gras.presley.interceptor.InterceptorManager;
+import gras.presley.interceptor.InterceptorRegistry;
+import gras.presley.metadata.TypeManager;
+import gras.presley.operation.DefaultOperationRegistry;
+import gras.presley.operation.OperationManager;
+import gras.presley.operation.OperationRegistry;
+import lombok.NonNull;
+
+/**
+ * Application context of the benchmarks, installed by the setup of each benchmark.
+ *
+ * <p> The interceptors, the evaluators and the operations are registered by the benchmarks, e.g. the ones of the example
+ * by {@link #registerExamples()}. The type manager can be replaced to measure the cold metadata build, see {@link #resetTypes()}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BenchmarkContext extends ApplicationContext {
+
+    private static BenchmarkContext current;
+
+    private volatile TypeManager typeManager = new TypeManager() {};
+    @NonNull private final DefaultInterceptorRegistry interceptorRegistry = new DefaultInterceptorRegistry();
+    @NonNull private final BenchmarkInterceptorManager interceptorManager = new BenchmarkInterceptorManager();
+    @NonNull private final StateManager stateManager = new StateManager() {};
+    @NonNull private final OperationManager operationManager = new OperationManager() {};
+
+    @NonNull private final DefaultEvaluatorRegistry evaluatorRegistry = new DefaultEvaluatorRegistry();
+
+    @NonNull private final DefaultOperationRegistry operationRegistry = new DefaultOperationRegistry();
+
+    protected BenchmarkContext() {
+    }
+
+    /**
+     * Installs a new context, called once per benchmark fork.
+     */
+    @NonNull
+    public static synchronized BenchmarkContext install() {
+        current = new BenchmarkContext();
+        setInstance(current);
+        return current;
+    }
+
+    @NonNull
+    public static synchronized BenchmarkContext current() {
+        return current != null ? current : install();
+    }
+
+    /**
+     * Replaces the type manager with a new one, so all the metadata is built again on the next use.
+     */
+    public void resetTypes() {
+        typeManager = new TypeManager() {};
+    }
+
+    /**
+     * Registers the evaluators and the operations of the example, and the ones of the benchmarks matching the example beans:
+     * the {@link gras.presley.example.bean.Person} bean and its weight have visible and editable state evaluators,
+     * and the {@link gras.presley.example.bean.Team} bean has type, bean and property operations.
+     */
+    public void registerExamples() {
+        evaluatorRegistry.addEvaluator(new PersonSEvaluator());
+        evaluatorRegistry.addEvaluator(new PlayerMEvaluator());
+        evaluatorRegistry.addEvaluator(new PersonStateEvaluator());
+
+        operationRegistry.addTypeOperation(NewTeamOp.class);
+        operationRegistry.addBeanOperation(NewPlayer.class);
+        operationRegistry.addPropertyOperation(TeamPropertyOperation.class);
+    }
+
+    @NonNull
+    public DefaultInterceptorRegistry getInterceptors() {
+        return interceptorRegistry;
+    }
+
+    @NonNull
+    public DefaultEvaluatorRegistry getEvaluators() {
+        return evaluatorRegistry;
+    }
+
+    @NonNull
+    public DefaultOperationRegistry getOperations() {
+        return operationRegistry;
+    }
+
+    @NonNull
+    public BenchmarkInterceptorManager getInterceptorProcessor() {
+        return interceptorManager;
+    }
+
+    @Override
+    protected TypeManager getTypeManagerImpl() {
+        return typeManager;
+    }
+
+    @Override
+    protected InterceptorRegistry getInterceptorRegistryImpl() {
+        return interceptorRegistry;
+    }
+
+    @Override
+    protected InterceptorManager getInterceptorManagerImpl() {
+        return interceptorManager;
+    }
+
+    @Override
+    protected EvaluatorRegistry getEvaluatorRegistryImpl() {
+        return evaluatorRegistry;
+    }
+
+    @Override
+    protected StateManager getStateManagerImpl() {
+        return stateManager;
+    }
+
+    @Override
+    protected OperationRegistry getOperationRegistryImpl() {
+        return operationRegistry;
+    }
+
+    @Override
+    protected OperationManager getOperationManagerImpl() {
+        return operationManager;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * BenchmarkInterceptorManager
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.interceptor.InterceptorManager;
+import gras.presley.metadata.PlainBeanProp;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Opens the property processing of the interceptor manager for the benchmarks.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BenchmarkInterceptorManager extends InterceptorManager {
+
+    BenchmarkInterceptorManager() {
+    }
+
+    public <_B, _P> void process(@NonNull PlainBeanProp<_B, _P> propertyMetadata, @NonNull _B bean, _P originalValue, _P newValue) throws Exception {
+        processProperty(propertyMetadata, bean, originalValue, newValue);
+    }
+
+    @NonNull
+    public <_B, _P> CompletionStage<Void> processAsync(@NonNull PlainBeanProp<_B, _P> propertyMetadata, @NonNull _B bean, _P originalValue, _P newValue) {
+        return processPropertyAsync(propertyMetadata, bean, originalValue, newValue);
+    }
+}
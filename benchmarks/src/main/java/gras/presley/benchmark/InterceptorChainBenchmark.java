@@ -0,0 +1,66 @@
+/*
+ * InterceptorChainBenchmark
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.example.bean.Person;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TypeManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes a property change through interceptor chains of 0, 1, 5 and 20 {@link PassThroughInterceptor}s.
+ *
+ * <p> Run it with the {@code -prof gc} profiler to see the allocations: a change of a property without interceptors
+ * allocates nothing, otherwise only its {@link gras.presley.interceptor.PropertyInvocation}, whatever the chain length.
+ * The invocation is passed to the interceptors, so the escape analysis does not remove it.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InterceptorChainBenchmark {
+
+    @Param({"0", "1", "5", "20"})
+    public int depth;
+
+    private BenchmarkInterceptorManager manager;
+    private PlainBeanProp<Person, String> firstName;
+    private Person person;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        BenchmarkContext context = BenchmarkContext.install();
+        for (int i = 0; i < depth; i++)
+            context.getInterceptors().addPropertyInterceptor(new PassThroughInterceptor());
+
+        manager = context.getInterceptorProcessor();
+        BeanType<Person> personType = (BeanType<Person>) TypeManager.forClass(Person.class);
+        firstName = (PlainBeanProp<Person, String>) personType.getProperty("firstName");
+        manager.preload(personType);
+        person = new Person();
+    }
+
+    @Benchmark
+    public void processProperty() throws Exception {
+        manager.process(firstName, person, "Aaron", "Brett");
+    }
+
+    @Benchmark
+    public Object processPropertyAsync() {
+        return ((CompletableFuture<Void>) manager.processAsync(firstName, person, "Aaron", "Brett")).join();
+    }
+}
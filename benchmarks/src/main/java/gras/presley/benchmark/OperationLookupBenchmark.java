@@ -0,0 +1,66 @@
+/*
+ * OperationLookupBenchmark
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.example.bean.Team;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TypeManager;
+import gras.presley.operation.OperationManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the operations of a bean type, a bean and a property through {@link OperationManager}.
+ * The operations of the example are registered, see {@link BenchmarkContext#registerExamples()}, so each lookup finds
+ * and instantiates one operation.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OperationLookupBenchmark {
+
+    private OperationManager operationManager;
+    private BeanType<Team> teamType;
+    private PlainBeanProp<Team, String> name;
+    private Team team;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        BenchmarkContext.install().registerExamples();
+        operationManager = ApplicationContext.getOperationManager();
+        teamType = (BeanType<Team>) TypeManager.forClass(Team.class);
+        name = (PlainBeanProp<Team, String>) teamType.getProperty("name");
+        team = new Team();
+        team.name = "Packers";
+        operationManager.preload(teamType);
+    }
+
+    @Benchmark
+    public Object getTypeOperations() {
+        return operationManager.getTypeOperations(teamType);
+    }
+
+    @Benchmark
+    public Object getBeanOperations() {
+        return operationManager.getBeanOperations(team, teamType);
+    }
+
+    @Benchmark
+    public Object getPropertyOperations() {
+        return operationManager.getPropertyOperations(team, name);
+    }
+}
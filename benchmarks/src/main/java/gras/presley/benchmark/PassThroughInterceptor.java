@@ -0,0 +1,30 @@
+/*
+ * PassThroughInterceptor
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.example.bean.Person;
+import gras.presley.interceptor.InterceptorDef;
+import gras.presley.interceptor.PropertyInterceptor;
+import gras.presley.interceptor.PropertyInterceptorDef;
+import gras.presley.interceptor.PropertyInvocation;
+
+/**
+ * Interceptor of {@link Person#firstName} doing nothing but calling the rest of the chain,
+ * so the chain benchmarks measure the cost of the chain itself.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class PassThroughInterceptor implements PropertyInterceptor<Person, String> {
+
+    @Override
+    @InterceptorDef
+    @PropertyInterceptorDef(names = "firstName")
+    public void intercept(PropertyInvocation<Person, String> invocation) throws Exception {
+        invocation.proceed();
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * PersonStateEvaluator
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.evaluator.EvaluatedState;
+import gras.presley.evaluator.EvaluationContext;
+import gras.presley.evaluator.Evaluator;
+import gras.presley.evaluator.EvaluatorDef;
+import gras.presley.example.bean.Person;
+
+/**
+ * Evaluator of the visible and editable states of the {@link Person} bean, so the bean states are evaluated
+ * by a matching evaluator, like the property states by {@link gras.presley.example.evaluator.PersonSEvaluator}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class PersonStateEvaluator implements Evaluator<Person, Object> {
+
+    @Override
+    @EvaluatorDef(states = {EvaluatedState.VISIBLE, EvaluatedState.EDITABLE})
+    public boolean evaluateState(EvaluationContext<Person, Object> ctx) {
+        return ctx.getBean().team != null;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * PropertyAccessBenchmark
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and writes a property value through the metadata, {@link PlainBeanProp#getValue(Object)} and
+ * {@link PlainBeanProp#setValue(Object, Object)}, and the primitive accessors.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyAccessBenchmark {
+
+    @Param({"Person", "WideBean10", "WideBean100", "WideBean500"})
+    public String bean;
+
+    private Object instance;
+    private PlainBeanProp<Object, Object> stringProp;
+    private PlainBeanProp<Object, Object> intProp;
+    private String value;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        BenchmarkContext.install();
+        BeanType<Object> beanType = Beans.beanType(bean);
+        instance = Beans.newBean(beanType);
+        stringProp = Beans.lastStringProperty(beanType);
+        intProp = (PlainBeanProp<Object, Object>) beanType.getProperty(bean.equals("Person") ? "weight" : "p0");
+        value = "new value";
+    }
+
+    @Benchmark
+    public Object getValue() {
+        return stringProp.getValue(instance);
+    }
+
+    @Benchmark
+    public void setValue() {
+        stringProp.setValue(instance, value);
+    }
+
+    @Benchmark
+    public int getInt() {
+        return intProp.getInt(instance);
+    }
+
+    @Benchmark
+    public void setInt() {
+        intProp.setInt(instance, 42);
+    }
+}
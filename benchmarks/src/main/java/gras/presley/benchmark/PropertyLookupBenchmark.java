@@ -0,0 +1,63 @@
+/*
+ * PropertyLookupBenchmark
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.metadata.BeanType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds a property by name, {@link BeanType#getProperty(String)}, on beans having 7 to 500 properties.
+ * The interned name is the usual case of the name literals, the copied name is not interned,
+ * e.g. the names read from a request.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertyLookupBenchmark {
+
+    @Param({"Person", "WideBean10", "WideBean100", "WideBean500"})
+    public String bean;
+
+    private BeanType<Object> beanType;
+    private String internedName;
+    private String copiedName;
+
+    @Setup
+    public void setup() {
+        BenchmarkContext.install();
+        beanType = Beans.beanType(bean);
+        internedName = Beans.lastStringProperty(beanType).getPropertyName();
+        copiedName = new String(internedName.toCharArray());
+    }
+
+    @Benchmark
+    public Object getPropertyInterned() {
+        return beanType.getProperty(internedName);
+    }
+
+    @Benchmark
+    public Object getPropertyCopied() {
+        return beanType.getProperty(copiedName);
+    }
+
+    /**
+     * The metadata is shared by all threads, the lookup must scale with the cores.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object getPropertyContended() {
+        return beanType.getProperty(copiedName);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * SerialBenchmark
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.serial.BeanDecoder;
+import gras.presley.serial.BeanEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads a wide bean with {@link BeanEncoder} and {@link BeanDecoder}, compared to java serialization.
+ * The sizes of the streams are printed by the setup.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerialBenchmark {
+
+    @Param({"WideBean10", "WideBean100", "WideBean500"})
+    public String bean;
+
+    private Object instance;
+    private byte[] encoded;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException, ClassNotFoundException {
+        BenchmarkContext.install();
+        BeanType<Object> beanType = Beans.beanType(bean);
+        instance = Beans.newBean(beanType);
+        encoded = encode();
+        serialized = serialize();
+        System.out.println(bean + ": encoded " + encoded.length + " bytes, java serialized " + serialized.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return BeanEncoder.encode(instance);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return BeanDecoder.decode(encoded);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(instance);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * StartupBenchmark
+ * Create Date: 2020. 04. 14.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.StateManager;
+import gras.presley.interceptor.InterceptorManager;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.TypeManager;
+import gras.presley.operation.OperationManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds all the metadata of a synthetic model of 1,500 types, see {@link SyntheticBeanGenerator}, with reflection
+ * and with the compile time generated metadata. Each iteration starts with new types, the JVM is warm.
+ * The first, cold run is reported by {@link SyntheticStartup}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({"1500"})
+    public int types;
+
+    @Param({"reflection", "generated"})
+    public String metadata;
+
+    private SyntheticModel model;
+    private BenchmarkContext context;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        SyntheticBeanGenerator generator = new SyntheticBeanGenerator();
+        generator.setTypeCount(types);
+        generator.setGeneratedMetadata(metadata.equals("generated"));
+        model = generator.generate();
+
+        context = BenchmarkContext.install();
+        model.register(context);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetTypes() {
+        context.resetTypes();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        model.close();
+    }
+
+    @Benchmark
+    public Object build() {
+        InterceptorManager interceptorManager = ApplicationContext.getInterceptorManager();
+        StateManager stateManager = ApplicationContext.getStateManager();
+        OperationManager operationManager = ApplicationContext.getOperationManager();
+        List<Class<?>> classes = model.getBeanClasses();
+
+        BeanType<?> type = null;
+        for (int i = 0, n = classes.size(); i < n; i++) {
+            type = (BeanType<?>) TypeManager.forClass(classes.get(i));
+            type.getProperties();
+            type.getAccessor();
+            interceptorManager.preload(type);
+            stateManager.preload(type);
+            operationManager.preload(type);
+        }
+        return type;
+    }
+
+    @Benchmark
+    public Object preload() {
+        return TypeManager.preload(model.getBeanClasses());
+    }
+}
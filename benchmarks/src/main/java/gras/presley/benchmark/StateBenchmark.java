@@ -0,0 +1,68 @@
+/*
+ * StateBenchmark
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.StateManager;
+import gras.presley.example.bean.Person;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates the visible and editable states of a bean and a property, {@link StateManager#isVisible(Object)}
+ * and {@link StateManager#isEditable(Object)}, with the evaluators of the example registered, see {@link BenchmarkContext#registerExamples()}.
+ * The bean states are evaluated by {@link PersonStateEvaluator}, the states of the weight by {@link gras.presley.example.evaluator.PersonSEvaluator}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateBenchmark {
+
+    private StateManager stateManager;
+    private Person person;
+    private PlainBeanProp<Object, Object> weight;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        BenchmarkContext.install().registerExamples();
+        stateManager = ApplicationContext.getStateManager();
+        BeanType<Object> personType = Beans.beanType("Person");
+        person = (Person) Beans.newBean(personType);
+        weight = (PlainBeanProp<Object, Object>) personType.getProperty("weight");
+        stateManager.preload(personType);
+    }
+
+    @Benchmark
+    public boolean isVisible() {
+        return stateManager.isVisible(person);
+    }
+
+    @Benchmark
+    public boolean isEditable() {
+        return stateManager.isEditable(person);
+    }
+
+    @Benchmark
+    public boolean isPropertyVisible() {
+        return stateManager.isVisible(person, weight);
+    }
+
+    @Benchmark
+    public boolean isPropertyEditable() {
+        return stateManager.isEditable(person, weight);
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * SyntheticBeanGenerator
+ * Create Date: 2020. 04. 14.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import lombok.NonNull;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates and compiles {@link gras.presley.metadata.BeanClass} types at runtime, to measure how the metadata build
+ * scales with the size of the model, e.g. the ~1,500 bean classes of a real application.
+ *
+ * <p> The types vary randomly, but reproducibly by the seed, in the number of properties, the depth of inheritance and
+ * the field or getter annotation of the properties. Some of the types get a pass-through property interceptor,
+ * an evaluator of the bean or of one of its properties, and a type, bean or property operation, which are registered
+ * by {@link SyntheticModel#register(BenchmarkContext)}.
+ * The classes are compiled with the system java compiler, so a JDK is needed to run the generator.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class SyntheticBeanGenerator {
+
+    public static final String PACKAGE = "gras.synthetic";
+
+    private static final String[] PROPERTY_TYPES = {"int", "long", "boolean", "double", "String", "java.util.Date"};
+    private static final String[] OPERATION_KINDS = {"TypeOperation", "BeanOperation", "PropertyOperation"};
+
+    private int typeCount = 1500;
+    private int minProperties = 5;
+    private int maxProperties = 60;
+    /** the maximum number of generated super classes of a type */
+    private int maxDepth = 3;
+    private double subclassRatio = 0.3;
+    private double getterRatio = 0.3;
+    private double interceptorRatio = 0.2;
+    private double evaluatorRatio = 0.2;
+    private double operationRatio = 0.2;
+    /** compile with the presley annotation processor, so the types have compile time generated metadata */
+    private boolean generatedMetadata;
+    private long seed = 42;
+
+    public SyntheticBeanGenerator() {
+    }
+
+    public void setTypeCount(int typeCount) {
+        this.typeCount = typeCount;
+    }
+
+    public void setPropertyCount(int minProperties, int maxProperties) {
+        if (minProperties < 1 || maxProperties < minProperties)
+            throw new IllegalArgumentException("Invalid property count range " + minProperties + ".." + maxProperties);
+
+        this.minProperties = minProperties;
+        this.maxProperties = maxProperties;
+    }
+
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    public void setSubclassRatio(double subclassRatio) {
+        this.subclassRatio = subclassRatio;
+    }
+
+    public void setGetterRatio(double getterRatio) {
+        this.getterRatio = getterRatio;
+    }
+
+    public void setInterceptorRatio(double interceptorRatio) {
+        this.interceptorRatio = interceptorRatio;
+    }
+
+    public void setEvaluatorRatio(double evaluatorRatio) {
+        this.evaluatorRatio = evaluatorRatio;
+    }
+
+    public void setOperationRatio(double operationRatio) {
+        this.operationRatio = operationRatio;
+    }
+
+    public void setGeneratedMetadata(boolean generatedMetadata) {
+        this.generatedMetadata = generatedMetadata;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generates, compiles and loads the types into a new class loader. The classes are not initialized.
+     * @return the model, which must be closed to delete the generated files
+     */
+    @NonNull
+    public SyntheticModel generate() throws IOException {
+        Path dir = Files.createTempDirectory("synthetic-beans");
+        Path sourceDir = Files.createDirectories(dir.resolve("src").resolve(PACKAGE.replace('.', File.separatorChar)));
+        Path classesDir = Files.createDirectories(dir.resolve("classes"));
+
+        Random random = new Random(seed);
+        int[] depths = new int[typeCount];
+        ArrayList<File> sources = new ArrayList<>(typeCount * 2);
+        ArrayList<String> beanNames = new ArrayList<>(typeCount);
+        ArrayList<String> interceptorNames = new ArrayList<>();
+        ArrayList<String> evaluatorNames = new ArrayList<>();
+        ArrayList<String> operationNames = new ArrayList<>();
+
+        for (int i = 0; i < typeCount; i++) {
+            String name = "Bean" + i;
+            int superIndex = i > 0 && random.nextDouble() < subclassRatio ? random.nextInt(i) : -1;
+            if (superIndex >= 0 && depths[superIndex] >= maxDepth)
+                superIndex = -1;
+            depths[i] = superIndex >= 0 ? depths[superIndex] + 1 : 0;
+
+            int propertyCount = minProperties + random.nextInt(maxProperties - minProperties + 1);
+            String[] propertyNames = new String[propertyCount];
+            for (int j = 0; j < propertyCount; j++)
+                propertyNames[j] = "t" + i + "p" + j;
+
+            sources.add(write(sourceDir, name, generateBean(name, superIndex >= 0 ? "Bean" + superIndex : null, propertyNames, random)));
+            beanNames.add(PACKAGE + '.' + name);
+
+            if (random.nextDouble() < interceptorRatio) {
+                // every fourth interceptor has a pattern instead of a property name
+                String pattern = interceptorNames.size() % 4 == 3 ? "t" + i + "p1*" : propertyNames[random.nextInt(propertyCount)];
+                sources.add(write(sourceDir, name + "Interceptor", generateInterceptor(name, pattern)));
+                interceptorNames.add(PACKAGE + '.' + name + "Interceptor");
+            }
+
+            if (random.nextDouble() < evaluatorRatio) {
+                // every second evaluator evaluates a property instead of the bean
+                String property = evaluatorNames.size() % 2 == 1 ? propertyNames[random.nextInt(propertyCount)] : null;
+                sources.add(write(sourceDir, name + "Evaluator", generateEvaluator(name, property)));
+                evaluatorNames.add(PACKAGE + '.' + name + "Evaluator");
+            }
+
+            if (random.nextDouble() < operationRatio) {
+                // the operations are type, bean and property operations in turn
+                String kind = OPERATION_KINDS[operationNames.size() % OPERATION_KINDS.length];
+                sources.add(write(sourceDir, name + kind, generateOperation(name, kind)));
+                operationNames.add(PACKAGE + '.' + name + kind);
+            }
+        }
+
+        long start = System.nanoTime();
+        compile(sources, classesDir);
+        long compileNanos = System.nanoTime() - start;
+
+        URLClassLoader loader = new URLClassLoader(new URL[] {classesDir.toUri().toURL()}, SyntheticBeanGenerator.class.getClassLoader());
+        try {
+            return new SyntheticModel(dir, loader, load(beanNames, loader), load(interceptorNames, loader), load(evaluatorNames, loader),
+                                      load(operationNames, loader), compileNanos);
+        }
+        catch (ClassNotFoundException e) {
+            loader.close();
+            throw new IOException("Failed to load the synthetic beans", e);
+        }
+    }
+
+    @NonNull
+    private String generateBean(@NonNull String name, String superName, @NonNull String[] propertyNames, @NonNull Random random) {
+        StringBuilder source = new StringBuilder(propertyNames.length * 160);
+        source.append("package ").append(PACKAGE).append(";\n\n")
+              .append("import gras.presley.metadata.BeanClass;\n")
+              .append("import gras.presley.metadata.BeanProp;\n\n")
+              .append("@BeanClass(label = \"").append(name).append("\")\n")
+              .append("public class ").append(name);
+        if (superName != null)
+            source.append(" extends ").append(superName);
+        source.append(" {\n");
+
+        for (String property: propertyNames) {
+            String type = PROPERTY_TYPES[random.nextInt(PROPERTY_TYPES.length)];
+            if (random.nextDouble() < getterRatio) {
+                String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+                source.append("\n    private ").append(type).append(' ').append(property).append(";\n")
+                      .append("\n    @BeanProp\n")
+                      .append("    public ").append(type).append(" get").append(suffix).append("() {\n")
+                      .append("        return ").append(property).append(";\n")
+                      .append("    }\n")
+                      .append("\n    public void set").append(suffix).append('(').append(type).append(" value) {\n")
+                      .append("        ").append(property).append(" = value;\n")
+                      .append("    }\n");
+            }
+            else {
+                source.append("\n    @BeanProp\n")
+                      .append("    public ").append(type).append(' ').append(property).append(";\n");
+            }
+        }
+        return source.append("}\n").toString();
+    }
+
+    @NonNull
+    private static String generateInterceptor(@NonNull String beanName, @NonNull String pattern) {
+        return "package " + PACKAGE + ";\n\n" +
+               "import gras.presley.interceptor.*;\n\n" +
+               "public class " + beanName + "Interceptor implements PropertyInterceptor<" + beanName + ", Object> {\n\n" +
+               "    @Override\n" +
+               "    @InterceptorDef\n" +
+               "    @PropertyInterceptorDef(names = \"" + pattern + "\")\n" +
+               "    public void intercept(PropertyInvocation<" + beanName + ", Object> invocation) throws Exception {\n" +
+               "        invocation.proceed();\n" +
+               "    }\n" +
+               "}\n";
+    }
+
+    @NonNull
+    private static String generateEvaluator(@NonNull String beanName, String property) {
+        return "package " + PACKAGE + ";\n\n" +
+               "import gras.presley.evaluator.*;\n" +
+               "import gras.presley.interceptor.PropertyDef;\n\n" +
+               "public class " + beanName + "Evaluator implements Evaluator<" + beanName + ", Object> {\n\n" +
+               "    @Override\n" +
+               "    @EvaluatorDef(states = {EvaluatedState.VISIBLE, EvaluatedState.EDITABLE})\n" +
+               (property != null ? "    @PropertyDef(name = \"" + property + "\")\n" : "") +
+               "    public boolean evaluateState(EvaluationContext<" + beanName + ", Object> ctx) {\n" +
+               "        return ctx.getState().getDefault();\n" +
+               "    }\n" +
+               "}\n";
+    }
+
+    @NonNull
+    private static String generateOperation(@NonNull String beanName, @NonNull String kind) {
+        String signature;
+        switch (kind) {
+            case "TypeOperation":
+                signature = "TypeOperation<" + beanName + "> {\n\n" +
+                            "    @Override\n" +
+                            "    public Object process() {\n" +
+                            "        return new " + beanName + "();\n";
+                break;
+            case "BeanOperation":
+                signature = "BeanOperation<" + beanName + "> {\n\n" +
+                            "    @Override\n" +
+                            "    public Object process(" + beanName + " bean) {\n" +
+                            "        return bean;\n";
+                break;
+            default:
+                signature = "PropertyOperation<" + beanName + ", Object> {\n\n" +
+                            "    @Override\n" +
+                            "    public Object process(" + beanName + " bean, gras.presley.metadata.PlainBeanProp<" + beanName + ", Object> property) {\n" +
+                            "        return bean;\n";
+        }
+        return "package " + PACKAGE + ";\n\n" +
+               "import gras.presley.operation.*;\n\n" +
+               "public class " + beanName + kind + " implements " + signature +
+               "    }\n" +
+               "}\n";
+    }
+
+    @NonNull
+    private static File write(@NonNull Path sourceDir, @NonNull String name, @NonNull String source) throws IOException {
+        Path file = sourceDir.resolve(name + ".java");
+        Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    private void compile(@NonNull List<File> sources, @NonNull Path classesDir) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null)
+            throw new IllegalStateException("The synthetic beans can be compiled on a JDK only");
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = new ArrayList<>(Arrays.asList("-d", classesDir.toString(), "-classpath", System.getProperty("java.class.path")));
+            options.addAll(generatedMetadata ? Arrays.asList("-processor", "gras.presley.apt.PresleyProcessor") : Arrays.asList("-proc:none"));
+
+            if (!compiler.getTask(null, fileManager, diagnostics, options, null, fileManager.getJavaFileObjectsFromFiles(sources)).call())
+                throw new IOException("Failed to compile the synthetic beans: " + diagnostics.getDiagnostics());
+        }
+    }
+
+    @NonNull
+    private static List<Class<?>> load(@NonNull List<String> classNames, @NonNull ClassLoader loader) throws ClassNotFoundException {
+        ArrayList<Class<?>> classes = new ArrayList<>(classNames.size());
+        for (String className: classNames)
+            classes.add(Class.forName(className, false, loader));
+        return classes;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * SyntheticModel
+ * Create Date: 2020. 04. 14.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.evaluator.Evaluator;
+import gras.presley.interceptor.PropertyInterceptor;
+import gras.presley.operation.BeanOperation;
+import gras.presley.operation.PropertyOperation;
+import gras.presley.operation.TypeOperation;
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The compiled types of {@link SyntheticBeanGenerator}. Closing the model closes its class loader and deletes the generated files.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class SyntheticModel implements Closeable {
+
+    @NonNull private final Path dir;
+    @NonNull private final URLClassLoader loader;
+    @NonNull private final List<Class<?>> beanClasses;
+    @NonNull private final List<Class<?>> interceptorClasses;
+    @NonNull private final List<Class<?>> evaluatorClasses;
+    @NonNull private final List<Class<?>> operationClasses;
+    private final long compileNanos;
+
+    SyntheticModel(@NonNull Path dir, @NonNull URLClassLoader loader,
+                   @NonNull List<Class<?>> beanClasses, @NonNull List<Class<?>> interceptorClasses, @NonNull List<Class<?>> evaluatorClasses,
+                   @NonNull List<Class<?>> operationClasses, long compileNanos) {
+        this.dir = dir;
+        this.loader = loader;
+        this.beanClasses = Collections.unmodifiableList(beanClasses);
+        this.interceptorClasses = Collections.unmodifiableList(interceptorClasses);
+        this.evaluatorClasses = Collections.unmodifiableList(evaluatorClasses);
+        this.operationClasses = Collections.unmodifiableList(operationClasses);
+        this.compileNanos = compileNanos;
+    }
+
+    /**
+     * The generated bean classes, the super classes are before their sub classes.
+     */
+    @NonNull
+    public List<Class<?>> getBeanClasses() {
+        return beanClasses;
+    }
+
+    @NonNull
+    public List<Class<?>> getInterceptorClasses() {
+        return interceptorClasses;
+    }
+
+    @NonNull
+    public List<Class<?>> getEvaluatorClasses() {
+        return evaluatorClasses;
+    }
+
+    /**
+     * The generated type, bean and property operations.
+     */
+    @NonNull
+    public List<Class<?>> getOperationClasses() {
+        return operationClasses;
+    }
+
+    public long getCompileNanos() {
+        return compileNanos;
+    }
+
+    /**
+     * Registers a new instance of the generated interceptors and evaluators, and the generated operations in the context.
+     */
+    @SuppressWarnings("unchecked")
+    public void register(@NonNull BenchmarkContext context) {
+        try {
+            for (Class<?> clazz: interceptorClasses)
+                context.getInterceptors().addPropertyInterceptor((PropertyInterceptor<?, ?>) clazz.newInstance());
+            for (Class<?> clazz: evaluatorClasses)
+                context.getEvaluators().addEvaluator((Evaluator<?, ?>) clazz.newInstance());
+            for (Class<?> clazz: operationClasses) {
+                if (TypeOperation.class.isAssignableFrom(clazz))
+                    context.getOperations().addTypeOperation((Class<TypeOperation<Object>>) clazz);
+                else if (BeanOperation.class.isAssignableFrom(clazz))
+                    context.getOperations().addBeanOperation((Class<BeanOperation<Object>>) clazz);
+                else
+                    context.getOperations().addPropertyOperation((Class<PropertyOperation<Object, Object>>) clazz);
+            }
+        }
+        catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Failed to instantiate the synthetic interceptors and evaluators", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        loader.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return beanClasses.size() + " synthetic beans, " + interceptorClasses.size() + " interceptors, " + evaluatorClasses.size() + " evaluators, " +
+               operationClasses.size() + " operations";
+    }
+}
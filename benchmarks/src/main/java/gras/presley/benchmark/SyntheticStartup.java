@@ -0,0 +1,121 @@
+/*
+ * SyntheticStartup
+ * Create Date: 2020. 04. 14.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.StateManager;
+import gras.presley.interceptor.InterceptorManager;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PreloadReport;
+import gras.presley.metadata.TypeManager;
+import gras.presley.operation.OperationManager;
+import lombok.NonNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the startup cost of a synthetic model: the time and the retained heap per type of building the types,
+ * the property lists, the interceptor chains, the evaluator lists and the operation lists, then the time of the parallel preload.
+ *
+ * <p> It runs once in a fresh JVM, like the startup of an application, which is not measured well by JMH.
+ * The retained heap is the difference of the used heap after full collections, so it is an estimate.
+ * <pre>
+ *     gradlew :benchmarks:syntheticStartup [-Pargs="&lt;types&gt; [reflection|generated]"]
+ * </pre>
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class SyntheticStartup {
+
+    private SyntheticStartup() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        SyntheticBeanGenerator generator = new SyntheticBeanGenerator();
+        if (args.length > 0)
+            generator.setTypeCount(Integer.parseInt(args[0]));
+        boolean generated = args.length > 1 && args[1].equals("generated");
+        generator.setGeneratedMetadata(generated);
+
+        try (SyntheticModel model = generator.generate()) {
+            List<Class<?>> classes = model.getBeanClasses();
+            int n = classes.size();
+            System.out.println(model + (generated ? " with generated metadata" : " with reflection") +
+                               ", compiled in " + model.getCompileNanos() / 1000000 + " ms");
+
+            BenchmarkContext context = BenchmarkContext.install();
+            model.register(context);
+            InterceptorManager interceptorManager = ApplicationContext.getInterceptorManager();
+            StateManager stateManager = ApplicationContext.getStateManager();
+            OperationManager operationManager = ApplicationContext.getOperationManager();
+            ArrayList<BeanType<?>> types = new ArrayList<>(n);
+
+            long heap = usedHeap();
+            long start = System.nanoTime();
+            for (Class<?> clazz: classes)
+                types.add((BeanType<?>) TypeManager.forClass(clazz));
+            start = report("types", n, start, heap);
+
+            heap = usedHeap();
+            start = System.nanoTime();
+            for (BeanType<?> type: types) {
+                type.getProperties();
+                type.getAccessor();
+            }
+            start = report("properties", n, start, heap);
+
+            heap = usedHeap();
+            start = System.nanoTime();
+            for (BeanType<?> type: types)
+                interceptorManager.preload(type);
+            start = report("interceptor chains", n, start, heap);
+
+            heap = usedHeap();
+            start = System.nanoTime();
+            for (BeanType<?> type: types)
+                stateManager.preload(type);
+            start = report("evaluator lists", n, start, heap);
+
+            heap = usedHeap();
+            start = System.nanoTime();
+            for (BeanType<?> type: types)
+                operationManager.preload(type);
+            report("operation lists", n, start, heap);
+
+            context.resetTypes();
+            PreloadReport preload = TypeManager.preload(classes);
+            System.out.printf("parallel preload of new types: %d ms, %d failures%n", preload.getElapsedNanos() / 1000000, preload.getFailures().size());
+
+            ArrayList<Map.Entry<Class<?>, Long>> timings = new ArrayList<>(preload.getTimings().entrySet());
+            timings.sort(Map.Entry.<Class<?>, Long>comparingByValue().reversed());
+            for (Map.Entry<Class<?>, Long> timing: timings.subList(0, Math.min(5, timings.size())))
+                System.out.printf("  slowest %s (%d properties): %d us%n", timing.getKey().getSimpleName(),
+                                  ((BeanType<?>) TypeManager.forClass(timing.getKey())).getProperties().size(), timing.getValue() / 1000);
+        }
+    }
+
+    /**
+     * Prints the elapsed time and the retained heap per type of a phase.
+     * @return the start of the next phase
+     */
+    private static long report(@NonNull String phase, int types, long start, long heapBefore) {
+        long nanos = System.nanoTime() - start;
+        long retained = usedHeap() - heapBefore;
+        System.out.printf("%-20s %8d ms %8d us/type %8d bytes/type%n", phase, nanos / 1000000, nanos / 1000 / types, retained / types);
+        return System.nanoTime();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * TeamPropertyOperation
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.example.bean.Team;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.operation.PropertyOperation;
+
+/**
+ * Property operation of the {@link Team} properties, so the property operation lookup has a matching operation,
+ * the example has type and bean operations only.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class TeamPropertyOperation implements PropertyOperation<Team, String> {
+
+    @Override
+    public Object process(Team team, PlainBeanProp<Team, String> propertyMetadata) {
+        return propertyMetadata.getValue(team);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * TypeManagerBenchmark
+ * Create Date: 2020. 04. 13.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.benchmark;
+
+import gras.presley.metadata.TypeManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gets the type of a class, {@link TypeManager#forClass(Class)}, when it is already built (warm),
+ * and builds the type with its property list from scratch (cold). The cold case uses a new type manager
+ * for each invocation, the class loading and the reflection caches of the JVM stay warm.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypeManagerBenchmark {
+
+    @Param({"Person", "WideBean10", "WideBean100", "WideBean500"})
+    public String bean;
+
+    private Class<?> beanClass;
+
+    @Setup
+    public void setup() {
+        BenchmarkContext.install();
+        beanClass = Beans.beanClass(bean);
+        TypeManager.forClass(beanClass).toString();
+    }
+
+    @Benchmark
+    public Object forClassWarm() {
+        return TypeManager.forClass(beanClass);
+    }
+
+    /**
+     * The types are shared by all threads, the lookup must scale with the cores.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object forClassWarmContended() {
+        return TypeManager.forClass(beanClass);
+    }
+
+    @Benchmark
+    public Object forClassCold(ColdTypes cold) {
+        return TypeManager.forClass(beanClass);
+    }
+
+    @Benchmark
+    public Object buildPropertiesCold(ColdTypes cold) {
+        return Beans.beanType(bean).getProperties();
+    }
+
+    @State(Scope.Thread)
+    public static class ColdTypes {
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            BenchmarkContext.current().resetTypes();
+        }
+    }
+}
@@ -10,12 +10,22 @@ import gras.berry.collection.ExtendedArray;
 import gras.berry.collection.ReadOnlyList;
 import lombok.NonNull;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.*;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * Convenience utils of reflective class access.
@@ -27,8 +37,39 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class ReflectionUtils {
 
-    private static final ConcurrentHashMap<Class, ReadOnlyList<Method>> implementedMethods = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<Class, ReadOnlyList<Field>> declaredFields = new ConcurrentHashMap<>();
+    /** Marks the classes of the parent class loaders in the caches, a system class does not refer to the framework. */
+    private static final Object PARENT_CLASS = Boolean.TRUE;
+    /** the parent class loaders of the framework */
+    private static final Set<ClassLoader> parentLoaders = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Caches are stored along with the classes by the JVM, they do not prevent class unloading.
+     * <p> The classes of the parent class loaders, e.g. the JDK classes, are marked with {@link #PARENT_CLASS} only,
+     * their lists would keep the framework alive as long as these classes live. Their lists are cached in plain maps,
+     * these classes outlive the framework anyway.
+     */
+    private static final ClassValue<Object> implementedMethods = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> clazz) {
+            return isParentClass(clazz) ? PARENT_CLASS : getImplementedMethodsImpl(clazz);
+        }
+    };
+    private static final ClassValue<Object> declaredFields = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> clazz) {
+            return isParentClass(clazz) ? PARENT_CLASS : getDeclaredFieldsImpl(clazz);
+        }
+    };
+    private static final ConcurrentHashMap<Class<?>, ReadOnlyList<Method>> parentImplementedMethods = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, ReadOnlyList<Field>> parentDeclaredFields = new ConcurrentHashMap<>();
+
+    static {
+        for (ClassLoader loader = ReflectionUtils.class.getClassLoader(); loader != null; ) {
+            loader = loader.getParent();
+            if (loader != null)
+                parentLoaders.add(loader);
+        }
+    }
 
     /**
      * static methods only.
@@ -43,14 +84,14 @@ public class ReflectionUtils {
      * @param clazz the non null class in which to search
      */
     @NonNull
+    @SuppressWarnings("unchecked")
     public static ReadOnlyList<Method> getImplementedMethods(@NonNull Class clazz) {
-        ReadOnlyList<Method> methods = implementedMethods.get(clazz);
-        if (methods != null)
-            return methods;
+        Object methods = implementedMethods.get(clazz);
+        if (methods != PARENT_CLASS)
+            return (ReadOnlyList<Method>) methods;
 
-        methods = getImplementedMethodsImpl(clazz);
-        implementedMethods.put(clazz, methods);
-        return methods;
+        ReadOnlyList<Method> parentMethods = parentImplementedMethods.get(clazz);
+        return parentMethods != null ? parentMethods : parentImplementedMethods.computeIfAbsent(clazz, ReflectionUtils::getImplementedMethodsImpl);
     }
 
     @NonNull
@@ -103,8 +144,8 @@ public class ReflectionUtils {
         if (paramTypes == null || paramTypes.length == 0)
             for (int idx = 0, n = list.size(); idx < n; idx++) {
                 Method m = list.get(idx);
-                if (methodName.equals(m.getName()))
-                    return res;
+                if (!methodName.equals(m.getName()))
+                    continue;
                 if (m.getParameterTypes().length != 0)
                     continue;
                 if (res == null || (m.getDeclaringClass() == clazz && res.getReturnType().isAssignableFrom(m.getReturnType())))
@@ -115,8 +156,8 @@ public class ReflectionUtils {
             outer:
             for (int idx = 0, n = list.size(); idx < n; idx++) {
                 Method m = list.get(idx);
-                if (methodName.equals(m.getName()))
-                    return res;
+                if (!methodName.equals(m.getName()))
+                    continue;
                 Class[] pt = m.getParameterTypes();
                 if (pt.length != pn)
                     continue;
@@ -139,14 +180,22 @@ public class ReflectionUtils {
      * This is not done here, because accessible fields can be less optimized, so we do not want to make all of them accessible.
      * @param clazz the class in which to start search.
      */
+    @SuppressWarnings("unchecked")
     public static ReadOnlyList<Field> getDeclaredFields(@NonNull Class clazz) {
-        ReadOnlyList<Field> fields = declaredFields.get(clazz);
-        if (fields != null)
-            return fields;
+        Object fields = declaredFields.get(clazz);
+        if (fields != PARENT_CLASS)
+            return (ReadOnlyList<Field>) fields;
+
+        ReadOnlyList<Field> parentFields = parentDeclaredFields.get(clazz);
+        return parentFields != null ? parentFields : parentDeclaredFields.computeIfAbsent(clazz, ReflectionUtils::getDeclaredFieldsImpl);
+    }
 
-        fields = getDeclaredFieldsImpl(clazz);
-        declaredFields.put(clazz, fields);
-        return fields;
+    /**
+     * Checks if the class is loaded by the bootstrap class loader or by a parent of the class loader of the framework.
+     */
+    private static boolean isParentClass(@NonNull Class<?> clazz) {
+        ClassLoader loader = clazz.getClassLoader();
+        return loader == null || parentLoaders.contains(loader);
     }
 
     @NonNull
@@ -174,6 +223,90 @@ public class ReflectionUtils {
         return null;
     }
 
+    /**
+     * Instantiates the class generated for the given class at compile time, e.g. by an annotation processor.
+     * The generated class must be named as the binary name of the given class plus the suffix, must be loadable
+     * by the class loader of the given class and must have a public no-arg constructor.
+     * @param clazz the class for which the code was generated
+     * @param suffix the non null suffix of the generated class name
+     * @return the new instance or {@code null} if no such class was generated
+     */
+    public static Object newGeneratedInstance(@NonNull Class<?> clazz, @NonNull String suffix) {
+        ClassLoader loader = clazz.getClassLoader();
+        if (loader == null)
+            // JDK classes have no generated companions
+            return null;
+
+        Class<?> generated;
+        try {
+            generated = Class.forName(clazz.getName() + suffix, true, loader);
+        }
+        catch (ClassNotFoundException e) {
+            return null;
+        }
+
+        try {
+            return generated.newInstance();
+        }
+        catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Generated class " + generated.getName() + " can not be instantiated", e);
+        }
+    }
+
+    /**
+     * Lists the names of all classes in the given package and its sub-packages, as visible by the given class loader.
+     * Directory and jar class path entries are scanned, the classes are not loaded.
+     * @param loader the class loader to get the class path entries of the package from
+     * @param packageName the non null package name, e.g. {@code "gras.presley"}
+     * @return non null read only list of the binary class names, including the nested classes
+     */
+    @NonNull
+    public static ReadOnlyList<String> getPackageClassNames(@NonNull ClassLoader loader, @NonNull String packageName) {
+        String path = packageName.replace('.', '/');
+        ExtendedArray<String> result = new ExtendedArray<>();
+        try {
+            Enumeration<URL> resources = loader.getResources(path);
+            while (resources.hasMoreElements()) {
+                URL url = resources.nextElement();
+                if ("file".equals(url.getProtocol()))
+                    addDirectoryClassNames(new File(URLDecoder.decode(url.getPath(), "UTF-8")), packageName, result);
+                else if ("jar".equals(url.getProtocol())) {
+                    JarURLConnection connection = (JarURLConnection) url.openConnection();
+                    connection.setUseCaches(false);
+                    try (JarFile jar = connection.getJarFile()) {
+                        for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                            String name = entries.nextElement().getName();
+                            if (name.startsWith(path + '/') && isClassFile(name))
+                                result.add(name.substring(0, name.length() - 6).replace('/', '.'));
+                        }
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Failed to scan package " + packageName, e);
+        }
+        return new ReadOnlyList<>(result);
+    }
+
+    private static void addDirectoryClassNames(@NonNull File dir, @NonNull String packageName, @NonNull ExtendedArray<String> result) {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+
+        for (File file: files) {
+            String name = file.getName();
+            if (file.isDirectory())
+                addDirectoryClassNames(file, packageName + '.' + name, result);
+            else if (isClassFile(name))
+                result.add(packageName + '.' + name.substring(0, name.length() - 6));
+        }
+    }
+
+    private static boolean isClassFile(@NonNull String name) {
+        return name.endsWith(".class") && !name.endsWith("package-info.class") && !name.endsWith("module-info.class");
+    }
+
     /**
      * Return the getter name of a simple property name. Prefixes the property name with "get" plus
      * capitalizes the first letter of the property name.
@@ -0,0 +1,281 @@
+/*
+ * ConcurrentWeakIdentityHashMap
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.berry.collection;
+
+import lombok.NonNull;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * The thread safe variant of {@link WeakIdentityHashMap}: a hash map with weakly referenced keys, which compares the keys by identity.
+ *
+ * <p> The map is split to segments by the hash of the keys. The reads do not lock, the modifications lock only the segment
+ * of the key. The links of the entries are final, so a modification copies the entries before the changed one instead of
+ * relinking them, and a concurrent reader sees either the old or the new chain. The entries of the garbage collected keys
+ * are removed on the next modification of their segment. Only the basic map operations are supported,
+ * {@code null} keys and values are not.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class ConcurrentWeakIdentityHashMap<_K, _V> {
+
+    private static final int SEGMENT_BITS = 4;
+
+    @NonNull private final Segment<_K, _V>[] segments = newSegments(1 << SEGMENT_BITS);
+
+    public ConcurrentWeakIdentityHashMap() {
+        this(16);
+    }
+
+    public ConcurrentWeakIdentityHashMap(int initialCapacity) {
+        int capacity = Math.max(initialCapacity >> SEGMENT_BITS, 2);
+        for (int i = 0; i < segments.length; i++)
+            segments[i] = new Segment<>(capacity);
+    }
+
+    /**
+     * Number of the entries, including the ones of the collected keys which are not removed yet.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<_K, _V> segment : segments)
+            size += segment.size;
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public _V get(@NonNull Object key) {
+        int hash = System.identityHashCode(key);
+        return segmentFor(hash).get(key, hash);
+    }
+
+    /**
+     * Associates the value with the key.
+     * @return the previous value of the key or {@code null}
+     */
+    public _V put(@NonNull _K key, @NonNull _V value) {
+        int hash = System.identityHashCode(key);
+        return segmentFor(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * Associates the value with the key, unless the key has a value already.
+     * @return the current value of the key or {@code null} if the given value was associated
+     */
+    public _V putIfAbsent(@NonNull _K key, @NonNull _V value) {
+        int hash = System.identityHashCode(key);
+        return segmentFor(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * Replaces the value of the key, if it is the given value.
+     * @return if the value was replaced
+     */
+    public boolean replace(@NonNull _K key, @NonNull _V oldValue, @NonNull _V newValue) {
+        int hash = System.identityHashCode(key);
+        return segmentFor(hash).replace(key, hash, oldValue, newValue);
+    }
+
+    /**
+     * Removes the entry of the key.
+     * @return the value of the key or {@code null}
+     */
+    public _V remove(@NonNull Object key) {
+        int hash = System.identityHashCode(key);
+        return segmentFor(hash).remove(key, hash);
+    }
+
+    public void clear() {
+        for (Segment<_K, _V> segment : segments)
+            segment.clear();
+    }
+
+    /**
+     * Removes the entries of the garbage collected keys.
+     */
+    public void expungeStaleEntries() {
+        for (Segment<_K, _V> segment : segments)
+            segment.expunge();
+    }
+
+    @NonNull
+    private Segment<_K, _V> segmentFor(int hash) {
+        // the low bits select the bucket in the segment, so the segment is selected by the mixed high bits
+        return segments[(hash * 0x9E3779B9) >>> (32 - SEGMENT_BITS)];
+    }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    private static <_K, _V> Segment<_K, _V>[] newSegments(int length) {
+        return (Segment<_K, _V>[]) new Segment<?, ?>[length];
+    }
+
+    private static final class Segment<_K, _V> {
+
+        @NonNull private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        /** written after every modification, so the readers see the complete entries */
+        @NonNull private volatile Entry<_K, _V>[] table;
+        private volatile int size;
+
+        Segment(int initialCapacity) {
+            table = newTable(Integer.highestOneBit(initialCapacity * 2 - 1));
+        }
+
+        _V get(@NonNull Object key, int hash) {
+            Entry<_K, _V>[] table = this.table;
+            for (Entry<_K, _V> e = table[hash & table.length - 1]; e != null; e = e.next)
+                if (e.hash == hash && e.get() == key)
+                    return e.value;
+            return null;
+        }
+
+        synchronized _V put(@NonNull _K key, int hash, @NonNull _V value, boolean onlyIfAbsent) {
+            Entry<_K, _V>[] table = expungeStaleEntries();
+            int i = hash & table.length - 1;
+            for (Entry<_K, _V> e = table[i]; e != null; e = e.next) {
+                if (e.hash == hash && e.get() == key) {
+                    _V old = e.value;
+                    if (!onlyIfAbsent)
+                        e.value = value;
+                    return old;
+                }
+            }
+
+            if (size + 1 > table.length * 3 / 4) {
+                table = rehash(table);
+                i = hash & table.length - 1;
+            }
+            table[i] = new Entry<>(key, value, hash, table[i], queue);
+            size++;
+            this.table = table;
+            return null;
+        }
+
+        synchronized boolean replace(@NonNull _K key, int hash, @NonNull _V oldValue, @NonNull _V newValue) {
+            Entry<_K, _V>[] table = expungeStaleEntries();
+            for (Entry<_K, _V> e = table[hash & table.length - 1]; e != null; e = e.next) {
+                if (e.hash == hash && e.get() == key) {
+                    if (e.value != oldValue)
+                        return false;
+                    e.value = newValue;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized _V remove(@NonNull Object key, int hash) {
+            Entry<_K, _V>[] table = expungeStaleEntries();
+            int i = hash & table.length - 1;
+            for (Entry<_K, _V> e = table[i]; e != null; e = e.next) {
+                if (e.hash == hash && e.get() == key) {
+                    table[i] = unlink(table[i], e);
+                    this.table = table;
+                    return e.value;
+                }
+            }
+            return null;
+        }
+
+        synchronized void clear() {
+            while (queue.poll() != null)
+                ;
+            table = newTable(table.length);
+            size = 0;
+        }
+
+        synchronized void expunge() {
+            expungeStaleEntries();
+        }
+
+        /**
+         * Removes the entries of the garbage collected keys. Must be called with the lock of the segment.
+         * @return the current table
+         */
+        @NonNull
+        private Entry<_K, _V>[] expungeStaleEntries() {
+            Entry<_K, _V>[] table = this.table;
+            boolean modified = false;
+            for (Object ref; (ref = queue.poll()) != null; ) {
+                Entry<?, ?> stale = (Entry<?, ?>) ref;
+                int i = stale.hash & table.length - 1;
+                // the entry may be replaced by a copy already, the copy is queued on its own
+                for (Entry<_K, _V> e = table[i]; e != null; e = e.next) {
+                    if (e == stale) {
+                        table[i] = unlink(table[i], e);
+                        modified = true;
+                        break;
+                    }
+                }
+            }
+            if (modified)
+                this.table = table;
+            return table;
+        }
+
+        /**
+         * Copies the entries of the chain before the removed entry, the entries after it are shared.
+         * The entries of the collected keys are dropped while copying.
+         * @return the new head of the chain
+         */
+        private Entry<_K, _V> unlink(@NonNull Entry<_K, _V> head, @NonNull Entry<_K, _V> removed) {
+            Entry<_K, _V> chain = removed.next;
+            for (Entry<_K, _V> e = head; e != removed; e = e.next) {
+                Object key = e.get();
+                if (key != null)
+                    chain = new Entry<>(key, e.value, e.hash, chain, queue);
+                else
+                    size--;
+            }
+            size--;
+            return chain;
+        }
+
+        @NonNull
+        private Entry<_K, _V>[] rehash(@NonNull Entry<_K, _V>[] oldTable) {
+            Entry<_K, _V>[] newTable = newTable(oldTable.length * 2);
+            int mask = newTable.length - 1;
+            for (Entry<_K, _V> head : oldTable) {
+                for (Entry<_K, _V> e = head; e != null; e = e.next) {
+                    Object key = e.get();
+                    if (key == null) {
+                        size--;
+                        continue;
+                    }
+                    int i = e.hash & mask;
+                    newTable[i] = new Entry<>(key, e.value, e.hash, newTable[i], queue);
+                }
+            }
+            return newTable;
+        }
+
+        @SuppressWarnings("unchecked")
+        @NonNull
+        private static <_K, _V> Entry<_K, _V>[] newTable(int length) {
+            return (Entry<_K, _V>[]) new Entry<?, ?>[length];
+        }
+    }
+
+    private static final class Entry<_K, _V> extends WeakReference<Object> {
+
+        final int hash;
+        volatile _V value;
+        final Entry<_K, _V> next;
+
+        Entry(@NonNull Object key, _V value, int hash, Entry<_K, _V> next, @NonNull ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.value = value;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
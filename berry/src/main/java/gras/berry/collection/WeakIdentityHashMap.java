@@ -0,0 +1,174 @@
+/*
+ * WeakIdentityHashMap
+ * Create Date: 2020. 04. 05.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.berry.collection;
+
+import lombok.NonNull;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * A hash map with weakly referenced keys, which compares the keys by identity, like
+ * {@link java.util.WeakHashMap} and {@link java.util.IdentityHashMap} combined.
+ *
+ * <p> The entries of the garbage collected keys are removed on the next modification.
+ * Only the basic map operations are supported, {@code null} keys are not. Instances are not thread safe.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class WeakIdentityHashMap<_K, _V> {
+
+    @NonNull private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    @NonNull private Entry<_K, _V>[] table;
+    private int size;
+
+    public WeakIdentityHashMap() {
+        this(16);
+    }
+
+    public WeakIdentityHashMap(int initialCapacity) {
+        table = newTable(Integer.highestOneBit(Math.max(initialCapacity, 2) * 2 - 1));
+    }
+
+    /**
+     * Number of the entries, including the ones of the collected keys which are not removed yet.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public _V get(@NonNull Object key) {
+        int hash = System.identityHashCode(key);
+        for (Entry<_K, _V> e = table[hash & table.length - 1]; e != null; e = e.next)
+            if (e.hash == hash && e.get() == key)
+                return e.value;
+        return null;
+    }
+
+    public boolean containsKey(@NonNull Object key) {
+        int hash = System.identityHashCode(key);
+        for (Entry<_K, _V> e = table[hash & table.length - 1]; e != null; e = e.next)
+            if (e.hash == hash && e.get() == key)
+                return true;
+        return false;
+    }
+
+    /**
+     * Associates the value with the key.
+     * @return the previous value of the key or {@code null}
+     */
+    public _V put(@NonNull _K key, _V value) {
+        expungeStaleEntries();
+
+        int hash = System.identityHashCode(key);
+        int i = hash & table.length - 1;
+        for (Entry<_K, _V> e = table[i]; e != null; e = e.next) {
+            if (e.hash == hash && e.get() == key) {
+                _V old = e.value;
+                e.value = value;
+                return old;
+            }
+        }
+
+        table[i] = new Entry<>(key, value, hash, table[i], queue);
+        if (++size > table.length * 3 / 4)
+            resize();
+        return null;
+    }
+
+    /**
+     * Removes the entry of the key.
+     * @return the value of the key or {@code null}
+     */
+    public _V remove(@NonNull Object key) {
+        expungeStaleEntries();
+
+        int hash = System.identityHashCode(key);
+        int i = hash & table.length - 1;
+        Entry<_K, _V> prev = null;
+        for (Entry<_K, _V> e = table[i]; e != null; prev = e, e = e.next) {
+            if (e.hash == hash && e.get() == key) {
+                unlink(i, prev, e);
+                return e.value;
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        while (queue.poll() != null)
+            ;
+        table = newTable(table.length);
+        size = 0;
+    }
+
+    /**
+     * Removes the entries of the garbage collected keys.
+     */
+    public void expungeStaleEntries() {
+        for (Object ref; (ref = queue.poll()) != null; ) {
+            Entry<?, ?> stale = (Entry<?, ?>) ref;
+            int i = stale.hash & table.length - 1;
+            Entry<_K, _V> prev = null;
+            for (Entry<_K, _V> e = table[i]; e != null; prev = e, e = e.next) {
+                if (e == stale) {
+                    unlink(i, prev, e);
+                    stale.value = null;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void unlink(int i, Entry<_K, _V> prev, @NonNull Entry<_K, _V> e) {
+        if (prev == null)
+            table[i] = e.next;
+        else
+            prev.next = e.next;
+        size--;
+    }
+
+    private void resize() {
+        Entry<_K, _V>[] oldTable = table;
+        Entry<_K, _V>[] newTable = newTable(oldTable.length * 2);
+        int mask = newTable.length - 1;
+        for (Entry<_K, _V> head : oldTable) {
+            for (Entry<_K, _V> e = head, next; e != null; e = next) {
+                next = e.next;
+                int i = e.hash & mask;
+                e.next = newTable[i];
+                newTable[i] = e;
+            }
+        }
+        table = newTable;
+    }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    private static <_K, _V> Entry<_K, _V>[] newTable(int length) {
+        return (Entry<_K, _V>[]) new Entry<?, ?>[length];
+    }
+
+    private static final class Entry<_K, _V> extends WeakReference<Object> {
+
+        final int hash;
+        _V value;
+        Entry<_K, _V> next;
+
+        Entry(@NonNull _K key, _V value, int hash, Entry<_K, _V> next, @NonNull ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.value = value;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
@@ -20,6 +20,14 @@ import gras.presley.interceptor.PropertyDef;
  */
 public class PersonSEvaluator implements Evaluator<Person, Object> {
 
+    private static final User CURRENT_USER = new User(); // ctx.getApplicationContext().getCurrentUser() is not in this mockup
+
+    static {
+        CURRENT_USER.name = "Mike McCarthy";
+        CURRENT_USER.team = "Packers";
+        CURRENT_USER.teamManager = true;
+    }
+
     @Override
     @EvaluatorDef(states = {EvaluatedState.VISIBLE, EvaluatedState.EDITABLE})
     @PropertyDef(name = "weight")
@@ -35,12 +43,12 @@ public class PersonSEvaluator implements Evaluator<Person, Object> {
     }
 
     private boolean evaluateVisible(EvaluationContext<Person, Object> ctx) {
-        User currentUser = null; // ctx.getApplicationContext().getCurrentUser();
+        User currentUser = CURRENT_USER;
         return ctx.getBean().team.name.equals(currentUser.team);
     }
 
     private boolean evaluateEditable(EvaluationContext<Person, Object> ctx) {
-        User currentUser = null; // ctx.getApplicationContext().getCurrentUser();
+        User currentUser = CURRENT_USER;
         return ctx.getBean().team.name.equals(currentUser.team) && currentUser.teamManager;
     }
 }
@@ -6,8 +6,10 @@
  */
 package gras.presley.example.evaluator;
 
+import gras.presley.evaluator.EvaluatedState;
 import gras.presley.evaluator.EvaluationContext;
 import gras.presley.evaluator.Evaluator;
+import gras.presley.evaluator.EvaluatorDef;
 import gras.presley.evaluator.MessageSeverity;
 import gras.presley.example.bean.Person;
 
@@ -18,6 +20,7 @@ import gras.presley.example.bean.Person;
 public class PlayerMEvaluator implements Evaluator<Person, Object> {
 
     @Override
+    @EvaluatorDef(states = EvaluatedState.WARNINGS)
     public boolean evaluateState(EvaluationContext<Person, Object> ctx) {
         Person person = ctx.getBean();
         if (person.isPlayer && person.weight < 80)
@@ -7,16 +7,17 @@
 package gras.presley.example.interceptor;
 
 import gras.presley.example.bean.Person;
+import gras.presley.interceptor.BulkPropertyInterceptor;
+import gras.presley.interceptor.BulkPropertyInvocation;
 import gras.presley.interceptor.InterceptorDef;
 import gras.presley.interceptor.PropertyDef;
-import gras.presley.interceptor.PropertyInterceptor;
 import gras.presley.interceptor.PropertyInvocation;
 
 /**
  * @version $Revision$ $LastChangedDate$ 
  * @author $Author$
  */
-public class PersonNameInterceptor implements PropertyInterceptor<Person, String> {
+public class PersonNameInterceptor implements BulkPropertyInterceptor<Person, String> {
 
     @Override
     @InterceptorDef()
@@ -27,4 +28,13 @@ public class PersonNameInterceptor implements PropertyInterceptor<Person, String
         Person person = invocation.getBean();
         person.name = person.firstName + " " + person.lastName;
     }
+
+    @Override
+    public void interceptAll(BulkPropertyInvocation<Person> invocation) throws Exception {
+        invocation.proceed(); // call the next interceptor
+
+        // recompute the name only once if both the first and the last name are changed
+        Person person = invocation.getBean();
+        person.name = person.firstName + " " + person.lastName;
+    }
 }
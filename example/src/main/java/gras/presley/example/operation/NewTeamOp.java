@@ -14,7 +14,7 @@ import gras.presley.operation.TypeOperation;
  * @version $Revision$ $LastChangedDate$ 
  * @author $Author$
  */
-public class NewTeamOp implements TypeOperation {
+public class NewTeamOp implements TypeOperation<Team> {
 
     @Override
     public Object process() {
@@ -0,0 +1,377 @@
+/*
+ * BeanMetadataGenerator
+ * Create Date: 2020. 03. 29.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.apt;
+
+import gras.berry.ReflectionUtils;
+import lombok.NonNull;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Generates the {@code gras.presley.metadata.GeneratedBeanMetadata} implementation of bean classes.
+ *
+ * <p> The members are collected the same way as {@code TypeManager} does it reflectively:
+ * annotated getters first then annotated fields, starting with the bean class and going up to the super classes.
+ * The related getters, setters and fields are resolved as {@link ReflectionUtils} would do it.
+ *
+ * <p> The generated {@code Accessor} reads and writes the accessible members directly, with a switch on the property
+ * position, and implements the primitive specialized accessor interfaces too. It is also the bulk accessor of the bean,
+ * reading or writing all the members in straight line code. Members which are not accessible from the package
+ * of the bean get no generated accessor, those are linked at runtime.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class BeanMetadataGenerator extends MetadataGenerator {
+
+    private static final String BEAN_PROP = "gras.presley.metadata.BeanProp";
+    private static final String METADATA = "gras.presley.metadata.GeneratedBeanMetadata";
+    private static final String PROPERTY = "gras.presley.metadata.GeneratedProperty";
+    private static final String BOOLEAN_CONSUMER = "gras.presley.metadata.ObjBooleanConsumer";
+    private static final String ACCESSOR = "gras.presley.metadata.GeneratedAccessor";
+
+    BeanMetadataGenerator(@NonNull ProcessingEnvironment env) {
+        super(env);
+    }
+
+    @NonNull
+    @Override
+    String getClassSuffix() {
+        return "$BeanMetadata";
+    }
+
+    /**
+     * Classes having any {@code BeanProp} annotated field or getter in their hierarchy.
+     */
+    @Override
+    boolean supports(@NonNull TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS || elements.getTypeElement(METADATA) == null)
+            return false;
+
+        for (TypeElement t: getHierarchy(type))
+            for (Element e: t.getEnclosedElements())
+                if ((e.getKind() == ElementKind.FIELD || e.getKind() == ElementKind.METHOD) && getAnnotation(e, BEAN_PROP) != null)
+                    return true;
+        return false;
+    }
+
+    @Override
+    String generate(@NonNull TypeElement type, @NonNull String packageName, @NonNull String simpleName) {
+        String beanName = getSourceName(type.asType(), packageName);
+        if (beanName == null) {
+            note(type, "Bean metadata is not generated, the class is not accessible from its package");
+            return null;
+        }
+
+        List<Property> props = collectProperties(type);
+        for (Property prop: props) {
+            if (!prop.resolve(packageName)) {
+                note(type, "Bean metadata is not generated, a declaring class of property " + prop.name + " is not accessible");
+                return null;
+            }
+        }
+
+        StringBuilder b = header(packageName);
+        b.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        b.append("public final class ").append(simpleName).append(" implements ").append(METADATA).append('<').append(beanName).append("> {\n\n");
+
+        b.append("    private static final java.util.List<").append(PROPERTY).append("> PROPERTIES = java.util.Collections.unmodifiableList(java.util.Arrays.asList(");
+        for (int i = 0, n = props.size(); i < n; i++) {
+            Property prop = props.get(i);
+            b.append(i == 0 ? "\n" : ",\n");
+            b.append("        new ").append(PROPERTY).append('(').append(prop.fieldAnnotated).append(", ").append(prop.index).append(",\n");
+            b.append("            ").append(prop.fieldClass).append(", ").append(quote(prop.field != null ? prop.field.getSimpleName().toString() : null)).append(",\n");
+            b.append("            ").append(prop.getterClass).append(", ").append(quote(prop.getter != null ? prop.getter.getSimpleName().toString() : null)).append(",\n");
+            b.append("            ").append(prop.setterClass).append(", ").append(quote(prop.setter != null ? prop.setter.getSimpleName().toString() : null)).append(",\n");
+            b.append("            ").append(prop.readExpr != null ? "new Accessor(" + i + ')' : "null").append(", ")
+                                   .append(prop.writeStmt != null ? "new Accessor(" + i + ')' : "null").append(')');
+        }
+        b.append("));\n\n");
+
+        b.append("    @Override\n");
+        b.append("    public java.util.List<").append(PROPERTY).append("> getProperties() {\n");
+        b.append("        return PROPERTIES;\n");
+        b.append("    }\n\n");
+
+        appendAccessor(b, props);
+        b.append("}\n");
+        return b.toString();
+    }
+
+    /**
+     * Collects the annotated getters and fields in the order of the reflective property scan, skipping the duplicates.
+     */
+    @NonNull
+    private List<Property> collectProperties(@NonNull TypeElement type) {
+        List<TypeElement> hierarchy = getHierarchy(type);
+        List<Property> props = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        for (TypeElement t: hierarchy) {
+            for (ExecutableElement m: ElementFilter.methodsIn(t.getEnclosedElements())) {
+                String name = m.getSimpleName().toString();
+                if (m.getModifiers().contains(Modifier.STATIC) ||
+                    m.getReturnType().getKind() == TypeKind.VOID ||
+                    !m.getParameters().isEmpty() ||
+                    (!name.startsWith("get") && !name.startsWith("is")))
+                    continue;
+
+                AnnotationMirror anno = getAnnotation(m, BEAN_PROP);
+                if (anno == null)
+                    continue;
+
+                String propName = ReflectionUtils.getPropertyName(name);
+                if (names.add(propName))
+                    props.add(new Property(propName, false, (Integer) getAnnotationValue(anno, "index"),
+                                           findField(hierarchy, propName), m, findSetter(type, propName)));
+            }
+        }
+
+        for (TypeElement t: hierarchy) {
+            for (VariableElement f: ElementFilter.fieldsIn(t.getEnclosedElements())) {
+                AnnotationMirror anno = getAnnotation(f, BEAN_PROP);
+                if (anno == null)
+                    continue;
+
+                String propName = f.getSimpleName().toString();
+                if (names.add(propName))
+                    props.add(new Property(propName, true, (Integer) getAnnotationValue(anno, "index"),
+                                           f, findGetter(type, propName), findSetter(type, propName)));
+            }
+        }
+        return props;
+    }
+
+    /**
+     * Mirrors {@link ReflectionUtils#getPropertyGetter(Class, String)}.
+     */
+    private ExecutableElement findGetter(@NonNull TypeElement type, @NonNull String propName) {
+        ExecutableElement getter = findMethod(type, ReflectionUtils.getterPropertyName(propName));
+        if (getter == null)
+            getter = findMethod(type, ReflectionUtils.isGetterPropertyName(propName));
+        if (getter == null)
+            getter = findMethod(type, propName);
+        return getter;
+    }
+
+    /**
+     * Mirrors {@link ReflectionUtils#getPropertySetter(Class, String)}.
+     */
+    private ExecutableElement findSetter(@NonNull TypeElement type, @NonNull String propName) {
+        ExecutableElement getter = findGetter(type, propName);
+        return getter != null ? findMethod(type, ReflectionUtils.setterPropertyName(propName), getter.getReturnType()) : null;
+    }
+
+    /**
+     * Mirrors {@link ReflectionUtils#getDeclaredField(Class, String)}, which finds the farthest declaration.
+     */
+    private static VariableElement findField(@NonNull List<TypeElement> hierarchy, @NonNull String name) {
+        for (int i = hierarchy.size(); --i >= 0; ) {
+            List<VariableElement> fields = ElementFilter.fieldsIn(hierarchy.get(i).getEnclosedElements());
+            for (int j = fields.size(); --j >= 0; )
+                if (fields.get(j).getSimpleName().contentEquals(name))
+                    return fields.get(j);
+        }
+        return null;
+    }
+
+    /**
+     * Appends the accessor class implementing all value reader and writer interfaces and the bulk accessor.
+     */
+    private void appendAccessor(@NonNull StringBuilder b, @NonNull List<Property> props) {
+        b.append("    private static final class Accessor implements\n");
+        b.append("            java.util.function.Function<Object, Object>, java.util.function.BiConsumer<Object, Object>,\n");
+        b.append("            java.util.function.ToIntFunction<Object>, java.util.function.ObjIntConsumer<Object>,\n");
+        b.append("            java.util.function.ToLongFunction<Object>, java.util.function.ObjLongConsumer<Object>,\n");
+        b.append("            java.util.function.ToDoubleFunction<Object>, java.util.function.ObjDoubleConsumer<Object>,\n");
+        b.append("            java.util.function.Predicate<Object>, ").append(BOOLEAN_CONSUMER).append("<Object>,\n");
+        b.append("            ").append(ACCESSOR).append(" {\n\n");
+        b.append("        private final int id;\n\n");
+        b.append("        Accessor(int id) {\n");
+        b.append("            this.id = id;\n");
+        b.append("        }\n\n");
+
+        b.append("        @Override\n");
+        b.append("        public int getId() {\n");
+        b.append("            return id;\n");
+        b.append("        }\n\n");
+        b.append("        @Override\n");
+        b.append("        public int getPropertyCount() {\n");
+        b.append("            return ").append(props.size()).append(";\n");
+        b.append("        }\n\n");
+        appendBulkMethods(b, props);
+
+        appendMethod(b, props, "Object", "apply", "", null, "throw new UnsupportedOperationException();");
+        appendMethod(b, props, "void", "accept", "Object", null, "throw new UnsupportedOperationException();");
+
+        appendMethod(b, props, "int", "applyAsInt", "", TypeKind.INT, "return (Integer) apply(bean);");
+        appendMethod(b, props, "void", "accept", "int", TypeKind.INT, "accept(bean, (Object) value);");
+        appendMethod(b, props, "long", "applyAsLong", "", TypeKind.LONG, "return (Long) apply(bean);");
+        appendMethod(b, props, "void", "accept", "long", TypeKind.LONG, "accept(bean, (Object) value);");
+        appendMethod(b, props, "double", "applyAsDouble", "", TypeKind.DOUBLE, "return (Double) apply(bean);");
+        appendMethod(b, props, "void", "accept", "double", TypeKind.DOUBLE, "accept(bean, (Object) value);");
+        appendMethod(b, props, "boolean", "test", "", TypeKind.BOOLEAN, "return (Boolean) apply(bean);");
+        appendMethod(b, props, "void", "accept", "boolean", TypeKind.BOOLEAN, "accept(bean, (Object) value);");
+        b.setLength(b.length() - 1);
+        b.append("    }\n");
+    }
+
+    /**
+     * Appends the bulk reader and writer methods, which access all the generated members in order.
+     */
+    private static void appendBulkMethods(@NonNull StringBuilder b, @NonNull List<Property> props) {
+        b.append("        @Override\n");
+        b.append("        public void readAll(Object bean, Object[] values, int[] positions) {\n");
+        for (int i = 0, n = props.size(); i < n; i++) {
+            Property prop = props.get(i);
+            if (prop.readExpr != null)
+                b.append("            values[positions[").append(i).append("]] = ").append(prop.readExpr).append(";\n");
+        }
+        b.append("        }\n\n");
+
+        b.append("        @Override\n");
+        b.append("        public void writeAll(Object bean, Object[] values, int[] positions) {\n");
+        for (int i = 0, n = props.size(); i < n; i++) {
+            Property prop = props.get(i);
+            if (prop.writeStmt != null)
+                b.append("            ").append(String.format(prop.writeStmt, prop.writeCast + "values[positions[" + i + "]]")).append(";\n");
+        }
+        b.append("        }\n\n");
+    }
+
+    /**
+     * Appends one accessor method, with a case for each property having the requested kind.
+     * @param valueType the parameter type of writers, empty for readers
+     * @param kind the primitive kind or {@code null} for the generic accessors
+     * @param fallback the default branch
+     */
+    private static void appendMethod(@NonNull StringBuilder b, @NonNull List<Property> props,
+                                     @NonNull String returnType, @NonNull String name, @NonNull String valueType,
+                                     TypeKind kind, @NonNull String fallback) {
+        boolean reader = valueType.isEmpty();
+        b.append("        @Override\n");
+        b.append("        public ").append(returnType).append(' ').append(name).append("(Object bean")
+         .append(reader ? "" : ", " + valueType + " value").append(") {\n");
+        b.append("            switch (id) {\n");
+        for (int i = 0, n = props.size(); i < n; i++) {
+            Property prop = props.get(i);
+            if (reader && prop.readExpr != null && (kind == null || getAccessorKind(prop.readKind) == kind))
+                b.append("                case ").append(i).append(": return ").append(prop.readExpr).append(";\n");
+            else if (!reader && prop.writeStmt != null && (kind == null || getAccessorKind(prop.writeKind) == kind))
+                b.append("                case ").append(i).append(": ")
+                 .append(String.format(prop.writeStmt, kind == null ? prop.writeCast + "value"
+                         : prop.writeKind == kind ? "value" : '(' + prop.writeKind.name().toLowerCase(Locale.ROOT) + ") value")).append("; return;\n");
+        }
+        b.append("                default: ").append(fallback).append('\n');
+        b.append("            }\n");
+        b.append("        }\n\n");
+    }
+
+    /**
+     * Returns the kind of the primitive accessors of a member type, the narrower primitives are widened
+     * as in {@code PropertyAccessors.getAccessorType}.
+     */
+    private static TypeKind getAccessorKind(TypeKind kind) {
+        if (kind == TypeKind.SHORT || kind == TypeKind.BYTE || kind == TypeKind.CHAR)
+            return TypeKind.INT;
+        if (kind == TypeKind.FLOAT)
+            return TypeKind.DOUBLE;
+        return kind;
+    }
+
+    /**
+     * A bean property under generation.
+     */
+    private final class Property {
+
+        @NonNull final String name;
+        final boolean fieldAnnotated;
+        final int index;
+        final VariableElement field;
+        final ExecutableElement getter;
+        final ExecutableElement setter;
+
+        /** class literals of the declaring classes */
+        String fieldClass;
+        String getterClass;
+        String setterClass;
+
+        /** {@code null} if the value can not be read by generated code */
+        String readExpr;
+        /** value type kind of the reader */
+        TypeKind readKind;
+        /** format of the write statement with the value as the argument, {@code null} if the value can not be written by generated code */
+        String writeStmt;
+        /** the cast expression of the written boxed value */
+        String writeCast;
+        /** member type kind of the writer */
+        TypeKind writeKind;
+
+        Property(@NonNull String name, boolean fieldAnnotated, Integer index, VariableElement field, ExecutableElement getter, ExecutableElement setter) {
+            this.name = name;
+            this.fieldAnnotated = fieldAnnotated;
+            this.index = index != null ? index : -1;
+            this.field = field;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        /**
+         * Resolves the source fragments of the property.
+         * @return false if a declaring class can not be referenced from the package
+         */
+        boolean resolve(@NonNull String packageName) {
+            fieldClass = field != null ? getClassLiteral(field.getEnclosingElement().asType(), packageName) : "null";
+            getterClass = getter != null ? getClassLiteral(getter.getEnclosingElement().asType(), packageName) : "null";
+            setterClass = setter != null ? getClassLiteral(setter.getEnclosingElement().asType(), packageName) : "null";
+            if (fieldClass == null || getterClass == null || setterClass == null)
+                return false;
+
+            Element readMember = getter != null ? getter : field;
+            if (isAccessible(readMember, packageName)) {
+                readExpr = getTarget(readMember, packageName) + (getter != null ? "()" : "");
+                readKind = getter != null ? getter.getReturnType().getKind() : field.asType().getKind();
+            }
+
+            Element writeMember = setter != null ? setter : field;
+            if (writeMember != null && isAccessible(writeMember, packageName) && !writeMember.getModifiers().contains(Modifier.FINAL)) {
+                TypeMirror memberType = setter != null ? setter.getParameters().get(0).asType() : field.asType();
+                String typeName = getSourceName(memberType.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) memberType).asType() : memberType, packageName);
+                if (typeName != null) {
+                    writeStmt = getTarget(writeMember, packageName) + (setter != null ? "(%s)" : " = %s");
+                    writeCast = Object.class.getName().equals(typeName) ? "" : '(' + typeName + ") ";
+                    writeKind = memberType.getKind();
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the member access expression on the bean cast to the raw declaring class.
+         */
+        @NonNull
+        private String getTarget(@NonNull Element member, @NonNull String packageName) {
+            return "((" + getSourceName(member.getEnclosingElement().asType(), packageName) + ") bean)." + member.getSimpleName();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * EvaluatorMetadataGenerator
+ * Create Date: 2020. 03. 29.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.apt;
+
+import lombok.NonNull;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generates the {@code gras.presley.evaluator.GeneratedEvaluatorMetadata} implementation of evaluator classes,
+ * holding the states and the cacheable flag of the {@code EvaluatorDef} annotation and the names of the {@code PropertyDef}
+ * annotation of the evaluate method.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class EvaluatorMetadataGenerator extends MetadataGenerator {
+
+    private static final String PACKAGE = "gras.presley.evaluator.";
+    private static final String METADATA = PACKAGE + "GeneratedEvaluatorMetadata";
+
+    EvaluatorMetadataGenerator(@NonNull ProcessingEnvironment env) {
+        super(env);
+    }
+
+    @NonNull
+    @Override
+    String getClassSuffix() {
+        return "$EvaluatorMetadata";
+    }
+
+    /**
+     * Concrete classes implementing the evaluator interface.
+     */
+    @Override
+    boolean supports(@NonNull TypeElement type) {
+        return type.getKind() == ElementKind.CLASS &&
+               !type.getModifiers().contains(Modifier.ABSTRACT) &&
+               elements.getTypeElement(METADATA) != null &&
+               isSubtype(type.asType(), PACKAGE + "Evaluator");
+    }
+
+    @Override
+    String generate(@NonNull TypeElement type, @NonNull String packageName, @NonNull String simpleName) {
+        ExecutableElement method = findMethod(type, "evaluateState", getType(PACKAGE + "EvaluationContext"));
+        AnnotationMirror def = method != null ? getAnnotation(method, PACKAGE + "EvaluatorDef") : null;
+        List<Object> states = def != null ? getAnnotationValues(def, "states") : Collections.emptyList();
+        boolean cacheable = def != null && Boolean.TRUE.equals(getAnnotationValue(def, "cacheable"));
+        AnnotationMirror propertyDef = method != null ? getAnnotation(method, "gras.presley.interceptor.PropertyDef") : null;
+
+        StringBuilder b = header(packageName);
+        b.append("public final class ").append(simpleName).append(" implements ").append(METADATA).append(" {\n\n");
+        b.append("    @Override\n");
+        b.append("    public ").append(PACKAGE).append("EvaluatedState[] getStates() {\n");
+        b.append("        return new ").append(PACKAGE).append("EvaluatedState[] {");
+        for (int i = 0, n = states.size(); i < n; i++)
+            b.append(i == 0 ? "" : ", ").append(PACKAGE).append("EvaluatedState.").append(((VariableElement) states.get(i)).getSimpleName());
+        b.append("};\n");
+        b.append("    }\n");
+        if (cacheable) {
+            b.append("\n");
+            b.append("    @Override\n");
+            b.append("    public boolean isCacheable() {\n");
+            b.append("        return true;\n");
+            b.append("    }\n");
+        }
+        if (propertyDef != null) {
+            List<Object> names = getAnnotationValues(propertyDef, "name");
+            b.append("\n");
+            b.append("    @Override\n");
+            b.append("    public String[] getPropertyNames() {\n");
+            b.append("        return new String[] {");
+            for (int i = 0, n = names.size(); i < n; i++)
+                b.append(i == 0 ? "" : ", ").append(quote((String) names.get(i)));
+            b.append("};\n");
+            b.append("    }\n");
+        }
+        b.append("}\n");
+        return b.toString();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * InterceptorMetadataGenerator
+ * Create Date: 2020. 03. 29.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.apt;
+
+import lombok.NonNull;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.IntersectionType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Generates the {@code gras.presley.interceptor.GeneratedInterceptorMetadata} implementation of interceptor classes.
+ *
+ * <p> The targets and the property types are resolved from the type arguments of the interceptor interface the same
+ * way as {@code InterceptorInfo} and {@code PropertyInterceptorInfo} do it reflectively.
+ * Type arguments the reflective resolution can not handle are left to the runtime, no metadata is generated for them.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class InterceptorMetadataGenerator extends MetadataGenerator {
+
+    private static final String PACKAGE = "gras.presley.interceptor.";
+    private static final String INTERCEPTOR = PACKAGE + "Interceptor";
+    private static final String PROPERTY_INTERCEPTOR = PACKAGE + "PropertyInterceptor";
+    private static final String METADATA = PACKAGE + "GeneratedInterceptorMetadata";
+
+    InterceptorMetadataGenerator(@NonNull ProcessingEnvironment env) {
+        super(env);
+    }
+
+    @NonNull
+    @Override
+    String getClassSuffix() {
+        return "$InterceptorMetadata";
+    }
+
+    /**
+     * Concrete classes implementing an interceptor interface.
+     */
+    @Override
+    boolean supports(@NonNull TypeElement type) {
+        return type.getKind() == ElementKind.CLASS &&
+               !type.getModifiers().contains(Modifier.ABSTRACT) &&
+               elements.getTypeElement(METADATA) != null &&
+               isSubtype(type.asType(), INTERCEPTOR);
+    }
+
+    @Override
+    String generate(@NonNull TypeElement type, @NonNull String packageName, @NonNull String simpleName) {
+        DeclaredType targetInterface = getTargetInterface(type);
+        if (targetInterface == null || targetInterface.getTypeArguments().isEmpty())
+            return null; // the runtime reports the missing generic targets
+
+        boolean property = isSubtype(targetInterface, PROPERTY_INTERCEPTOR);
+        List<TypeMirror> targets = buildTargets(targetInterface.getTypeArguments().get(0));
+        List<TypeMirror> propertyTypes = property && targetInterface.getTypeArguments().size() > 1 ?
+                                         buildPropertyTypes(targetInterface.getTypeArguments().get(1)) :
+                                         Collections.<TypeMirror>emptyList();
+        if (targets == null || propertyTypes == null) {
+            note(type, "Interceptor metadata is not generated, the generic targets are resolved at runtime");
+            return null;
+        }
+
+        String targetLiterals = getClassLiterals(targets, packageName);
+        String propertyTypeLiterals = getClassLiterals(propertyTypes, packageName);
+        if (targetLiterals == null || propertyTypeLiterals == null) {
+            note(type, "Interceptor metadata is not generated, a target class is not accessible from the package");
+            return null;
+        }
+
+        ExecutableElement method = findMethod(type, "intercept", getType(PACKAGE + (property ? "PropertyInvocation" : "BeanInvocation")));
+        if (method == null) // the asynchronous interceptors inherit the synchronous method
+            method = findMethod(type, "interceptAsync", getType(PACKAGE + (property ? "AsyncPropertyInvocation" : "AsyncBeanInvocation")));
+        AnnotationMirror def = method != null ? getAnnotation(method, PACKAGE + "InterceptorDef") : null;
+        String position = def != null ? ((VariableElement) getAnnotationValue(def, "position")).getSimpleName().toString() : "DEFAULT";
+        AnnotationMirror propertyDef = method != null && property ? getAnnotation(method, PACKAGE + "PropertyInterceptorDef") : null;
+        List<Object> names = propertyDef != null ? getAnnotationValues(propertyDef, "names") : Collections.emptyList();
+
+        StringBuilder b = header(packageName);
+        b.append("public final class ").append(simpleName).append(" implements ").append(METADATA).append(" {\n\n");
+        b.append("    @Override\n");
+        b.append("    public ").append(PACKAGE).append("InterceptorPosition getPosition() {\n");
+        b.append("        return ").append(PACKAGE).append("InterceptorPosition.").append(position).append(";\n");
+        b.append("    }\n\n");
+        b.append("    @Override\n");
+        b.append("    public Class<?>[] getTargets() {\n");
+        b.append("        return new Class<?>[] {").append(targetLiterals).append("};\n");
+        b.append("    }\n\n");
+        b.append("    @Override\n");
+        b.append("    public Class<?>[] getPropertyTypes() {\n");
+        b.append("        return new Class<?>[] {").append(propertyTypeLiterals).append("};\n");
+        b.append("    }\n\n");
+        b.append("    @Override\n");
+        b.append("    public String[] getPropertyNames() {\n");
+        b.append("        return new String[] {");
+        for (int i = 0, n = names.size(); i < n; i++)
+            b.append(i == 0 ? "" : ", ").append(quote((String) names.get(i)));
+        b.append("};\n");
+        b.append("    }\n");
+        b.append("}\n");
+        return b.toString();
+    }
+
+    /**
+     * Mirrors {@code InterceptorInfo.getTargetInterface()}, the first directly implemented interceptor interface.
+     */
+    private DeclaredType getTargetInterface(@NonNull TypeElement type) {
+        for (TypeMirror inter: type.getInterfaces())
+            if (isSubtype(inter, INTERCEPTOR))
+                return (DeclaredType) inter;
+        return null;
+    }
+
+    /**
+     * Mirrors {@code InterceptorInfo.buildTargets()}.
+     * @return the erased target types or {@code null} if the type argument should be resolved reflectively
+     */
+    private List<TypeMirror> buildTargets(@NonNull TypeMirror targetType) {
+        List<TypeMirror> result = new ArrayList<>();
+        if (targetType.getKind() == TypeKind.DECLARED) {
+            result.add(types.erasure(targetType));
+            List<? extends TypeMirror> args = ((DeclaredType) targetType).getTypeArguments();
+            if (!args.isEmpty()) {
+                TypeMirror targetObjectType = args.get(0);
+                if (targetObjectType.getKind() == TypeKind.DECLARED)
+                    result.add(types.erasure(targetObjectType));
+                else if (targetObjectType.getKind() == TypeKind.TYPEVAR)
+                    addBounds((TypeVariable) targetObjectType, result);
+                else if (targetObjectType.getKind() != TypeKind.WILDCARD)
+                    return null;
+            }
+        }
+        else if (targetType.getKind() == TypeKind.TYPEVAR)
+            addBounds((TypeVariable) targetType, result);
+        else
+            return null;
+        return result;
+    }
+
+    /**
+     * Mirrors {@code PropertyInterceptorInfo.buildPropertyTypes()}.
+     * @return the erased property types or {@code null} if the type argument should be resolved reflectively
+     */
+    private List<TypeMirror> buildPropertyTypes(@NonNull TypeMirror targetType) {
+        List<TypeMirror> result = new ArrayList<>();
+        if (targetType.getKind() == TypeKind.DECLARED) {
+            result.add(types.erasure(targetType));
+            List<? extends TypeMirror> args = ((DeclaredType) targetType).getTypeArguments();
+            if (!args.isEmpty()) {
+                TypeMirror targetObjectType = args.get(0);
+                // only plain classes are taken by the reflective resolution
+                if (targetObjectType.getKind() == TypeKind.DECLARED && ((DeclaredType) targetObjectType).getTypeArguments().isEmpty())
+                    result.add(targetObjectType);
+                else if (targetObjectType.getKind() == TypeKind.ARRAY)
+                    return null;
+            }
+        }
+        else if (targetType.getKind() == TypeKind.TYPEVAR)
+            addBounds((TypeVariable) targetType, result);
+        else
+            return null;
+        return result;
+    }
+
+    /**
+     * Adds the erased class bounds of the type variable, type variable bounds are skipped as the reflective resolution does.
+     */
+    private void addBounds(@NonNull TypeVariable variable, @NonNull List<TypeMirror> result) {
+        TypeMirror bound = variable.getUpperBound();
+        List<? extends TypeMirror> bounds = bound.getKind() == TypeKind.INTERSECTION ?
+                                            ((IntersectionType) bound).getBounds() :
+                                            Collections.singletonList(bound);
+        for (TypeMirror b: bounds)
+            if (b.getKind() == TypeKind.DECLARED)
+                result.add(types.erasure(b));
+    }
+
+    /**
+     * Returns the comma separated class literals or {@code null} if any of them is not accessible.
+     */
+    private String getClassLiterals(@NonNull List<TypeMirror> classes, @NonNull String packageName) {
+        StringBuilder b = new StringBuilder();
+        for (TypeMirror clazz: classes) {
+            String literal = getClassLiteral(clazz, packageName);
+            if (literal == null)
+                return null;
+            b.append(b.length() == 0 ? "" : ", ").append(literal);
+        }
+        return b.toString();
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * MetadataGenerator
+ * Create Date: 2020. 03. 29.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.apt;
+
+import lombok.NonNull;
+
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base of the source generators of the presley annotation processor.
+ * Provides the language model helpers and writes the generated source files.
+ *
+ * <p> The processor does not depend on the presley classes, the framework types are referenced by their qualified names.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+abstract class MetadataGenerator {
+
+    @NonNull protected final ProcessingEnvironment env;
+    @NonNull protected final Types types;
+    @NonNull protected final Elements elements;
+
+    MetadataGenerator(@NonNull ProcessingEnvironment env) {
+        this.env = env;
+        this.types = env.getTypeUtils();
+        this.elements = env.getElementUtils();
+    }
+
+    /**
+     * Checks if the generator handles the type.
+     */
+    abstract boolean supports(@NonNull TypeElement type);
+
+    /**
+     * Generates the source of the metadata class.
+     * @return the source or {@code null} if no metadata can be generated for the type
+     */
+    abstract String generate(@NonNull TypeElement type, @NonNull String packageName, @NonNull String simpleName);
+
+    /**
+     * The suffix of the generated class name.
+     */
+    @NonNull
+    abstract String getClassSuffix();
+
+    /**
+     * Generates and writes the metadata class of the type.
+     * @return true if a file was written
+     */
+    final boolean write(@NonNull TypeElement type) {
+        String binaryName = elements.getBinaryName(type).toString();
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + getClassSuffix();
+
+        String source = generate(type, packageName, simpleName);
+        if (source == null)
+            return false;
+
+        try {
+            JavaFileObject file = env.getFiler().createSourceFile(binaryName + getClassSuffix(), type);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source);
+            }
+            return true;
+        }
+        catch (IOException e) {
+            error(type, "Failed to write " + binaryName + getClassSuffix() + ": " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the source header of the generated class incl. the package declaration.
+     */
+    @NonNull
+    protected final StringBuilder header(@NonNull String packageName) {
+        StringBuilder b = new StringBuilder(4096);
+        b.append("/*\n * Generated by ").append(PresleyProcessor.class.getName()).append(". Do not edit.\n */\n");
+        if (!packageName.isEmpty())
+            b.append("package ").append(packageName).append(";\n");
+        b.append('\n');
+        return b;
+    }
+
+    /**
+     * Returns the type and its super classes up to, but without, {@link Object}.
+     */
+    @NonNull
+    protected final List<TypeElement> getHierarchy(@NonNull TypeElement type) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        while (type != null && !type.getQualifiedName().contentEquals(Object.class.getName())) {
+            hierarchy.add(type);
+            TypeMirror superType = type.getSuperclass();
+            type = superType.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superType).asElement() : null;
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Finds the closest declared method in the class hierarchy with the given name and erased parameter types.
+     */
+    protected final ExecutableElement findMethod(@NonNull TypeElement type, @NonNull String name, @NonNull TypeMirror... paramTypes) {
+        for (TypeElement t: getHierarchy(type)) {
+            outer:
+            for (ExecutableElement m: ElementFilter.methodsIn(t.getEnclosedElements())) {
+                if (!m.getSimpleName().contentEquals(name) || m.getParameters().size() != paramTypes.length)
+                    continue;
+                for (int i = 0; i < paramTypes.length; i++)
+                    if (!types.isSameType(types.erasure(m.getParameters().get(i).asType()), types.erasure(paramTypes[i])))
+                        continue outer;
+                return m;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the type is a subtype of the given framework type, both compared as raw types.
+     */
+    protected final boolean isSubtype(@NonNull TypeMirror type, @NonNull String qualifiedName) {
+        TypeElement other = elements.getTypeElement(qualifiedName);
+        return other != null && types.isAssignable(types.erasure(type), types.erasure(other.asType()));
+    }
+
+    /**
+     * Returns the erased framework type of the given name.
+     */
+    protected final TypeMirror getType(@NonNull String qualifiedName) {
+        TypeElement type = elements.getTypeElement(qualifiedName);
+        return type != null ? types.erasure(type.asType()) : null;
+    }
+
+    /**
+     * Returns the annotation of the given type declared directly on the element or {@code null}.
+     */
+    protected final AnnotationMirror getAnnotation(@NonNull Element element, @NonNull String annotationName) {
+        for (AnnotationMirror mirror: element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName))
+                return mirror;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value of the annotation attribute, incl. the default values.
+     */
+    protected final Object getAnnotationValue(@NonNull AnnotationMirror mirror, @NonNull String attribute) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry: elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(attribute))
+                return entry.getValue().getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the values of an array typed annotation attribute, as the attribute value objects.
+     */
+    @NonNull
+    protected final List<Object> getAnnotationValues(@NonNull AnnotationMirror mirror, @NonNull String attribute) {
+        List<Object> result = new ArrayList<>();
+        Object value = getAnnotationValue(mirror, attribute);
+        if (value instanceof List)
+            for (Object item: (List<?>) value)
+                result.add(((AnnotationValue) item).getValue());
+        return result;
+    }
+
+    /**
+     * Checks if the element can be referenced from the source of the given package.
+     * Private elements and non-public elements of other packages can not be accessed, not even the protected ones,
+     * as the generated classes do not extend the types.
+     */
+    protected final boolean isAccessible(@NonNull Element element, @NonNull String packageName) {
+        for (Element e = element; e != null && !(e instanceof PackageElement); e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE))
+                return false;
+            if (!e.getModifiers().contains(Modifier.PUBLIC) && !getPackageName(e).equals(packageName))
+                return false;
+            if (e.getKind() == ElementKind.LOCAL_VARIABLE || e.getKind() == ElementKind.PARAMETER)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the source text of the class literal of the erased type
+     * or {@code null} if the class can not be referenced from the given package.
+     */
+    protected final String getClassLiteral(@NonNull TypeMirror type, @NonNull String packageName) {
+        return getSourceName(type, packageName) != null ? getSourceName(type, packageName) + ".class" : null;
+    }
+
+    /**
+     * Returns the source name of the erased type
+     * or {@code null} if the type can not be referenced from the given package.
+     */
+    protected final String getSourceName(@NonNull TypeMirror type, @NonNull String packageName) {
+        TypeMirror erased = types.erasure(type);
+        if (erased.getKind().isPrimitive())
+            return erased.toString();
+        if (erased.getKind() == TypeKind.ARRAY) {
+            String component = getSourceName(((ArrayType) erased).getComponentType(), packageName);
+            return component != null ? component + "[]" : null;
+        }
+        if (erased.getKind() != TypeKind.DECLARED)
+            return null;
+
+        TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+        return isAccessible(element, packageName) ? element.getQualifiedName().toString() : null;
+    }
+
+    /**
+     * Returns the source text of a string literal.
+     */
+    @NonNull
+    protected static String quote(String value) {
+        if (value == null)
+            return "null";
+
+        StringBuilder b = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                b.append('\\').append(c);
+            else if (c < ' ' || c > '~')
+                b.append(String.format("\\u%04x", (int) c));
+            else
+                b.append(c);
+        }
+        return b.append('"').toString();
+    }
+
+    @NonNull
+    private String getPackageName(@NonNull Element element) {
+        return elements.getPackageOf(element).getQualifiedName().toString();
+    }
+
+    protected final void note(@NonNull Element element, @NonNull String message) {
+        env.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+
+    protected final void error(@NonNull Element element, @NonNull String message) {
+        Messager messager = env.getMessager();
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
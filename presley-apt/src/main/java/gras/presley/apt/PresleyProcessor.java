@@ -0,0 +1,81 @@
+/*
+ * PresleyProcessor
+ * Create Date: 2020. 03. 29.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.apt;
+
+import lombok.NonNull;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor generating the presley metadata classes at compile time, so the framework does not have to
+ * scan the beans, interceptors and evaluators reflectively at runtime.
+ *
+ * <p> Generates next to each processed class:
+ * <ul>
+ * <li>{@code <Class>$BeanMetadata} for classes having {@code BeanProp} annotated members,
+ * <li>{@code <Class>$InterceptorMetadata} for interceptor implementations,
+ * <li>{@code <Class>$EvaluatorMetadata} for evaluator implementations.
+ * </ul>
+ * Enabled by adding the module to the annotation processor path of the application module.
+ * The framework falls back to the reflective scan for any class without generated metadata.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@SupportedAnnotationTypes("*")
+public class PresleyProcessor extends AbstractProcessor {
+
+    private List<MetadataGenerator> generators;
+    /** binary names of the generated classes, as a type can be a root element in more rounds */
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public synchronized void init(@NonNull ProcessingEnvironment env) {
+        super.init(env);
+        generators = Arrays.asList(new BeanMetadataGenerator(env), new InterceptorMetadataGenerator(env), new EvaluatorMetadataGenerator(env));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(@NonNull Set<? extends TypeElement> annotations, @NonNull RoundEnvironment roundEnv) {
+        for (Element element: roundEnv.getRootElements())
+            if (element instanceof TypeElement)
+                process((TypeElement) element);
+
+        // the annotations are not claimed, other processors may handle them as well
+        return false;
+    }
+
+    /**
+     * Generates the metadata of the type and its nested types.
+     */
+    private void process(@NonNull TypeElement type) {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        for (MetadataGenerator generator: generators) {
+            if (generator.supports(type) && generated.add(binaryName + generator.getClassSuffix()))
+                generator.write(type);
+        }
+
+        for (TypeElement nested: ElementFilter.typesIn(type.getEnclosedElements()))
+            process(nested);
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * BeanInterceptionEvent
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Processing of the bean interceptor chain of a bean operation, see {@link gras.presley.interceptor.InterceptorManager}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@Name("gras.presley.BeanInterception")
+@Label("Bean Interception")
+@Description("Processing of the bean interceptor chain of a bean operation")
+@Threshold("1 ms")
+final class BeanInterceptionEvent extends PresleyEvent {
+
+    @Label("Operation")
+    String operation;
+
+    BeanInterceptionEvent(Class<?> beanType, String operation) {
+        super(beanType);
+        this.operation = operation;
+    }
+}
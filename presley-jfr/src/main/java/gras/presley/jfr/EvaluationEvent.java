@@ -0,0 +1,38 @@
+/*
+ * EvaluationEvent
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Evaluation of a state of a bean or a property, see {@link gras.presley.evaluator.StateManager}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@Name("gras.presley.Evaluation")
+@Label("State Evaluation")
+@Description("Evaluation of a state of a bean or a property")
+@Threshold("1 ms")
+final class EvaluationEvent extends PresleyEvent {
+
+    @Label("Property")
+    @Description("The evaluated property, missing if the state of the bean is evaluated")
+    String property;
+
+    @Label("State")
+    String state;
+
+    EvaluationEvent(Class<?> beanType, String property, String state) {
+        super(beanType);
+        this.property = property;
+        this.state = state;
+    }
+}
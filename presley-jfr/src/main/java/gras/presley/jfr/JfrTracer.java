@@ -0,0 +1,97 @@
+/*
+ * JfrTracer
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.jfr;
+
+import gras.presley.evaluator.EvaluatedState;
+import gras.presley.interceptor.BeanOperation;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.trace.TraceSpan;
+import gras.presley.trace.Tracer;
+import jdk.jfr.EventType;
+import lombok.NonNull;
+
+/**
+ * Records the traced sections of the framework as Java Flight Recorder events.
+ *
+ * <p> The events are in the {@code GRAS / Presley} category of the recordings. The metadata build events are recorded
+ * always, the per invocation events of the interceptor chains, the evaluation and the operation lookups only above
+ * 1 ms by default, the thresholds can be changed in the recording settings ({@code .jfc} file) by the event names,
+ * e.g. {@code gras.presley.PropertyInterception}.
+ * No event is allocated while the event type is disabled or there is no recording.
+ *
+ * <p> Enabled by returning an instance from {@link gras.presley.ctx.ApplicationContext#getTracerImpl()}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class JfrTracer implements Tracer {
+
+    private static final EventType typeCreation = EventType.getEventType(TypeCreationEvent.class);
+    private static final EventType propertiesBuild = EventType.getEventType(PropertiesBuildEvent.class);
+    private static final EventType beanInterception = EventType.getEventType(BeanInterceptionEvent.class);
+    private static final EventType propertyInterception = EventType.getEventType(PropertyInterceptionEvent.class);
+    private static final EventType evaluation = EventType.getEventType(EvaluationEvent.class);
+    private static final EventType operationLookup = EventType.getEventType(OperationLookupEvent.class);
+
+    public JfrTracer() {
+    }
+
+    @Override
+    public TraceSpan startTypeCreation(@NonNull Class<?> typeClass) {
+        if (!typeCreation.isEnabled())
+            return null;
+
+        return begin(new TypeCreationEvent(typeClass));
+    }
+
+    @Override
+    public TraceSpan startPropertiesBuild(@NonNull BeanType<?> beanType) {
+        if (!propertiesBuild.isEnabled())
+            return null;
+
+        return begin(new PropertiesBuildEvent(beanType.getTypeClass()));
+    }
+
+    @Override
+    public TraceSpan startBeanInterception(@NonNull BeanType<?> beanType, @NonNull BeanOperation operation) {
+        if (!beanInterception.isEnabled())
+            return null;
+
+        return begin(new BeanInterceptionEvent(beanType.getTypeClass(), operation.name()));
+    }
+
+    @Override
+    public TraceSpan startPropertyInterception(@NonNull PlainBeanProp<?, ?> propertyMetadata) {
+        if (!propertyInterception.isEnabled())
+            return null;
+
+        return begin(new PropertyInterceptionEvent(propertyMetadata.getBeanType().getTypeClass(), propertyMetadata.getPropertyName()));
+    }
+
+    @Override
+    public TraceSpan startEvaluation(@NonNull BeanType<?> beanType, PlainBeanProp<?, ?> propertyMetadata, @NonNull EvaluatedState state) {
+        if (!evaluation.isEnabled())
+            return null;
+
+        return begin(new EvaluationEvent(beanType.getTypeClass(), propertyMetadata != null ? propertyMetadata.getPropertyName() : null, state.name()));
+    }
+
+    @Override
+    public TraceSpan startOperationLookup(@NonNull BeanType<?> beanType, PlainBeanProp<?, ?> propertyMetadata, @NonNull Class<?> operationClass) {
+        if (!operationLookup.isEnabled())
+            return null;
+
+        return begin(new OperationLookupEvent(beanType.getTypeClass(), propertyMetadata != null ? propertyMetadata.getPropertyName() : null, operationClass));
+    }
+
+    @NonNull
+    private static TraceSpan begin(@NonNull PresleyEvent event) {
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * OperationLookupEvent
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Lookup of the operations of a bean type or a property, see {@link gras.presley.operation.OperationManager}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@Name("gras.presley.OperationLookup")
+@Label("Operation Lookup")
+@Description("Lookup of the operations of a bean type or a property")
+@Threshold("1 ms")
+final class OperationLookupEvent extends PresleyEvent {
+
+    @Label("Property")
+    @Description("The property of the operations, missing if the operations of the bean type are looked up")
+    String property;
+
+    @Label("Operation Kind")
+    Class<?> operationClass;
+
+    OperationLookupEvent(Class<?> beanType, String property, Class<?> operationClass) {
+        super(beanType);
+        this.property = property;
+        this.operationClass = operationClass;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * PresleyEvent
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.jfr;
+
+import gras.presley.trace.TraceSpan;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the flight recorder events of the framework, all of them belong to a bean type.
+ * The event is committed when its span is closed, the duration is measured by the recorder.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@Category({"GRAS", "Presley"})
+abstract class PresleyEvent extends Event implements TraceSpan {
+
+    @Label("Type")
+    Class<?> beanType;
+
+    PresleyEvent(Class<?> beanType) {
+        this.beanType = beanType;
+    }
+
+    @Override
+    public void close() {
+        commit();
+    }
+}
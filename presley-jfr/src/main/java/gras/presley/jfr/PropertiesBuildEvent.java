@@ -0,0 +1,27 @@
+/*
+ * PropertiesBuildEvent
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Build of the property list of a bean type, see {@link gras.presley.metadata.TypeManager}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@Name("gras.presley.PropertiesBuild")
+@Label("Properties Build")
+@Description("Build of the property list of a bean type")
+final class PropertiesBuildEvent extends PresleyEvent {
+
+    PropertiesBuildEvent(Class<?> beanType) {
+        super(beanType);
+    }
+}
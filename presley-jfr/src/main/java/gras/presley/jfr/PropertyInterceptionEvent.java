@@ -0,0 +1,33 @@
+/*
+ * PropertyInterceptionEvent
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Processing of the property interceptor chain of a property change, see {@link gras.presley.interceptor.InterceptorManager}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@Name("gras.presley.PropertyInterception")
+@Label("Property Interception")
+@Description("Processing of the property interceptor chain of a property change")
+@Threshold("1 ms")
+final class PropertyInterceptionEvent extends PresleyEvent {
+
+    @Label("Property")
+    String property;
+
+    PropertyInterceptionEvent(Class<?> beanType, String property) {
+        super(beanType);
+        this.property = property;
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * TypeCreationEvent
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Creation of the type metadata of a class, see {@link gras.presley.metadata.TypeManager}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@Name("gras.presley.TypeCreation")
+@Label("Type Creation")
+@Description("Creation of the type metadata of a class")
+final class TypeCreationEvent extends PresleyEvent {
+
+    TypeCreationEvent(Class<?> beanType) {
+        super(beanType);
+    }
+}
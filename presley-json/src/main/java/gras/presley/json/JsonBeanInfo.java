@@ -0,0 +1,84 @@
+/*
+ * JsonBeanInfo
+ * Create Date: 2020. 04. 02.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.json;
+
+import gras.presley.metadata.BeanClass;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.JavaType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyList;
+import lombok.NonNull;
+
+import java.util.function.Function;
+
+/**
+ * The JSON metadata of a bean type: its properties in index order with their value kinds
+ * and the UTF-8 encoded property names, so the names are not encoded for each bean.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class JsonBeanInfo {
+
+    static final byte KIND_OBJECT = 0;
+    static final byte KIND_INT = 1;
+    static final byte KIND_LONG = 2;
+    static final byte KIND_DOUBLE = 3;
+    static final byte KIND_BOOLEAN = 4;
+
+    /** builds the infos, the key of the infos stored with the bean types */
+    private static final Function<BeanType<Object>, JsonBeanInfo> FACTORY = JsonBeanInfo::new;
+
+    @NonNull final BeanType<Object> beanType;
+    /** true if the instances are written as objects, as {@link gras.presley.serial.BeanEncoder} does */
+    final boolean isBean;
+    @NonNull final PlainBeanProp<Object, Object>[] properties;
+    @NonNull final byte[] kinds;
+    /** the quoted property names followed by a colon, e.g. {@code "name":} */
+    @NonNull final byte[][] names;
+
+    private JsonBeanInfo(@NonNull BeanType<Object> beanType) {
+        this.beanType = beanType;
+        isBean = beanType.getAnnotation(BeanClass.class) != null || !beanType.getProperties().isEmpty();
+
+        PropertyList<PlainBeanProp<Object, ?>> props = beanType.getProperties();
+        @SuppressWarnings("unchecked")
+        PlainBeanProp<Object, Object>[] properties = (PlainBeanProp<Object, Object>[]) props.toArray(new PlainBeanProp<?, ?>[props.size()]);
+        this.properties = properties;
+        kinds = new byte[properties.length];
+        names = new byte[properties.length][];
+        for (int i = 0; i < properties.length; i++) {
+            kinds[i] = getKind(properties[i]);
+            names[i] = JsonWriter.encodeName(properties[i].getPropertyName());
+        }
+    }
+
+    /**
+     * Gets the info of the given type, or {@code null} if its instances are not handled as beans.
+     * The infos are stored with the bean types, so they follow the type manager.
+     */
+    @SuppressWarnings("unchecked")
+    static JsonBeanInfo forType(@NonNull JavaType<?> type) {
+        if (!(type instanceof BeanType))
+            return null;
+        JsonBeanInfo info = ((BeanType<Object>) type).getExtension(FACTORY);
+        return info.isBean ? info : null;
+    }
+
+    private static byte getKind(@NonNull PlainBeanProp<?, ?> prop) {
+        Class<?> valueClass = prop.getValueType().getTypeClass();
+        if (valueClass == int.class)
+            return KIND_INT;
+        if (valueClass == long.class)
+            return KIND_LONG;
+        if (valueClass == double.class)
+            return KIND_DOUBLE;
+        if (valueClass == boolean.class)
+            return KIND_BOOLEAN;
+        return KIND_OBJECT;
+    }
+}
@@ -0,0 +1,682 @@
+/*
+ * JsonReader
+ * Create Date: 2020. 04. 02.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.json;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.JavaType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TypeManager;
+import lombok.NonNull;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Parses JSON from an {@link InputStream} or a {@link ReadableByteChannel} as UTF-8, without building a tree.
+ *
+ * <p> Objects are read into beans by their {@link BeanType} metadata. The property names are matched against the
+ * pre-encoded names of the next property in index order first, as {@link JsonWriter} writes them, and looked up by name
+ * only if they do not match. Unknown and read only properties are skipped. Primitive properties are set without boxing,
+ * collection and array elements are read by the {@link PlainBeanProp#getElementType() element type} of the property.
+ * Values of other types are converted by {@link #readOther(Object, JavaType)}.
+ *
+ * <p> A non-blocking {@link SelectableChannel} is waited for by a selector when it has no more input yet.
+ * Instances are not thread safe.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class JsonReader implements Closeable {
+
+    private final InputStream in;
+    private final ReadableByteChannel channel;
+    @NonNull private final byte[] buffer;
+    private int position;
+    private int limit;
+    /** number of bytes consumed before the buffer, for the error messages */
+    private long offset;
+
+    /** waits for the input of a non-blocking channel, opened at the first wait */
+    private Selector selector;
+    /** string factories of the other types by class, {@link #NO_PARSER} if the class has none */
+    @NonNull private final IdentityHashMap<Class<?>, Object> parsers = new IdentityHashMap<>();
+
+    private static final Object NO_PARSER = new Object();
+
+    /** raw bytes of the last string or number, without the quotes */
+    @NonNull private byte[] scratch = new byte[64];
+    private int scratchLength;
+    private boolean scratchEscaped;
+
+    public JsonReader(@NonNull InputStream in) {
+        this.in = in;
+        this.channel = null;
+        this.buffer = new byte[8192];
+    }
+
+    public JsonReader(@NonNull ReadableByteChannel channel) {
+        this.in = null;
+        this.channel = channel;
+        this.buffer = new byte[8192];
+    }
+
+    /**
+     * Parses the JSON string into the given type.
+     * @throws IllegalArgumentException if the string is not a valid JSON of the type
+     */
+    public static <_O> _O fromJson(@NonNull String json, @NonNull Class<_O> type) {
+        try (JsonReader reader = new JsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            return reader.read(type);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the next value as the given type.
+     */
+    public <_O> _O read(@NonNull Class<_O> type) throws IOException {
+        return read(TypeManager.forClass(type));
+    }
+
+    /**
+     * Reads the next value as the given type.
+     */
+    @SuppressWarnings("unchecked")
+    public <_O> _O read(@NonNull JavaType<_O> type) throws IOException {
+        return (_O) readValue(type, null);
+    }
+
+    /**
+     * Reads the next value as maps, lists, strings, longs, doubles and booleans.
+     */
+    public Object read() throws IOException {
+        return readAny();
+    }
+
+    /**
+     * Converts a value of an unsupported type. This is a customization point.
+     * <p> The default implementation accepts the values which are instances of the type already, and parses strings
+     * by the public static {@code parse(CharSequence)}, {@code parse(String)}, {@code fromString(String)} or
+     * {@code valueOf(String)} method or the public {@code String} constructor of the type, e.g. {@link java.util.UUID}
+     * and {@link java.time.LocalDate} values written by {@link JsonWriter#writeOther(Object)}.
+     * @param value the value read as maps, lists, strings, longs, doubles and booleans
+     * @param type the expected type
+     * @throws IOException if the value can not be converted
+     */
+    protected Object readOther(Object value, @NonNull JavaType<?> type) throws IOException {
+        Class<?> clazz = type.getWrapperType().getTypeClass();
+        if (value == null || clazz.isInstance(value))
+            return value;
+
+        Object parser = value instanceof String ? getParser(clazz) : NO_PARSER;
+        if (parser == NO_PARSER)
+            throw syntaxError("Can not convert " + value.getClass().getSimpleName() + " to " + type.getTypeName());
+
+        try {
+            return parser instanceof Method ? ((Method) parser).invoke(null, value) : ((Constructor<?>) parser).newInstance(value);
+        }
+        catch (InvocationTargetException e) {
+            throw (IOException) syntaxError("Can not convert \"" + value + "\" to " + type.getTypeName()).initCause(e.getCause());
+        }
+        catch (ReflectiveOperationException e) {
+            throw (IOException) syntaxError("Can not convert \"" + value + "\" to " + type.getTypeName()).initCause(e);
+        }
+    }
+
+    /**
+     * Finds the string factory of a class.
+     * @return a {@link Method}, a {@link Constructor} or {@link #NO_PARSER}
+     */
+    @NonNull
+    private Object getParser(@NonNull Class<?> clazz) {
+        Object parser = parsers.get(clazz);
+        if (parser == null) {
+            parser = findParser(clazz);
+            parsers.put(clazz, parser);
+        }
+        return parser;
+    }
+
+    @NonNull
+    private static Object findParser(@NonNull Class<?> clazz) {
+        if (!Modifier.isPublic(clazz.getModifiers()) || clazz.isInterface() || clazz.isArray())
+            return NO_PARSER;
+
+        for (Object[] signature : new Object[][] {{"parse", CharSequence.class}, {"parse", String.class}, {"fromString", String.class}, {"valueOf", String.class}}) {
+            try {
+                Method method = clazz.getMethod((String) signature[0], (Class<?>) signature[1]);
+                if (Modifier.isStatic(method.getModifiers()) && clazz.isAssignableFrom(method.getReturnType()))
+                    return method;
+            }
+            catch (NoSuchMethodException e) {
+                // try the next one
+            }
+        }
+        try {
+            return Modifier.isAbstract(clazz.getModifiers()) ? NO_PARSER : clazz.getConstructor(String.class);
+        }
+        catch (NoSuchMethodException e) {
+            return NO_PARSER;
+        }
+    }
+
+    @NonNull
+    private Object readBean(@NonNull JsonBeanInfo info) throws IOException {
+        expect('{');
+        Object bean = info.beanType.newInstance();
+
+        PlainBeanProp<Object, Object>[] properties = info.properties;
+        byte[] kinds = info.kinds;
+        int expected = 0;
+        if (peek() == '}') {
+            position++;
+            return bean;
+        }
+        do {
+            expect('"');
+            readRawString();
+            expect(':');
+
+            int index = findProperty(info, expected);
+            if (index < 0 || properties[index].isReadOnly()) {
+                readAny();
+                continue;
+            }
+            expected = index + 1;
+
+            PlainBeanProp<Object, Object> prop = properties[index];
+            switch (kinds[index]) {
+                case JsonBeanInfo.KIND_INT:
+                    prop.setInt(bean, (int) readLong(Integer.MIN_VALUE, Integer.MAX_VALUE));
+                    break;
+                case JsonBeanInfo.KIND_LONG:
+                    prop.setLong(bean, readLong());
+                    break;
+                case JsonBeanInfo.KIND_DOUBLE:
+                    prop.setDouble(bean, readDouble());
+                    break;
+                case JsonBeanInfo.KIND_BOOLEAN:
+                    prop.setBoolean(bean, readBoolean());
+                    break;
+                default:
+                    prop.setValue(bean, readValue(prop.getValueType(), prop.getElementType()));
+            }
+        }
+        while (nextMember('}'));
+        return bean;
+    }
+
+    /**
+     * Finds the property of the name in the scratch buffer.
+     * @param expected the index of the property expected to come next
+     * @return the index of the property or -1 if the bean has no such property
+     */
+    private int findProperty(@NonNull JsonBeanInfo info, int expected) throws IOException {
+        if (!scratchEscaped && expected < info.names.length) {
+            // the encoded name is quoted and followed by a colon
+            byte[] name = info.names[expected];
+            if (name.length == scratchLength + 3) {
+                int i = 0;
+                while (i < scratchLength && scratch[i] == name[i + 1])
+                    i++;
+                if (i == scratchLength)
+                    return expected;
+            }
+        }
+
+        PlainBeanProp<?, ?> prop = info.beanType.getProperties().getByName(decodeScratch());
+        return prop != null ? prop.getIndex() : -1;
+    }
+
+    private Object readValue(@NonNull JavaType<?> type, JavaType<?> elementType) throws IOException {
+        int c = peek();
+        if (c == 'n') {
+            readAny();
+            if (type.isPrimitive())
+                throw syntaxError("Null value for " + type.getTypeName());
+            return null;
+        }
+
+        Class<?> clazz = type.getWrapperType().getTypeClass();
+        if (clazz == String.class)
+            return readString();
+        if (clazz == Integer.class)
+            return (int) readLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        if (clazz == Long.class)
+            return readLong();
+        if (clazz == Double.class)
+            return readDouble();
+        if (clazz == Boolean.class)
+            return readBoolean();
+        if (clazz == Float.class)
+            return (float) readDouble();
+        if (clazz == Short.class)
+            return (short) readLong(Short.MIN_VALUE, Short.MAX_VALUE);
+        if (clazz == Byte.class)
+            return (byte) readLong(Byte.MIN_VALUE, Byte.MAX_VALUE);
+        if (clazz == Character.class) {
+            String value = readString();
+            if (value.length() != 1)
+                throw syntaxError("Invalid character value: " + value);
+            return value.charAt(0);
+        }
+        if (clazz == BigDecimal.class || clazz == BigInteger.class) {
+            readNumber();
+            String value = new String(scratch, 0, scratchLength, StandardCharsets.ISO_8859_1);
+            return clazz == BigDecimal.class ? new BigDecimal(value) : new BigInteger(value);
+        }
+        if (clazz.isEnum()) {
+            String name = readString();
+            try {
+                return enumValue(clazz, name);
+            }
+            catch (IllegalArgumentException e) {
+                throw syntaxError("Enum constant not found " + clazz.getName() + '.' + name);
+            }
+        }
+        if (type.isCollection()) {
+            Collection<Object> values = newCollection(clazz);
+            readElements(elementType, values);
+            return values;
+        }
+        if (clazz.isArray()) {
+            ArrayList<Object> values = new ArrayList<>();
+            JavaType<?> componentType = elementType != null ? elementType : TypeManager.forClass(clazz.getComponentType());
+            readElements(componentType, values);
+            Object array = Array.newInstance(componentType.getTypeClass(), values.size());
+            for (int i = 0, n = values.size(); i < n; i++)
+                Array.set(array, i, values.get(i));
+            return array;
+        }
+        JsonBeanInfo info = c == '{' ? JsonBeanInfo.forType(type) : null;
+        if (info != null)
+            return readBean(info);
+        if (clazz == Object.class)
+            return readAny();
+        return readOther(readAny(), type);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @NonNull
+    private static Object enumValue(@NonNull Class<?> clazz, @NonNull String name) {
+        return Enum.valueOf((Class) clazz, name);
+    }
+
+    @NonNull
+    private Collection<Object> newCollection(@NonNull Class<?> clazz) {
+        if (!clazz.isInterface() && !Modifier.isAbstract(clazz.getModifiers())) {
+            try {
+                @SuppressWarnings("unchecked")
+                Collection<Object> values = (Collection<Object>) clazz.newInstance();
+                return values;
+            }
+            catch (InstantiationException | IllegalAccessException e) {
+                // fall back to the default collections
+            }
+        }
+        if (SortedSet.class.isAssignableFrom(clazz))
+            return new TreeSet<>();
+        if (Set.class.isAssignableFrom(clazz))
+            return new LinkedHashSet<>();
+        return new ArrayList<>();
+    }
+
+    private void readElements(JavaType<?> elementType, @NonNull Collection<Object> values) throws IOException {
+        expect('[');
+        if (peek() == ']') {
+            position++;
+            return;
+        }
+        do
+            values.add(elementType != null ? readValue(elementType, null) : readAny());
+        while (nextMember(']'));
+    }
+
+    /**
+     * Reads the next value as maps, lists, strings, longs, doubles and booleans.
+     */
+    private Object readAny() throws IOException {
+        int c = peek();
+        switch (c) {
+            case '{':
+                position++;
+                LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+                if (peek() == '}') {
+                    position++;
+                    return map;
+                }
+                do {
+                    String name = readString();
+                    expect(':');
+                    map.put(name, readAny());
+                }
+                while (nextMember('}'));
+                return map;
+            case '[':
+                ArrayList<Object> list = new ArrayList<>();
+                readElements(null, list);
+                return list;
+            case '"':
+                return readString();
+            case 't':
+            case 'f':
+                return readBoolean();
+            case 'n':
+                expectLiteral("null");
+                return null;
+            default:
+                readNumber();
+                if (isIntegral()) {
+                    try {
+                        return parseLong();
+                    }
+                    catch (NumberFormatException e) {
+                        // too big for a long
+                    }
+                }
+                return parseDouble();
+        }
+    }
+
+    /**
+     * Reads a separator.
+     * @return true if a comma was read, false if the given closing character
+     */
+    private boolean nextMember(char close) throws IOException {
+        int c = peek();
+        position++;
+        if (c == ',')
+            return true;
+        if (c == close)
+            return false;
+        position--;
+        throw syntaxError("Expected ',' or '" + close + "'");
+    }
+
+    @NonNull
+    private String readString() throws IOException {
+        expect('"');
+        readRawString();
+        return decodeScratch();
+    }
+
+    private boolean readBoolean() throws IOException {
+        if (peek() == 't') {
+            expectLiteral("true");
+            return true;
+        }
+        expectLiteral("false");
+        return false;
+    }
+
+    private long readLong() throws IOException {
+        readNumber();
+        if (isIntegral())
+            return parseLong();
+
+        double value = parseDouble();
+        if (value != (long) value)
+            throw syntaxError("Not an integer: " + value);
+        return (long) value;
+    }
+
+    /**
+     * Reads an integer number, which must fit into the range of the target type.
+     */
+    private long readLong(long min, long max) throws IOException {
+        long value = readLong();
+        if (value < min || value > max)
+            throw syntaxError("Number out of range: " + value);
+        return value;
+    }
+
+    private double readDouble() throws IOException {
+        readNumber();
+        return isIntegral() && scratchLength < 16 ? parseLong() : parseDouble();
+    }
+
+    private boolean isIntegral() {
+        for (int i = 0; i < scratchLength; i++) {
+            byte b = scratch[i];
+            if (b == '.' || b == 'e' || b == 'E')
+                return false;
+        }
+        return true;
+    }
+
+    private long parseLong() throws IOException {
+        if (scratchLength > 18) {
+            String value = new String(scratch, 0, scratchLength, StandardCharsets.ISO_8859_1);
+            try {
+                return Long.parseLong(value);
+            }
+            catch (NumberFormatException e) {
+                throw syntaxError("Invalid number: " + value);
+            }
+        }
+
+        boolean negative = scratchLength > 0 && scratch[0] == '-';
+        int i = negative ? 1 : 0;
+        if (i == scratchLength)
+            throw syntaxError("Invalid number");
+
+        long value = 0;
+        for (; i < scratchLength; i++) {
+            int digit = scratch[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw syntaxError("Invalid number: " + new String(scratch, 0, scratchLength, StandardCharsets.ISO_8859_1));
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private double parseDouble() throws IOException {
+        String value = new String(scratch, 0, scratchLength, StandardCharsets.ISO_8859_1);
+        try {
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException e) {
+            throw syntaxError("Invalid number: " + value);
+        }
+    }
+
+    /**
+     * Reads the characters of a number into the scratch buffer.
+     */
+    private void readNumber() throws IOException {
+        peek();
+        scratchLength = 0;
+        while (true) {
+            if (position == limit && !fill())
+                break;
+            byte b = buffer[position];
+            if ((b < '0' || b > '9') && b != '-' && b != '+' && b != '.' && b != 'e' && b != 'E')
+                break;
+            appendScratch(b);
+            position++;
+        }
+        if (scratchLength == 0)
+            throw syntaxError("Unexpected character");
+    }
+
+    /**
+     * Reads the raw bytes of a string into the scratch buffer, after the opening quote.
+     */
+    private void readRawString() throws IOException {
+        scratchLength = 0;
+        scratchEscaped = false;
+        while (true) {
+            if (position == limit && !fill())
+                throw syntaxError("Unterminated string");
+            byte b = buffer[position++];
+            if (b == '"')
+                return;
+            if (b == '\\') {
+                scratchEscaped = true;
+                appendScratch(b);
+                if (position == limit && !fill())
+                    throw syntaxError("Unterminated string");
+                b = buffer[position++];
+            }
+            appendScratch(b);
+        }
+    }
+
+    /**
+     * Decodes the string in the scratch buffer, resolving the escapes.
+     */
+    @NonNull
+    private String decodeScratch() throws IOException {
+        if (!scratchEscaped)
+            return new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+
+        StringBuilder sb = new StringBuilder(scratchLength);
+        int start = 0;
+        for (int i = 0; i < scratchLength; i++) {
+            if (scratch[i] != '\\')
+                continue;
+
+            // the escape character can not be a part of a multi-byte sequence
+            sb.append(new String(scratch, start, i - start, StandardCharsets.UTF_8));
+            char c = (char) scratch[++i];
+            switch (c) {
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    if (i + 4 >= scratchLength)
+                        throw syntaxError("Invalid unicode escape");
+                    int cp = 0;
+                    for (int j = 1; j <= 4; j++) {
+                        int digit = Character.digit(scratch[i + j], 16);
+                        if (digit < 0)
+                            throw syntaxError("Invalid unicode escape");
+                        cp = cp << 4 | digit;
+                    }
+                    sb.append((char) cp);
+                    i += 4;
+                    break;
+                default:
+                    sb.append(c);
+            }
+            start = i + 1;
+        }
+        sb.append(new String(scratch, start, scratchLength - start, StandardCharsets.UTF_8));
+        return sb.toString();
+    }
+
+    private void appendScratch(byte b) {
+        if (scratchLength == scratch.length)
+            scratch = Arrays.copyOf(scratch, scratchLength * 2);
+        scratch[scratchLength++] = b;
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peek() != expected)
+            throw syntaxError("Expected '" + expected + "'");
+        position++;
+    }
+
+    private void expectLiteral(@NonNull String literal) throws IOException {
+        for (int i = 0, n = literal.length(); i < n; i++) {
+            if (position == limit && !fill() || buffer[position] != literal.charAt(i))
+                throw syntaxError("Expected " + literal);
+            position++;
+        }
+    }
+
+    /**
+     * Skips the white spaces and returns the next character without consuming it.
+     * @throws EOFException at the end of the input
+     */
+    private int peek() throws IOException {
+        while (true) {
+            if (position == limit && !fill())
+                throw new EOFException();
+            byte b = buffer[position];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t')
+                return b;
+            position++;
+        }
+    }
+
+    /**
+     * Reads more bytes into the empty buffer.
+     * @return false at the end of the input
+     */
+    private boolean fill() throws IOException {
+        offset += limit;
+        position = 0;
+        limit = 0;
+        int count;
+        if (in != null)
+            count = in.read(buffer, 0, buffer.length);
+        else {
+            ByteBuffer bb = ByteBuffer.wrap(buffer);
+            // a non-blocking channel reads nothing until more input arrives
+            while ((count = channel.read(bb)) == 0)
+                awaitInput();
+        }
+        if (count <= 0)
+            return false;
+        limit = count;
+        return true;
+    }
+
+    /**
+     * Waits until the non-blocking channel has more input.
+     */
+    private void awaitInput() throws IOException {
+        if (!(channel instanceof SelectableChannel) || ((SelectableChannel) channel).isBlocking()) {
+            Thread.yield();
+            return;
+        }
+
+        if (selector == null) {
+            selector = Selector.open();
+            ((SelectableChannel) channel).register(selector, SelectionKey.OP_READ);
+        }
+        selector.select();
+        selector.selectedKeys().clear();
+    }
+
+    @NonNull
+    private IOException syntaxError(@NonNull String message) {
+        return new IOException(message + " at offset " + (offset + position));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (selector != null)
+                selector.close();
+        }
+        finally {
+            if (in != null)
+                in.close();
+            else
+                channel.close();
+        }
+    }
+}
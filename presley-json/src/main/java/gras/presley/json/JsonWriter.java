@@ -0,0 +1,524 @@
+/*
+ * JsonWriter
+ * Create Date: 2020. 04. 02.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.json;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TypeManager;
+import lombok.NonNull;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Streams JSON into an {@link OutputStream} or a {@link WritableByteChannel} as UTF-8, without building a tree.
+ *
+ * <p> Beans are written as objects by their {@link BeanType} metadata, with the properties in index order.
+ * The property names are encoded once per bean type, and the primitive properties are read without boxing.
+ * Properties with {@code null} values are not written. Collections and arrays are written as arrays, maps as objects.
+ * Values which are neither beans nor basic values are written by {@link #writeOther(Object)}.
+ *
+ * <p> The structure can be written by the {@link #beginObject()}, {@link #name(String)}, {@link #value(String)}, etc.
+ * methods as well, which are not validated. A non-blocking {@link SelectableChannel} is waited for by a selector
+ * when its output is full. Instances are not thread safe.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    /** nesting limit of the written beans, to detect cycles */
+    private static final int MAX_DEPTH = 512;
+
+    private final OutputStream out;
+    private final WritableByteChannel channel;
+    @NonNull private final byte[] buffer;
+    private int position;
+    /** waits for the output of a non-blocking channel, opened at the first wait */
+    private Selector selector;
+
+    /** true if the next value must be preceded by a comma */
+    private boolean needComma;
+    private int depth;
+
+    public JsonWriter(@NonNull OutputStream out) {
+        this.out = out;
+        this.channel = null;
+        this.buffer = new byte[8192];
+    }
+
+    public JsonWriter(@NonNull WritableByteChannel channel) {
+        this.out = null;
+        this.channel = channel;
+        this.buffer = new byte[8192];
+    }
+
+    /**
+     * Writes the value into a new JSON string.
+     */
+    @NonNull
+    public static String toJson(Object value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.writeValue(value);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e); // not thrown by the memory stream
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a bean, a basic value, a collection, an array or a map.
+     */
+    public void writeValue(Object value) throws IOException {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+
+        Class<?> clazz = value.getClass();
+        if (clazz == String.class)
+            value((String) value);
+        else if (clazz == Integer.class || clazz == Long.class || clazz == Short.class || clazz == Byte.class)
+            value(((Number) value).longValue());
+        else if (clazz == Double.class)
+            value((double) (Double) value);
+        else if (clazz == Float.class)
+            value((float) (Float) value);
+        else if (clazz == Boolean.class)
+            value((boolean) (Boolean) value);
+        else if (clazz == Character.class)
+            value(value.toString());
+        else if (value instanceof Enum)
+            value(((Enum<?>) value).name());
+        else if (value instanceof Map)
+            writeMap((Map<?, ?>) value);
+        else if (value instanceof Collection)
+            writeCollection((Collection<?>) value);
+        else if (clazz.isArray())
+            writeArray(value);
+        else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            prefix();
+            writeAscii(value.toString());
+        }
+        else {
+            JsonBeanInfo info = JsonBeanInfo.forType(TypeManager.forClass(clazz));
+            if (info != null)
+                writeBean(value, info);
+            else
+                writeOther(value);
+        }
+    }
+
+    /**
+     * Writes a value which is neither a bean nor a basic value. This is a customization point.
+     * <p> The default implementation writes the {@link Object#toString()} of the value as a string,
+     * e.g. {@link java.util.UUID} and {@link java.time.LocalDate} values, which can be read back by {@link JsonReader}.
+     */
+    protected void writeOther(@NonNull Object value) throws IOException {
+        value(value.toString());
+    }
+
+    private void writeBean(@NonNull Object bean, @NonNull JsonBeanInfo info) throws IOException {
+        if (depth == MAX_DEPTH)
+            throw new IllegalStateException("Beans are nested deeper than " + MAX_DEPTH + ", possibly a cycle at " + info.beanType);
+
+        beginObject();
+        PlainBeanProp<Object, Object>[] properties = info.properties;
+        byte[] kinds = info.kinds;
+        byte[][] names = info.names;
+        for (int i = 0, n = properties.length; i < n; i++) {
+            PlainBeanProp<Object, Object> prop = properties[i];
+            switch (kinds[i]) {
+                case JsonBeanInfo.KIND_INT:
+                    writeName(names[i]);
+                    value(prop.getInt(bean));
+                    break;
+                case JsonBeanInfo.KIND_LONG:
+                    writeName(names[i]);
+                    value(prop.getLong(bean));
+                    break;
+                case JsonBeanInfo.KIND_DOUBLE:
+                    writeName(names[i]);
+                    value(prop.getDouble(bean));
+                    break;
+                case JsonBeanInfo.KIND_BOOLEAN:
+                    writeName(names[i]);
+                    value(prop.getBoolean(bean));
+                    break;
+                default:
+                    Object value = prop.getValue(bean);
+                    if (value != null) {
+                        writeName(names[i]);
+                        writeValue(value);
+                    }
+            }
+        }
+        endObject();
+    }
+
+    private void writeCollection(@NonNull Collection<?> values) throws IOException {
+        beginArray();
+        for (Object value : values)
+            writeValue(value);
+        endArray();
+    }
+
+    private void writeArray(@NonNull Object array) throws IOException {
+        beginArray();
+        if (array instanceof int[])
+            for (int value : (int[]) array)
+                value(value);
+        else if (array instanceof long[])
+            for (long value : (long[]) array)
+                value(value);
+        else if (array instanceof double[])
+            for (double value : (double[]) array)
+                value(value);
+        else if (array instanceof float[])
+            for (float value : (float[]) array)
+                value(value);
+        else
+            for (int i = 0, n = Array.getLength(array); i < n; i++)
+                writeValue(Array.get(array, i));
+        endArray();
+    }
+
+    private void writeMap(@NonNull Map<?, ?> map) throws IOException {
+        beginObject();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object key = entry.getKey();
+            name(key instanceof Enum ? ((Enum<?>) key).name() : String.valueOf(key));
+            writeValue(entry.getValue());
+        }
+        endObject();
+    }
+
+    public void beginObject() throws IOException {
+        prefix();
+        writeByte('{');
+        needComma = false;
+        depth++;
+    }
+
+    public void endObject() throws IOException {
+        writeByte('}');
+        needComma = true;
+        depth--;
+    }
+
+    public void beginArray() throws IOException {
+        prefix();
+        writeByte('[');
+        needComma = false;
+        depth++;
+    }
+
+    public void endArray() throws IOException {
+        writeByte(']');
+        needComma = true;
+        depth--;
+    }
+
+    /**
+     * Writes the name of the next member of an object.
+     */
+    public void name(@NonNull String name) throws IOException {
+        prefix();
+        writeString(name);
+        writeByte(':');
+        needComma = false;
+    }
+
+    public void nullValue() throws IOException {
+        prefix();
+        writeBytes(NULL);
+    }
+
+    public void value(String value) throws IOException {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        prefix();
+        writeString(value);
+    }
+
+    public void value(boolean value) throws IOException {
+        prefix();
+        writeBytes(value ? TRUE : FALSE);
+    }
+
+    public void value(long value) throws IOException {
+        prefix();
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+
+        ensure(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int end = position + digits(value);
+        for (int i = end - 1; i >= position; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position = end;
+    }
+
+    /**
+     * Writes a number.
+     * @throws IllegalArgumentException if the value is not finite, as JSON does not support them
+     */
+    public void value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            throw new IllegalArgumentException("JSON does not support " + value);
+
+        if (value == (long) value && Math.abs(value) < 1e15)
+            value((long) value);
+        else {
+            prefix();
+            writeAscii(Double.toString(value));
+        }
+    }
+
+    /**
+     * Writes a number with the shortest digits of the {@code float}, which would be longer as a {@code double}.
+     * @throws IllegalArgumentException if the value is not finite, as JSON does not support them
+     */
+    public void value(float value) throws IOException {
+        if (Float.isNaN(value) || Float.isInfinite(value))
+            throw new IllegalArgumentException("JSON does not support " + value);
+
+        if (value == (long) value && Math.abs(value) < 1e15f)
+            value((long) value);
+        else {
+            prefix();
+            writeAscii(Float.toString(value));
+        }
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        for (long limit = 10; digits < 19 && value >= limit; limit *= 10)
+            digits++;
+        return digits;
+    }
+
+    /**
+     * Encodes the quoted name followed by a colon.
+     */
+    @NonNull
+    static byte[] encodeName(@NonNull String name) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(name.length() + 3);
+        try (JsonWriter writer = new JsonWriter(out)) {
+            writer.name(name);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e); // not thrown by the memory stream
+        }
+        return out.toByteArray();
+    }
+
+    private void writeName(@NonNull byte[] name) throws IOException {
+        prefix();
+        writeBytes(name);
+        needComma = false;
+    }
+
+    /**
+     * Writes the comma before the next value, if needed.
+     */
+    private void prefix() throws IOException {
+        if (needComma)
+            writeByte(',');
+        needComma = true;
+    }
+
+    /**
+     * Writes the quoted and escaped string as UTF-8.
+     */
+    private void writeString(@NonNull String value) throws IOException {
+        writeByte('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            ensure(12);
+            byte[] buffer = this.buffer;
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\')
+                    buffer[position++] = (byte) c;
+                else {
+                    buffer[position++] = '\\';
+                    switch (c) {
+                        case '"':
+                        case '\\':
+                            buffer[position++] = (byte) c;
+                            break;
+                        case '\n':
+                            buffer[position++] = 'n';
+                            break;
+                        case '\r':
+                            buffer[position++] = 'r';
+                            break;
+                        case '\t':
+                            buffer[position++] = 't';
+                            break;
+                        default:
+                            buffer[position++] = 'u';
+                            buffer[position++] = '0';
+                            buffer[position++] = '0';
+                            buffer[position++] = HEX[c >> 4];
+                            buffer[position++] = HEX[c & 0xF];
+                    }
+                }
+            }
+            else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | cp >> 18);
+                buffer[position++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | cp & 0x3F);
+            }
+            else if (Character.isSurrogate(c))
+                buffer[position++] = '?'; // unpaired surrogate, same as String.getBytes()
+            else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        writeByte('"');
+    }
+
+    /**
+     * Writes the ASCII characters, in buffer sized chunks if the value is longer than the buffer, e.g. a huge {@link java.math.BigDecimal}.
+     */
+    private void writeAscii(@NonNull String value) throws IOException {
+        for (int i = 0, n = value.length(); i < n; ) {
+            if (position == buffer.length)
+                flushBuffer();
+
+            int end = Math.min(n, i + buffer.length - position);
+            byte[] buffer = this.buffer;
+            int position = this.position;
+            for (; i < end; i++)
+                buffer[position++] = (byte) value.charAt(i);
+            this.position = position;
+        }
+    }
+
+    private void writeByte(int value) throws IOException {
+        if (position == buffer.length)
+            flushBuffer();
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeBytes(@NonNull byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                writeOut(bytes, bytes.length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Makes sure that the given number of bytes fit into the buffer.
+     */
+    private void ensure(int count) throws IOException {
+        if (buffer.length - position < count)
+            flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            writeOut(buffer, position);
+            position = 0;
+        }
+    }
+
+    private void writeOut(@NonNull byte[] bytes, int length) throws IOException {
+        if (out != null)
+            out.write(bytes, 0, length);
+        else {
+            ByteBuffer bb = ByteBuffer.wrap(bytes, 0, length);
+            while (bb.hasRemaining())
+                // a non-blocking channel writes nothing while its output is full
+                if (channel.write(bb) == 0)
+                    awaitOutput();
+        }
+    }
+
+    /**
+     * Waits until the non-blocking channel accepts more output.
+     */
+    private void awaitOutput() throws IOException {
+        if (!(channel instanceof SelectableChannel) || ((SelectableChannel) channel).isBlocking()) {
+            Thread.yield();
+            return;
+        }
+
+        if (selector == null) {
+            selector = Selector.open();
+            ((SelectableChannel) channel).register(selector, SelectionKey.OP_WRITE);
+        }
+        selector.select();
+        selector.selectedKeys().clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        if (out != null)
+            out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        }
+        finally {
+            try {
+                if (selector != null)
+                    selector.close();
+            }
+            finally {
+                if (out != null)
+                    out.close();
+                else
+                    channel.close();
+            }
+        }
+    }
+}
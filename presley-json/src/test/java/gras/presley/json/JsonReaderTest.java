@@ -0,0 +1,109 @@
+/*
+ * JsonReaderTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.json;
+
+import gras.presley.json.JsonWriterTest.Color;
+import gras.presley.json.JsonWriterTest.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class JsonReaderTest {
+
+    @Before
+    public void setUp() {
+        JsonTestContext.install();
+    }
+
+    @Test
+    public void beanIsRoundTripped() {
+        Player copy = JsonReader.fromJson(JsonWriter.toJson(Player.sample()), Player.class);
+
+        assertEquals("Doe", copy.name);
+        assertEquals(10, copy.number);
+        assertEquals(0.5, copy.rating, 0.0);
+        assertEquals(1.8f, copy.height, 0.0f);
+        assertTrue(copy.active);
+        assertEquals(Color.RED, copy.color);
+        assertEquals(Arrays.asList("fast"), copy.tags);
+        assertEquals("Lions", copy.team.name);
+        assertEquals(new UUID(1, 2), copy.id);
+        assertEquals(LocalDate.of(1990, 5, 17), copy.born);
+    }
+
+    @Test
+    public void propertiesAreMatchedInAnyOrder() {
+        Player player = JsonReader.fromJson("{ \"number\" : 7, \"unknown\": {\"a\": [1, 2]}, \"name\": \"Roe\" }", Player.class);
+        assertEquals("Roe", player.name);
+        assertEquals(7, player.number);
+    }
+
+    @Test
+    public void untypedValuesAreRead() throws IOException {
+        JsonReader reader = new JsonReader(new ByteArrayInputStream("{\"a\":[1,2.5,\"x\",null,true]}".getBytes(StandardCharsets.UTF_8)));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> map = (Map<String, Object>) reader.read();
+        assertEquals(Arrays.asList(1L, 2.5, "x", null, true), map.get("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidValueIsRejected() {
+        JsonReader.fromJson("{\"id\":\"not a uuid\"}", Player.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unconvertibleValueIsRejected() {
+        JsonReader.fromJson("{\"born\":12}", Player.class);
+    }
+
+    /**
+     * A non-blocking channel reads nothing until the input arrives, that is not the end of the input.
+     */
+    @Test(timeout = 10000)
+    public void nonBlockingChannelIsWaitedFor() throws Exception {
+        Pipe pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        byte[] json = JsonWriter.toJson(Arrays.asList(Player.sample(), Player.sample())).getBytes(StandardCharsets.UTF_8);
+
+        Thread sender = new Thread(() -> {
+            try (Pipe.SinkChannel sink = pipe.sink()) {
+                for (int i = 0; i < json.length; i += 16) {
+                    Thread.sleep(1);
+                    sink.write(ByteBuffer.wrap(json, i, Math.min(16, json.length - i)));
+                }
+            }
+            catch (IOException | InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        sender.start();
+
+        try (JsonReader reader = new JsonReader(pipe.source())) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> players = (List<Map<String, Object>>) reader.read();
+            assertEquals(2, players.size());
+            assertEquals("1990-05-17", players.get(1).get("born"));
+        }
+        sender.join();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * JsonTestContext
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.json;
+
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.EvaluatorRegistry;
+import gras.presley.evaluator.StateManager;
+import gras.presley.interceptor.InterceptorManager;
+import gras.presley.interceptor.InterceptorRegistry;
+import gras.presley.metadata.TypeManager;
+import gras.presley.operation.OperationManager;
+import gras.presley.operation.OperationRegistry;
+
+/**
+ * Application context of the JSON tests, having only a type manager.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class JsonTestContext extends ApplicationContext {
+
+    private final TypeManager typeManager;
+
+    protected JsonTestContext(TypeManager typeManager) {
+        this.typeManager = typeManager;
+    }
+
+    /**
+     * Installs a context with a new default type manager.
+     */
+    public static JsonTestContext install() {
+        return install(new TypeManager() {});
+    }
+
+    public static JsonTestContext install(TypeManager typeManager) {
+        JsonTestContext context = new JsonTestContext(typeManager);
+        setInstance(context);
+        return context;
+    }
+
+    @Override
+    protected TypeManager getTypeManagerImpl() {
+        return typeManager;
+    }
+
+    @Override
+    protected InterceptorRegistry getInterceptorRegistryImpl() {
+        return null;
+    }
+
+    @Override
+    protected InterceptorManager getInterceptorManagerImpl() {
+        return null;
+    }
+
+    @Override
+    protected EvaluatorRegistry getEvaluatorRegistryImpl() {
+        return null;
+    }
+
+    @Override
+    protected StateManager getStateManagerImpl() {
+        return null;
+    }
+
+    @Override
+    protected OperationRegistry getOperationRegistryImpl() {
+        return null;
+    }
+
+    @Override
+    protected OperationManager getOperationManagerImpl() {
+        return null;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * JsonWriterTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.json;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class JsonWriterTest {
+
+    @Before
+    public void setUp() {
+        JsonTestContext.install();
+    }
+
+    @Test
+    public void basicValuesAreWritten() {
+        assertEquals("null", JsonWriter.toJson(null));
+        assertEquals("-42", JsonWriter.toJson(-42));
+        assertEquals("-9223372036854775808", JsonWriter.toJson(Long.MIN_VALUE));
+        assertEquals("2", JsonWriter.toJson(2.0));
+        assertEquals("0.1", JsonWriter.toJson(0.1));
+        assertEquals("true", JsonWriter.toJson(true));
+        assertEquals("\"x\"", JsonWriter.toJson('x'));
+        assertEquals("\"GREEN\"", JsonWriter.toJson(Color.GREEN));
+        assertEquals("\"a\\\"b\\\\c\\n\\u0001\u00e9\"", JsonWriter.toJson("a\"b\\c\n\u0001\u00e9"));
+    }
+
+    @Test
+    public void floatsAreWrittenWithTheirOwnDigits() {
+        assertEquals("0.1", JsonWriter.toJson(0.1f));
+        assertEquals("[1.1,3]", JsonWriter.toJson(new float[] {1.1f, 3f}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonFiniteNumberIsRejected() {
+        JsonWriter.toJson(Float.NaN);
+    }
+
+    @Test
+    public void collectionsAndMapsAreWritten() {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put("a", Arrays.asList(1, "b"));
+        map.put(Color.RED, new int[] {1, 2});
+        assertEquals("{\"a\":[1,\"b\"],\"RED\":[1,2]}", JsonWriter.toJson(map));
+    }
+
+    @Test
+    public void beanIsWrittenInPropertyOrder() {
+        Player player = Player.sample();
+        assertEquals("{\"name\":\"Doe\",\"number\":10,\"rating\":0.5,\"height\":1.8,\"active\":true,\"color\":\"RED\","
+                + "\"tags\":[\"fast\"],\"team\":{\"name\":\"Lions\"},"
+                + "\"id\":\"00000000-0000-0001-0000-000000000002\",\"born\":\"1990-05-17\"}", JsonWriter.toJson(player));
+    }
+
+    @Test
+    public void nullPropertiesAreSkipped() {
+        assertEquals("{\"number\":0,\"rating\":0,\"height\":0,\"active\":false}", JsonWriter.toJson(new Player()));
+    }
+
+    @Test
+    public void valueClassesAreNotWrittenAsBeans() {
+        assertEquals("\"00000000-0000-0001-0000-000000000002\"", JsonWriter.toJson(new UUID(1, 2)));
+        assertEquals("\"1990-05-17\"", JsonWriter.toJson(LocalDate.of(1990, 5, 17)));
+    }
+
+    @Test
+    public void infoFollowsTheTypeManager() {
+        JsonBeanInfo info = JsonBeanInfo.forType(TypeManager.forClass(Player.class));
+        assertSame(info, JsonBeanInfo.forType(TypeManager.forClass(Player.class)));
+
+        JsonTestContext.install();
+        JsonBeanInfo newInfo = JsonBeanInfo.forType(TypeManager.forClass(Player.class));
+        assertNotSame(info, newInfo);
+        assertSame(TypeManager.forClass(Player.class), newInfo.beanType);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cycleIsDetected() {
+        Team team = new Team();
+        team.captain = new Player();
+        team.captain.team = team;
+        JsonWriter.toJson(team);
+    }
+
+    public enum Color {
+        RED, GREEN
+    }
+
+    public static class Team {
+        @BeanProp
+        public String name;
+        @BeanProp
+        public Player captain;
+    }
+
+    public static class Player {
+        @BeanProp
+        public String name;
+        @BeanProp
+        public int number;
+        @BeanProp
+        public double rating;
+        @BeanProp
+        public float height;
+        @BeanProp
+        public boolean active;
+        @BeanProp
+        public Color color;
+        @BeanProp
+        public List<String> tags;
+        @BeanProp
+        public Team team;
+        @BeanProp
+        public UUID id;
+        @BeanProp
+        public LocalDate born;
+
+        static Player sample() {
+            Player player = new Player();
+            player.name = "Doe";
+            player.number = 10;
+            player.rating = 0.5;
+            player.height = 1.8f;
+            player.active = true;
+            player.color = Color.RED;
+            player.tags = Arrays.asList("fast");
+            player.team = new Team();
+            player.team.name = "Lions";
+            player.id = new UUID(1, 2);
+            player.born = LocalDate.of(1990, 5, 17);
+            return player;
+        }
+    }
+}
@@ -6,13 +6,17 @@
  */
 package gras.presley.ctx;
 
+import gras.presley.evaluator.EvaluatedStateCache;
 import gras.presley.evaluator.EvaluatorRegistry;
 import gras.presley.evaluator.StateManager;
+import gras.presley.interceptor.DirtyTracker;
 import gras.presley.interceptor.InterceptorManager;
 import gras.presley.interceptor.InterceptorRegistry;
 import gras.presley.metadata.TypeManager;
+import gras.presley.metrics.MetricsRecorder;
 import gras.presley.operation.OperationManager;
 import gras.presley.operation.OperationRegistry;
+import gras.presley.trace.Tracer;
 import lombok.NonNull;
 
 /**
@@ -27,6 +31,13 @@ public abstract class ApplicationContext {
         return instance;
     }
 
+    /**
+     * Sets the application context, called by the application at startup before the first use of the framework.
+     */
+    protected static void setInstance(@NonNull ApplicationContext context) {
+        instance = context;
+    }
+
     @NonNull
     public static TypeManager getTypeManager() {
         return instance().getTypeManagerImpl();
@@ -51,6 +62,55 @@ public abstract class ApplicationContext {
     @NonNull
     protected abstract InterceptorManager getInterceptorManagerImpl();
 
+    /**
+     * Gets the tracker of the changed bean properties.
+     * @return the tracker or {@code null} if the dirty tracking is not enabled
+     */
+    public static DirtyTracker getDirtyTracker() {
+        return instance().getDirtyTrackerImpl();
+    }
+
+    /**
+     * Returns the tracker of the changed bean properties. This is a customization point.
+     * <p> The default implementation returns {@code null}, so the dirty tracking is disabled.
+     */
+    protected DirtyTracker getDirtyTrackerImpl() {
+        return null;
+    }
+
+    /**
+     * Gets the recorder of the interceptor and evaluator metrics.
+     * @return the recorder or {@code null} if the metrics are not enabled
+     */
+    public static MetricsRecorder getMetricsRecorder() {
+        return instance().getMetricsRecorderImpl();
+    }
+
+    /**
+     * Returns the recorder of the interceptor and evaluator metrics. This is a customization point.
+     * <p> The default implementation returns {@code null}, so the invocations are not timed.
+     */
+    protected MetricsRecorder getMetricsRecorderImpl() {
+        return null;
+    }
+
+    /**
+     * Gets the tracer of the metadata build, the interceptor chains, the evaluation and the operation lookups.
+     * @return the tracer or {@code null} if the tracing is not enabled
+     */
+    public static Tracer getTracer() {
+        return instance().getTracerImpl();
+    }
+
+    /**
+     * Returns the tracer of the metadata build, the interceptor chains, the evaluation and the operation lookups.
+     * This is a customization point.
+     * <p> The default implementation returns {@code null}, so nothing is traced.
+     */
+    protected Tracer getTracerImpl() {
+        return null;
+    }
+
     @NonNull
     public static EvaluatorRegistry getEvaluatorRegistry() {
         return instance().getEvaluatorRegistryImpl();
@@ -59,6 +119,22 @@ public abstract class ApplicationContext {
     @NonNull
     protected abstract EvaluatorRegistry getEvaluatorRegistryImpl();
 
+    /**
+     * Gets the cache of the evaluated states.
+     * @return the cache or {@code null} if the evaluated states are not cached
+     */
+    public static EvaluatedStateCache getEvaluatedStateCache() {
+        return instance().getEvaluatedStateCacheImpl();
+    }
+
+    /**
+     * Returns the cache of the evaluated states. This is a customization point.
+     * <p> The default implementation returns {@code null}, so the states are evaluated on every request.
+     */
+    protected EvaluatedStateCache getEvaluatedStateCacheImpl() {
+        return null;
+    }
+
     @NonNull
     public static StateManager getStateManager() {
         return instance().getStateManagerImpl();
@@ -0,0 +1,58 @@
+/*
+ * DefaultEvaluatorRegistry
+ * Create Date: 2020. 04. 14.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.evaluator;
+
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluator registry which can be changed at runtime, like {@link gras.presley.interceptor.DefaultInterceptorRegistry}.
+ *
+ * <p> Every change increases the {@link #getVersion() version}, so the evaluator lists cached on the metadata
+ * are resolved again lazily on their next use. This class is thread safe, the readers are never blocked.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class DefaultEvaluatorRegistry implements EvaluatorRegistry {
+
+    @NonNull private final CopyOnWriteArrayList<EvaluatorInfo<?, ?>> evaluators = new CopyOnWriteArrayList<>();
+    @NonNull private final AtomicLong version = new AtomicLong();
+
+    public DefaultEvaluatorRegistry() {
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <_B, _P> List<EvaluatorInfo<_B, _P>> getEvaluators() {
+        return (List) evaluators;
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    public <_B, _P> void addEvaluator(@NonNull Evaluator<_B, _P> evaluator) {
+        evaluators.add(new EvaluatorInfo<>(evaluator));
+        version.incrementAndGet();
+    }
+
+    /**
+     * Removes all registrations of the evaluator.
+     * @return true if the evaluator was registered
+     */
+    public boolean remove(@NonNull Evaluator<?, ?> evaluator) {
+        boolean removed = evaluators.removeIf(info -> info.getInstance() == evaluator);
+        if (removed)
+            version.incrementAndGet();
+        return removed;
+    }
+}
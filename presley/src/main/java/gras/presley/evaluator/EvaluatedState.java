@@ -6,6 +6,7 @@
  */
 package gras.presley.evaluator;
 
+import java.util.Collections;
 import java.util.EnumSet;
 
 /**
@@ -14,26 +15,27 @@ import java.util.EnumSet;
  */
 public enum EvaluatedState {
 
-    CONFIDENTIAL(true, false, EnumSet.noneOf(EvaluatedState.class)),
-    READABLE(false, true, EnumSet.noneOf(EvaluatedState.class)),
-    VISIBLE(false, true, EnumSet.of(CONFIDENTIAL, READABLE)),
+    CONFIDENTIAL(true, false),
+    READABLE(false, true),
+    VISIBLE(false, true, CONFIDENTIAL, READABLE),
 
-    WRITEABLE(false, true, EnumSet.of(READABLE)),
-    EDITABLE(false, true, EnumSet.of(CONFIDENTIAL, READABLE, WRITEABLE)),
+    WRITEABLE(false, true, READABLE),
+    EDITABLE(false, true, CONFIDENTIAL, READABLE, WRITEABLE),
 
-    MANDATORY(true, false, EnumSet.noneOf(EvaluatedState.class)),
+    MANDATORY(true, false),
 
-    REMOVABLE(false, true, EnumSet.noneOf(EvaluatedState.class)),
-    CREATABLE(false, true, EnumSet.noneOf(EvaluatedState.class)),
+    REMOVABLE(false, true),
+    CREATABLE(false, true),
 
-    WARNINGS(false, false, EnumSet.noneOf(EvaluatedState.class)),
-    ERRORS(false, false, EnumSet.noneOf(EvaluatedState.class));
+    WARNINGS(false, false),
+    ERRORS(false, false);
 
     private final boolean initial;
     private final boolean dflt;
-    private final EnumSet<EvaluatedState> dependsOn;
+    /** an {@link EnumSet} can not be created while the enum is initialized */
+    private final EvaluatedState[] dependsOn;
 
-    EvaluatedState(boolean initial, boolean dflt, EnumSet<EvaluatedState> dependsOn) {
+    EvaluatedState(boolean initial, boolean dflt, EvaluatedState... dependsOn) {
         this.initial = initial;
         this.dflt = dflt;
         this.dependsOn = dependsOn;
@@ -48,7 +50,9 @@ public enum EvaluatedState {
     }
 
     public EnumSet<EvaluatedState> getDependsOn() {
-        return dependsOn;
+        EnumSet<EvaluatedState> states = EnumSet.noneOf(EvaluatedState.class);
+        Collections.addAll(states, dependsOn);
+        return states;
     }
 
     public boolean isMessageState() {
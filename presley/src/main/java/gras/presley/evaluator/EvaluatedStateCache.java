@@ -0,0 +1,181 @@
+/*
+ * EvaluatedStateCache
+ * Create Date: 2020. 04. 15.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.evaluator;
+
+import gras.berry.collection.ConcurrentWeakIdentityHashMap;
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TypeManager;
+import lombok.NonNull;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Caches the evaluated states of the beans and their properties, so e.g. a grid render does not run the evaluators
+ * again and again for the unchanged beans.
+ *
+ * <p> The cache is used by {@link StateManager} if the application context provides one,
+ * see {@link ApplicationContext#getEvaluatedStateCache()}. A state is cached only if all the evaluators called for it are
+ * {@link EvaluatorDef#cacheable() cacheable}. All the states of a bean are invalidated when the property interceptors
+ * report a change of any of its properties, as the state of a property may depend on the other properties,
+ * see {@link gras.presley.interceptor.InterceptorManager}. The cached states are dropped when the evaluator registry changes.
+ *
+ * <p> The states of a bean are stored in an {@code int} per the bean and per each of its properties: the low 16 bits
+ * flag the cached states by their ordinal, the high 16 bits hold their values. The beans are referenced weakly,
+ * so the cache does not keep the beans alive. This class is thread safe: the reads do not lock, the states of a bean are
+ * updated atomically, and the invalidation of a bean only affects the evaluations of the same bean.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class EvaluatedStateCache {
+
+    private static final int VALUE_SHIFT = 16;
+
+    @NonNull private final ConcurrentWeakIdentityHashMap<Object, BeanStates> beans = new ConcurrentWeakIdentityHashMap<>(1024);
+
+    public EvaluatedStateCache() {
+        if (EvaluatedState.values().length > VALUE_SHIFT)
+            throw new IllegalStateException("Too many evaluated states to cache");
+    }
+
+    /**
+     * Gets the cache of the application context.
+     * @return the cache or {@code null} if the states are not cached
+     */
+    public static EvaluatedStateCache instance() {
+        return ApplicationContext.getEvaluatedStateCache();
+    }
+
+    /**
+     * Gets the cached state of the bean.
+     * @return the state or {@code null} if it is not cached
+     */
+    public Boolean get(@NonNull Object bean, @NonNull EvaluatedState state) {
+        BeanStates states = beans.get(bean);
+        return states == null ? null : get(states, 0, state);
+    }
+
+    /**
+     * Gets the cached state of the property of the bean.
+     * @return the state or {@code null} if it is not cached
+     */
+    public <_B> Boolean get(@NonNull _B bean, @NonNull PlainBeanProp<_B, ?> prop, @NonNull EvaluatedState state) {
+        BeanStates states = beans.get(bean);
+        return states == null ? null : get(states, getSlot(bean, prop), state);
+    }
+
+    private static Boolean get(@NonNull BeanStates states, int slot, @NonNull EvaluatedState state) {
+        // the registry version is only read for the beans having cached states
+        if (states.version != EvaluatorRegistry.instance().getVersion())
+            return null;
+
+        int bits = states.slots.get(slot);
+        int bit = 1 << state.ordinal();
+        return (bits & bit) == 0 ? null : Boolean.valueOf((bits & bit << VALUE_SHIFT) != 0);
+    }
+
+    /**
+     * Gets the stamp of the states of the bean, to be passed to the {@code put} methods after the evaluation.
+     * The stamp is an opaque object, which is replaced when the bean is invalidated or the evaluator registry changes,
+     * so the states evaluated meanwhile are not cached.
+     */
+    @NonNull
+    public Object getStamp(@NonNull Object bean) {
+        long version = EvaluatorRegistry.instance().getVersion();
+        for (;;) {
+            BeanStates states = beans.get(bean);
+            if (states != null && states.version == version)
+                return states;
+
+            BeanStates created = new BeanStates(version, ((BeanType<?>) TypeManager.forBean(bean)).getProperties().size() + 1);
+            if (states == null ? beans.putIfAbsent(bean, created) == null : beans.replace(bean, states, created))
+                return created;
+        }
+    }
+
+    /**
+     * Caches the evaluated state of the bean, unless the bean was invalidated since the given stamp.
+     */
+    public void put(@NonNull Object bean, @NonNull EvaluatedState state, boolean value, @NonNull Object stamp) {
+        put(bean, 0, state, value, stamp);
+    }
+
+    /**
+     * Caches the evaluated state of the property of the bean, unless the bean was invalidated since the given stamp.
+     */
+    public <_B> void put(@NonNull _B bean, @NonNull PlainBeanProp<_B, ?> prop, @NonNull EvaluatedState state, boolean value, @NonNull Object stamp) {
+        put(bean, getSlot(bean, prop), state, value, stamp);
+    }
+
+    private void put(@NonNull Object bean, int slot, @NonNull EvaluatedState state, boolean value, @NonNull Object stamp) {
+        BeanStates states = beans.get(bean);
+        if (states != stamp || states.version != EvaluatorRegistry.instance().getVersion())
+            return;
+
+        int bit = 1 << state.ordinal();
+        AtomicIntegerArray slots = states.slots;
+        for (;;) {
+            int bits = slots.get(slot);
+            int updated = value ?
+                          bits | bit | bit << VALUE_SHIFT :
+                          (bits | bit) & ~(bit << VALUE_SHIFT);
+            if (slots.compareAndSet(slot, bits, updated))
+                return;
+        }
+    }
+
+    /**
+     * Forgets the states of the bean, e.g. after a change which is not reported by the property interceptors.
+     */
+    public void invalidate(@NonNull Object bean) {
+        beans.remove(bean);
+    }
+
+    /**
+     * Number of the beans having cached states, including the garbage collected ones which are not cleaned up yet.
+     */
+    public int size() {
+        beans.expungeStaleEntries();
+        return beans.size();
+    }
+
+    /**
+     * Forgets all states, e.g. when the current user changes.
+     */
+    public void clear() {
+        beans.clear();
+    }
+
+    /**
+     * Gets the slot of the property in the states of the bean, the slot of the bean itself is 0.
+     */
+    private static <_B> int getSlot(@NonNull _B bean, @NonNull PlainBeanProp<_B, ?> prop) {
+        BeanType<?> beanType = prop.getBeanType();
+        if (beanType.getTypeClass() == bean.getClass())
+            return prop.getIndex() + 1;
+
+        // the property indexes differ in the sub types
+        beanType = (BeanType<?>) TypeManager.forBean(bean);
+        return beanType.getProperty(prop.getPropertyName()).getIndex() + 1;
+    }
+
+    /**
+     * The states of a bean evaluated with a version of the evaluator registry, also used as the stamp of the bean.
+     */
+    private static final class BeanStates {
+
+        final long version;
+        @NonNull final AtomicIntegerArray slots;
+
+        BeanStates(long version, int slotCount) {
+            this.version = version;
+            this.slots = new AtomicIntegerArray(slotCount);
+        }
+    }
+}
@@ -6,11 +6,15 @@
  */
 package gras.presley.evaluator;
 
-import gras.berry.collection.ExtendedArray;
 import gras.berry.collection.ReadOnlyList;
 import gras.presley.ctx.ApplicationContext;
 import gras.presley.metadata.BeanType;
+import gras.presley.metadata.CachedList;
 import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metrics.MetricsRecorder;
+import gras.presley.trace.TraceSpan;
+import gras.presley.trace.Tracer;
+import lombok.NonNull;
 
 import java.util.List;
 
@@ -25,6 +29,8 @@ public class EvaluationContext<_B, _P> {
     private PlainBeanProp<_B, _P> propertyMetadata;
     private EvaluatedState state;
     private MessageBuilder messages;
+    /** whether all the evaluators called by the last evaluation are cacheable */
+    private boolean cacheable;
 
     public EvaluationContext(_B bean, BeanType<_B> beanMetadata, EvaluatedState state) {
         this.bean = bean;
@@ -65,46 +71,74 @@ public class EvaluationContext<_B, _P> {
     }
 
     ReadOnlyList<EvaluatorInfo<_B, _P>> getEvaluators() {
-        ReadOnlyList<EvaluatorInfo> evaluators =
-                propertyMetadata != null ?
-                (ReadOnlyList) MetadataAccess.getEvaluators(propertyMetadata) :
-                (ReadOnlyList) MetadataAccess.getEvaluators(beanMetadata);
-
-        if (evaluators == null) {
-            List<EvaluatorInfo<_B, _P>> all = EvaluatorRegistry.instance().getEvaluators();
-            ExtendedArray supportedEvaluators = new ExtendedArray<>();
-            for (int i = all.size(); --i >= 0; ) {
-                EvaluatorInfo<_B, _P> evaluator = all.get(i);
-                if (propertyMetadata == null && !evaluator.supports(beanMetadata))
-                    continue;
-                if (propertyMetadata != null && !evaluator.supports(propertyMetadata))
-                    continue;
-
-                supportedEvaluators.add(evaluator);
+        long version = EvaluatorRegistry.instance().getVersion();
+        if (propertyMetadata != null) {
+            CachedList<EvaluatorInfo<_B, _P>, Void> evaluators = MetadataAccess.getEvaluators(propertyMetadata);
+            if (evaluators == null || evaluators.getVersion() != version) {
+                evaluators = new CachedList<>(getEvaluatorIndex(version).getEvaluators(propertyMetadata), version);
+                MetadataAccess.setEvaluators(propertyMetadata, evaluators);
             }
+            return evaluators.getList();
+        }
 
-            evaluators = new ReadOnlyList<>(supportedEvaluators);
-            if (propertyMetadata != null)
-                MetadataAccess.setEvaluators(propertyMetadata, (ReadOnlyList) evaluators);
-            else
-                MetadataAccess.setEvaluators(beanMetadata, (ReadOnlyList) evaluators);
+        CachedList<EvaluatorInfo<_B, ?>, Void> evaluators = MetadataAccess.getEvaluators(beanMetadata);
+        if (evaluators == null || evaluators.getVersion() != version) {
+            evaluators = new CachedList<>(getEvaluatorIndex(version).getEvaluators(beanMetadata), version);
+            MetadataAccess.setEvaluators(beanMetadata, evaluators);
         }
-        return (ReadOnlyList) evaluators;
+        @SuppressWarnings("unchecked")
+        ReadOnlyList<EvaluatorInfo<_B, _P>> list = (ReadOnlyList<EvaluatorInfo<_B, _P>>) (ReadOnlyList<?>) evaluators.getList();
+        return list;
+    }
+
+    /**
+     * Gets the evaluator index of the state manager, or builds a temporary one if there is no state manager.
+     */
+    @NonNull
+    private static EvaluatorIndex getEvaluatorIndex(long version) {
+        StateManager stateManager = ApplicationContext.getStateManager();
+        return stateManager != null ? stateManager.getEvaluatorIndex(version) : new EvaluatorIndex(version, EvaluatorRegistry.instance().getEvaluators());
     }
 
     boolean evaluate() {
+        Tracer tracer = Tracer.instance();
+        if (tracer == null)
+            return evaluateImpl();
+
+        BeanType<_B> beanType = propertyMetadata != null ? propertyMetadata.getBeanType() : beanMetadata;
+        TraceSpan span = tracer.startEvaluation(beanType, propertyMetadata, state);
+        try {
+            return evaluateImpl();
+        }
+        finally {
+            span.close();
+        }
+    }
+
+    private boolean evaluateImpl() {
         List<EvaluatorInfo<_B, _P>> evaluators = getEvaluators();
 
         boolean returnOnFirst = !state.isMessageState(); // we need to run all the evaluators to get all the messages
         boolean startState = state.isInitial();
         boolean actState = startState;
+        MetricsRecorder recorder = MetricsRecorder.instance();
+        cacheable = true;
 
         for (int i = evaluators.size(); --i >= 0; ) {
             EvaluatorInfo<_B, _P> evaluator = evaluators.get(i);
             if (!evaluator.supports(state, bean))
                 continue;
 
-            boolean evaluatedState = evaluator.getInstance().evaluateState(this);
+            cacheable &= evaluator.isCacheable();
+
+            boolean evaluatedState;
+            if (recorder == null)
+                evaluatedState = evaluator.getInstance().evaluateState(this);
+            else {
+                long start = System.nanoTime();
+                evaluatedState = evaluator.getInstance().evaluateState(this);
+                recorder.recordEvaluator(evaluator, propertyMetadata != null ? propertyMetadata.getBeanType() : beanMetadata, state, System.nanoTime() - start);
+            }
 
             if (returnOnFirst && evaluatedState != startState)
                 return evaluatedState;
@@ -115,21 +149,28 @@ public class EvaluationContext<_B, _P> {
         return actState;
     }
 
+    /**
+     * Checks if the result of the last evaluation can be cached, see {@link EvaluatedStateCache}.
+     */
+    boolean isCacheable() {
+        return cacheable;
+    }
+
     private static final class MetadataAccess extends gras.presley.metadata.PackageAccess {
 
-        protected static <_B> ReadOnlyList<EvaluatorInfo<_B, ?>> getEvaluators(BeanType<_B> beanType) {
+        protected static <_B> CachedList<EvaluatorInfo<_B, ?>, Void> getEvaluators(BeanType<_B> beanType) {
             return gras.presley.metadata.PackageAccess.getEvaluators(beanType);
         }
 
-        protected static <_B> void setEvaluators(BeanType<_B> beanType, ReadOnlyList<EvaluatorInfo<_B, ?>> evaluators) {
+        protected static <_B> void setEvaluators(BeanType<_B> beanType, CachedList<EvaluatorInfo<_B, ?>, Void> evaluators) {
             gras.presley.metadata.PackageAccess.setEvaluators(beanType, evaluators);
         }
 
-        protected static <_B, _P> ReadOnlyList<EvaluatorInfo<_B, _P>> getEvaluators(PlainBeanProp<_B, _P> prop) {
+        protected static <_B, _P> CachedList<EvaluatorInfo<_B, _P>, Void> getEvaluators(PlainBeanProp<_B, _P> prop) {
             return gras.presley.metadata.PackageAccess.getEvaluators(prop);
         }
 
-        protected static <_B, _P> void setEvaluators(PlainBeanProp<_B, _P> prop, ReadOnlyList<EvaluatorInfo<_B, _P>> evaluators) {
+        protected static <_B, _P> void setEvaluators(PlainBeanProp<_B, _P> prop, CachedList<EvaluatorInfo<_B, _P>, Void> evaluators) {
             gras.presley.metadata.PackageAccess.setEvaluators(prop, evaluators);
         }
     }
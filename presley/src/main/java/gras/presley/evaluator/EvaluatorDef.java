@@ -17,4 +17,11 @@ import java.lang.annotation.RetentionPolicy;
 public @interface EvaluatorDef {
 
     EvaluatedState[] states();
+
+    /**
+     * Whether the evaluated states can be cached until a property of the bean changes, see {@link EvaluatedStateCache}.
+     * Only the evaluators depending on nothing but the properties of the evaluated bean are cacheable,
+     * not on the current user or on other beans. Defaults to false.
+     */
+    boolean cacheable() default false;
 }
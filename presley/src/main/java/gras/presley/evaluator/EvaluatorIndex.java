@@ -0,0 +1,155 @@
+/*
+ * EvaluatorIndex
+ * Create Date: 2020. 04. 08.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.evaluator;
+
+import gras.berry.collection.ExtendedArray;
+import gras.berry.collection.ReadOnlyList;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Inverted index of the registered evaluators by their target class, so the evaluators of a type
+ * or a property are resolved without checking all registered evaluators.
+ *
+ * <p> A lookup walks the class hierarchy of the bean type, and checks only the bean or the property evaluators of those classes
+ * with the {@code supports} methods, so the result is the same as checking all evaluators.
+ * The evaluator infos overriding the {@code supports} methods are always checked. The resolved lists keep
+ * the reverse registration order of the linear resolution. Instances are immutable after the creation.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class EvaluatorIndex {
+
+    private static final Class<?>[] EMPTY_CLASSES = {};
+
+    /** the class itself, its super classes and all of its interfaces */
+    private static final ClassValue<Class<?>[]> hierarchies = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            LinkedHashSet<Class<?>> classes = new LinkedHashSet<>();
+            collectHierarchy(type, classes);
+            classes.add(Object.class);
+            return classes.toArray(EMPTY_CLASSES);
+        }
+    };
+
+    /** the version of the registry the index was built from */
+    private final long version;
+    /** the positions of the evaluators of the beans in the registry by their target class */
+    @NonNull private final HashMap<Class<?>, int[]> beanEvaluators = new HashMap<>();
+    /** the positions of the evaluators of the properties in the registry by their target class */
+    @NonNull private final HashMap<Class<?>, int[]> propertyEvaluators = new HashMap<>();
+    /** the positions of the evaluators which can not be indexed */
+    @NonNull private final int[] unindexed;
+    @NonNull private final EvaluatorInfo<?, ?>[] evaluators;
+
+    EvaluatorIndex(long version, @NonNull List<? extends EvaluatorInfo<?, ?>> evaluatorList) {
+        this.version = version;
+        evaluators = evaluatorList.toArray(new EvaluatorInfo<?, ?>[0]);
+
+        ExtendedArray<Integer> unindexedPositions = new ExtendedArray<>();
+        HashMap<Class<?>, ExtendedArray<Integer>> beanPositions = new HashMap<>();
+        HashMap<Class<?>, ExtendedArray<Integer>> propertyPositions = new HashMap<>();
+        for (int i = 0; i < evaluators.length; i++) {
+            EvaluatorInfo<?, ?> evaluator = evaluators[i];
+            if (evaluator.getClass() != EvaluatorInfo.class)
+                unindexedPositions.add(i);
+            else
+                (evaluator.propertyPatterns != null ? propertyPositions : beanPositions).computeIfAbsent(evaluator.target, k -> new ExtendedArray<>()).add(i);
+        }
+
+        unindexed = toArray(unindexedPositions);
+        beanPositions.forEach((target, targetPositions) -> beanEvaluators.put(target, toArray(targetPositions)));
+        propertyPositions.forEach((target, targetPositions) -> propertyEvaluators.put(target, toArray(targetPositions)));
+    }
+
+    /**
+     * The version of the registry the index was built from.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Resolves the evaluators supporting the bean type.
+     */
+    @NonNull
+    <_B> ReadOnlyList<EvaluatorInfo<_B, ?>> getEvaluators(@NonNull BeanType<_B> beanMetadata) {
+        ExtendedArray<EvaluatorInfo<_B, ?>> supportedEvaluators = new ExtendedArray<>();
+        for (int i : getCandidates(beanEvaluators, beanMetadata.getTypeClass())) {
+            @SuppressWarnings("unchecked")
+            EvaluatorInfo<_B, ?> evaluator = (EvaluatorInfo<_B, ?>) evaluators[i];
+            if (evaluator.supports(beanMetadata))
+                supportedEvaluators.add(evaluator);
+        }
+        return new ReadOnlyList<>(supportedEvaluators);
+    }
+
+    /**
+     * Resolves the evaluators supporting the property.
+     */
+    @NonNull
+    <_B, _P> ReadOnlyList<EvaluatorInfo<_B, _P>> getEvaluators(@NonNull PlainBeanProp<_B, _P> propertyMetadata) {
+        ExtendedArray<EvaluatorInfo<_B, _P>> supportedEvaluators = new ExtendedArray<>();
+        for (int i : getCandidates(propertyEvaluators, propertyMetadata.getBeanType().getTypeClass())) {
+            @SuppressWarnings("unchecked")
+            EvaluatorInfo<_B, _P> evaluator = (EvaluatorInfo<_B, _P>) evaluators[i];
+            if (evaluator.supports(propertyMetadata))
+                supportedEvaluators.add(evaluator);
+        }
+        return new ReadOnlyList<>(supportedEvaluators);
+    }
+
+    /**
+     * Collects the positions of the evaluators of the class hierarchy and the unindexed ones, in descending order.
+     */
+    @NonNull
+    private int[] getCandidates(@NonNull HashMap<Class<?>, int[]> byTarget, @NonNull Class<?> beanClass) {
+        int[] result = unindexed.clone();
+        for (Class<?> type : hierarchies.get(beanClass)) {
+            int[] positions = byTarget.get(type);
+            if (positions == null)
+                continue;
+
+            int[] merged = Arrays.copyOf(result, result.length + positions.length);
+            System.arraycopy(positions, 0, merged, result.length, positions.length);
+            result = merged;
+        }
+
+        Arrays.sort(result);
+        for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+            int position = result[i];
+            result[i] = result[j];
+            result[j] = position;
+        }
+        return result;
+    }
+
+    @NonNull
+    private static int[] toArray(@NonNull List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = values.get(i);
+        return result;
+    }
+
+    private static void collectHierarchy(Class<?> type, @NonNull LinkedHashSet<Class<?>> classes) {
+        for (; type != null; type = type.getSuperclass()) {
+            if (!classes.add(type))
+                return;
+            for (Class<?> interfaceType : type.getInterfaces())
+                collectHierarchy(interfaceType, classes);
+        }
+    }
+}
@@ -6,9 +6,17 @@
  */
 package gras.presley.evaluator;
 
+import gras.berry.ReflectionUtils;
+import gras.presley.interceptor.PropertyDef;
 import gras.presley.metadata.BeanType;
 import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyPattern;
+import lombok.NonNull;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.EnumSet;
 
 /**
@@ -18,25 +26,89 @@ import java.util.EnumSet;
 public class EvaluatorInfo<_B, _P> {
 
     final Evaluator<_B, _P> evaluator;
-    final BeanType<_B> beanMetadata;
-    final PlainBeanProp<_B, _P> propertyMetadata;
+    /** the bean class of the generic definition of the evaluator, {@link Object} if the evaluator is not generic */
+    @NonNull final Class<?> target;
+    /** the patterns of the {@link PropertyDef} names, {@code null} if the evaluator evaluates the beans, not their properties */
+    final PropertyPattern[] propertyPatterns;
     final EnumSet<EvaluatedState> supportedStates;
+    final boolean cacheable;
 
     EvaluatorInfo(Evaluator<_B, _P> evaluator) {
         this.evaluator = evaluator;
+        this.target = getTargetClass(evaluator.getClass());
 
-        // here comes the reflective inspection of the given operation instance
-        this.beanMetadata = null;
-        this.propertyMetadata = null;
-        this.supportedStates = EnumSet.noneOf(EvaluatedState.class);
+        GeneratedEvaluatorMetadata generated = (GeneratedEvaluatorMetadata) ReflectionUtils.newGeneratedInstance(evaluator.getClass(), GeneratedEvaluatorMetadata.CLASS_SUFFIX);
+        Method method = generated == null ? ReflectionUtils.getDeclaredMethod(evaluator.getClass(), "evaluateState", EvaluationContext.class) : null;
+        EvaluatorDef def = method != null ? method.getAnnotation(EvaluatorDef.class) : null;
+        this.supportedStates = buildSupportedStates(generated, def);
+        this.cacheable = generated != null ? generated.isCacheable() : def != null && def.cacheable();
+
+        PropertyDef propertyDef = method != null ? method.getAnnotation(PropertyDef.class) : null;
+        this.propertyPatterns = buildPropertyPatterns(generated != null ? generated.getPropertyNames() : propertyDef != null ? propertyDef.name() : null);
+    }
+
+    /**
+     * Collects the states from the compile time generated metadata or from the {@link EvaluatorDef} annotation.
+     */
+    private static EnumSet<EvaluatedState> buildSupportedStates(GeneratedEvaluatorMetadata generated, EvaluatorDef def) {
+        EnumSet<EvaluatedState> states = EnumSet.noneOf(EvaluatedState.class);
+        if (generated != null)
+            states.addAll(Arrays.asList(generated.getStates()));
+        else if (def != null)
+            states.addAll(Arrays.asList(def.states()));
+        return states;
+    }
+
+    private static PropertyPattern[] buildPropertyPatterns(String[] names) {
+        if (names == null)
+            return null;
+
+        PropertyPattern[] patterns = new PropertyPattern[names.length];
+        for (int i = names.length; --i >= 0; )
+            patterns[i] = PropertyPattern.compile(names[i]);
+        return patterns;
     }
 
+    /**
+     * Resolves the bean class of the generic definition of the evaluator class.
+     * @return the class of the first type argument of {@link Evaluator}, or {@link Object} if it is not a class
+     */
+    @NonNull
+    private static Class<?> getTargetClass(@NonNull Class<?> evaluatorClass) {
+        for (Class<?> type = evaluatorClass; type != null; type = type.getSuperclass()) {
+            for (Type inter : type.getGenericInterfaces()) {
+                if (!(inter instanceof ParameterizedType) || ((ParameterizedType) inter).getRawType() != Evaluator.class)
+                    continue;
+
+                Type target = ((ParameterizedType) inter).getActualTypeArguments()[0];
+                if (target instanceof ParameterizedType)
+                    target = ((ParameterizedType) target).getRawType();
+                return target instanceof Class ? (Class<?>) target : Object.class;
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * Checks if the evaluator evaluates the beans of the type, which is the case if it has no {@link PropertyDef}
+     * and the type is the target class or its subclass.
+     */
     public boolean supports(BeanType<?> beanMetadata) {
-        return propertyMetadata == null && this.beanMetadata == beanMetadata;
+        return propertyPatterns == null && target.isAssignableFrom(beanMetadata.getTypeClass());
     }
 
+    /**
+     * Checks if the evaluator evaluates the property, which is the case if the bean type of the property is the target class
+     * or its subclass, and the name matches one of the {@link PropertyDef} names.
+     */
     public boolean supports(PlainBeanProp<?, ?> propertyMetadata) {
-        return this.propertyMetadata == propertyMetadata;
+        if (propertyPatterns == null || !target.isAssignableFrom(propertyMetadata.getBeanType().getTypeClass()))
+            return false;
+
+        for (int i = propertyPatterns.length; i > 0; )
+            if (propertyPatterns[--i].matches(propertyMetadata))
+                return true;
+        return false;
     }
 
     public boolean supports(EvaluatedState state, _B bean) {
@@ -45,6 +117,20 @@ public class EvaluatorInfo<_B, _P> {
         return true;
     }
 
+    /**
+     * Checks if the evaluated states of the evaluator can be cached, see {@link EvaluatorDef#cacheable()}.
+     */
+    public final boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * The none null class of the evaluator, e.g. to name its metrics.
+     */
+    public final Class<?> getEvaluatorClass() {
+        return evaluator.getClass();
+    }
+
     Evaluator<_B, _P> getInstance() {
         return evaluator;
     }
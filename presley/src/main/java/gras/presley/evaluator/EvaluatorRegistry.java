@@ -18,6 +18,16 @@ public interface EvaluatorRegistry {
 
     <_B, _P> List<EvaluatorInfo<_B, _P>> getEvaluators();
 
+    /**
+     * The version of the registered evaluators, which must be increased on every change of the lists.
+     * The resolved lists cached on the metadata are checked against this version on each read,
+     * and are resolved again lazily if the registry has changed.
+     * The default implementation returns 0 for the registries which never change.
+     */
+    default long getVersion() {
+        return 0;
+    }
+
     static EvaluatorRegistry instance() {
         return ApplicationContext.getEvaluatorRegistry();
     }
@@ -0,0 +1,48 @@
+/*
+ * GeneratedEvaluatorMetadata
+ * Create Date: 2020. 03. 29.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.evaluator;
+
+import lombok.NonNull;
+
+/**
+ * Evaluator metadata generated at compile time by the presley annotation processor.
+ *
+ * <p> The generated class is named as the evaluator class plus {@link #CLASS_SUFFIX}. If it exists, {@link EvaluatorInfo}
+ * takes the supported states and the property names from it instead of reading the annotations reflectively.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface GeneratedEvaluatorMetadata {
+
+    /**
+     * Suffix of the generated class name.
+     */
+    String CLASS_SUFFIX = "$EvaluatorMetadata";
+
+    /**
+     * The none null {@link EvaluatorDef#states()} of the evaluate method.
+     */
+    @NonNull
+    EvaluatedState[] getStates();
+
+    /**
+     * The {@link EvaluatorDef#cacheable()} of the evaluate method.
+     * The default implementation returns false for the metadata generated before the flag existed.
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * The {@link gras.presley.interceptor.PropertyDef#name()} of the evaluate method, or {@code null} if the evaluator
+     * evaluates the beans. The default implementation returns {@code null} for the metadata generated before the names existed.
+     */
+    default String[] getPropertyNames() {
+        return null;
+    }
+}
@@ -9,6 +9,7 @@ package gras.presley.evaluator;
 import gras.presley.ctx.ApplicationContext;
 import gras.presley.metadata.BeanType;
 import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyList;
 import gras.presley.metadata.TypeManager;
 import lombok.NonNull;
 
@@ -18,6 +19,9 @@ import lombok.NonNull;
  */
 public class StateManager {
 
+    /** lazy built index of the registered evaluators */
+    private volatile EvaluatorIndex index;
+
     protected StateManager() {
     }
 
@@ -26,9 +30,47 @@ public class StateManager {
         return ApplicationContext.getStateManager();
     }
 
+    /**
+     * Builds and caches the evaluator lists of the bean type and all of its properties ahead of the first evaluation.
+     * @see TypeManager#preload(java.util.Collection)
+     */
+    public <_B> void preload(@NonNull BeanType<_B> beanMetadata) {
+        new EvaluationContext<>(null, beanMetadata, null).getEvaluators();
+
+        PropertyList<PlainBeanProp<_B, ?>> props = beanMetadata.getProperties();
+        for (int i = 0, n = props.size(); i < n; i++)
+            new EvaluationContext<>(null, props.get(i), null).getEvaluators();
+    }
+
+    /**
+     * Gets the index of the evaluators of the {@link EvaluatorRegistry}, builds it if the registry has changed.
+     */
+    @NonNull
+    final EvaluatorIndex getEvaluatorIndex(long version) {
+        EvaluatorIndex index = this.index;
+        if (index == null || index.getVersion() != version)
+            this.index = index = new EvaluatorIndex(version, EvaluatorRegistry.instance().getEvaluators());
+        return index;
+    }
+
+    /**
+     * Evaluates the state of the bean, or gets it from the {@link EvaluatedStateCache} of the application context, if any.
+     */
     public <_B> boolean evaluateState(_B bean, BeanType<_B> beanMetadata, EvaluatedState state) {
+        EvaluatedStateCache cache = bean != null ? EvaluatedStateCache.instance() : null;
+        if (cache == null)
+            return new EvaluationContext<>(bean, beanMetadata, state).evaluate();
+
+        Boolean cached = cache.get(bean, state);
+        if (cached != null)
+            return cached;
+
+        Object stamp = cache.getStamp(bean);
         EvaluationContext<_B, ?> context = new EvaluationContext<>(bean, beanMetadata, state);
-        return context.evaluate();
+        boolean evaluated = context.evaluate();
+        if (context.isCacheable())
+            cache.put(bean, state, evaluated, stamp);
+        return evaluated;
     }
 
     public <_B> boolean isVisible(_B bean) {
@@ -60,8 +102,20 @@ public class StateManager {
      * Property level evaluation, that we can wire out also into the PropertyMetaData for convenience.
      */
     public <_B, _P> boolean evaluateState(_B bean, PlainBeanProp<_B, _P> propertyMetadata, EvaluatedState state) {
+        EvaluatedStateCache cache = bean != null ? EvaluatedStateCache.instance() : null;
+        if (cache == null)
+            return new EvaluationContext<>(bean, propertyMetadata, state).evaluate();
+
+        Boolean cached = cache.get(bean, propertyMetadata, state);
+        if (cached != null)
+            return cached;
+
+        Object stamp = cache.getStamp(bean);
         EvaluationContext<_B, _P> context = new EvaluationContext<>(bean, propertyMetadata, state);
-        return context.evaluate();
+        boolean evaluated = context.evaluate();
+        if (context.isCacheable())
+            cache.put(bean, propertyMetadata, state, evaluated, stamp);
+        return evaluated;
     }
 
     public <_B, _P> boolean isVisible(_B bean, PlainBeanProp<_B, _P> propertyMetadata) {
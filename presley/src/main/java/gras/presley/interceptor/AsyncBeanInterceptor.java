@@ -0,0 +1,34 @@
+/*
+ * AsyncBeanInterceptor
+ * Create Date: 2020. 04. 10.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A bean interceptor which calls slow back ends without blocking the calling thread, e.g. lookups or audit writes.
+ *
+ * <p> {@link InterceptorManager#processBeanAsync(gras.presley.metadata.BeanType, Object, BeanOperation)}
+ * composes the asynchronous interceptors without blocking. In a synchronous chain the default {@link #intercept(BeanInvocation)}
+ * waits for the result of {@link #interceptAsync(AsyncBeanInvocation)}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface AsyncBeanInterceptor<_B> extends BeanInterceptor<_B> {
+
+    /**
+     * Called by interceptor manager for a bean operation.
+     * The implementation must compose the stage of <code>invocation.proceed()</code> to continue the interceptor chain.
+     * The implementation may complete the returned stage exceptionally in which case the interceptor chain is aborted.
+     */
+    CompletionStage<Void> interceptAsync(AsyncBeanInvocation<_B> invocation);
+
+    @Override
+    default void intercept(BeanInvocation<_B> invocation) throws Exception {
+        AsyncSupport.join(interceptAsync(invocation.toAsync()));
+    }
+}
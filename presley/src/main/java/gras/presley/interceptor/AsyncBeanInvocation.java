@@ -0,0 +1,170 @@
+/*
+ * AsyncBeanInvocation
+ * Create Date: 2020. 04. 10.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.metrics.MetricsRecorder;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A bean operation passed through the interceptor chain without blocking, see {@link AsyncBeanInterceptor}.
+ *
+ * <p> The synchronous interceptors of the chain run inline, on the thread completing the previous stage. If a synchronous
+ * interceptor preceded an asynchronous one, its <code>proceed()</code> would wait for the rest of the chain, so the chain
+ * of the manager has the asynchronous interceptors first, see {@link BeanInterceptorChain#getAsyncChain()}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class AsyncBeanInvocation<_B> {
+
+    private final _B bean;
+    private final BeanType<_B> beanMetadata;
+    private final BeanOperation operation;
+    /** the next node of the interceptor chain to call or {@code null} at the end of the chain */
+    private BeanInterceptorChain<_B> next;
+
+    AsyncBeanInvocation(_B bean, BeanType<_B> beanMetadata, BeanOperation operation, BeanInterceptorChain<_B> next) {
+        this.bean = bean;
+        this.beanMetadata = beanMetadata;
+        this.operation = operation;
+        this.next = next != null && next.isEmpty() ? null : next;
+    }
+
+    public final _B getBean() {
+        return bean;
+    }
+
+    public final BeanType<_B> getBeanMetadata() {
+        return beanMetadata;
+    }
+
+    public final BeanOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Creates the invocation of a chain. The recorder of the application context is looked up once per chain:
+     * without a recorder the interceptors are not timed, and the invocation has no timing state.
+     */
+    @NonNull
+    static <_B> AsyncBeanInvocation<_B> create(_B bean, BeanType<_B> beanMetadata, BeanOperation operation, BeanInterceptorChain<_B> next) {
+        return create(bean, beanMetadata, operation, next, MetricsRecorder.instance());
+    }
+
+    @NonNull
+    static <_B> AsyncBeanInvocation<_B> create(_B bean, BeanType<_B> beanMetadata, BeanOperation operation, BeanInterceptorChain<_B> next, MetricsRecorder recorder) {
+        return recorder == null ? new AsyncBeanInvocation<>(bean, beanMetadata, operation, next) :
+                new Timed<>(bean, beanMetadata, operation, next, recorder);
+    }
+
+    /**
+     * Calls the next interceptor.
+     * @return the stage completed when the rest of the chain is processed
+     */
+    public CompletionStage<Void> proceed() {
+        BeanInterceptorChain<_B> node = nextInterceptor();
+        return node != null ? intercept(node) : AsyncSupport.completed();
+    }
+
+    /**
+     * Moves to the next interceptor of the chain which supports the bean.
+     * @return the node of the interceptor to call or {@code null} at the end of the chain
+     */
+    final BeanInterceptorChain<_B> nextInterceptor() {
+        for (BeanInterceptorChain<_B> node = next; node != null; node = node.next) {
+            if (!node.checkBean || node.info.supports(bean, operation)) {
+                next = node.next;
+                return node;
+            }
+        }
+        next = null;
+        return null;
+    }
+
+    /**
+     * Calls the interceptor of the node, the synchronous interceptors inline.
+     * @return the stage of the interceptor, completed exceptionally if the interceptor failed
+     */
+    @NonNull
+    final CompletionStage<Void> intercept(@NonNull BeanInterceptorChain<_B> node) {
+        try {
+            if (node.interceptor instanceof AsyncBeanInterceptor)
+                return ((AsyncBeanInterceptor<_B>) node.interceptor).interceptAsync(this);
+
+            node.interceptor.intercept(new InlineInvocation());
+            return AsyncSupport.completed();
+        }
+        catch (Exception e) {
+            return AsyncSupport.failed(e);
+        }
+    }
+
+    /**
+     * The elapsed time of the last completed interceptor including the rest of its chain, {@code 0} if the invocation is not timed.
+     */
+    long getChainNanos() {
+        return 0;
+    }
+
+    /**
+     * The invocation passed to the synchronous interceptors, which continues this chain.
+     */
+    private final class InlineInvocation extends BeanInvocation<_B> {
+
+        InlineInvocation() {
+            super(bean, beanMetadata, operation, BeanInterceptorChain.<_B>empty());
+        }
+
+        @Override
+        public void proceed() throws Exception {
+            AsyncSupport.join(AsyncBeanInvocation.this.proceed());
+        }
+
+        @Override
+        AsyncBeanInvocation<_B> toAsync() {
+            return AsyncBeanInvocation.this;
+        }
+    }
+
+    /**
+     * The invocation recording the elapsed time of each interceptor until its stage completed, without the stage of the rest of the chain.
+     */
+    private static final class Timed<_B> extends AsyncBeanInvocation<_B> {
+
+        @NonNull private final MetricsRecorder recorder;
+        /** the elapsed time of the rest of the chain, written when its stage completes, to record the own time of the interceptors */
+        private volatile long chainNanos;
+
+        Timed(_B bean, BeanType<_B> beanMetadata, BeanOperation operation, BeanInterceptorChain<_B> next, @NonNull MetricsRecorder recorder) {
+            super(bean, beanMetadata, operation, next);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public CompletionStage<Void> proceed() {
+            BeanInterceptorChain<_B> node = nextInterceptor();
+            if (node == null)
+                return AsyncSupport.completed();
+
+            chainNanos = 0;
+            long start = System.nanoTime();
+            return intercept(node).whenComplete((result, failure) -> {
+                long elapsed = System.nanoTime() - start;
+                recorder.recordInterceptor(node.info, getBeanMetadata(), elapsed - chainNanos);
+                chainNanos = elapsed;
+            });
+        }
+
+        @Override
+        long getChainNanos() {
+            return chainNanos;
+        }
+    }
+}
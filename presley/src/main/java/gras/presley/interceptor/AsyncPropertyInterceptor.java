@@ -0,0 +1,34 @@
+/*
+ * AsyncPropertyInterceptor
+ * Create Date: 2020. 04. 10.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A property interceptor which calls slow back ends without blocking the calling thread, e.g. lookups or audit writes.
+ *
+ * <p> {@link InterceptorManager#processPropertyAsync(gras.presley.metadata.PlainBeanProp, Object, Object, Object)}
+ * composes the asynchronous interceptors without blocking. In a synchronous chain the default {@link #intercept(PropertyInvocation)}
+ * waits for the result of {@link #interceptAsync(AsyncPropertyInvocation)}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface AsyncPropertyInterceptor<_B, _P> extends PropertyInterceptor<_B, _P> {
+
+    /**
+     * Called by interceptor manager for a property change.
+     * The implementation must compose the stage of <code>invocation.proceed()</code> to continue the interceptor chain.
+     * The implementation may complete the returned stage exceptionally in which case the interceptor chain is aborted.
+     */
+    CompletionStage<Void> interceptAsync(AsyncPropertyInvocation<_B, _P> invocation);
+
+    @Override
+    default void intercept(PropertyInvocation<_B, _P> invocation) throws Exception {
+        AsyncSupport.join(interceptAsync(invocation.toAsync()));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * AsyncPropertyInvocation
+ * Create Date: 2020. 04. 10.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metrics.MetricsRecorder;
+import lombok.NonNull;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A property change passed through the interceptor chain without blocking, see {@link AsyncPropertyInterceptor}.
+ *
+ * <p> The synchronous interceptors of the chain run inline, on the thread completing the previous stage. If a synchronous
+ * interceptor preceded an asynchronous one, its <code>proceed()</code> would wait for the rest of the chain, so the chain
+ * of the manager has the asynchronous interceptors first, see {@link PropertyInterceptorChain#getAsyncChain()}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class AsyncPropertyInvocation<_B, _P> {
+
+    private final _B bean;
+    private final _P originalValue;
+    private final _P newValue;
+    private final PlainBeanProp<_B, _P> propertyMetadata;
+    /** the next node of the interceptor chain to call or {@code null} at the end of the chain */
+    private PropertyInterceptorChain<_B, _P> next;
+
+    AsyncPropertyInvocation(_B bean, _P originalValue, _P newValue, PlainBeanProp<_B, _P> propertyMetadata, PropertyInterceptorChain<_B, _P> next) {
+        this.bean = bean;
+        this.originalValue = originalValue;
+        this.newValue = newValue;
+        this.propertyMetadata = propertyMetadata;
+        this.next = next != null && next.isEmpty() ? null : next;
+    }
+
+    public final _B getBean() {
+        return bean;
+    }
+
+    public final _P getOriginalValue() {
+        return originalValue;
+    }
+
+    public final _P getNewValue() {
+        return newValue;
+    }
+
+    public final PlainBeanProp<_B, _P> getPropertyMetadata() {
+        return propertyMetadata;
+    }
+
+    /**
+     * Creates the invocation of a chain. The recorder of the application context is looked up once per chain:
+     * without a recorder the interceptors are not timed, and the invocation has no timing state.
+     */
+    @NonNull
+    static <_B, _P> AsyncPropertyInvocation<_B, _P> create(_B bean, _P originalValue, _P newValue, PlainBeanProp<_B, _P> propertyMetadata, PropertyInterceptorChain<_B, _P> next) {
+        return create(bean, originalValue, newValue, propertyMetadata, next, MetricsRecorder.instance());
+    }
+
+    @NonNull
+    static <_B, _P> AsyncPropertyInvocation<_B, _P> create(_B bean, _P originalValue, _P newValue, PlainBeanProp<_B, _P> propertyMetadata, PropertyInterceptorChain<_B, _P> next, MetricsRecorder recorder) {
+        return recorder == null ? new AsyncPropertyInvocation<>(bean, originalValue, newValue, propertyMetadata, next) :
+                new Timed<>(bean, originalValue, newValue, propertyMetadata, next, recorder);
+    }
+
+    /**
+     * Calls the next interceptor.
+     * @return the stage completed when the rest of the chain is processed
+     */
+    public CompletionStage<Void> proceed() {
+        PropertyInterceptorChain<_B, _P> node = nextInterceptor();
+        return node != null ? intercept(node) : AsyncSupport.completed();
+    }
+
+    /**
+     * Moves to the next interceptor of the chain which supports the bean.
+     * @return the node of the interceptor to call or {@code null} at the end of the chain
+     */
+    final PropertyInterceptorChain<_B, _P> nextInterceptor() {
+        for (PropertyInterceptorChain<_B, _P> node = next; node != null; node = node.next) {
+            if (!node.checkBean || node.info.supports(bean)) {
+                next = node.next;
+                return node;
+            }
+        }
+        next = null;
+        return null;
+    }
+
+    /**
+     * Calls the interceptor of the node, the synchronous interceptors inline.
+     * @return the stage of the interceptor, completed exceptionally if the interceptor failed
+     */
+    @NonNull
+    final CompletionStage<Void> intercept(@NonNull PropertyInterceptorChain<_B, _P> node) {
+        try {
+            if (node.interceptor instanceof AsyncPropertyInterceptor)
+                return ((AsyncPropertyInterceptor<_B, _P>) node.interceptor).interceptAsync(this);
+
+            node.interceptor.intercept(new InlineInvocation());
+            return AsyncSupport.completed();
+        }
+        catch (Exception e) {
+            return AsyncSupport.failed(e);
+        }
+    }
+
+    /**
+     * The elapsed time of the last completed interceptor including the rest of its chain, {@code 0} if the invocation is not timed.
+     */
+    long getChainNanos() {
+        return 0;
+    }
+
+    /**
+     * The invocation passed to the synchronous interceptors, which continues this chain.
+     */
+    private final class InlineInvocation extends PropertyInvocation<_B, _P> {
+
+        InlineInvocation() {
+            super(bean, originalValue, newValue, propertyMetadata, PropertyInterceptorChain.<_B, _P>empty());
+        }
+
+        @Override
+        public void proceed() throws Exception {
+            AsyncSupport.join(AsyncPropertyInvocation.this.proceed());
+        }
+
+        @Override
+        AsyncPropertyInvocation<_B, _P> toAsync() {
+            return AsyncPropertyInvocation.this;
+        }
+    }
+
+    /**
+     * The invocation recording the elapsed time of each interceptor until its stage completed, without the stage of the rest of the chain.
+     */
+    private static final class Timed<_B, _P> extends AsyncPropertyInvocation<_B, _P> {
+
+        @NonNull private final MetricsRecorder recorder;
+        /** the elapsed time of the rest of the chain, written when its stage completes, to record the own time of the interceptors */
+        private volatile long chainNanos;
+
+        Timed(_B bean, _P originalValue, _P newValue, PlainBeanProp<_B, _P> propertyMetadata, PropertyInterceptorChain<_B, _P> next, @NonNull MetricsRecorder recorder) {
+            super(bean, originalValue, newValue, propertyMetadata, next);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public CompletionStage<Void> proceed() {
+            PropertyInterceptorChain<_B, _P> node = nextInterceptor();
+            if (node == null)
+                return AsyncSupport.completed();
+
+            chainNanos = 0;
+            long start = System.nanoTime();
+            return intercept(node).whenComplete((result, failure) -> {
+                long elapsed = System.nanoTime() - start;
+                recorder.recordInterceptor(node.info, getPropertyMetadata().getBeanType(), elapsed - chainNanos);
+                chainNanos = elapsed;
+            });
+        }
+
+        @Override
+        long getChainNanos() {
+            return chainNanos;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * AsyncSupport
+ * Create Date: 2020. 04. 10.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helpers of the asynchronous interceptor chains.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class AsyncSupport {
+
+    private AsyncSupport() {
+    }
+
+    @NonNull
+    static CompletionStage<Void> completed() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @NonNull
+    static CompletionStage<Void> failed(@NonNull Throwable e) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * Waits for the stage and rethrows its failure, so a synchronous interceptor sees the same exceptions as in a synchronous chain.
+     */
+    static void join(@NonNull CompletionStage<Void> stage) throws Exception {
+        try {
+            stage.toCompletableFuture().get();
+        }
+        catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw e;
+        }
+    }
+}
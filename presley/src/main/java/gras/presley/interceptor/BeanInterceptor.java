@@ -12,7 +12,7 @@ package gras.presley.interceptor;
  * @version $Revision$ $LastChangedDate$ 
  * @author $Author$
  */
-public interface BeanInterceptor<_B> {
+public interface BeanInterceptor<_B> extends Interceptor {
 
     /**
      * This is invoked/executed by the framework.
@@ -0,0 +1,127 @@
+/*
+ * BeanInterceptorChain
+ * Create Date: 2020. 04. 07.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.berry.collection.ExtendedArray;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * A node of the compiled interceptor chain of a bean type. The chain is built once from the sorted interceptor list
+ * of the type and cached on the bean type, so the invocations only follow the {@link #next} links.
+ *
+ * <p> Instances are immutable. The empty chain is a single node without interceptor, see {@link #isEmpty()}.
+ *
+ * @see InterceptorManager#getInterceptorChain(gras.presley.metadata.BeanType)
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class BeanInterceptorChain<_B> {
+
+    private static final BeanInterceptorChain<?> EMPTY = new BeanInterceptorChain<>(null, false, null, null);
+
+    final BeanInterceptorInfo<_B> info;
+    final BeanInterceptor<_B> interceptor;
+    /** false if the interceptor supports all beans, so {@link BeanInterceptorInfo#supports(Object, BeanOperation)} can be skipped */
+    final boolean checkBean;
+    /** the next node or {@code null} at the end of the chain */
+    final BeanInterceptorChain<_B> next;
+    /** the chain with the {@link AsyncBeanInterceptor}s first, only set on the head node if it differs from this chain */
+    private final BeanInterceptorChain<_B> async;
+
+    private BeanInterceptorChain(BeanInterceptorInfo<_B> info, boolean checkBean, BeanInterceptorChain<_B> next, BeanInterceptorChain<_B> async) {
+        this.info = info;
+        this.interceptor = info != null ? info.getInterceptor() : null;
+        this.checkBean = checkBean;
+        this.next = next;
+        this.async = async;
+    }
+
+    /**
+     * Links the interceptors in the order of the list.
+     * If a synchronous interceptor precedes an {@link AsyncBeanInterceptor}, then the chain with the asynchronous interceptors
+     * first is linked too, see {@link #getAsyncChain()}.
+     */
+    @NonNull
+    public static <_B> BeanInterceptorChain<_B> compile(@NonNull List<BeanInterceptorInfo<_B>> interceptors) {
+        boolean syncFirst = false;
+        boolean hasSync = false;
+        for (int i = 0, n = interceptors.size(); i < n; i++) {
+            if (interceptors.get(i).getInterceptor() instanceof AsyncBeanInterceptor)
+                syncFirst |= hasSync;
+            else
+                hasSync = true;
+        }
+
+        BeanInterceptorChain<_B> async = null;
+        if (syncFirst) {
+            // stable, so the interceptors keep their positions within the asynchronous and the synchronous group
+            ExtendedArray<BeanInterceptorInfo<_B>> asyncInterceptors = new ExtendedArray<>(interceptors);
+            asyncInterceptors.sort((i1, i2) -> Boolean.compare(!(i1.getInterceptor() instanceof AsyncBeanInterceptor),
+                    !(i2.getInterceptor() instanceof AsyncBeanInterceptor)));
+            async = link(asyncInterceptors, null);
+        }
+        return link(interceptors, async);
+    }
+
+    @NonNull
+    private static <_B> BeanInterceptorChain<_B> link(@NonNull List<BeanInterceptorInfo<_B>> interceptors, BeanInterceptorChain<_B> async) {
+        BeanInterceptorChain<_B> chain = null;
+        for (int i = interceptors.size(); --i >= 0; ) {
+            BeanInterceptorInfo<_B> info = interceptors.get(i);
+            chain = new BeanInterceptorChain<>(info, isOverridden(info.getClass()), chain, i == 0 ? async : null);
+        }
+        return chain != null ? chain : empty();
+    }
+
+    /**
+     * Returns the chain without interceptors.
+     */
+    @SuppressWarnings("unchecked")
+    @NonNull
+    static <_B> BeanInterceptorChain<_B> empty() {
+        return (BeanInterceptorChain<_B>) EMPTY;
+    }
+
+    /**
+     * Returns the chain with the {@link AsyncBeanInterceptor}s before the synchronous ones, for the asynchronous processing,
+     * see {@link InterceptorManager#processBeanAsync(gras.presley.metadata.BeanType, Object, BeanOperation)}.
+     * So the synchronous interceptors run when the asynchronous stages are completed, and their <code>proceed()</code> does not wait.
+     * Must be called on the head node.
+     */
+    @NonNull
+    BeanInterceptorChain<_B> getAsyncChain() {
+        return async != null ? async : this;
+    }
+
+    /**
+     * Checks if the chain has no interceptors, so the invocation can be skipped.
+     */
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    /**
+     * Number of the interceptors in the chain.
+     */
+    public int size() {
+        int size = 0;
+        for (BeanInterceptorChain<_B> node = this; node != null && node != EMPTY; node = node.next)
+            size++;
+        return size;
+    }
+
+    private static boolean isOverridden(@NonNull Class<?> infoClass) {
+        try {
+            return infoClass.getMethod("supports", Object.class, BeanOperation.class).getDeclaringClass() != BeanInterceptorInfo.class;
+        }
+        catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+}
@@ -23,6 +23,8 @@ public class BeanInterceptorInfo<_B> extends InterceptorInfo<BeanInterceptor<_B>
 
     @Override
     protected Method getInterceptMethod() {
+        if (getInterceptor() instanceof AsyncBeanInterceptor)
+            return ReflectionUtils.getDeclaredMethod(getInterceptor().getClass(), "interceptAsync", AsyncBeanInvocation.class);
         return ReflectionUtils.getDeclaredMethod(getInterceptor().getClass(), "intercept", BeanInvocation.class);
     }
 
@@ -7,6 +7,8 @@
 package gras.presley.interceptor;
 
 import gras.presley.metadata.BeanType;
+import gras.presley.metrics.MetricsRecorder;
+import lombok.NonNull;
 
 import java.util.List;
 
@@ -19,14 +21,33 @@ public class BeanInvocation<_B> {
     private final _B bean;
     private final BeanType<_B> beanMetadata;
     private final BeanOperation operation;
-    private final List<BeanInterceptorInfo<_B>> interceptors;
-    private int idx = 0;
+    /** the next node of the interceptor chain to call or {@code null} at the end of the chain */
+    private BeanInterceptorChain<_B> next;
 
+    /**
+     * Creates an invocation running the interceptors in the order of the list. Its interceptors are not timed
+     * by the {@link MetricsRecorder}.
+     */
     public BeanInvocation(_B bean, BeanType<_B> beanMetadata, BeanOperation operation, List<BeanInterceptorInfo<_B>> interceptors) {
+        this(bean, beanMetadata, operation, BeanInterceptorChain.compile(interceptors));
+    }
+
+    BeanInvocation(_B bean, BeanType<_B> beanMetadata, BeanOperation operation, @NonNull BeanInterceptorChain<_B> chain) {
         this.bean = bean;
         this.beanMetadata = beanMetadata;
         this.operation = operation;
-        this.interceptors = interceptors;
+        this.next = chain.isEmpty() ? null : chain;
+    }
+
+    /**
+     * Creates the invocation of a chain. The recorder of the application context is looked up once per chain:
+     * without a recorder the interceptors are not timed, and the invocation has no timing state.
+     */
+    @NonNull
+    static <_B> BeanInvocation<_B> create(_B bean, BeanType<_B> beanMetadata, BeanOperation operation, @NonNull BeanInterceptorChain<_B> chain) {
+        MetricsRecorder recorder = MetricsRecorder.instance();
+        return recorder == null ? new BeanInvocation<>(bean, beanMetadata, operation, chain) :
+                new Timed<>(bean, beanMetadata, operation, chain, recorder);
     }
 
     public final _B getBean() {
@@ -42,17 +63,89 @@ public class BeanInvocation<_B> {
     }
 
     public void proceed() throws Exception {
-        BeanInterceptorInfo<_B> nextInterceptor;
-        for (;;) {
-            if (idx >= interceptors.size())
+        BeanInterceptorChain<_B> node = nextInterceptor();
+        if (node != null)
+            node.interceptor.intercept(this);
+    }
+
+    /**
+     * Moves to the next interceptor of the chain which supports the bean.
+     * @return the node of the interceptor to call or {@code null} at the end of the chain
+     */
+    final BeanInterceptorChain<_B> nextInterceptor() {
+        for (BeanInterceptorChain<_B> node = next; node != null; node = node.next) {
+            if (!node.checkBean || node.info.supports(bean, operation)) {
+                next = node.next;
+                return node;
+            }
+        }
+        next = null;
+        return null;
+    }
+
+    /**
+     * Continues the rest of the chain with an asynchronous invocation, used by the asynchronous interceptors in a synchronous chain.
+     */
+    AsyncBeanInvocation<_B> toAsync() {
+        return AsyncBeanInvocation.create(bean, beanMetadata, operation, detachRest(), null);
+    }
+
+    /**
+     * Removes the rest of the chain from this invocation.
+     * @return the next node of the chain or {@code null} at the end of the chain
+     */
+    final BeanInterceptorChain<_B> detachRest() {
+        BeanInterceptorChain<_B> rest = next;
+        next = null;
+        return rest;
+    }
+
+    /**
+     * The invocation recording the elapsed time of each interceptor without the rest of the chain.
+     */
+    private static final class Timed<_B> extends BeanInvocation<_B> {
+
+        @NonNull private final MetricsRecorder recorder;
+        /** the elapsed time of the rest of the chain, to record the own time of the interceptors */
+        private long chainNanos;
+        /** the asynchronous invocation continuing the rest of the chain of the current interceptor */
+        private AsyncBeanInvocation<_B> async;
+
+        Timed(_B bean, BeanType<_B> beanMetadata, BeanOperation operation, @NonNull BeanInterceptorChain<_B> chain, @NonNull MetricsRecorder recorder) {
+            super(bean, beanMetadata, operation, chain);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void proceed() throws Exception {
+            BeanInterceptorChain<_B> node = nextInterceptor();
+            if (node == null)
                 return;
-            idx++;
 
-            nextInterceptor = interceptors.get(idx);
-            if (nextInterceptor.supports(bean, operation))
-                break;
+            long outerNanos = chainNanos;
+            chainNanos = 0;
+            long start = System.nanoTime();
+            try {
+                node.interceptor.intercept(this);
+            }
+            finally {
+                long elapsed = System.nanoTime() - start;
+                if (async != null) {
+                    chainNanos += async.getChainNanos();
+                    async = null;
+                }
+                recorder.recordInterceptor(node.info, getBeanMetadata(), elapsed - chainNanos);
+                chainNanos = outerNanos + elapsed;
+            }
         }
 
-        nextInterceptor.getInterceptor().intercept(this);
+        /**
+         * Continues the rest of the chain timed, the elapsed time of the rest is not recorded for the current interceptor.
+         */
+        @Override
+        AsyncBeanInvocation<_B> toAsync() {
+            async = AsyncBeanInvocation.create(getBean(), getBeanMetadata(), getOperation(), detachRest(), recorder);
+            return async;
+        }
     }
 }
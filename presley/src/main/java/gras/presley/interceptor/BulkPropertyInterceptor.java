@@ -0,0 +1,28 @@
+/*
+ * BulkPropertyInterceptor
+ * Create Date: 2020. 04. 06.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+/**
+ * A property interceptor which can process the changes of many properties of a bean at once,
+ * e.g. to recompute a derived value only once per form submit.
+ *
+ * <p> {@link InterceptorManager#processProperties(Object, java.util.Map)} invokes {@link #interceptAll(BulkPropertyInvocation)}
+ * once per bean, if the interceptor supports any of the changed properties, instead of the per property
+ * {@link #intercept(PropertyInvocation)} calls. Single property changes still call {@link #intercept(PropertyInvocation)}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface BulkPropertyInterceptor<_B, _P> extends PropertyInterceptor<_B, _P> {
+
+    /**
+     * Called by interceptor manager for a set of property changes of a bean.
+     * The implementation must call <code>invocation.proceed()</code> to continue the interceptor chain.
+     * The implementation may throw any Exception in which case the interceptor chain is aborted.
+     */
+    void interceptAll(BulkPropertyInvocation<_B> invocation) throws Exception;
+}
@@ -0,0 +1,107 @@
+/*
+ * BulkPropertyInvocation
+ * Create Date: 2020. 04. 06.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.berry.collection.ReadOnlyList;
+import gras.presley.metadata.PlainBeanProp;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The changes of many properties of a bean, passed through the {@link BulkPropertyInterceptor} chain.
+ * At the end of the chain the per property chains of the other interceptors are processed.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BulkPropertyInvocation<_B> {
+
+    @NonNull private final InterceptorManager manager;
+    @NonNull private final _B bean;
+    @NonNull private final PlainBeanProp<_B, ?>[] properties;
+    @NonNull private final Object[] originalValues;
+    @NonNull private final Object[] newValues;
+    @NonNull private final List<PropertyInterceptorInfo<_B, ?>> interceptors;
+    private int idx = 0;
+
+    BulkPropertyInvocation(@NonNull InterceptorManager manager, @NonNull _B bean, @NonNull PlainBeanProp<_B, ?>[] properties,
+                           @NonNull Object[] originalValues, @NonNull Object[] newValues, @NonNull List<PropertyInterceptorInfo<_B, ?>> interceptors) {
+        this.manager = manager;
+        this.bean = bean;
+        this.properties = properties;
+        this.originalValues = originalValues;
+        this.newValues = newValues;
+        this.interceptors = interceptors;
+    }
+
+    public final _B getBean() {
+        return bean;
+    }
+
+    /**
+     * Returns the none null list of the changed properties.
+     */
+    @NonNull
+    public final List<PlainBeanProp<_B, ?>> getProperties() {
+        return new ReadOnlyList<>(Arrays.asList(properties));
+    }
+
+    /**
+     * Number of the changed properties.
+     */
+    public final int size() {
+        return properties.length;
+    }
+
+    /**
+     * Gets the changed property at the given position.
+     */
+    @NonNull
+    public final PlainBeanProp<_B, ?> getProperty(int i) {
+        return properties[i];
+    }
+
+    public final Object getOriginalValue(int i) {
+        return originalValues[i];
+    }
+
+    public final Object getNewValue(int i) {
+        return newValues[i];
+    }
+
+    /**
+     * Checks if the property with the given name is in the changes.
+     */
+    public final boolean isChanged(@NonNull String propertyName) {
+        return indexOf(propertyName) >= 0;
+    }
+
+    /**
+     * Gets the position of the property with the given name in the changes or -1 if it is not changed.
+     */
+    public final int indexOf(@NonNull String propertyName) {
+        for (int i = 0; i < properties.length; i++)
+            if (properties[i].getPropertyName().equals(propertyName))
+                return i;
+        return -1;
+    }
+
+    public void proceed() throws Exception {
+        while (idx < interceptors.size()) {
+            PropertyInterceptorInfo<_B, ?> nextInterceptor = interceptors.get(idx++);
+            if (nextInterceptor.supports(bean)) {
+                ((BulkPropertyInterceptor<_B, ?>) nextInterceptor.getInterceptor()).interceptAll(this);
+                return;
+            }
+        }
+
+        for (int i = 0; i < properties.length; i++)
+            manager.processSingleProperty(properties[i], bean, originalValues[i], newValues[i]);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * DefaultInterceptorRegistry
+ * Create Date: 2020. 04. 09.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor registry which can be changed at runtime, e.g. by feature toggles or plugins.
+ *
+ * <p> Every change increases the {@link #getVersion() version}, so the interceptor lists cached on the metadata
+ * are resolved again lazily on their next use. The types whose interceptor list did not change keep their compiled chains.
+ * This class is thread safe, the readers are never blocked.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class DefaultInterceptorRegistry implements InterceptorRegistry {
+
+    @NonNull private final CopyOnWriteArrayList<BeanInterceptorInfo<?>> beanInterceptors = new CopyOnWriteArrayList<>();
+    @NonNull private final CopyOnWriteArrayList<PropertyInterceptorInfo<?, ?>> propertyInterceptors = new CopyOnWriteArrayList<>();
+    @NonNull private final AtomicLong version = new AtomicLong();
+
+    public DefaultInterceptorRegistry() {
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <_B> List<BeanInterceptorInfo<_B>> getBeanInterceptors() {
+        return (List) beanInterceptors;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <_B, _P> List<PropertyInterceptorInfo<_B, _P>> getPropertyInterceptors() {
+        return (List) propertyInterceptors;
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    public <_B> void addBeanInterceptor(@NonNull BeanInterceptor<_B> interceptor) {
+        beanInterceptors.add(new BeanInterceptorInfo<>(interceptor));
+        version.incrementAndGet();
+    }
+
+    public <_B, _P> void addPropertyInterceptor(@NonNull PropertyInterceptor<_B, _P> interceptor) {
+        propertyInterceptors.add(new PropertyInterceptorInfo<>(interceptor));
+        version.incrementAndGet();
+    }
+
+    /**
+     * Removes all registrations of the interceptor.
+     * @return true if the interceptor was registered
+     */
+    public boolean remove(@NonNull Interceptor interceptor) {
+        boolean removed = beanInterceptors.removeIf(info -> info.getInterceptor() == interceptor);
+        removed |= propertyInterceptors.removeIf(info -> info.getInterceptor() == interceptor);
+        if (removed)
+            version.incrementAndGet();
+        return removed;
+    }
+}
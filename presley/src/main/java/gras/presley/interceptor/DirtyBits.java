@@ -0,0 +1,175 @@
+/*
+ * DirtyBits
+ * Create Date: 2020. 04. 05.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.berry.collection.ExtendedArray;
+import gras.berry.collection.ReadOnlyList;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The indexes of the changed properties of a bean, see {@link DirtyTracker}.
+ *
+ * <p> The bits of the types having at most 64 properties are stored in a single {@code long},
+ * a {@code long[]} is used above that. Instances are not thread safe.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class DirtyBits {
+
+    @NonNull private final BeanType<?> beanType;
+    private final int size;
+    /** the bits if there are at most 64 properties */
+    private long bits;
+    /** the bits if there are more than 64 properties, {@code null} otherwise */
+    private final long[] words;
+
+    DirtyBits(@NonNull BeanType<?> beanType) {
+        this.beanType = beanType;
+        this.size = beanType.getProperties().size();
+        this.words = size > 64 ? new long[(size + 63) >>> 6] : null;
+    }
+
+    private DirtyBits(@NonNull DirtyBits other) {
+        this.beanType = other.beanType;
+        this.size = other.size;
+        this.bits = other.bits;
+        this.words = other.words != null ? other.words.clone() : null;
+    }
+
+    /**
+     * The type of the bean, the indexes belong to its properties.
+     */
+    @NonNull
+    public BeanType<?> getBeanType() {
+        return beanType;
+    }
+
+    /**
+     * Number of the properties of the bean type.
+     */
+    public int size() {
+        return size;
+    }
+
+    public void set(int index) {
+        checkIndex(index);
+        if (words == null)
+            bits |= 1L << index;
+        else
+            words[index >>> 6] |= 1L << index;
+    }
+
+    public void clear(int index) {
+        checkIndex(index);
+        if (words == null)
+            bits &= ~(1L << index);
+        else
+            words[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Checks if the property with the given index is changed.
+     */
+    public boolean isDirty(int index) {
+        checkIndex(index);
+        return ((words == null ? bits : words[index >>> 6]) & 1L << index) != 0;
+    }
+
+    /**
+     * Checks if any property is changed.
+     */
+    public boolean isDirty() {
+        if (words == null)
+            return bits != 0;
+        for (long word : words)
+            if (word != 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * Returns the index of the first changed property starting from the given index, -1 if there is no such property.
+     */
+    public int nextDirty(int fromIndex) {
+        if (fromIndex < 0)
+            throw new IndexOutOfBoundsException("Index: " + fromIndex);
+        if (fromIndex >= size)
+            return -1;
+
+        if (words == null) {
+            long word = bits & -1L << fromIndex;
+            return word != 0 ? Long.numberOfTrailingZeros(word) : -1;
+        }
+
+        int i = fromIndex >>> 6;
+        long word = words[i] & -1L << fromIndex;
+        while (word == 0) {
+            if (++i == words.length)
+                return -1;
+            word = words[i];
+        }
+        return (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Number of the changed properties.
+     */
+    public int cardinality() {
+        if (words == null)
+            return Long.bitCount(bits);
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Clears all bits.
+     */
+    public void clear() {
+        bits = 0;
+        if (words != null)
+            Arrays.fill(words, 0);
+    }
+
+    /**
+     * Returns the none null list of the changed properties.
+     */
+    @NonNull
+    public ReadOnlyList<PlainBeanProp<?, ?>> getDirtyProperties() {
+        ExtendedArray<PlainBeanProp<?, ?>> props = new ExtendedArray<>(cardinality());
+        for (int i = nextDirty(0); i >= 0; i = nextDirty(i + 1))
+            props.add(beanType.getProperty(i));
+        return new ReadOnlyList<>(props);
+    }
+
+    @NonNull
+    public BitSet toBitSet() {
+        return words == null ? BitSet.valueOf(new long[] {bits}) : BitSet.valueOf(words);
+    }
+
+    @NonNull
+    DirtyBits copy() {
+        return new DirtyBits(this);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+
+    @Override
+    public String toString() {
+        return beanType + " dirty " + toBitSet();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * DirtyTracker
+ * Create Date: 2020. 04. 05.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.berry.collection.WeakIdentityHashMap;
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TypeManager;
+import lombok.NonNull;
+
+/**
+ * Records the changed properties of the beans since their last checkpoint, so the persistence and the UI sync
+ * can process only those properties instead of comparing all of them.
+ *
+ * <p> The changes are recorded by {@link InterceptorManager} after processing the property interceptors,
+ * if the application context provides a tracker, see {@link ApplicationContext#getDirtyTracker()}.
+ * The beans are referenced weakly, so the tracker does not keep the beans alive. This class is thread safe,
+ * but the concurrent modification of the same bean should be synchronized by the application.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class DirtyTracker {
+
+    @NonNull private final WeakIdentityHashMap<Object, DirtyBits> beans = new WeakIdentityHashMap<>(256);
+
+    public DirtyTracker() {
+    }
+
+    /**
+     * Gets the tracker of the application context.
+     * @return the tracker or {@code null} if the dirty tracking is not enabled
+     */
+    public static DirtyTracker instance() {
+        return ApplicationContext.getDirtyTracker();
+    }
+
+    /**
+     * Records the change of the property on the bean.
+     * @param prop the changed property, it can be a property of a super type of the bean
+     */
+    public <_B> void markDirty(@NonNull PlainBeanProp<_B, ?> prop, @NonNull _B bean) {
+        BeanType<?> beanType = prop.getBeanType();
+        int index = prop.getIndex();
+        if (beanType.getTypeClass() != bean.getClass()) {
+            // the property indexes differ in the sub types
+            beanType = (BeanType<?>) TypeManager.forBean(bean);
+            index = beanType.getProperty(prop.getPropertyName()).getIndex();
+        }
+
+        synchronized (beans) {
+            DirtyBits bits = beans.get(bean);
+            if (bits == null) {
+                bits = new DirtyBits(beanType);
+                beans.put(bean, bits);
+            }
+            bits.set(index);
+        }
+    }
+
+    /**
+     * Checks if any property of the bean is changed since its last checkpoint.
+     */
+    public boolean isDirty(@NonNull Object bean) {
+        synchronized (beans) {
+            DirtyBits bits = beans.get(bean);
+            return bits != null && bits.isDirty();
+        }
+    }
+
+    /**
+     * Checks if the property of the bean is changed since its last checkpoint.
+     */
+    public <_B> boolean isDirty(@NonNull _B bean, @NonNull PlainBeanProp<_B, ?> prop) {
+        synchronized (beans) {
+            DirtyBits bits = beans.get(bean);
+            if (bits == null)
+                return false;
+            int index = bits.getBeanType() == prop.getBeanType() ? prop.getIndex() : bits.getBeanType().getProperty(prop.getPropertyName()).getIndex();
+            return bits.isDirty(index);
+        }
+    }
+
+    /**
+     * Gets a copy of the changed properties of the bean.
+     * @return the changes or {@code null} if the bean was not changed since its last checkpoint
+     */
+    public DirtyBits getDirtyBits(@NonNull Object bean) {
+        synchronized (beans) {
+            DirtyBits bits = beans.get(bean);
+            return bits != null && bits.isDirty() ? bits.copy() : null;
+        }
+    }
+
+    /**
+     * Gets the changed properties of the bean and clears them, e.g. after the bean is saved.
+     * @return the changes or {@code null} if the bean was not changed since its last checkpoint
+     */
+    public DirtyBits checkpoint(@NonNull Object bean) {
+        synchronized (beans) {
+            DirtyBits bits = beans.remove(bean);
+            return bits != null && bits.isDirty() ? bits : null;
+        }
+    }
+
+    /**
+     * Number of the beans having changes, including the garbage collected ones which are not cleaned up yet.
+     */
+    public int size() {
+        synchronized (beans) {
+            beans.expungeStaleEntries();
+            return beans.size();
+        }
+    }
+
+    /**
+     * Forgets all changes.
+     */
+    public void clear() {
+        synchronized (beans) {
+            beans.clear();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * GeneratedInterceptorMetadata
+ * Create Date: 2020. 03. 29.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import lombok.NonNull;
+
+/**
+ * Interceptor metadata generated at compile time by the presley annotation processor.
+ *
+ * <p> The generated class is named as the interceptor class plus {@link #CLASS_SUFFIX}. If it exists, {@link InterceptorInfo}
+ * takes the targets, the position and the property filters from it instead of parsing the generic signature
+ * and the annotations of the interceptor reflectively.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface GeneratedInterceptorMetadata {
+
+    /**
+     * Suffix of the generated class name.
+     */
+    String CLASS_SUFFIX = "$InterceptorMetadata";
+
+    /**
+     * The {@link InterceptorDef#position()} of the intercept method.
+     */
+    @NonNull
+    InterceptorPosition getPosition();
+
+    /**
+     * The none null target classes resolved from the first type argument of the interceptor interface.
+     */
+    @NonNull
+    Class<?>[] getTargets();
+
+    /**
+     * The none null property value classes resolved from the second type argument of {@link PropertyInterceptor}.
+     * Empty for bean interceptors.
+     */
+    @NonNull
+    Class<?>[] getPropertyTypes();
+
+    /**
+     * The none null {@link PropertyInterceptorDef#names()} of the intercept method.
+     */
+    @NonNull
+    String[] getPropertyNames();
+}
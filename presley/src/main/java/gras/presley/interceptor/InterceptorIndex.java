@@ -0,0 +1,229 @@
+/*
+ * InterceptorIndex
+ * Create Date: 2020. 04. 08.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.berry.collection.ExtendedArray;
+import gras.berry.collection.ReadOnlyList;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.JavaType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyPattern;
+import lombok.NonNull;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Inverted index of the registered interceptors, so the interceptors of a type or a property are resolved
+ * without checking all registered interceptors.
+ *
+ * <p> The interceptors are indexed by their first target class. The property interceptors are further indexed
+ * by their literal property names, or by their first property type if they support all property names.
+ * The interceptors having wild cards in the property names are kept in a separate list per target class.
+ * A lookup walks the class hierarchy of the bean and the property type, and checks only the candidates of those
+ * classes with the {@code supports} methods, so the result is the same as checking all interceptors.
+ * The interceptor infos overriding the {@code supports} methods are always checked.
+ *
+ * <p> Instances are immutable after the creation.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class InterceptorIndex {
+
+    /** the class itself, its super classes and all of its interfaces */
+    private static final ClassValue<Class<?>[]> hierarchies = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            LinkedHashSet<Class<?>> classes = new LinkedHashSet<>();
+            collectHierarchy(type, classes);
+            classes.add(Object.class);
+            return classes.toArray(InterceptorInfo.EMPTY_CLASSES);
+        }
+    };
+
+    /** sorts by position, then by the reverse registration order like the linear resolution */
+    private static final Comparator<Entry<?>> entryComparator = (e1, e2) -> {
+        int result = InterceptorPosition.interceptorInfoComparator.compare(e1.info, e2.info);
+        return result != 0 ? result : Integer.compare(e2.order, e1.order);
+    };
+
+    /** the version of the registry the index was built from */
+    private final long version;
+    @NonNull private final HashMap<Class<?>, ExtendedArray<Entry<BeanInterceptorInfo<?>>>> beanInterceptors = new HashMap<>();
+    @NonNull private final ExtendedArray<Entry<BeanInterceptorInfo<?>>> unindexedBeanInterceptors = new ExtendedArray<>();
+    @NonNull private final HashMap<Class<?>, PropertyBucket> propertyInterceptors = new HashMap<>();
+    @NonNull private final ExtendedArray<Entry<PropertyInterceptorInfo<?, ?>>> unindexedPropertyInterceptors = new ExtendedArray<>();
+
+    InterceptorIndex(long version, @NonNull List<? extends BeanInterceptorInfo<?>> beanInterceptorList, @NonNull List<? extends PropertyInterceptorInfo<?, ?>> propertyInterceptorList) {
+        this.version = version;
+        for (int i = 0, n = beanInterceptorList.size(); i < n; i++) {
+            BeanInterceptorInfo<?> info = beanInterceptorList.get(i);
+            Entry<BeanInterceptorInfo<?>> entry = new Entry<>(info, i);
+            if (isOverridden(info.getClass(), BeanInterceptorInfo.class, "supports", BeanType.class))
+                unindexedBeanInterceptors.add(entry);
+            else
+                beanInterceptors.computeIfAbsent(getTargetKey(info), k -> new ExtendedArray<>()).add(entry);
+        }
+
+        for (int i = 0, n = propertyInterceptorList.size(); i < n; i++) {
+            PropertyInterceptorInfo<?, ?> info = propertyInterceptorList.get(i);
+            Entry<PropertyInterceptorInfo<?, ?>> entry = new Entry<>(info, i);
+            if (isOverridden(info.getClass(), PropertyInterceptorInfo.class, "supports", PlainBeanProp.class)
+                    || isOverridden(info.getClass(), InterceptorInfo.class, "supports", BeanType.class)) {
+                unindexedPropertyInterceptors.add(entry);
+                continue;
+            }
+
+            PropertyBucket bucket = propertyInterceptors.computeIfAbsent(getTargetKey(info), k -> new PropertyBucket());
+            PropertyPattern[] patterns = info.getPropertyPatterns();
+            if (patterns.length == 0) {
+                Class<?>[] propertyTypes = info.getPropertyTypes();
+                bucket.byValueType.computeIfAbsent(propertyTypes.length != 0 ? propertyTypes[0] : Object.class, k -> new ExtendedArray<>()).add(entry);
+            }
+            else if (isLiteral(patterns)) {
+                for (PropertyPattern pattern : patterns) {
+                    ExtendedArray<Entry<PropertyInterceptorInfo<?, ?>>> entries = bucket.byName.computeIfAbsent(pattern.getLiteralPropertyName(), k -> new ExtendedArray<>());
+                    if (!entries.contains(entry))
+                        entries.add(entry);
+                }
+            }
+            else
+                bucket.patterned.add(entry);
+        }
+    }
+
+    /**
+     * The version of the registry the index was built from.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Resolves the sorted interceptors supporting the bean type.
+     */
+    @NonNull
+    <_B> ReadOnlyList<BeanInterceptorInfo<_B>> getInterceptors(@NonNull BeanType<_B> beanMetadata) {
+        ExtendedArray<Entry<BeanInterceptorInfo<?>>> candidates = new ExtendedArray<>();
+        for (Class<?> type : hierarchies.get(beanMetadata.getTypeClass())) {
+            ExtendedArray<Entry<BeanInterceptorInfo<?>>> entries = beanInterceptors.get(type);
+            if (entries != null)
+                candidates.addAll(entries);
+        }
+        candidates.addAll(unindexedBeanInterceptors);
+
+        ExtendedArray<BeanInterceptorInfo<_B>> supportedInterceptors = new ExtendedArray<>(candidates.size());
+        candidates.sort(entryComparator);
+        for (int i = 0, n = candidates.size(); i < n; i++) {
+            @SuppressWarnings("unchecked")
+            BeanInterceptorInfo<_B> interceptor = (BeanInterceptorInfo<_B>) candidates.get(i).info;
+            if (interceptor.supports(beanMetadata))
+                supportedInterceptors.add(interceptor);
+        }
+        return new ReadOnlyList<>(supportedInterceptors);
+    }
+
+    /**
+     * Resolves the sorted interceptors supporting the property.
+     */
+    @NonNull
+    <_B, _P> ReadOnlyList<PropertyInterceptorInfo<_B, _P>> getInterceptors(@NonNull PlainBeanProp<_B, _P> propertyMetadata) {
+        JavaType<?> valueType = propertyMetadata.getValueType();
+        Class<?> valueClass = (valueType.isPrimitive() ? valueType.getWrapperType() : valueType).getTypeClass();
+        String propertyName = propertyMetadata.getPropertyName();
+
+        ExtendedArray<Entry<PropertyInterceptorInfo<?, ?>>> candidates = new ExtendedArray<>();
+        for (Class<?> type : hierarchies.get(propertyMetadata.getBeanType().getTypeClass())) {
+            PropertyBucket bucket = propertyInterceptors.get(type);
+            if (bucket == null)
+                continue;
+
+            ExtendedArray<Entry<PropertyInterceptorInfo<?, ?>>> entries = bucket.byName.get(propertyName);
+            if (entries != null)
+                candidates.addAll(entries);
+
+            if (valueClass.isArray()) {
+                // the array types are assignable to the arrays of the super types, which are not in the hierarchy
+                for (ExtendedArray<Entry<PropertyInterceptorInfo<?, ?>>> typeEntries : bucket.byValueType.values())
+                    candidates.addAll(typeEntries);
+            }
+            else if (!bucket.byValueType.isEmpty()) {
+                for (Class<?> valueSuperType : hierarchies.get(valueClass)) {
+                    entries = bucket.byValueType.get(valueSuperType);
+                    if (entries != null)
+                        candidates.addAll(entries);
+                }
+            }
+
+            candidates.addAll(bucket.patterned);
+        }
+        candidates.addAll(unindexedPropertyInterceptors);
+
+        ExtendedArray<PropertyInterceptorInfo<_B, _P>> supportedInterceptors = new ExtendedArray<>(candidates.size());
+        candidates.sort(entryComparator);
+        for (int i = 0, n = candidates.size(); i < n; i++) {
+            @SuppressWarnings("unchecked")
+            PropertyInterceptorInfo<_B, _P> interceptor = (PropertyInterceptorInfo<_B, _P>) candidates.get(i).info;
+            if (interceptor.supports(propertyMetadata))
+                supportedInterceptors.add(interceptor);
+        }
+        return new ReadOnlyList<>(supportedInterceptors);
+    }
+
+    @NonNull
+    private static Class<?> getTargetKey(@NonNull InterceptorInfo<?> info) {
+        Class<?>[] targets = info.getTargets();
+        return targets.length != 0 ? targets[0] : Object.class;
+    }
+
+    private static boolean isLiteral(@NonNull PropertyPattern[] patterns) {
+        for (PropertyPattern pattern : patterns)
+            if (!pattern.isLiteral())
+                return false;
+        return true;
+    }
+
+    private static boolean isOverridden(@NonNull Class<?> infoClass, @NonNull Class<?> declaringClass, @NonNull String name, @NonNull Class<?>... parameterTypes) {
+        try {
+            return infoClass.getMethod(name, parameterTypes).getDeclaringClass() != declaringClass;
+        }
+        catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    private static void collectHierarchy(Class<?> type, @NonNull LinkedHashSet<Class<?>> classes) {
+        for (; type != null; type = type.getSuperclass()) {
+            if (!classes.add(type))
+                return;
+            for (Class<?> interfaceType : type.getInterfaces())
+                collectHierarchy(interfaceType, classes);
+        }
+    }
+
+    private static final class Entry<_I extends InterceptorInfo<?>> {
+
+        @NonNull final _I info;
+        /** the position in the registry */
+        final int order;
+
+        Entry(@NonNull _I info, int order) {
+            this.info = info;
+            this.order = order;
+        }
+    }
+
+    private static final class PropertyBucket {
+
+        @NonNull final HashMap<String, ExtendedArray<Entry<PropertyInterceptorInfo<?, ?>>>> byName = new HashMap<>();
+        @NonNull final HashMap<Class<?>, ExtendedArray<Entry<PropertyInterceptorInfo<?, ?>>>> byValueType = new HashMap<>();
+        @NonNull final ExtendedArray<Entry<PropertyInterceptorInfo<?, ?>>> patterned = new ExtendedArray<>();
+    }
+}
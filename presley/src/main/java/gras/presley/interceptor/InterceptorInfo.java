@@ -6,6 +6,7 @@
  */
 package gras.presley.interceptor;
 
+import gras.berry.ReflectionUtils;
 import gras.berry.collection.ExtendedArray;
 import gras.presley.metadata.BeanType;
 import lombok.NonNull;
@@ -32,13 +33,23 @@ abstract class InterceptorInfo<_I> {
 
     @NonNull private InterceptorPosition position;
 
+    /** Optional compile time generated metadata of the interceptor class. */
+    private final GeneratedInterceptorMetadata generated;
+
     protected InterceptorInfo(@NonNull _I interceptor) {
         this.interceptor = interceptor;
+        this.generated = (GeneratedInterceptorMetadata) ReflectionUtils.newGeneratedInstance(interceptor.getClass(), GeneratedInterceptorMetadata.CLASS_SUFFIX);
 
-        InterceptorDef def = getInterceptMethod().getAnnotation(InterceptorDef.class);
-        position = def != null ? def.position() : InterceptorPosition.DEFAULT; // we can also use the anno attribute default value
+        if (generated != null) {
+            position = generated.getPosition();
+            targets = generated.getTargets();
+        }
+        else {
+            InterceptorDef def = getInterceptMethod().getAnnotation(InterceptorDef.class);
+            position = def != null ? def.position() : InterceptorPosition.DEFAULT; // we can also use the anno attribute default value
 
-        targets = buildTargets();
+            targets = buildTargets();
+        }
     }
 
     public _I getInterceptor() {
@@ -69,6 +80,13 @@ abstract class InterceptorInfo<_I> {
         return true;
     }
 
+    /**
+     * Returns the compile time generated metadata of the interceptor class or {@code null} if there is none.
+     */
+    protected final GeneratedInterceptorMetadata getGenerated() {
+        return generated;
+    }
+
     /**
      * Getter for the position of this interceptor
      * @return a InterceptorPosition object
@@ -9,11 +9,18 @@ package gras.presley.interceptor;
 import gras.berry.collection.ExtendedArray;
 import gras.berry.collection.ReadOnlyList;
 import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.EvaluatedStateCache;
 import gras.presley.metadata.BeanType;
+import gras.presley.metadata.CachedList;
 import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyList;
+import gras.presley.trace.TraceSpan;
+import gras.presley.trace.Tracer;
 import lombok.NonNull;
 
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * @version $Revision$ $LastChangedDate$ 
@@ -21,6 +28,9 @@ import java.util.List;
  */
 public class InterceptorManager {
 
+    /** lazy built index of the registered interceptors */
+    private volatile InterceptorIndex index;
+
     protected InterceptorManager() {
     }
 
@@ -28,91 +38,283 @@ public class InterceptorManager {
         return ApplicationContext.getInterceptorManager();
     }
 
+    /**
+     * Builds and caches the interceptor chains of the bean type and all of its properties ahead of the first invocation.
+     * @see gras.presley.metadata.TypeManager#preload(java.util.Collection)
+     */
+    public <_B> void preload(@NonNull BeanType<_B> beanMetadata) {
+        getInterceptorChain(beanMetadata);
+
+        PropertyList<PlainBeanProp<_B, ?>> props = beanMetadata.getProperties();
+        for (int i = 0, n = props.size(); i < n; i++)
+            getInterceptorChain(props.get(i));
+    }
+
     protected <_B> void processBean(@NonNull BeanType<_B> beanMetadata, @NonNull _B bean, @NonNull BeanOperation operation) throws Exception {
+        BeanInterceptorChain<_B> chain = getInterceptorChain(beanMetadata);
+        if (chain.isEmpty())
+            return;
+
+        BeanInvocation<_B> invocation = BeanInvocation.create(bean, beanMetadata, operation, chain);
+        Tracer tracer = Tracer.instance();
+        TraceSpan span = tracer != null ? tracer.startBeanInterception(beanMetadata, operation) : null;
+        try {
+            invocation.proceed();
+        }
+        finally {
+            if (span != null)
+                span.close();
+        }
+    }
+
+    /**
+     * Processes the bean operation without blocking on the {@link AsyncBeanInterceptor}s.
+     * The asynchronous interceptors are called first, then the synchronous ones run inline when the asynchronous stages are completed,
+     * see {@link BeanInterceptorChain#getAsyncChain()}.
+     * @return the stage completed when all interceptors are processed
+     */
+    @NonNull
+    protected <_B> CompletionStage<Void> processBeanAsync(@NonNull BeanType<_B> beanMetadata, @NonNull _B bean, @NonNull BeanOperation operation) {
+        BeanInterceptorChain<_B> chain = getInterceptorChain(beanMetadata);
+        if (chain.isEmpty())
+            return CompletableFuture.completedFuture(null);
+
+        AsyncBeanInvocation<_B> invocation = AsyncBeanInvocation.create(bean, beanMetadata, operation, chain.getAsyncChain());
+        return invocation.proceed();
+    }
+
+    /**
+     * Gets the compiled chain of the interceptors of the given bean type.
+     * Stores the chain on the {@link BeanType} instance for the next call, until the interceptor list changes.
+     * @see #getInterceptors(BeanType)
+     */
+    @NonNull
+    protected final <_B> BeanInterceptorChain<_B> getInterceptorChain(@NonNull BeanType<_B> beanMetadata) {
         ReadOnlyList<BeanInterceptorInfo<_B>> interceptors = getInterceptors(beanMetadata);
-        BeanInvocation<_B> invocation = new BeanInvocation<_B>(bean, beanMetadata, operation, interceptors);
-        invocation.proceed();
+        CachedList<BeanInterceptorInfo<_B>, BeanInterceptorChain<_B>> cached = MetadataAccess.getInterceptors(beanMetadata);
+        if (cached != null && cached.getList() == interceptors && cached.getCompiled() != null)
+            return cached.getCompiled();
+
+        BeanInterceptorChain<_B> chain = BeanInterceptorChain.compile(interceptors);
+        // store the chain only with the list it was compiled from
+        if (cached != null && cached.getList() == interceptors)
+            MetadataAccess.setInterceptors(beanMetadata, new CachedList<>(interceptors, cached.getVersion(), chain));
+        return chain;
     }
 
     /**
      * Gets all the registered interceptors for the given bean type.
      *
-     * <p> Retrieves all the interceptors from {@link InterceptorRegistry} and checks all of them if they support the type.
-     * Stores the calculated interceptor list on the {@link BeanType} instance for the next call.
+     * <p> Looks up the candidate interceptors of {@link InterceptorRegistry} in the interceptor index and checks them if they support the type.
+     * Stores the calculated interceptor list on the {@link BeanType} instance for the next call,
+     * until the {@link InterceptorRegistry#getVersion() version of the registry} changes.
      *
      * @see BeanInterceptorInfo#supports(BeanType)
      * @see InterceptorRegistry#getBeanInterceptors()
      */
     @NonNull
     protected <_B> ReadOnlyList<BeanInterceptorInfo<_B>> getInterceptors(@NonNull BeanType<_B> beanMetadata) {
-        ReadOnlyList<BeanInterceptorInfo<_B>> interceptors = MetadataAccess.getInterceptors(beanMetadata);
-        if (interceptors == null) {
-            List<BeanInterceptorInfo<_B>> all = InterceptorRegistry.instance().getBeanInterceptors();
-
-            ExtendedArray<BeanInterceptorInfo<_B>> supportedInterceptors = new ExtendedArray<>(all.size());
-            for (int i = all.size(); --i >= 0; ) {
-                BeanInterceptorInfo<_B> interceptor = all.get(i);
-                if (interceptor.supports(beanMetadata))
-                    supportedInterceptors.add(interceptor);
+        long version = InterceptorRegistry.instance().getVersion();
+        CachedList<BeanInterceptorInfo<_B>, BeanInterceptorChain<_B>> cached = MetadataAccess.getInterceptors(beanMetadata);
+        if (cached == null || cached.getVersion() != version) {
+            ReadOnlyList<BeanInterceptorInfo<_B>> resolved = getInterceptorIndex(version).getInterceptors(beanMetadata);
+            // keep the unchanged list with its chain, so the chain is not compiled again
+            cached = cached != null && cached.getList().equals(resolved) ?
+                    new CachedList<>(cached.getList(), version, cached.getCompiled()) :
+                    new CachedList<>(resolved, version);
+            MetadataAccess.setInterceptors(beanMetadata, cached);
+        }
+        return cached.getList();
+    }
+
+    protected <_B, _P> void processProperty(@NonNull PlainBeanProp<_B, _P> propertyMetadata, @NonNull _B bean, _P originalValue, _P newValue) throws Exception {
+        PropertyInterceptorChain<_B, _P> chain = getInterceptorChain(propertyMetadata);
+        if (!chain.isEmpty()) {
+            PropertyInvocation<_B, _P> invocation = PropertyInvocation.create(bean, originalValue, newValue, propertyMetadata, chain);
+            Tracer tracer = Tracer.instance();
+            TraceSpan span = tracer != null ? tracer.startPropertyInterception(propertyMetadata) : null;
+            try {
+                invocation.proceed();
+            }
+            finally {
+                if (span != null)
+                    span.close();
             }
+        }
+
+        propertyChanged(propertyMetadata, bean, originalValue, newValue);
+    }
 
-            supportedInterceptors.sort(InterceptorPosition.interceptorInfoComparator);
-            interceptors = new ReadOnlyList<>(supportedInterceptors);
-            MetadataAccess.setInterceptors(beanMetadata, interceptors);
+    /**
+     * Processes the property change without blocking on the {@link AsyncPropertyInterceptor}s.
+     * The asynchronous interceptors are called first, then the synchronous ones run inline when the asynchronous stages are completed,
+     * see {@link PropertyInterceptorChain#getAsyncChain()}.
+     * {@link #propertyChanged(PlainBeanProp, Object, Object, Object)} is called when the chain completes normally.
+     * @return the stage completed when all interceptors are processed
+     */
+    @NonNull
+    protected <_B, _P> CompletionStage<Void> processPropertyAsync(@NonNull PlainBeanProp<_B, _P> propertyMetadata, @NonNull _B bean, _P originalValue, _P newValue) {
+        PropertyInterceptorChain<_B, _P> chain = getInterceptorChain(propertyMetadata);
+        if (chain.isEmpty()) {
+            propertyChanged(propertyMetadata, bean, originalValue, newValue);
+            return CompletableFuture.completedFuture(null);
         }
-        return interceptors;
+
+        AsyncPropertyInvocation<_B, _P> invocation = AsyncPropertyInvocation.create(bean, originalValue, newValue, propertyMetadata, chain.getAsyncChain());
+        return invocation.proceed().thenRun(() -> propertyChanged(propertyMetadata, bean, originalValue, newValue));
     }
 
-    protected <_B, _P> void processProperty(@NonNull PlainBeanProp<_B, _P> propertyMetadata, @NonNull _B bean, _P originalValue, _P newValue) throws Exception {
+    /**
+     * Gets the compiled chain of the interceptors of the given prop.
+     * Stores the chain on the {@link PlainBeanProp} instance for the next call, until the interceptor list changes.
+     * @see #getInterceptors(PlainBeanProp)
+     */
+    @NonNull
+    protected final <_B, _P> PropertyInterceptorChain<_B, _P> getInterceptorChain(@NonNull PlainBeanProp<_B, _P> propertyMetadata) {
         ReadOnlyList<PropertyInterceptorInfo<_B, _P>> interceptors = getInterceptors(propertyMetadata);
-        PropertyInvocation<_B, _P> invocation = new PropertyInvocation<_B, _P>(bean, originalValue, newValue, propertyMetadata, interceptors);
+        CachedList<PropertyInterceptorInfo<_B, _P>, PropertyInterceptorChain<_B, _P>> cached = MetadataAccess.getInterceptors(propertyMetadata);
+        if (cached != null && cached.getList() == interceptors && cached.getCompiled() != null)
+            return cached.getCompiled();
+
+        PropertyInterceptorChain<_B, _P> chain = PropertyInterceptorChain.compile(interceptors);
+        // store the chain only with the list it was compiled from
+        if (cached != null && cached.getList() == interceptors)
+            MetadataAccess.setInterceptors(propertyMetadata, new CachedList<>(interceptors, cached.getVersion(), chain));
+        return chain;
+    }
+
+    /**
+     * Processes the changes of many properties of a bean with a single pass of the interceptor chain.
+     *
+     * <p> The {@link BulkPropertyInterceptor}s supporting any of the changed properties are called once with all the changes,
+     * then the other interceptors are called per property like in {@link #processProperty(PlainBeanProp, Object, Object, Object)}.
+     * The original values are read from the bean, then the new values are set by this method before the interceptors are called,
+     * so the caller must not set them.
+     *
+     * @param newValues the new values by the changed properties, iterated in the order of the map
+     */
+    protected <_B> void processProperties(@NonNull _B bean, @NonNull Map<? extends PlainBeanProp<_B, ?>, ?> newValues) throws Exception {
+        int n = newValues.size();
+        @SuppressWarnings("unchecked")
+        PlainBeanProp<_B, ?>[] properties = (PlainBeanProp<_B, ?>[]) new PlainBeanProp<?, ?>[n];
+        Object[] originalValues = new Object[n];
+        Object[] values = new Object[n];
+        ExtendedArray<PropertyInterceptorInfo<_B, ?>> bulkInterceptors = new ExtendedArray<>();
+
+        int i = 0;
+        for (Map.Entry<? extends PlainBeanProp<_B, ?>, ?> entry : newValues.entrySet()) {
+            @SuppressWarnings("unchecked")
+            PlainBeanProp<_B, Object> prop = (PlainBeanProp<_B, Object>) entry.getKey();
+            properties[i] = prop;
+            originalValues[i] = prop.getValue(bean);
+            values[i] = entry.getValue();
+            prop.setValue(bean, values[i]);
+            i++;
+
+            ReadOnlyList<? extends PropertyInterceptorInfo<_B, ?>> interceptors = getInterceptors(prop);
+            for (int j = 0, m = interceptors.size(); j < m; j++) {
+                PropertyInterceptorInfo<_B, ?> interceptor = interceptors.get(j);
+                if (interceptor.getInterceptor() instanceof BulkPropertyInterceptor && !bulkInterceptors.contains(interceptor))
+                    bulkInterceptors.add(interceptor);
+            }
+        }
+
+        bulkInterceptors.sort(InterceptorPosition.interceptorInfoComparator);
+        BulkPropertyInvocation<_B> invocation = new BulkPropertyInvocation<>(this, bean, properties, originalValues, values, bulkInterceptors);
         invocation.proceed();
     }
 
+    /**
+     * Processes one property of a bulk change with the interceptors which are not {@link BulkPropertyInterceptor}s.
+     */
+    @SuppressWarnings("unchecked")
+    <_B, _P> void processSingleProperty(@NonNull PlainBeanProp<_B, _P> propertyMetadata, @NonNull _B bean, Object originalValue, Object newValue) throws Exception {
+        PropertyInterceptorChain<_B, _P> chain = getInterceptorChain(propertyMetadata).getSingleChain();
+        if (!chain.isEmpty()) {
+            PropertyInvocation<_B, _P> invocation = PropertyInvocation.create(bean, (_P) originalValue, (_P) newValue, propertyMetadata, chain);
+            Tracer tracer = Tracer.instance();
+            TraceSpan span = tracer != null ? tracer.startPropertyInterception(propertyMetadata) : null;
+            try {
+                invocation.proceed();
+            }
+            finally {
+                if (span != null)
+                    span.close();
+            }
+        }
+
+        propertyChanged(propertyMetadata, bean, (_P) originalValue, (_P) newValue);
+    }
+
+    /**
+     * Called after the property interceptors are processed. This is a customization point.
+     * <p> The default implementation records the change in the {@link DirtyTracker} and invalidates the states of the bean
+     * in the {@link EvaluatedStateCache} of the application context, if any. The overriding implementations must call it.
+     */
+    protected <_B, _P> void propertyChanged(@NonNull PlainBeanProp<_B, _P> propertyMetadata, @NonNull _B bean, _P originalValue, _P newValue) {
+        DirtyTracker tracker = DirtyTracker.instance();
+        if (tracker != null)
+            tracker.markDirty(propertyMetadata, bean);
+
+        EvaluatedStateCache stateCache = EvaluatedStateCache.instance();
+        if (stateCache != null)
+            stateCache.invalidate(bean);
+    }
+
     /**
      * Gets all the registered property interceptors for the given prop.
      *
-     * <p> Retrieves all the interceptors from {@link InterceptorRegistry} and checks all of them if they support the property.
-     * Stores the calculated interceptor list on the {@link PlainBeanProp} instance for the next call.
+     * <p> Looks up the candidate interceptors of {@link InterceptorRegistry} in the interceptor index and checks them if they support the property.
+     * Stores the calculated interceptor list on the {@link PlainBeanProp} instance for the next call,
+     * until the {@link InterceptorRegistry#getVersion() version of the registry} changes.
      *
      * @see PropertyInterceptorInfo#supports(PlainBeanProp)
      * @see InterceptorRegistry#getPropertyInterceptors()
      */
     @NonNull
     protected <_B, _P> ReadOnlyList<PropertyInterceptorInfo<_B, _P>> getInterceptors(@NonNull PlainBeanProp<_B, _P> propertyMetadata) {
-        ReadOnlyList<PropertyInterceptorInfo<_B, _P>> interceptors = MetadataAccess.getInterceptors(propertyMetadata);
-        if (interceptors == null) {
-            List<PropertyInterceptorInfo<_B, _P>> all = InterceptorRegistry.instance().getPropertyInterceptors();
-
-            ExtendedArray<PropertyInterceptorInfo<_B, _P>> supportedInterceptors = new ExtendedArray<>(all.size());
-            for (int i = all.size(); --i >= 0; ) {
-                PropertyInterceptorInfo<_B, _P> interceptor = all.get(i);
-                if (interceptor.supports(propertyMetadata))
-                    supportedInterceptors.add(interceptor);
-            }
+        long version = InterceptorRegistry.instance().getVersion();
+        CachedList<PropertyInterceptorInfo<_B, _P>, PropertyInterceptorChain<_B, _P>> cached = MetadataAccess.getInterceptors(propertyMetadata);
+        if (cached == null || cached.getVersion() != version) {
+            ReadOnlyList<PropertyInterceptorInfo<_B, _P>> resolved = getInterceptorIndex(version).getInterceptors(propertyMetadata);
+            // keep the unchanged list with its chain, so the chain is not compiled again
+            cached = cached != null && cached.getList().equals(resolved) ?
+                    new CachedList<>(cached.getList(), version, cached.getCompiled()) :
+                    new CachedList<>(resolved, version);
+            MetadataAccess.setInterceptors(propertyMetadata, cached);
+        }
+        return cached.getList();
+    }
 
-            supportedInterceptors.sort(InterceptorPosition.interceptorInfoComparator);
-            interceptors = new ReadOnlyList<>(supportedInterceptors);
-            MetadataAccess.setInterceptors(propertyMetadata, new ReadOnlyList<>(interceptors));
+    /**
+     * Gets the index of the interceptors of the {@link InterceptorRegistry}, builds it if the registry has changed.
+     * Concurrent callers may build the same index, the last one is kept.
+     */
+    @NonNull
+    private InterceptorIndex getInterceptorIndex(long version) {
+        InterceptorIndex index = this.index;
+        if (index == null || index.getVersion() != version) {
+            InterceptorRegistry registry = InterceptorRegistry.instance();
+            this.index = index = new InterceptorIndex(version, registry.getBeanInterceptors(), registry.getPropertyInterceptors());
         }
-        return interceptors;
+        return index;
     }
 
     private static final class MetadataAccess extends gras.presley.metadata.PackageAccess {
 
-        protected static <_B> ReadOnlyList<BeanInterceptorInfo<_B>> getInterceptors(BeanType<_B> beanType) {
+        protected static <_B> CachedList<BeanInterceptorInfo<_B>, BeanInterceptorChain<_B>> getInterceptors(BeanType<_B> beanType) {
             return gras.presley.metadata.PackageAccess.getInterceptors(beanType);
         }
 
-        protected static <_B> void setInterceptors(BeanType<_B> beanType, ReadOnlyList<BeanInterceptorInfo<_B>> interceptors) {
+        protected static <_B> void setInterceptors(BeanType<_B> beanType, CachedList<BeanInterceptorInfo<_B>, BeanInterceptorChain<_B>> interceptors) {
             gras.presley.metadata.PackageAccess.setInterceptors(beanType, interceptors);
         }
 
-        protected static <_B, _P> ReadOnlyList<PropertyInterceptorInfo<_B, _P>> getInterceptors(PlainBeanProp<_B, _P> prop) {
+        protected static <_B, _P> CachedList<PropertyInterceptorInfo<_B, _P>, PropertyInterceptorChain<_B, _P>> getInterceptors(PlainBeanProp<_B, _P> prop) {
             return gras.presley.metadata.PackageAccess.getInterceptors(prop);
         }
 
-        protected static <_B, _P> void setInterceptors(PlainBeanProp<_B, _P> prop, ReadOnlyList<PropertyInterceptorInfo<_B, _P>> interceptors) {
+        protected static <_B, _P> void setInterceptors(PlainBeanProp<_B, _P> prop, CachedList<PropertyInterceptorInfo<_B, _P>, PropertyInterceptorChain<_B, _P>> interceptors) {
             gras.presley.metadata.PackageAccess.setInterceptors(prop, interceptors);
         }
     }
@@ -20,6 +20,16 @@ public interface InterceptorRegistry {
 
     <_B, _P> List<PropertyInterceptorInfo<_B, _P>> getPropertyInterceptors();
 
+    /**
+     * The version of the registered interceptors, which must be increased on every change of the lists.
+     * The resolved lists cached on the metadata are checked against this version on each read,
+     * and are resolved again lazily if the registry has changed.
+     * The default implementation returns 0 for the registries which never change.
+     */
+    default long getVersion() {
+        return 0;
+    }
+
     static InterceptorRegistry instance() {
         return ApplicationContext.getInterceptorRegistry();
     }
@@ -10,7 +10,7 @@ package gras.presley.interceptor;
  * @version $Revision$ $LastChangedDate$ 
  * @author $Author$
  */
-public interface PropertyInterceptor<_B, _P> {
+public interface PropertyInterceptor<_B, _P> extends Interceptor {
 
     /**
      * Called by interceptor manager for all matching property setter calls.
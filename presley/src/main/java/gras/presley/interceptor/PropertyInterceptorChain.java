@@ -0,0 +1,156 @@
+/*
+ * PropertyInterceptorChain
+ * Create Date: 2020. 04. 07.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.berry.collection.ExtendedArray;
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * A node of the compiled interceptor chain of a property. The chain is built once from the sorted interceptor list
+ * of the property and cached on the property, so the invocations only follow the {@link #next} links.
+ *
+ * <p> Instances are immutable. An empty chain is a single node without interceptor, see {@link #isEmpty()}.
+ *
+ * @see InterceptorManager#getInterceptorChain(gras.presley.metadata.PlainBeanProp)
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class PropertyInterceptorChain<_B, _P> {
+
+    private static final PropertyInterceptorChain<?, ?> EMPTY = new PropertyInterceptorChain<>(null, false, null, null, null);
+
+    final PropertyInterceptorInfo<_B, _P> info;
+    final PropertyInterceptor<_B, _P> interceptor;
+    /** false if the interceptor supports all beans, so {@link PropertyInterceptorInfo#supports(Object)} can be skipped */
+    final boolean checkBean;
+    /** the next node or {@code null} at the end of the chain */
+    final PropertyInterceptorChain<_B, _P> next;
+    /** the chain without the {@link BulkPropertyInterceptor}s, only set on the head node if it differs from this chain */
+    private final PropertyInterceptorChain<_B, _P> single;
+    /** the chain with the {@link AsyncPropertyInterceptor}s first, only set on the head node if it differs from this chain */
+    private final PropertyInterceptorChain<_B, _P> async;
+
+    private PropertyInterceptorChain(PropertyInterceptorInfo<_B, _P> info, boolean checkBean, PropertyInterceptorChain<_B, _P> next,
+                                     PropertyInterceptorChain<_B, _P> single, PropertyInterceptorChain<_B, _P> async) {
+        this.info = info;
+        this.interceptor = info != null ? info.getInterceptor() : null;
+        this.checkBean = checkBean;
+        this.next = next;
+        this.single = single;
+        this.async = async;
+    }
+
+    /**
+     * Links the interceptors in the order of the list.
+     * If there are {@link BulkPropertyInterceptor}s in the list, then the chain without them is linked too, see {@link #getSingleChain()}.
+     * If a synchronous interceptor precedes an {@link AsyncPropertyInterceptor}, then the chain with the asynchronous interceptors
+     * first is linked too, see {@link #getAsyncChain()}.
+     */
+    @NonNull
+    public static <_B, _P> PropertyInterceptorChain<_B, _P> compile(@NonNull List<PropertyInterceptorInfo<_B, _P>> interceptors) {
+        boolean hasBulk = false;
+        boolean syncFirst = false;
+        boolean hasSync = false;
+        for (int i = 0, n = interceptors.size(); i < n; i++) {
+            PropertyInterceptor<_B, _P> interceptor = interceptors.get(i).getInterceptor();
+            hasBulk |= interceptor instanceof BulkPropertyInterceptor;
+            if (interceptor instanceof AsyncPropertyInterceptor)
+                syncFirst |= hasSync;
+            else
+                hasSync = true;
+        }
+
+        PropertyInterceptorChain<_B, _P> single = null;
+        if (hasBulk) {
+            ExtendedArray<PropertyInterceptorInfo<_B, _P>> singleInterceptors = new ExtendedArray<>(interceptors.size());
+            for (int i = 0, n = interceptors.size(); i < n; i++) {
+                PropertyInterceptorInfo<_B, _P> info = interceptors.get(i);
+                if (!(info.getInterceptor() instanceof BulkPropertyInterceptor))
+                    singleInterceptors.add(info);
+            }
+            single = link(singleInterceptors, null, null);
+        }
+
+        PropertyInterceptorChain<_B, _P> async = null;
+        if (syncFirst) {
+            // stable, so the interceptors keep their positions within the asynchronous and the synchronous group
+            ExtendedArray<PropertyInterceptorInfo<_B, _P>> asyncInterceptors = new ExtendedArray<>(interceptors);
+            asyncInterceptors.sort((i1, i2) -> Boolean.compare(!(i1.getInterceptor() instanceof AsyncPropertyInterceptor),
+                    !(i2.getInterceptor() instanceof AsyncPropertyInterceptor)));
+            async = link(asyncInterceptors, null, null);
+        }
+        return link(interceptors, single, async);
+    }
+
+    @NonNull
+    private static <_B, _P> PropertyInterceptorChain<_B, _P> link(@NonNull List<PropertyInterceptorInfo<_B, _P>> interceptors,
+                                                                 PropertyInterceptorChain<_B, _P> single, PropertyInterceptorChain<_B, _P> async) {
+        PropertyInterceptorChain<_B, _P> chain = null;
+        for (int i = interceptors.size(); --i >= 0; ) {
+            PropertyInterceptorInfo<_B, _P> info = interceptors.get(i);
+            chain = new PropertyInterceptorChain<>(info, isOverridden(info.getClass()), chain, i == 0 ? single : null, i == 0 ? async : null);
+        }
+        return chain != null ? chain : empty();
+    }
+
+    /**
+     * Returns the chain without interceptors.
+     */
+    @SuppressWarnings("unchecked")
+    @NonNull
+    static <_B, _P> PropertyInterceptorChain<_B, _P> empty() {
+        return (PropertyInterceptorChain<_B, _P>) EMPTY;
+    }
+
+    /**
+     * Returns the chain without the {@link BulkPropertyInterceptor}s, for the per property part of a bulk change,
+     * see {@link InterceptorManager#processProperties(Object, java.util.Map)}. Must be called on the head node.
+     */
+    @NonNull
+    PropertyInterceptorChain<_B, _P> getSingleChain() {
+        return single != null ? single : this;
+    }
+
+    /**
+     * Returns the chain with the {@link AsyncPropertyInterceptor}s before the synchronous ones, for the asynchronous processing,
+     * see {@link InterceptorManager#processPropertyAsync(gras.presley.metadata.PlainBeanProp, Object, Object, Object)}.
+     * So the synchronous interceptors run when the asynchronous stages are completed, and their <code>proceed()</code> does not wait.
+     * Must be called on the head node.
+     */
+    @NonNull
+    PropertyInterceptorChain<_B, _P> getAsyncChain() {
+        return async != null ? async : this;
+    }
+
+    /**
+     * Checks if the chain has no interceptors, so the invocation can be skipped.
+     */
+    public boolean isEmpty() {
+        return interceptor == null;
+    }
+
+    /**
+     * Number of the interceptors in the chain.
+     */
+    public int size() {
+        int size = 0;
+        for (PropertyInterceptorChain<_B, _P> node = this; node != null && node.interceptor != null; node = node.next)
+            size++;
+        return size;
+    }
+
+    private static boolean isOverridden(@NonNull Class<?> infoClass) {
+        try {
+            return infoClass.getMethod("supports", Object.class).getDeclaringClass() != PropertyInterceptorInfo.class;
+        }
+        catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+}
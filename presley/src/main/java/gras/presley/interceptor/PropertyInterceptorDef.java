@@ -26,7 +26,8 @@ public @interface PropertyInterceptorDef {
     /**
      * Optional list of property names that limits the PropertyInterceptor instance to only those properties that match one
      * of the given names.
-     * The names may contain '*' and '?' wild cards, and may or may not contain the bean qualified class name part.
+     * The names may contain '*' wild cards, and may or may not contain the bean qualified class name part,
+     * see {@link gras.presley.metadata.PropertyPattern#compile(String)}.
      * Whether to check the plain property name or the qualified class name plus the property name is indicated by having
      * at least one dot in the pattern. 
      * The names are always compared case sensitive.<br>
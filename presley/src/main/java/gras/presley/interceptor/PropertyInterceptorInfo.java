@@ -46,8 +46,15 @@ public class PropertyInterceptorInfo<_B, _P> extends InterceptorInfo<PropertyInt
     PropertyInterceptorInfo(PropertyInterceptor<_B, _P> interceptor) {
         super(interceptor);
 
-        PropertyInterceptorDef def = getInterceptMethod().getAnnotation(PropertyInterceptorDef.class);
-        if ( def != null ) {
+        GeneratedInterceptorMetadata generated = getGenerated();
+        PropertyInterceptorDef def = generated == null ? getInterceptMethod().getAnnotation(PropertyInterceptorDef.class) : null;
+        if ( generated != null && generated.getPropertyNames().length != 0 ) {
+            names = generated.getPropertyNames();
+            propertyPatterns = new PropertyPattern[names.length];
+            for ( int i = names.length; --i >= 0; )
+                propertyPatterns[i] = PropertyPattern.compile(names[i]);
+        }
+        else if ( def != null ) {
             names = def.names();
             propertyPatterns = new PropertyPattern[names.length];
             for ( int i = names.length; --i >= 0; )
@@ -58,11 +65,13 @@ public class PropertyInterceptorInfo<_B, _P> extends InterceptorInfo<PropertyInt
             propertyPatterns = NO_PATTERNS;
         }
 
-        propertyTypes = buildPropertyTypes();
+        propertyTypes = generated != null ? generated.getPropertyTypes() : buildPropertyTypes();
     }
 
     @Override
     protected Method getInterceptMethod() {
+        if (getInterceptor() instanceof AsyncPropertyInterceptor)
+            return ReflectionUtils.getDeclaredMethod(getInterceptor().getClass(), "interceptAsync", AsyncPropertyInvocation.class);
         return ReflectionUtils.getDeclaredMethod(getInterceptor().getClass(), "intercept", PropertyInvocation.class);
     }
 
@@ -111,6 +120,22 @@ public class PropertyInterceptorInfo<_B, _P> extends InterceptorInfo<PropertyInt
         return true;
     }
 
+    /**
+     * The none null name patterns of the interceptor, empty if it supports all property names.
+     */
+    @NonNull
+    final PropertyPattern[] getPropertyPatterns() {
+        return propertyPatterns;
+    }
+
+    /**
+     * The none null types which must be assignable from the property type.
+     */
+    @NonNull
+    final Class<?>[] getPropertyTypes() {
+        return propertyTypes;
+    }
+
     /**
      * This method determines the type of the property on which this interceptor works. The type is retrieved via
      * reflection from the generics definition of the interceptor class.
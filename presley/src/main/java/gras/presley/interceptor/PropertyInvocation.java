@@ -7,6 +7,8 @@
 package gras.presley.interceptor;
 
 import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metrics.MetricsRecorder;
+import lombok.NonNull;
 
 import java.util.List;
 
@@ -20,15 +22,34 @@ public class PropertyInvocation<_B, _P> {
     private final _P originalValue;
     private final _P newValue;
     private final PlainBeanProp<_B, _P> propertyMetadata;
-    private final List<PropertyInterceptorInfo<_B, _P>> interceptors;
-    private int idx = 0;
+    /** the next node of the interceptor chain to call or {@code null} at the end of the chain */
+    private PropertyInterceptorChain<_B, _P> next;
 
+    /**
+     * Creates an invocation running the interceptors in the order of the list. Its interceptors are not timed
+     * by the {@link MetricsRecorder}.
+     */
     public PropertyInvocation(_B bean, _P originalValue, _P newValue, PlainBeanProp<_B, _P> propertyMetadata, List<PropertyInterceptorInfo<_B, _P>> interceptors) {
+        this(bean, originalValue, newValue, propertyMetadata, PropertyInterceptorChain.compile(interceptors));
+    }
+
+    PropertyInvocation(_B bean, _P originalValue, _P newValue, PlainBeanProp<_B, _P> propertyMetadata, @NonNull PropertyInterceptorChain<_B, _P> chain) {
         this.bean = bean;
         this.originalValue = originalValue;
         this.newValue = newValue;
         this.propertyMetadata = propertyMetadata;
-        this.interceptors = interceptors;
+        this.next = chain.isEmpty() ? null : chain;
+    }
+
+    /**
+     * Creates the invocation of a chain. The recorder of the application context is looked up once per chain:
+     * without a recorder the interceptors are not timed, and the invocation has no timing state.
+     */
+    @NonNull
+    static <_B, _P> PropertyInvocation<_B, _P> create(_B bean, _P originalValue, _P newValue, PlainBeanProp<_B, _P> propertyMetadata, @NonNull PropertyInterceptorChain<_B, _P> chain) {
+        MetricsRecorder recorder = MetricsRecorder.instance();
+        return recorder == null ? new PropertyInvocation<>(bean, originalValue, newValue, propertyMetadata, chain) :
+                new Timed<>(bean, originalValue, newValue, propertyMetadata, chain, recorder);
     }
 
     public final _B getBean() {
@@ -48,17 +69,89 @@ public class PropertyInvocation<_B, _P> {
     }
 
     public void proceed() throws Exception {
-        PropertyInterceptorInfo<_B, _P> nextInterceptor;
-        for (;;) {
-            if (idx >= interceptors.size())
+        PropertyInterceptorChain<_B, _P> node = nextInterceptor();
+        if (node != null)
+            node.interceptor.intercept(this);
+    }
+
+    /**
+     * Moves to the next interceptor of the chain which supports the bean.
+     * @return the node of the interceptor to call or {@code null} at the end of the chain
+     */
+    final PropertyInterceptorChain<_B, _P> nextInterceptor() {
+        for (PropertyInterceptorChain<_B, _P> node = next; node != null; node = node.next) {
+            if (!node.checkBean || node.info.supports(bean)) {
+                next = node.next;
+                return node;
+            }
+        }
+        next = null;
+        return null;
+    }
+
+    /**
+     * Continues the rest of the chain with an asynchronous invocation, used by the asynchronous interceptors in a synchronous chain.
+     */
+    AsyncPropertyInvocation<_B, _P> toAsync() {
+        return AsyncPropertyInvocation.create(bean, originalValue, newValue, propertyMetadata, detachRest(), null);
+    }
+
+    /**
+     * Removes the rest of the chain from this invocation.
+     * @return the next node of the chain or {@code null} at the end of the chain
+     */
+    final PropertyInterceptorChain<_B, _P> detachRest() {
+        PropertyInterceptorChain<_B, _P> rest = next;
+        next = null;
+        return rest;
+    }
+
+    /**
+     * The invocation recording the elapsed time of each interceptor without the rest of the chain.
+     */
+    private static final class Timed<_B, _P> extends PropertyInvocation<_B, _P> {
+
+        @NonNull private final MetricsRecorder recorder;
+        /** the elapsed time of the rest of the chain, to record the own time of the interceptors */
+        private long chainNanos;
+        /** the asynchronous invocation continuing the rest of the chain of the current interceptor */
+        private AsyncPropertyInvocation<_B, _P> async;
+
+        Timed(_B bean, _P originalValue, _P newValue, PlainBeanProp<_B, _P> propertyMetadata, @NonNull PropertyInterceptorChain<_B, _P> chain, @NonNull MetricsRecorder recorder) {
+            super(bean, originalValue, newValue, propertyMetadata, chain);
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void proceed() throws Exception {
+            PropertyInterceptorChain<_B, _P> node = nextInterceptor();
+            if (node == null)
                 return;
-            idx++;
 
-            nextInterceptor = interceptors.get(idx);
-            if (nextInterceptor.supports(bean))
-                break;
+            long outerNanos = chainNanos;
+            chainNanos = 0;
+            long start = System.nanoTime();
+            try {
+                node.interceptor.intercept(this);
+            }
+            finally {
+                long elapsed = System.nanoTime() - start;
+                if (async != null) {
+                    chainNanos += async.getChainNanos();
+                    async = null;
+                }
+                recorder.recordInterceptor(node.info, getPropertyMetadata().getBeanType(), elapsed - chainNanos);
+                chainNanos = outerNanos + elapsed;
+            }
         }
 
-        nextInterceptor.getInterceptor().intercept(this);
+        /**
+         * Continues the rest of the chain timed, the elapsed time of the rest is not recorded for the current interceptor.
+         */
+        @Override
+        AsyncPropertyInvocation<_B, _P> toAsync() {
+            async = AsyncPropertyInvocation.create(getBean(), getOriginalValue(), getNewValue(), getPropertyMetadata(), detachRest(), recorder);
+            return async;
+        }
     }
 }
@@ -0,0 +1,180 @@
+/*
+ * BeanAccessor
+ * Create Date: 2020. 03. 28.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Bulk accessor of all properties of a {@link BeanType}, addressed by the property index.
+ *
+ * <p> Holds the pre-linked accessors of the properties in flat arrays, so serializers, diff and copy operations can
+ * read or write a whole bean with a single call instead of walking the {@link PropertyList} and its property instances.
+ * Instances can be retrieved with {@link BeanType#getAccessor()}.
+ *
+ * <p> If all the properties have accessors generated at compile time, {@link #readAll(Object, Object[])} and
+ * {@link #writeAll(Object, Object[])} make one call to the {@link GeneratedAccessor} of the bean class, which accesses
+ * the members in straight line code. Otherwise they make an interface call per property, which is megamorphic
+ * when many bean classes are accessed, so those beans are only as fast as the {@link PlainBeanProp} accessors.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class BeanAccessor<_B> {
+
+    @NonNull private final BeanType<_B> beanType;
+    @NonNull private final Function<_B, Object>[] readers;
+    /** {@code null} elements for read only properties */
+    @NonNull private final BiConsumer<_B, Object>[] writers;
+    /** the generated bulk reader or {@code null} if a property is linked at runtime */
+    private final GeneratedAccessor generatedReader;
+    /** the generated bulk writer or {@code null} if a writable property is linked at runtime */
+    private final GeneratedAccessor generatedWriter;
+    /** property indexes by generated property position */
+    private final int[] positions;
+
+    BeanAccessor(@NonNull BeanType<_B> beanType) {
+        this.beanType = beanType;
+
+        PropertyList<PlainBeanProp<_B, ?>> properties = beanType.getProperties();
+        int size = properties.size();
+        @SuppressWarnings("unchecked")
+        Function<_B, Object>[] readers = (Function<_B, Object>[]) new Function<?, ?>[size];
+        @SuppressWarnings("unchecked")
+        BiConsumer<_B, Object>[] writers = (BiConsumer<_B, Object>[]) new BiConsumer<?, ?>[size];
+        for (int i = 0; i < size; i++) {
+            @SuppressWarnings("unchecked")
+            PlainBeanProp<_B, Object> prop = (PlainBeanProp<_B, Object>) properties.get(i);
+            readers[i] = prop.getReader();
+            writers[i] = prop.isReadOnly() ? null : prop.getWriter();
+        }
+        this.readers = readers;
+        this.writers = writers;
+
+        positions = getGeneratedPositions(readers);
+        generatedReader = positions != null ? (GeneratedAccessor) readers[0] : null;
+        generatedWriter = positions != null && isGenerated(writers, readers[0].getClass()) ? generatedReader : null;
+    }
+
+    /**
+     * Maps the generated property positions to the property indexes.
+     * @return the property indexes or {@code null} if not all the properties have generated readers of the same bean class
+     */
+    private static int[] getGeneratedPositions(@NonNull Function<?, ?>[] readers) {
+        if (readers.length == 0 || !(readers[0] instanceof GeneratedAccessor) ||
+            ((GeneratedAccessor) readers[0]).getPropertyCount() != readers.length ||
+            !isGenerated(readers, readers[0].getClass()))
+            return null;
+
+        int[] positions = new int[readers.length];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < readers.length; i++) {
+            int id = ((GeneratedAccessor) readers[i]).getId();
+            if (id < 0 || id >= positions.length || positions[id] != -1)
+                return null;
+            positions[id] = i;
+        }
+        return positions;
+    }
+
+    /**
+     * Checks if all the none null accessors are instances of the generated accessor class.
+     */
+    private static boolean isGenerated(@NonNull Object[] accessors, @NonNull Class<?> accessorClass) {
+        for (Object accessor : accessors)
+            if (accessor != null && accessor.getClass() != accessorClass)
+                return false;
+        return true;
+    }
+
+    /**
+     * Returns the none null bean type of the accessed beans.
+     */
+    @NonNull
+    public BeanType<_B> getBeanType() {
+        return beanType;
+    }
+
+    /**
+     * Returns the number of accessible properties, which is the size of the arrays used by the bulk methods.
+     */
+    public int size() {
+        return readers.length;
+    }
+
+    /**
+     * Reads the value of the property with the given index.
+     * @see PlainBeanProp#getValue(Object)
+     */
+    public Object get(_B bean, int index) {
+        return readers[index].apply(bean);
+    }
+
+    /**
+     * Writes the value of the property with the given index.
+     * @throws UnsupportedOperationException if the property is read only
+     * @see PlainBeanProp#setValue(Object, Object)
+     */
+    public void set(_B bean, int index, Object value) {
+        BiConsumer<_B, Object> writer = writers[index];
+        if (writer == null)
+            throw new UnsupportedOperationException("Property " + beanType.getProperty(index) + " is read only");
+        writer.accept(bean, value);
+    }
+
+    /**
+     * Reads all the property values of the bean into the given array in property index order.
+     * @param values the target array, a new one is allocated if it is {@code null} or shorter than {@link #size()}
+     * @return the array holding the values
+     */
+    @NonNull
+    public Object[] readAll(_B bean, Object[] values) {
+        Function<_B, Object>[] readers = this.readers;
+        int n = readers.length;
+        if (values == null || values.length < n)
+            values = new Object[n];
+
+        GeneratedAccessor generatedReader = this.generatedReader;
+        if (generatedReader != null) {
+            generatedReader.readAll(bean, values, positions);
+            return values;
+        }
+        for (int i = 0; i < n; i++)
+            values[i] = readers[i].apply(bean);
+        return values;
+    }
+
+    /**
+     * Writes all the property values from the given array in property index order.
+     * Read only properties are skipped.
+     * @param values the values in property index order, at least {@link #size()} long
+     */
+    public void writeAll(_B bean, @NonNull Object[] values) {
+        BiConsumer<_B, Object>[] writers = this.writers;
+        if (values.length < writers.length)
+            throw new IllegalArgumentException("Expected " + writers.length + " values for " + beanType + " but got " + values.length);
+
+        GeneratedAccessor generatedWriter = this.generatedWriter;
+        if (generatedWriter != null) {
+            generatedWriter.writeAll(bean, values, positions);
+            return;
+        }
+        for (int i = 0, n = writers.length; i < n; i++) {
+            BiConsumer<_B, Object> writer = writers[i];
+            if (writer != null)
+                writer.accept(bean, values[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BeanAccessor of " + beanType;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * BeanCopier
+ * Create Date: 2020. 03. 31.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import lombok.NonNull;
+
+import java.util.BitSet;
+
+/**
+ * Copies the property values between two beans of a {@link BeanType}, addressed by the property index.
+ *
+ * <p> Primitive properties are copied through the primitive accessors without boxing. Read only properties are always
+ * skipped. Instances can be retrieved with {@link BeanType#getCopier()}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class BeanCopier<_B> {
+
+    @NonNull private final BeanType<_B> beanType;
+    @NonNull private final PlainBeanProp<_B, Object>[] properties;
+    /** value kinds of the properties, see {@link BeanDiff#getKind(PlainBeanProp)} */
+    @NonNull private final byte[] kinds;
+    /** indexes of the writable properties */
+    @NonNull private final BitSet writable;
+
+    BeanCopier(@NonNull BeanType<_B> beanType) {
+        this.beanType = beanType;
+
+        PropertyList<PlainBeanProp<_B, ?>> props = beanType.getProperties();
+        @SuppressWarnings("unchecked")
+        PlainBeanProp<_B, Object>[] properties = (PlainBeanProp<_B, Object>[]) props.toArray(new PlainBeanProp<?, ?>[props.size()]);
+        this.properties = properties;
+        kinds = new byte[properties.length];
+        writable = new BitSet(properties.length);
+        for (int i = 0; i < properties.length; i++) {
+            kinds[i] = BeanDiff.getKind(properties[i]);
+            if (!properties[i].isReadOnly())
+                writable.set(i);
+        }
+    }
+
+    /**
+     * Returns the none null bean type of the copied beans.
+     */
+    @NonNull
+    public BeanType<_B> getBeanType() {
+        return beanType;
+    }
+
+    /**
+     * Copies the value of the property with the given index, unless it is read only.
+     */
+    public void copy(@NonNull _B source, @NonNull _B target, int index) {
+        if (!writable.get(index))
+            return;
+
+        PlainBeanProp<_B, Object> prop = properties[index];
+        switch (kinds[index]) {
+            case BeanDiff.KIND_INT:
+                prop.setInt(target, prop.getInt(source));
+                break;
+            case BeanDiff.KIND_LONG:
+                prop.setLong(target, prop.getLong(source));
+                break;
+            case BeanDiff.KIND_DOUBLE:
+                prop.setDouble(target, prop.getDouble(source));
+                break;
+            case BeanDiff.KIND_BOOLEAN:
+                prop.setBoolean(target, prop.getBoolean(source));
+                break;
+            default:
+                prop.setValue(target, prop.getValue(source));
+        }
+    }
+
+    /**
+     * Copies all writable property values. Values are copied by reference, this is a shallow copy.
+     */
+    public void copy(@NonNull _B source, @NonNull _B target) {
+        for (int i = writable.nextSetBit(0); i >= 0; i = writable.nextSetBit(i + 1))
+            copy(source, target, i);
+    }
+
+    /**
+     * Copies the selected writable property values.
+     * @param indexes the indexes of the properties to copy
+     */
+    public void copy(@NonNull _B source, @NonNull _B target, @NonNull BitSet indexes) {
+        for (int i = indexes.nextSetBit(0); i >= 0 && i < properties.length; i = indexes.nextSetBit(i + 1))
+            copy(source, target, i);
+    }
+
+    /**
+     * Copies only the changed writable property values, so the setters of the unchanged properties are not invoked.
+     * @param indexes optional indexes of the properties to merge, {@code null} merges all of them
+     * @return the new none null set of the copied property indexes
+     */
+    @NonNull
+    public BitSet merge(@NonNull _B source, @NonNull _B target, BitSet indexes) {
+        BitSet changed = beanType.getDiff().diff(source, target);
+        changed.and(writable);
+        if (indexes != null)
+            changed.and(indexes);
+
+        copy(source, target, changed);
+        return changed;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanCopier of " + beanType;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * BeanDiff
+ * Create Date: 2020. 03. 31.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import lombok.NonNull;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Compares the property values of two beans of a {@link BeanType}, addressed by the property index.
+ *
+ * <p> The comparison of each property is selected once by its value type: primitive properties are compared through
+ * the primitive accessors without boxing, arrays by their content, other values with {@link Object#equals(Object)}. Instances can be retrieved with {@link BeanType#getDiff()}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class BeanDiff<_B> {
+
+    static final byte KIND_OBJECT = 0;
+    static final byte KIND_ARRAY = 1;
+    static final byte KIND_INT = 2;
+    static final byte KIND_LONG = 3;
+    static final byte KIND_DOUBLE = 4;
+    static final byte KIND_BOOLEAN = 5;
+
+    @NonNull private final BeanType<_B> beanType;
+    @NonNull private final PlainBeanProp<_B, ?>[] properties;
+    /** value kinds of the properties */
+    @NonNull private final byte[] kinds;
+
+    BeanDiff(@NonNull BeanType<_B> beanType) {
+        this.beanType = beanType;
+
+        PropertyList<PlainBeanProp<_B, ?>> props = beanType.getProperties();
+        @SuppressWarnings("unchecked")
+        PlainBeanProp<_B, ?>[] properties = (PlainBeanProp<_B, ?>[]) props.toArray(new PlainBeanProp<?, ?>[props.size()]);
+        this.properties = properties;
+        kinds = new byte[properties.length];
+        for (int i = 0; i < properties.length; i++)
+            kinds[i] = getKind(properties[i]);
+    }
+
+    /**
+     * Returns the comparison kind of the property value, narrower primitives have the kind of their widened accessors.
+     */
+    static byte getKind(@NonNull PlainBeanProp<?, ?> prop) {
+        Class<?> valueClass = PropertyAccessors.getAccessorType(prop.getValueType().getTypeClass());
+        if (valueClass == int.class)
+            return KIND_INT;
+        if (valueClass == long.class)
+            return KIND_LONG;
+        if (valueClass == double.class)
+            return KIND_DOUBLE;
+        if (valueClass == boolean.class)
+            return KIND_BOOLEAN;
+        if (valueClass.isArray())
+            return KIND_ARRAY;
+        return KIND_OBJECT;
+    }
+
+    /**
+     * Returns the none null bean type of the compared beans.
+     */
+    @NonNull
+    public BeanType<_B> getBeanType() {
+        return beanType;
+    }
+
+    /**
+     * Checks if the property with the given index has equal values in the two beans.
+     * Doubles and floats are compared as {@link Double#equals(Object)} and {@link Float#equals(Object)} do.
+     */
+    public boolean isEqual(@NonNull _B a, @NonNull _B b, int index) {
+        PlainBeanProp<_B, ?> prop = properties[index];
+        switch (kinds[index]) {
+            case KIND_INT:
+                return prop.getInt(a) == prop.getInt(b);
+            case KIND_LONG:
+                return prop.getLong(a) == prop.getLong(b);
+            case KIND_DOUBLE:
+                return Double.doubleToLongBits(prop.getDouble(a)) == Double.doubleToLongBits(prop.getDouble(b));
+            case KIND_BOOLEAN:
+                return prop.getBoolean(a) == prop.getBoolean(b);
+            case KIND_ARRAY:
+                return Objects.deepEquals(prop.getValue(a), prop.getValue(b));
+            default:
+                return Objects.equals(prop.getValue(a), prop.getValue(b));
+        }
+    }
+
+    /**
+     * Checks if all the property values are equal in the two beans.
+     */
+    public boolean isEqual(@NonNull _B a, @NonNull _B b) {
+        for (int i = 0, n = properties.length; i < n; i++)
+            if (!isEqual(a, b, i))
+                return false;
+        return true;
+    }
+
+    /**
+     * Computes the indexes of the properties having different values in the two beans.
+     * @return the new none null set of the changed property indexes
+     */
+    @NonNull
+    public BitSet diff(@NonNull _B a, @NonNull _B b) {
+        return diff(a, b, new BitSet(properties.length));
+    }
+
+    /**
+     * Computes the indexes of the properties having different values in the two beans into the given set.
+     * @param result the set to clear and fill, can be reused between the calls
+     * @return the result set
+     */
+    @NonNull
+    public BitSet diff(@NonNull _B a, @NonNull _B b, @NonNull BitSet result) {
+        result.clear();
+        for (int i = 0, n = properties.length; i < n; i++)
+            if (!isEqual(a, b, i))
+                result.set(i);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "BeanDiff of " + beanType;
+    }
+}
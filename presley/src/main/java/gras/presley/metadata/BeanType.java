@@ -6,13 +6,18 @@
  */
 package gras.presley.metadata;
 
-import gras.berry.collection.ReadOnlyList;
 import gras.presley.evaluator.EvaluatorInfo;
+import gras.presley.interceptor.BeanInterceptorChain;
 import gras.presley.interceptor.BeanInterceptorInfo;
 import gras.presley.operation.BeanOperationInfo;
 import gras.presley.operation.TypeOperationInfo;
 import lombok.NonNull;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
 /**
  * A java type that has properties.
  *
@@ -26,12 +31,27 @@ public class BeanType<_B> extends JavaType<_B> {
     private final boolean defaultEditable;
 
     /** lazy initialized property list */
-    PropertyList<PlainBeanProp<_B, ?>> properties;
-
-    private ReadOnlyList<BeanInterceptorInfo<_B>> interceptors;
-    private ReadOnlyList<EvaluatorInfo<_B, ?>> evaluators;
-    private ReadOnlyList<TypeOperationInfo<_B>> typeOperations;
-    private ReadOnlyList<BeanOperationInfo<_B>> beanOperations;
+    volatile PropertyList<PlainBeanProp<_B, ?>> properties;
+    /** guards the build of the property list */
+    final Object propertiesLock = new Object();
+    /** lazy initialized bulk accessor */
+    private volatile BeanAccessor<_B> accessor;
+    /** lazy initialized comparator */
+    private volatile BeanDiff<_B> diff;
+    /** lazy initialized copier */
+    private volatile BeanCopier<_B> copier;
+    /** lazy resolved no-arg constructor */
+    private volatile Constructor<_B> constructor;
+    /** compiled property paths by path string */
+    private final ConcurrentHashMap<String, PropertyPath<_B, ?>> propertyPaths = new ConcurrentHashMap<>(4, 0.75f, 2);
+    /** metadata of other modules by their factories, see {@link #getExtension(Function)} */
+    private final ConcurrentHashMap<Function<? super BeanType<_B>, ?>, Object> extensions = new ConcurrentHashMap<>(4, 0.75f, 2);
+
+    /** the cached lists, each one is published as a single snapshot */
+    private volatile CachedList<BeanInterceptorInfo<_B>, BeanInterceptorChain<_B>> interceptors;
+    private volatile CachedList<EvaluatorInfo<_B, ?>, Void> evaluators;
+    private volatile CachedList<TypeOperationInfo<_B>, Void> typeOperations;
+    private volatile CachedList<BeanOperationInfo<_B>, Void> beanOperations;
 
     BeanType(Class<_B> javaType) {
         super(javaType);
@@ -91,35 +111,132 @@ public class BeanType<_B> extends JavaType<_B> {
         throw new IllegalArgumentException("Property not found " + this + '.' + name);
     }
 
-    protected final ReadOnlyList<BeanInterceptorInfo<_B>> getInterceptors() {
+    /**
+     * Gets the compiled property path of this type, e.g. {@code "team.name"}.
+     * The path is resolved on the first call only, the next calls return the same instance.
+     * @throws IllegalArgumentException if the path can not be resolved
+     * @see PropertyPath
+     */
+    @NonNull
+    public final PropertyPath<_B, ?> getPropertyPath(@NonNull String path) {
+        PropertyPath<_B, ?> propertyPath = propertyPaths.get(path);
+        if (propertyPath == null) {
+            propertyPath = new PropertyPath<>(this, path);
+            PropertyPath<_B, ?> existing = propertyPaths.putIfAbsent(path, propertyPath);
+            if (existing != null)
+                propertyPath = existing;
+        }
+        return propertyPath;
+    }
+
+    /**
+     * Gets the bulk accessor that reads and writes the properties of this type by index.
+     */
+    @NonNull
+    public final BeanAccessor<_B> getAccessor() {
+        BeanAccessor<_B> accessor = this.accessor;
+        if (accessor == null) {
+            // concurrent builds produce equal instances, so we do not need to lock here
+            accessor = new BeanAccessor<>(this);
+            this.accessor = accessor;
+        }
+        return accessor;
+    }
+
+    /**
+     * Gets the comparator of the property values of this type.
+     */
+    @NonNull
+    public final BeanDiff<_B> getDiff() {
+        BeanDiff<_B> diff = this.diff;
+        if (diff == null) {
+            diff = new BeanDiff<>(this);
+            this.diff = diff;
+        }
+        return diff;
+    }
+
+    /**
+     * Gets the copier of the property values of this type.
+     */
+    @NonNull
+    public final BeanCopier<_B> getCopier() {
+        BeanCopier<_B> copier = this.copier;
+        if (copier == null) {
+            copier = new BeanCopier<>(this);
+            this.copier = copier;
+        }
+        return copier;
+    }
+
+    /**
+     * Gets the metadata of this type built by another module, e.g. the encoded property names of a serializer.
+     * The metadata is built once by the factory and lives as long as this type,
+     * so it follows the type manager instead of being cached by the bean class.
+     * @param factory the factory of the metadata, which is its key as well, so it must be a constant
+     */
+    @NonNull
+    @SuppressWarnings("unchecked")
+    public final <_T> _T getExtension(@NonNull Function<? super BeanType<_B>, _T> factory) {
+        Object extension = extensions.get(factory);
+        return (_T) (extension != null ? extension : extensions.computeIfAbsent(factory, f -> factory.apply(this)));
+    }
+
+    /**
+     * Creates a new bean with the no-arg constructor of the bean class, which does not need to be public.
+     * @throws IllegalStateException if the bean class has no no-arg constructor or it fails
+     */
+    @NonNull
+    public _B newInstance() {
+        Constructor<_B> constructor = this.constructor;
+        try {
+            if (constructor == null) {
+                constructor = getTypeClass().getDeclaredConstructor();
+                constructor.setAccessible(true);
+                this.constructor = constructor;
+            }
+            return constructor.newInstance();
+        }
+        catch (InvocationTargetException e) {
+            throw new IllegalStateException("Bean " + this + " can not be instantiated", e.getCause());
+        }
+        catch (ReflectiveOperationException | SecurityException e) {
+            throw new IllegalStateException("Bean " + this + " can not be instantiated", e);
+        }
+    }
+
+    /**
+     * The cached interceptors with their compiled chain or {@code null} if they are not resolved yet.
+     */
+    protected final CachedList<BeanInterceptorInfo<_B>, BeanInterceptorChain<_B>> getInterceptors() {
         return interceptors;
     }
 
-    protected final void setInterceptors(ReadOnlyList<BeanInterceptorInfo<_B>> interceptors) {
+    protected final void setInterceptors(CachedList<BeanInterceptorInfo<_B>, BeanInterceptorChain<_B>> interceptors) {
         this.interceptors = interceptors;
     }
 
-    protected final ReadOnlyList<EvaluatorInfo<_B, ?>> getEvaluators() {
+    protected final CachedList<EvaluatorInfo<_B, ?>, Void> getEvaluators() {
         return evaluators;
     }
 
-    protected final void setEvaluators(ReadOnlyList<EvaluatorInfo<_B, ?>> evaluators) {
+    protected final void setEvaluators(CachedList<EvaluatorInfo<_B, ?>, Void> evaluators) {
         this.evaluators = evaluators;
     }
 
-    protected final ReadOnlyList<TypeOperationInfo<_B>> getTypeOperations() {
+    protected final CachedList<TypeOperationInfo<_B>, Void> getTypeOperations() {
         return typeOperations;
     }
 
-    protected final void setTypeOperations(ReadOnlyList<TypeOperationInfo<_B>> typeOperations) {
+    protected final void setTypeOperations(CachedList<TypeOperationInfo<_B>, Void> typeOperations) {
         this.typeOperations = typeOperations;
     }
 
-    protected final ReadOnlyList<BeanOperationInfo<_B>> getBeanOperations() {
+    protected final CachedList<BeanOperationInfo<_B>, Void> getBeanOperations() {
         return beanOperations;
     }
 
-    protected final void setBeanOperations(ReadOnlyList<BeanOperationInfo<_B>> beanOperations) {
+    protected final void setBeanOperations(CachedList<BeanOperationInfo<_B>, Void> beanOperations) {
         this.beanOperations = beanOperations;
     }
 
@@ -0,0 +1,61 @@
+/*
+ * CachedList
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import gras.berry.collection.ReadOnlyList;
+import lombok.NonNull;
+
+/**
+ * An immutable snapshot of a list cached on the metadata, like the interceptors of a property:
+ * the list, the version of the registry it was resolved from and the structure compiled from the list, if any.
+ *
+ * <p> The metadata publishes the snapshots through a single volatile field, so a reader always sees the list,
+ * the version and the compiled structure of the same resolution. A snapshot is replaced, never changed.
+ *
+ * @param <_E> the type of the elements of the list
+ * @param <_C> the type of the structure compiled from the list, {@link Void} if there is none
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class CachedList<_E, _C> {
+
+    @NonNull private final ReadOnlyList<_E> list;
+    private final long version;
+    private final _C compiled;
+
+    public CachedList(@NonNull ReadOnlyList<_E> list, long version) {
+        this(list, version, null);
+    }
+
+    public CachedList(@NonNull ReadOnlyList<_E> list, long version, _C compiled) {
+        this.list = list;
+        this.version = version;
+        this.compiled = compiled;
+    }
+
+    /**
+     * The cached list.
+     */
+    @NonNull
+    public ReadOnlyList<_E> getList() {
+        return list;
+    }
+
+    /**
+     * The version of the registry the list was resolved from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * The structure compiled from the list or {@code null} if it is not compiled yet.
+     */
+    public _C getCompiled() {
+        return compiled;
+    }
+}
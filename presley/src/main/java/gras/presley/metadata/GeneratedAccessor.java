@@ -0,0 +1,44 @@
+/*
+ * GeneratedAccessor
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+/**
+ * Bulk accessor of the properties of a bean class, generated at compile time together with the {@link GeneratedBeanMetadata}.
+ * The properties are addressed by their position in {@link GeneratedBeanMetadata#getProperties()}.
+ *
+ * <p> The generated readers and writers of the properties implement this interface, so {@link BeanAccessor} can read
+ * or write a whole bean with a single call, which accesses the members in straight line code.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface GeneratedAccessor {
+
+    /**
+     * Returns the position of the property accessed by this reader or writer.
+     */
+    int getId();
+
+    /**
+     * Returns the number of the generated properties.
+     */
+    int getPropertyCount();
+
+    /**
+     * Reads the properties having a generated reader.
+     * @param values the target array, the value of the property at position {@code i} is stored at {@code values[positions[i]]}
+     * @param positions the target positions of the values, by property position
+     */
+    void readAll(Object bean, Object[] values, int[] positions);
+
+    /**
+     * Writes the properties having a generated writer.
+     * @param values the source array, the value of the property at position {@code i} is read from {@code values[positions[i]]}
+     * @param positions the source positions of the values, by property position
+     */
+    void writeAll(Object bean, Object[] values, int[] positions);
+}
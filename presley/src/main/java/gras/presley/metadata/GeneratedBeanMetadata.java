@@ -0,0 +1,37 @@
+/*
+ * GeneratedBeanMetadata
+ * Create Date: 2020. 03. 29.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import lombok.NonNull;
+
+import java.util.List;
+
+/**
+ * Bean metadata generated at compile time by the presley annotation processor.
+ *
+ * <p> The generated class is named as the bean class plus {@link #CLASS_SUFFIX} and placed into the package of the bean.
+ * If it exists, {@link TypeManager} builds the properties from it instead of scanning all the methods and fields
+ * of the bean class hierarchy, and uses its direct accessors instead of linking them at runtime.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface GeneratedBeanMetadata<_B> {
+
+    /**
+     * Suffix of the generated class name.
+     */
+    String CLASS_SUFFIX = "$BeanMetadata";
+
+    /**
+     * Returns the none null list of the {@link BeanProp} annotated members of the whole bean class hierarchy.
+     * Getters come first then the fields, both starting with the bean class itself then going up to the super classes,
+     * in source declaration order within a class.
+     */
+    @NonNull
+    List<GeneratedProperty> getProperties();
+}
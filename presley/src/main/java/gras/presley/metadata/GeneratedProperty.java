@@ -0,0 +1,118 @@
+/*
+ * GeneratedProperty
+ * Create Date: 2020. 03. 29.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import lombok.NonNull;
+
+/**
+ * Compile time description of an annotated bean property member.
+ * Instances are created by the generated {@link GeneratedBeanMetadata} classes only.
+ *
+ * <p> The members are described by their declaring class and name, so {@link TypeManager} can look them up directly.
+ * The optional reader and writer are generated code accessing the member without reflection. They are {@code null} if the
+ * member is not accessible from the package of the bean, in which case the accessor is linked at runtime.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class GeneratedProperty {
+
+    private final boolean fieldAnnotated;
+    private final int index;
+    private final Class<?> fieldClass;
+    private final String fieldName;
+    private final Class<?> getterClass;
+    private final String getterName;
+    private final Class<?> setterClass;
+    private final String setterName;
+    private final Object reader;
+    private final Object writer;
+
+    /**
+     * @param fieldAnnotated {@code false} if the getter method or {@code true} if the field annotated with {@link BeanProp}
+     * @param index the {@link BeanProp#index()} value
+     * @param reader a {@link java.util.function.Function} which also implements the primitive reader of the value type, if any
+     * @param writer a {@link java.util.function.BiConsumer} which also implements the primitive writer of the value type, if any
+     */
+    public GeneratedProperty(boolean fieldAnnotated, int index,
+                             Class<?> fieldClass, String fieldName,
+                             Class<?> getterClass, String getterName,
+                             Class<?> setterClass, String setterName,
+                             Object reader, Object writer) {
+        this.fieldAnnotated = fieldAnnotated;
+        this.index = index;
+        this.fieldClass = fieldClass;
+        this.fieldName = fieldName;
+        this.getterClass = getterClass;
+        this.getterName = getterName;
+        this.setterClass = setterClass;
+        this.setterName = setterName;
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    public boolean isFieldAnnotated() {
+        return fieldAnnotated;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Declaring class of the field or {@code null} if there is no field for the property.
+     */
+    public Class<?> getFieldClass() {
+        return fieldClass;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Declaring class of the getter or {@code null} if there is no getter for the property.
+     */
+    public Class<?> getGetterClass() {
+        return getterClass;
+    }
+
+    public String getGetterName() {
+        return getterName;
+    }
+
+    /**
+     * Declaring class of the setter or {@code null} if there is no setter for the property.
+     */
+    public Class<?> getSetterClass() {
+        return setterClass;
+    }
+
+    public String getSetterName() {
+        return setterName;
+    }
+
+    /**
+     * Optional generated value reader.
+     */
+    public Object getReader() {
+        return reader;
+    }
+
+    /**
+     * Optional generated value writer.
+     */
+    public Object getWriter() {
+        return writer;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return fieldAnnotated ? fieldClass.getName() + '.' + fieldName : getterClass.getName() + '.' + getterName + "()";
+    }
+}
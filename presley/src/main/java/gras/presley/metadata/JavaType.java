@@ -26,8 +26,12 @@ public class JavaType<_O> implements Serializable {
     @NonNull private final Class<_O> javaType;
     @NonNull private final String simpleName;
 
-    private static final IdentityHashMap<JavaType, JavaType> primitive2Wrapper = new IdentityHashMap<>(10);
-    private static final IdentityHashMap<JavaType, JavaType> wrapper2Primitive = new IdentityHashMap<>(10);
+    /**
+     * The primitive and wrapper classes. The types are looked up on demand, so initializing this class does not
+     * create types, it can be loaded while the type manager creates the first type.
+     */
+    private static final IdentityHashMap<Class<?>, Class<?>> primitive2Wrapper = new IdentityHashMap<>(10);
+    private static final IdentityHashMap<Class<?>, Class<?>> wrapper2Primitive = new IdentityHashMap<>(10);
 
     static {
         // primitive types and wrapper types
@@ -43,8 +47,8 @@ public class JavaType<_O> implements Serializable {
         };
 
         for (int i = 0, n = map.length; i < n; i += 2) {
-            wrapper2Primitive.put(TypeManager.forClass(map[i]), TypeManager.forClass(map[i + 1]));
-            primitive2Wrapper.put(TypeManager.forClass(map[i + 1]), TypeManager.forClass(map[i]));
+            wrapper2Primitive.put(map[i], map[i + 1]);
+            primitive2Wrapper.put(map[i + 1], map[i]);
         }
     }
 
@@ -147,8 +151,8 @@ public class JavaType<_O> implements Serializable {
      */
     @NonNull
     public final JavaType getWrapperType() {
-        JavaType t = primitive2Wrapper.get(this);
-        return t == null ? this : t;
+        Class<?> c = primitive2Wrapper.get(javaType);
+        return c == null ? this : TypeManager.forClass(c);
     }
 
     /**
@@ -156,8 +160,8 @@ public class JavaType<_O> implements Serializable {
      */
     @NonNull
     public final JavaType getPrimitiveType() {
-        JavaType t = wrapper2Primitive.get(this);
-        return t == null ? this : t;
+        Class<?> c = wrapper2Primitive.get(javaType);
+        return c == null ? this : TypeManager.forClass(c);
     }
 
     static final class SerialReplacement implements Serializable {
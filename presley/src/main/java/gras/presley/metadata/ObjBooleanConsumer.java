@@ -0,0 +1,22 @@
+/*
+ * ObjBooleanConsumer
+ * Create Date: 2020. 03. 28.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Setter counterpart of {@link Predicate} for {@code boolean} properties, as the JDK has no boolean specialized {@link BiConsumer}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+@FunctionalInterface
+public interface ObjBooleanConsumer<_B> {
+
+    void accept(_B bean, boolean value);
+}
@@ -7,8 +7,8 @@
 package gras.presley.metadata;
 
 import gras.berry.ReflectionUtils;
-import gras.berry.collection.ReadOnlyList;
 import gras.presley.evaluator.EvaluatorInfo;
+import gras.presley.interceptor.PropertyInterceptorChain;
 import gras.presley.interceptor.PropertyInterceptorInfo;
 import gras.presley.operation.PropertyOperationInfo;
 import lombok.NonNull;
@@ -16,12 +16,20 @@ import lombok.NonNull;
 import java.io.*;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.logging.Logger;
 
 /**
@@ -48,6 +56,20 @@ public class PlainBeanProp<_B, _P> implements Serializable {
     private final Method setter;
     private final boolean fieldAnnotated;
 
+    /** pre-linked accessors, see {@link PropertyAccessors} */
+    private final Function<_B, _P> reader;
+    private final BiConsumer<_B, _P> writer;
+
+    /** pre-linked primitive accessors, only the ones matching the value type are set */
+    private final ToIntFunction<_B> intReader;
+    private final ObjIntConsumer<_B> intWriter;
+    private final ToLongFunction<_B> longReader;
+    private final ObjLongConsumer<_B> longWriter;
+    private final ToDoubleFunction<_B> doubleReader;
+    private final ObjDoubleConsumer<_B> doubleWriter;
+    private final Predicate<_B> booleanReader;
+    private final ObjBooleanConsumer<_B> booleanWriter;
+
     private final JavaType<_P> valueType;
     private final JavaType<_P> elementType;
 
@@ -56,11 +78,20 @@ public class PlainBeanProp<_B, _P> implements Serializable {
     private final boolean defaultEditable;
     private final boolean defaultMandatory;
 
-    private ReadOnlyList<PropertyInterceptorInfo<_B, _P>> interceptors;
-    private ReadOnlyList<EvaluatorInfo<_B, _P>> evaluators;
-    private ReadOnlyList<PropertyOperationInfo<_B, _P>> operations;
+    /** the cached lists, each one is published as a single snapshot */
+    private volatile CachedList<PropertyInterceptorInfo<_B, _P>, PropertyInterceptorChain<_B, _P>> interceptors;
+    private volatile CachedList<EvaluatorInfo<_B, _P>, Void> evaluators;
+    private volatile CachedList<PropertyOperationInfo<_B, _P>, Void> operations;
 
     public PlainBeanProp(@NonNull BeanType<_B> beanType, boolean fieldAnnotated, Field field, Method getter, Method setter) {
+        this(beanType, fieldAnnotated, field, getter, setter, null);
+    }
+
+    /**
+     * Creates a property using the accessors of the compile time generated metadata, where available.
+     * @param generated optional generated metadata of the property
+     */
+    public PlainBeanProp(@NonNull BeanType<_B> beanType, boolean fieldAnnotated, Field field, Method getter, Method setter, GeneratedProperty generated) {
         this.beanType = beanType;
         this.field = field;
         this.getter = getter;
@@ -89,7 +120,26 @@ public class PlainBeanProp<_B, _P> implements Serializable {
         if (setter != null)
             setter.setAccessible(true);
 
-        propertyName = ReflectionUtils.getPropertyName(fieldAnnotated ? field.getName() : getter.getName());
+        propertyName = ReflectionUtils.getPropertyName(fieldAnnotated ? field.getName() : getter.getName()).intern();
+
+        Object generatedReader = generated != null ? generated.getReader() : null;
+        Object generatedWriter = generated != null ? generated.getWriter() : null;
+
+        reader = generatedReader != null ? cast(generatedReader) : PropertyAccessors.reader(this, field, getter);
+        writer = generatedWriter != null ? cast(generatedWriter) : PropertyAccessors.writer(this, field, setter);
+
+        // generated accessors implement the primitive interface of the value type as well
+        Object primitiveReader = generatedReader != null ? generatedReader : PropertyAccessors.primitiveReader(this, returnType, field, getter);
+        Object primitiveWriter = generatedWriter != null ? generatedWriter : PropertyAccessors.primitiveWriter(this, returnType, field, setter);
+        Class<?> accessorType = PropertyAccessors.getAccessorType(returnType);
+        intReader = accessorType == int.class ? cast(primitiveReader) : null;
+        intWriter = accessorType == int.class ? cast(primitiveWriter) : null;
+        longReader = accessorType == long.class ? cast(primitiveReader) : null;
+        longWriter = accessorType == long.class ? cast(primitiveWriter) : null;
+        doubleReader = accessorType == double.class ? cast(primitiveReader) : null;
+        doubleWriter = accessorType == double.class ? cast(primitiveWriter) : null;
+        booleanReader = accessorType == boolean.class ? cast(primitiveReader) : null;
+        booleanWriter = accessorType == boolean.class ? cast(primitiveWriter) : null;
 
         BeanProp anno = getAnnotation(BeanProp.class);
 
@@ -222,48 +272,175 @@ public class PlainBeanProp<_B, _P> implements Serializable {
         return defaultMandatory;
     }
 
+    /**
+     * Returns true if the property has neither setter nor field, so its value can not be written.
+     */
+    public final boolean isReadOnly() {
+        return setter == null && field == null;
+    }
+
+    /**
+     * Reads the property value of the given bean through the accessor linked at construction.
+     */
     public _P getValue(_B bean) {
-        try {
-            return getter != null ? (_P) getter.invoke(bean, (Object[]) null) : (_P) field.get(bean);
-        }
-        catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException("Failed to get " + this, e);
-        }
+        return reader.apply(bean);
     }
 
+    /**
+     * Writes the property value of the given bean through the accessor linked at construction.
+     * Uses the setter if there is any, writes the field otherwise.
+     */
     public void setValue(_B bean, _P value) {
-        try {
-            if (setter != null)
-                setter.invoke(bean, value);
-            else
-                field.set(bean, value);
-        }
-        catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException("Failed to set " + this, e);
-        }
+        writer.accept(bean, value);
+    }
+
+    /**
+     * Reads an {@code int} property value without boxing, {@code short}, {@code byte} and {@code char} values are widened.
+     * Other value types are read with {@link #getValue(Object)} and unboxed, so {@link Integer} properties are supported too.
+     * <p> The right variant can be picked by {@code getValueType().getPrimitiveType()}.
+     * @throws ClassCastException if the value is not an {@link Integer}
+     * @throws NullPointerException if the value is {@code null}
+     */
+    public final int getInt(_B bean) {
+        ToIntFunction<_B> reader = intReader;
+        return reader != null ? reader.applyAsInt(bean) : (Integer) getBoxedValue(bean, int.class);
+    }
+
+    /**
+     * Writes an {@code int} property value without boxing, {@code short}, {@code byte} and {@code char} values are narrowed
+     * as a cast does. Other value types are written boxed with {@link #setValue(Object, Object)}.
+     */
+    public final void setInt(_B bean, int value) {
+        ObjIntConsumer<_B> writer = intWriter;
+        if (writer != null)
+            writer.accept(bean, value);
+        else
+            setValue(bean, cast(value));
+    }
+
+    /**
+     * Reads a {@code long} property value without boxing.
+     * @throws ClassCastException if the value is not a {@link Long}
+     * @throws NullPointerException if the value is {@code null}
+     * @see #getInt(Object)
+     */
+    public final long getLong(_B bean) {
+        ToLongFunction<_B> reader = longReader;
+        return reader != null ? reader.applyAsLong(bean) : (Long) getBoxedValue(bean, long.class);
+    }
+
+    /**
+     * Writes a {@code long} property value without boxing.
+     * @see #setInt(Object, int)
+     */
+    public final void setLong(_B bean, long value) {
+        ObjLongConsumer<_B> writer = longWriter;
+        if (writer != null)
+            writer.accept(bean, value);
+        else
+            setValue(bean, cast(value));
+    }
+
+    /**
+     * Reads a {@code double} property value without boxing, {@code float} values are widened.
+     * @throws ClassCastException if the value is not a {@link Double}
+     * @throws NullPointerException if the value is {@code null}
+     * @see #getInt(Object)
+     */
+    public final double getDouble(_B bean) {
+        ToDoubleFunction<_B> reader = doubleReader;
+        return reader != null ? reader.applyAsDouble(bean) : (Double) getBoxedValue(bean, double.class);
+    }
+
+    /**
+     * Writes a {@code double} property value without boxing, {@code float} values are narrowed as a cast does.
+     * @see #setInt(Object, int)
+     */
+    public final void setDouble(_B bean, double value) {
+        ObjDoubleConsumer<_B> writer = doubleWriter;
+        if (writer != null)
+            writer.accept(bean, value);
+        else
+            setValue(bean, cast(value));
+    }
+
+    /**
+     * Reads a {@code boolean} property value without boxing.
+     * @throws ClassCastException if the value is not a {@link Boolean}
+     * @throws NullPointerException if the value is {@code null}
+     * @see #getInt(Object)
+     */
+    public final boolean getBoolean(_B bean) {
+        Predicate<_B> reader = booleanReader;
+        return reader != null ? reader.test(bean) : (Boolean) getBoxedValue(bean, boolean.class);
+    }
+
+    /**
+     * Writes a {@code boolean} property value without boxing.
+     * @see #setInt(Object, int)
+     */
+    public final void setBoolean(_B bean, boolean value) {
+        ObjBooleanConsumer<_B> writer = booleanWriter;
+        if (writer != null)
+            writer.accept(bean, value);
+        else
+            setValue(bean, cast(value));
     }
 
-    protected final ReadOnlyList<PropertyInterceptorInfo<_B, _P>> getInterceptors() {
+    /**
+     * Reads the value of a property without the specialized reader of the requested primitive type.
+     * @return the none null value, an instance of the wrapper type
+     */
+    @NonNull
+    private Object getBoxedValue(_B bean, @NonNull Class<?> primitiveType) {
+        Object value = getValue(bean);
+        if (value == null)
+            throw new NullPointerException("Property " + this + " is null, it can not be read as " + primitiveType.getName());
+        if (!PropertyAccessors.wrap(primitiveType).isInstance(value))
+            throw new ClassCastException("Property " + this + " has a " + value.getClass().getName() + " value, it can not be read as " + primitiveType.getName());
+        return value;
+    }
+
+    /**
+     * Casts an accessor or a boxed value to the types of the property, which are checked by the caller.
+     */
+    @SuppressWarnings("unchecked")
+    private static <_T> _T cast(Object value) {
+        return (_T) value;
+    }
+
+    final Function<_B, _P> getReader() {
+        return reader;
+    }
+
+    final BiConsumer<_B, _P> getWriter() {
+        return writer;
+    }
+
+    /**
+     * The cached interceptors with their compiled chain or {@code null} if they are not resolved yet.
+     */
+    protected final CachedList<PropertyInterceptorInfo<_B, _P>, PropertyInterceptorChain<_B, _P>> getInterceptors() {
         return interceptors;
     }
 
-    protected final void setInterceptors(ReadOnlyList<PropertyInterceptorInfo<_B, _P>> interceptors) {
+    protected final void setInterceptors(CachedList<PropertyInterceptorInfo<_B, _P>, PropertyInterceptorChain<_B, _P>> interceptors) {
         this.interceptors = interceptors;
     }
 
-    protected final ReadOnlyList<EvaluatorInfo<_B, _P>> getEvaluators() {
+    protected final CachedList<EvaluatorInfo<_B, _P>, Void> getEvaluators() {
         return evaluators;
     }
 
-    protected final void setEvaluators(ReadOnlyList<EvaluatorInfo<_B, _P>> evaluators) {
+    protected final void setEvaluators(CachedList<EvaluatorInfo<_B, _P>, Void> evaluators) {
         this.evaluators = evaluators;
     }
 
-    protected final ReadOnlyList<PropertyOperationInfo<_B, _P>> getOperations() {
+    protected final CachedList<PropertyOperationInfo<_B, _P>, Void> getOperations() {
         return operations;
     }
 
-    protected final void setOperations(ReadOnlyList<PropertyOperationInfo<_B, _P>> operations) {
+    protected final void setOperations(CachedList<PropertyOperationInfo<_B, _P>, Void> operations) {
         this.operations = operations;
     }
 
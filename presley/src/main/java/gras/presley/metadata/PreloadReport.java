@@ -0,0 +1,81 @@
+/*
+ * PreloadReport
+ * Create Date: 2020. 03. 30.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import lombok.NonNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a {@link TypeManager#preload(java.util.Collection)} call.
+ * Holds the time spent on building the metadata of each type and the failures, if any.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class PreloadReport {
+
+    @NonNull private final ConcurrentHashMap<Class<?>, Long> timings = new ConcurrentHashMap<>();
+    @NonNull private final ConcurrentHashMap<Class<?>, Throwable> failures = new ConcurrentHashMap<>();
+    private volatile long elapsedNanos;
+
+    PreloadReport() {
+    }
+
+    void addTiming(@NonNull Class<?> clazz, long nanos) {
+        timings.put(clazz, nanos);
+    }
+
+    void addFailure(@NonNull Class<?> clazz, @NonNull Throwable e) {
+        failures.put(clazz, e);
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the none null read only map of the successfully preloaded classes and the nanoseconds spent on each of them.
+     * As the types are built in parallel, the sum of the timings can be more than the {@link #getElapsedNanos() elapsed time}.
+     */
+    @NonNull
+    public Map<Class<?>, Long> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+
+    /**
+     * Returns the nanoseconds spent on the preload of the given class or -1 if it was not preloaded successfully.
+     */
+    public long getTiming(@NonNull Class<?> clazz) {
+        Long nanos = timings.get(clazz);
+        return nanos != null ? nanos : -1;
+    }
+
+    /**
+     * Returns the none null read only map of the classes failed to preload and their errors.
+     */
+    @NonNull
+    public Map<Class<?>, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * The wall clock time of the whole preload in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Preloaded " + timings.size() + " types in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms" +
+               (failures.isEmpty() ? "" : ", " + failures.size() + " failed");
+    }
+}
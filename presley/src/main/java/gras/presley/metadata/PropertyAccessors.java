@@ -0,0 +1,406 @@
+/*
+ * PropertyAccessors
+ * Create Date: 2020. 03. 28.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import lombok.NonNull;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds the pre-linked value accessors of {@link PlainBeanProp} instances.
+ *
+ * <p> Public getters and setters are bound with {@link LambdaMetafactory}, so the property access is a plain interface call
+ * which the JIT can inline into the caller. Fields and non-public members are bound with {@link MethodHandle}s.
+ * Reflection is only the last fallback if none of them can be linked.
+ *
+ * <p> The method handles are per property, so they are not constants for the JIT, which can not inline through their
+ * {@code invokeExact} call. The field and non-public accessors are faster than reflection, but they are not as fast
+ * as a direct access: {@link LambdaMetafactory} links methods only, and the private lookup needed to spin a field
+ * accessor class is not available on Java 8. The field annotated beans compiled with the presley annotation processor
+ * get direct accessors from their {@link GeneratedProperty} instead, which are used when present.
+ *
+ * <p> The {@code int}, {@code long}, {@code double} and {@code boolean} properties get specialized accessors as well,
+ * e.g. {@link ToIntFunction} and {@link ObjIntConsumer}, which read and write the value without boxing.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class PropertyAccessors {
+
+    private static final Logger log = Logger.getLogger(PropertyAccessors.class.getName());
+
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    private static final MethodType READER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * static methods only.
+     */
+    private PropertyAccessors() {
+    }
+
+    /**
+     * Builds the value reader of the property. The getter is preferred over the field.
+     */
+    @NonNull
+    static <_B, _P> Function<_B, _P> reader(@NonNull PlainBeanProp<_B, _P> prop, Field field, Method getter) {
+        if (getter != null && isLinkable(getter)) {
+            try {
+                MethodHandle target = lookup.unreflect(getter);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                        READER_TYPE, target, MethodType.methodType(wrap(getter.getReturnType()), getter.getDeclaringClass()));
+                return (Function<_B, _P>) site.getTarget().invoke();
+            }
+            catch (Throwable e) {
+                if (log.isLoggable(Level.FINE))
+                    log.log(Level.FINE, "Could not link getter of " + prop + ", falls back to method handle", e);
+            }
+        }
+
+        try {
+            MethodHandle handle = (getter != null ? lookup.unreflect(getter) : lookup.unreflectGetter(field)).asType(READER_TYPE);
+            return bean -> {
+                try {
+                    @SuppressWarnings("unchecked")
+                    _P value = (_P) handle.invokeExact((Object) bean);
+                    return value;
+                }
+                catch (RuntimeException | Error e) {
+                    throw e;
+                }
+                catch (Throwable e) {
+                    throw new RuntimeException("Failed to get " + prop, e);
+                }
+            };
+        }
+        catch (IllegalAccessException e) {
+            log.fine("Could not create method handle for " + prop + ", falls back to reflection");
+        }
+
+        return bean -> {
+            try {
+                @SuppressWarnings("unchecked")
+                _P value = (_P) (getter != null ? getter.invoke(bean, (Object[]) null) : field.get(bean));
+                return value;
+            }
+            catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException("Failed to get " + prop, e);
+            }
+        };
+    }
+
+    /**
+     * Builds the value writer of the property. The setter is preferred over the field.
+     * Properties without setter and field get a writer that always fails.
+     */
+    @NonNull
+    static <_B, _P> BiConsumer<_B, _P> writer(@NonNull PlainBeanProp<_B, _P> prop, Field field, Method setter) {
+        if (setter == null && field == null) {
+            return (bean, value) -> {
+                throw new UnsupportedOperationException("Property " + prop + " is read only");
+            };
+        }
+
+        if (setter != null && isLinkable(setter)) {
+            try {
+                MethodHandle target = lookup.unreflect(setter);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+                        WRITER_TYPE, target, MethodType.methodType(void.class, setter.getDeclaringClass(), wrap(setter.getParameterTypes()[0])));
+                return (BiConsumer<_B, _P>) site.getTarget().invoke();
+            }
+            catch (Throwable e) {
+                if (log.isLoggable(Level.FINE))
+                    log.log(Level.FINE, "Could not link setter of " + prop + ", falls back to method handle", e);
+            }
+        }
+
+        try {
+            MethodHandle handle = (setter != null ? lookup.unreflect(setter) : lookup.unreflectSetter(field)).asType(WRITER_TYPE);
+            return (bean, value) -> {
+                try {
+                    handle.invokeExact((Object) bean, (Object) value);
+                }
+                catch (RuntimeException | Error e) {
+                    throw e;
+                }
+                catch (Throwable e) {
+                    throw new RuntimeException("Failed to set " + prop, e);
+                }
+            };
+        }
+        catch (IllegalAccessException e) {
+            // e.g. final fields can be written only via reflection
+            log.fine("Could not create method handle for " + prop + ", falls back to reflection");
+        }
+
+        return (bean, value) -> {
+            try {
+                if (setter != null)
+                    setter.invoke(bean, value);
+                else
+                    field.set(bean, value);
+            }
+            catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException("Failed to set " + prop, e);
+            }
+        };
+    }
+
+    /**
+     * Builds the specialized value reader of a primitive property.
+     * @return a {@link ToIntFunction}, {@link ToLongFunction}, {@link ToDoubleFunction} or {@link Predicate} according
+     * to the accessor type, or {@code null} if the value type has no specialized accessor or it can not be linked
+     * @see #getAccessorType(Class)
+     */
+    static Object primitiveReader(@NonNull PlainBeanProp<?, ?> prop, @NonNull Class<?> valueType, Field field, Method getter) {
+        Class<?> accessorType = getAccessorType(valueType);
+        Class<?> readerType = getPrimitiveReaderType(accessorType);
+        if (readerType == null)
+            return null;
+
+        if (getter != null && isLinkable(getter)) {
+            try {
+                MethodHandle target = lookup.unreflect(getter);
+                CallSite site = LambdaMetafactory.metafactory(lookup, getSamName(readerType), MethodType.methodType(readerType),
+                        MethodType.methodType(accessorType, Object.class), target, MethodType.methodType(valueType, getter.getDeclaringClass()));
+                return site.getTarget().invoke();
+            }
+            catch (Throwable e) {
+                if (log.isLoggable(Level.FINE))
+                    log.log(Level.FINE, "Could not link primitive getter of " + prop + ", falls back to method handle", e);
+            }
+        }
+
+        MethodHandle handle;
+        try {
+            handle = (getter != null ? lookup.unreflect(getter) : lookup.unreflectGetter(field)).asType(MethodType.methodType(accessorType, Object.class));
+        }
+        catch (IllegalAccessException e) {
+            // the boxed accessor is used instead
+            return null;
+        }
+
+        if (accessorType == int.class)
+            return (ToIntFunction<Object>) bean -> {
+                try {
+                    return (int) handle.invokeExact(bean);
+                }
+                catch (Throwable e) {
+                    throw rethrow("Failed to get " + prop, e);
+                }
+            };
+        if (accessorType == long.class)
+            return (ToLongFunction<Object>) bean -> {
+                try {
+                    return (long) handle.invokeExact(bean);
+                }
+                catch (Throwable e) {
+                    throw rethrow("Failed to get " + prop, e);
+                }
+            };
+        if (accessorType == double.class)
+            return (ToDoubleFunction<Object>) bean -> {
+                try {
+                    return (double) handle.invokeExact(bean);
+                }
+                catch (Throwable e) {
+                    throw rethrow("Failed to get " + prop, e);
+                }
+            };
+        return (Predicate<Object>) bean -> {
+            try {
+                return (boolean) handle.invokeExact(bean);
+            }
+            catch (Throwable e) {
+                throw rethrow("Failed to get " + prop, e);
+            }
+        };
+    }
+
+    /**
+     * Builds the specialized value writer of a primitive property.
+     * @return a {@link ObjIntConsumer}, {@link ObjLongConsumer}, {@link ObjDoubleConsumer} or {@link ObjBooleanConsumer}
+     * according to the accessor type, or {@code null} if the value type has no specialized accessor or it can not be linked.
+     * A narrower value type is written with a narrowing cast.
+     * @see #getAccessorType(Class)
+     */
+    static Object primitiveWriter(@NonNull PlainBeanProp<?, ?> prop, @NonNull Class<?> valueType, Field field, Method setter) {
+        Class<?> accessorType = getAccessorType(valueType);
+        Class<?> writerType = getPrimitiveWriterType(accessorType);
+        if (writerType == null || (setter == null && field == null))
+            return null;
+        if (setter != null && setter.getParameterTypes()[0] != valueType)
+            return null;
+
+        // the lambda meta factory does not narrow the arguments
+        if (setter != null && accessorType == valueType && isLinkable(setter)) {
+            try {
+                MethodHandle target = lookup.unreflect(setter);
+                MethodType samType = MethodType.methodType(void.class, Object.class, valueType);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(writerType),
+                        samType, target, MethodType.methodType(void.class, setter.getDeclaringClass(), valueType));
+                return site.getTarget().invoke();
+            }
+            catch (Throwable e) {
+                if (log.isLoggable(Level.FINE))
+                    log.log(Level.FINE, "Could not link primitive setter of " + prop + ", falls back to method handle", e);
+            }
+        }
+
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.explicitCastArguments(setter != null ? lookup.unreflect(setter) : lookup.unreflectSetter(field),
+                    MethodType.methodType(void.class, Object.class, accessorType));
+        }
+        catch (IllegalAccessException e) {
+            // the boxed accessor is used instead
+            return null;
+        }
+
+        if (accessorType == int.class)
+            return (ObjIntConsumer<Object>) (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                }
+                catch (Throwable e) {
+                    throw rethrow("Failed to set " + prop, e);
+                }
+            };
+        if (accessorType == long.class)
+            return (ObjLongConsumer<Object>) (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                }
+                catch (Throwable e) {
+                    throw rethrow("Failed to set " + prop, e);
+                }
+            };
+        if (accessorType == double.class)
+            return (ObjDoubleConsumer<Object>) (bean, value) -> {
+                try {
+                    handle.invokeExact(bean, value);
+                }
+                catch (Throwable e) {
+                    throw rethrow("Failed to set " + prop, e);
+                }
+            };
+        return (ObjBooleanConsumer<Object>) (bean, value) -> {
+            try {
+                handle.invokeExact(bean, value);
+            }
+            catch (Throwable e) {
+                throw rethrow("Failed to set " + prop, e);
+            }
+        };
+    }
+
+    /**
+     * Returns the value type of the specialized accessors of a property: {@code short}, {@code byte} and {@code char}
+     * values are widened to {@code int}, {@code float} values to {@code double}, other types are returned as they are.
+     */
+    @NonNull
+    static Class<?> getAccessorType(@NonNull Class<?> valueType) {
+        if (valueType == short.class || valueType == byte.class || valueType == char.class)
+            return int.class;
+        if (valueType == float.class)
+            return double.class;
+        return valueType;
+    }
+
+    private static Class<?> getPrimitiveReaderType(@NonNull Class<?> valueType) {
+        if (valueType == int.class)
+            return ToIntFunction.class;
+        if (valueType == long.class)
+            return ToLongFunction.class;
+        if (valueType == double.class)
+            return ToDoubleFunction.class;
+        if (valueType == boolean.class)
+            return Predicate.class;
+        return null;
+    }
+
+    private static Class<?> getPrimitiveWriterType(@NonNull Class<?> valueType) {
+        if (valueType == int.class)
+            return ObjIntConsumer.class;
+        if (valueType == long.class)
+            return ObjLongConsumer.class;
+        if (valueType == double.class)
+            return ObjDoubleConsumer.class;
+        if (valueType == boolean.class)
+            return ObjBooleanConsumer.class;
+        return null;
+    }
+
+    @NonNull
+    private static String getSamName(@NonNull Class<?> readerType) {
+        if (readerType == ToIntFunction.class)
+            return "applyAsInt";
+        if (readerType == ToLongFunction.class)
+            return "applyAsLong";
+        if (readerType == ToDoubleFunction.class)
+            return "applyAsDouble";
+        return "test";
+    }
+
+    /**
+     * Returns unchecked throwables as they are and wraps the checked ones.
+     */
+    @NonNull
+    private static RuntimeException rethrow(@NonNull String message, @NonNull Throwable e) {
+        if (e instanceof RuntimeException)
+            return (RuntimeException) e;
+        if (e instanceof Error)
+            throw (Error) e;
+        return new RuntimeException(message, e);
+    }
+
+    /**
+     * Checks if the generated lambda class can call the method directly.
+     * The method and its class must be public, and the class must be visible from the framework class loader,
+     * otherwise the lambda class would not be able to resolve it.
+     */
+    static boolean isLinkable(@NonNull Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(declaringClass.getModifiers()))
+            return false;
+
+        try {
+            return Class.forName(declaringClass.getName(), false, PropertyAccessors.class.getClassLoader()) == declaringClass;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the wrapper class of a primitive class or the class itself.
+     */
+    @NonNull
+    static Class<?> wrap(@NonNull Class<?> clazz) {
+        return MethodType.methodType(clazz).wrap().returnType();
+    }
+}
@@ -12,26 +12,65 @@ import lombok.NonNull;
 import java.util.Collection;
 
 /**
+ * Read only list of the properties of a bean type, indexed by the property names.
+ *
+ * <p> The name index is an open addressing hash table built once in the constructor. As the property names are interned,
+ * lookups with interned names, e.g. string literals, are resolved by identity, {@link String#equals(Object)} is the fallback.
+ *
  * @version $Revision$ $LastChangedDate$ 
  * @author $Author$
  */
 public class PropertyList<_P extends PlainBeanProp<?, ?>> extends ReadOnlyList<_P> {
 
+    /** property names in hash order, {@code null} for the empty slots */
+    @NonNull private final String[] names;
+    /** property indexes of the slots of {@link #names} */
+    @NonNull private final int[] indexes;
+    private final int mask;
+
     public PropertyList(Collection<? extends _P> c) {
         super(c);
+
+        int size = size();
+        // at most half full table keeps the probe sequences short
+        int capacity = Integer.highestOneBit(Math.max(size, 1) * 4 - 1);
+        names = new String[capacity];
+        indexes = new int[capacity];
+        mask = capacity - 1;
+
+        // backwards, so the last one wins on duplicate names as with the former linear search
+        for (int i = size; --i >= 0; ) {
+            String name = get(i).getPropertyName();
+            int slot = spread(name.hashCode()) & mask;
+            while (names[slot] != null) {
+                if (names[slot].equals(name))
+                    break;
+                slot = (slot + 1) & mask;
+            }
+            if (names[slot] == null) {
+                names[slot] = name;
+                indexes[slot] = i;
+            }
+        }
     }
 
     /**
      * Gets the property that has the given name.
-     *
-     * The GRAS fw provides special map for this. Right now we iterate through the props.
+     * @return the property or {@code null} if there is no property with the name
      */
     public _P getByName(@NonNull String name) {
-        for (int i = size(); --i >= 0; ) {
-            _P property = get(i);
-            if (property.getPropertyName().equals(name))
-                return property;
+        String[] names = this.names;
+        int slot = spread(name.hashCode()) & mask;
+        String key;
+        while ((key = names[slot]) != null) {
+            if (key == name || key.equals(name))
+                return get(indexes[slot]);
+            slot = (slot + 1) & mask;
         }
         return null;
     }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
 }
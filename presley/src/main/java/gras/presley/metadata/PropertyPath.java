@@ -0,0 +1,154 @@
+/*
+ * PropertyPath
+ * Create Date: 2020. 03. 30.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import lombok.NonNull;
+
+/**
+ * A compiled chain of properties, e.g. {@code "team.name"} of a person, navigating from a root bean to a nested property.
+ *
+ * <p> The path is resolved to the {@link PlainBeanProp} chain once, and instances are cached per root type,
+ * see {@link BeanType#getPropertyPath(String)}. The traversal is null-safe: reading a path through a {@code null}
+ * intermediate bean returns {@code null}, writing it does nothing.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class PropertyPath<_B, _P> {
+
+    @NonNull private final BeanType<_B> rootType;
+    @NonNull private final String path;
+    /** the properties of the path, the first one belongs to the root type */
+    @NonNull private final PlainBeanProp<Object, Object>[] properties;
+
+    /**
+     * Resolves the path.
+     * @param path the property names separated by dots, relative to the root type
+     * @throws IllegalArgumentException if a property does not exist or an intermediate property is not a bean
+     */
+    @SuppressWarnings("unchecked")
+    PropertyPath(@NonNull BeanType<_B> rootType, @NonNull String path) {
+        this.rootType = rootType;
+        this.path = path;
+
+        String[] names = path.split("\\.", -1);
+        properties = (PlainBeanProp<Object, Object>[]) new PlainBeanProp<?, ?>[names.length];
+        BeanType<?> type = rootType;
+        for (int i = 0; i < names.length; i++) {
+            if (type == null)
+                throw new IllegalArgumentException("Property " + properties[i - 1] + " is not a bean in path " + rootType + '.' + path);
+
+            PlainBeanProp<?, ?> prop = type.getProperty(names[i]);
+            properties[i] = (PlainBeanProp<Object, Object>) prop;
+
+            JavaType<?> valueType = prop.getValueType();
+            type = valueType instanceof BeanType ? (BeanType<?>) valueType : null;
+        }
+    }
+
+    /**
+     * Compiles the path on the given root type, same as {@link BeanType#getPropertyPath(String)}.
+     */
+    @NonNull
+    public static <_B> PropertyPath<_B, ?> compile(@NonNull BeanType<_B> rootType, @NonNull String path) {
+        return rootType.getPropertyPath(path);
+    }
+
+    @NonNull
+    public BeanType<_B> getRootType() {
+        return rootType;
+    }
+
+    /**
+     * The path as it was compiled, relative to the root type.
+     */
+    @NonNull
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Number of the properties in the path.
+     */
+    public int length() {
+        return properties.length;
+    }
+
+    /**
+     * Gets the property at the given position of the path.
+     */
+    @NonNull
+    public PlainBeanProp<?, ?> getProperty(int index) {
+        return properties[index];
+    }
+
+    /**
+     * Gets the property of the path end.
+     */
+    @SuppressWarnings("unchecked")
+    @NonNull
+    public PlainBeanProp<?, _P> getLastProperty() {
+        return (PlainBeanProp<?, _P>) properties[properties.length - 1];
+    }
+
+    /**
+     * The value type of the path end.
+     */
+    @NonNull
+    public JavaType<_P> getValueType() {
+        return getLastProperty().getValueType();
+    }
+
+    /**
+     * Checks if the property of the path end is read only.
+     */
+    public boolean isReadOnly() {
+        return getLastProperty().isReadOnly();
+    }
+
+    /**
+     * Reads the value at the end of the path.
+     * @return the value or {@code null} if the bean or any intermediate bean is {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public _P getValue(_B bean) {
+        PlainBeanProp<Object, Object>[] properties = this.properties;
+        Object value = bean;
+        for (int i = 0, n = properties.length; i < n && value != null; i++)
+            value = properties[i].getValue(value);
+        return (_P) value;
+    }
+
+    /**
+     * Writes the value at the end of the path.
+     * @return false if the value was not written because the bean or an intermediate bean is {@code null}
+     */
+    public boolean setValue(_B bean, _P value) {
+        Object target = getParent(bean);
+        if (target == null)
+            return false;
+
+        properties[properties.length - 1].setValue(target, value);
+        return true;
+    }
+
+    /**
+     * Returns the bean holding the property of the path end or {@code null} if it can not be reached.
+     */
+    public Object getParent(_B bean) {
+        PlainBeanProp<Object, Object>[] properties = this.properties;
+        Object target = bean;
+        for (int i = 0, n = properties.length - 1; i < n && target != null; i++)
+            target = properties[i].getValue(target);
+        return target;
+    }
+
+    @Override
+    public String toString() {
+        return rootType.getTypeName() + '.' + path;
+    }
+}
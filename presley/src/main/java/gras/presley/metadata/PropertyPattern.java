@@ -10,11 +10,10 @@ package gras.presley.metadata;
 import gras.berry.Strings;
 import lombok.NonNull;
 
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * regexp wrapper following specification of text property definitions
+ * glob matcher following specification of text property definitions
  *
  * @author $Author$
  * @version $Revision$ $LastChangedDate$
@@ -27,12 +26,19 @@ public final class PropertyPattern {
     private final String name;
     private final boolean qualified;
     private final boolean hasWildchard;
-    @NonNull
+    /**
+     * the regexp of the patterns having other regexp characters besides the '*' wild cards, {@code null} if the glob matcher
+     * gives the same result
+     */
     private final Pattern pattern;
+    /** the property name part of the pattern if it has no wild cards, {@code null} otherwise */
+    private final String literalPropertyName;
 
     /**
      * Creates a {@link PropertyPattern} instance.<br>
-     * The name may contain '*' and '?' wild cards, and may or may not contain the beans qualified class name part.
+     * The name may contain '*' wild cards, and may or may not contain the beans qualified class name part.
+     * A name without '*' is compared as is, in a name with '*' the other regexp characters keep their meaning,
+     * e.g. '?' makes the preceding character optional.
      * Whether to check the plain property name or the qualified class name plus the property name is indicated by having
      * at least one dot in the pattern.<br>
      * The names are always compared case sensitive.<br>
@@ -48,17 +54,18 @@ public final class PropertyPattern {
         this.name = name;
         qualified = name.indexOf('.') != -1;
         hasWildchard = name.indexOf('*') != -1;
-        if (hasWildchard) {
-            String p = Strings.replace(name, ".", "\\.", "*", ".*");
-            pattern = Pattern.compile(p);
-        }
-        else
-            pattern = null;
+        // the '*' is replaced by '.*' and the dots are escaped, the other characters keep their regexp meaning, e.g. '?'
+        pattern = hasWildchard && hasRegexpChars(name) ? Pattern.compile(Strings.replace(name, ".", "\\.", "*", ".*")) : null;
+
+        String propertyPart = name.substring(name.lastIndexOf('.') + 1);
+        literalPropertyName = !hasWildchard || pattern == null && propertyPart.indexOf('*') == -1 ? propertyPart : null;
     }
 
     /**
      * creates a {@link PropertyPattern} instance.<br>
-     * The name may contain '*' and '?' wild cards, and may or may not contain the beans qualified class name part.
+     * The name may contain '*' wild cards, and may or may not contain the beans qualified class name part.
+     * A name without '*' is compared as is, in a name with '*' the other regexp characters keep their meaning,
+     * e.g. '?' makes the preceding character optional.
      * Whether to check the plain property name or the qualified class name plus the property name is indicated by having
      * at least one dot in the pattern.<br>
      * The names are always compared case sensitive.<br>
@@ -81,15 +88,71 @@ public final class PropertyPattern {
      * Returns true if this pattern is mathes to the given property.
      */
     public final boolean matches(@NonNull PlainBeanProp prop) {
+        if ( this == MATCH_ALL )
+            return true;
+        if (literalPropertyName != null && !literalPropertyName.equals(prop.getPropertyName()))
+            return false;
+
         String p = qualified ? prop.getSimplePropertyName() : prop.getPropertyName();
         if (!hasWildchard)
             return name.equals(p);
-        else {
-            if ( this == MATCH_ALL )
+        return pattern != null ? pattern.matcher(p).matches() : matches(name, p);
+    }
+
+    /**
+     * Checks if the pattern has no wild cards in its property name part, so it matches only the properties
+     * having the {@link #getLiteralPropertyName() literal name}. This is used to index the patterns by property name.
+     */
+    public boolean isLiteral() {
+        return literalPropertyName != null;
+    }
+
+    /**
+     * Returns the property name part of the pattern, if it has no wild cards.
+     * @return the name after the last dot or {@code null} if the property name part has wild cards
+     */
+    public String getLiteralPropertyName() {
+        return literalPropertyName;
+    }
+
+    /**
+     * Checks if the text has regexp characters which are not handled by the glob matcher.
+     */
+    private static boolean hasRegexpChars(@NonNull String text) {
+        for (int i = 0, n = text.length(); i < n; i++)
+            if ("\\^$|?+()[]{}".indexOf(text.charAt(i)) != -1)
                 return true;
-            Matcher matcher = pattern.matcher(p);
-            return matcher.matches();
+        return false;
+    }
+
+    /**
+     * Matches the text against the glob, where '*' matches any sequence of characters.
+     * The matching backtracks only to the last '*', so it runs in linear time for the typical patterns.
+     */
+    private static boolean matches(@NonNull String glob, @NonNull String text) {
+        int g = 0, t = 0;
+        int starG = -1, starT = 0;
+        int gLength = glob.length(), tLength = text.length();
+        while (t < tLength) {
+            char c = g < gLength ? glob.charAt(g) : 0;
+            if (c == '*') {
+                starG = g++;
+                starT = t;
+            }
+            else if (g < gLength && c == text.charAt(t)) {
+                g++;
+                t++;
+            }
+            else if (starG != -1) {
+                g = starG + 1;
+                t = ++starT;
+            }
+            else
+                return false;
         }
+        while (g < gLength && glob.charAt(g) == '*')
+            g++;
+        return g == gLength;
     }
 
     @NonNull
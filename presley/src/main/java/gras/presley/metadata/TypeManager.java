@@ -10,6 +10,11 @@ import gras.berry.ReflectionUtils;
 import gras.berry.collection.ExtendedArray;
 import gras.berry.collection.ReadOnlyList;
 import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.StateManager;
+import gras.presley.interceptor.InterceptorManager;
+import gras.presley.operation.OperationManager;
+import gras.presley.trace.TraceSpan;
+import gras.presley.trace.Tracer;
 import lombok.NonNull;
 
 import java.lang.reflect.Field;
@@ -18,6 +23,8 @@ import java.lang.reflect.Modifier;
 import java.sql.Timestamp;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -29,10 +36,26 @@ public class TypeManager {
 
     protected static final Logger log = Logger.getLogger(TypeManager.class.getName());
 
-    /** Map of all types. */
-    public final ConcurrentHashMap<Class, JavaType> allTypes = new ConcurrentHashMap<>(100, 0.6f, 1);
-    /** Mutex on the allTypes map. */
-    final Object typeMutex = new Object();
+    /** Marks the classes of the parent class loaders in {@link #allTypes}, a system class does not refer to the framework. */
+    private static final Boolean PARENT_CLASS = Boolean.TRUE;
+
+    /**
+     * Registry of the types of the classes loaded by the class loader of the framework or by its descendants.
+     * The slots are stored by the JVM along with the classes, so they do not prevent the unloading of the classes
+     * and their class loaders.
+     * <p> The classes of the parent class loaders, e.g. the JDK classes, are marked with {@link #PARENT_CLASS} only.
+     * Their slots would keep the framework alive through its own statics as long as these classes live.
+     */
+    private final ClassValue<Object> allTypes = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> clazz) {
+            return isParentClass(clazz) ? PARENT_CLASS : new TypeSlot(clazz);
+        }
+    };
+    /** Registry of the types of the classes loaded by the parent class loaders, which outlive the framework anyway. */
+    private final ConcurrentHashMap<Class<?>, TypeSlot> parentTypes = new ConcurrentHashMap<>();
+    /** the parent class loaders of the framework */
+    private final Set<ClassLoader> parentLoaders = Collections.newSetFromMap(new IdentityHashMap<>());
     /** Set of classes that represented as the lower level type ({@link JavaType}) in the type-system. */
     private final HashSet<Class> javaTypes = new HashSet<>();
 
@@ -40,6 +63,11 @@ public class TypeManager {
      * Instantiated with wiring.
      */
     protected TypeManager() {
+        for (ClassLoader loader = TypeManager.class.getClassLoader(); loader != null; ) {
+            loader = loader.getParent();
+            if (loader != null)
+                parentLoaders.add(loader);
+        }
         initJavaTypes();
     }
 
@@ -56,8 +84,9 @@ public class TypeManager {
         return instance().forClassImpl(clazz);
     }
 
+    @SuppressWarnings("unchecked")
     protected <_O> JavaType<_O> forClassImpl(Class<_O> clazz) {
-        JavaType<_O> type = allTypes.get(clazz);
+        JavaType<_O> type = (JavaType<_O>) getSlot(clazz).type;
         return type != null ? type : buildForClass(clazz);
     }
 
@@ -77,27 +106,258 @@ public class TypeManager {
         return (JavaType<_O>) forClass(bean.getClass());
     }
 
+    /**
+     * Builds the metadata of the given classes in parallel on the common fork-join pool.
+     * @see #preload(Collection, ForkJoinPool)
+     */
+    @NonNull
+    public static PreloadReport preload(@NonNull Collection<Class<?>> classes) {
+        return preload(classes, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the metadata of the given classes in parallel, so the first requests do not have to pay for it.
+     * Beside the types, builds the property lists, the bulk accessors, the interceptor chains, the evaluator lists and
+     * the operation lists of the bean types.
+     * <p> Failures are logged and collected into the report, they do not stop the preload of the other types.
+     * @param classes the classes to preload
+     * @param pool the pool to run the preload on
+     * @return the none null report containing the per-type timings
+     */
+    @NonNull
+    public static PreloadReport preload(@NonNull Collection<Class<?>> classes, @NonNull ForkJoinPool pool) {
+        return instance().preloadImpl(classes, pool);
+    }
+
+    /**
+     * Builds the metadata of the {@link BeanClass} annotated classes found in the given packages and their sub-packages.
+     * @param packageNames the package name prefixes to scan for bean classes
+     * @param loader the class loader to scan and to load the classes with
+     * @param pool the pool to run the preload on
+     * @see #preload(Collection, ForkJoinPool)
+     */
+    @NonNull
+    public static PreloadReport preloadPackages(@NonNull Collection<String> packageNames, @NonNull ClassLoader loader, @NonNull ForkJoinPool pool) {
+        TypeManager manager = instance();
+        return manager.preloadImpl(manager.findPreloadClasses(packageNames, loader), pool);
+    }
+
+    @NonNull
+    protected PreloadReport preloadImpl(@NonNull Collection<Class<?>> classes, @NonNull ForkJoinPool pool) {
+        PreloadReport report = new PreloadReport();
+        long start = System.nanoTime();
+
+        ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>(classes.size());
+        for (Class<?> clazz: classes)
+            tasks.add(pool.submit(() -> preloadClass(clazz, report)));
+        for (ForkJoinTask<?> task: tasks)
+            task.join();
+
+        report.setElapsedNanos(System.nanoTime() - start);
+        log.config(report.toString());
+        return report;
+    }
+
+    private void preloadClass(@NonNull Class<?> clazz, @NonNull PreloadReport report) {
+        long start = System.nanoTime();
+        try {
+            preloadType(forClassImpl(clazz));
+
+            long nanos = System.nanoTime() - start;
+            report.addTiming(clazz, nanos);
+            if (log.isLoggable(Level.FINE))
+                log.fine("Preloaded " + clazz.getName() + " in " + nanos / 1000 + " us");
+        }
+        catch (RuntimeException | Error e) {
+            report.addFailure(clazz, e);
+            log.log(Level.WARNING, "Failed to preload " + clazz.getName(), e);
+        }
+    }
+
+    /**
+     * Builds all the lazy initialized metadata of the type.
+     * <p> This is a customization point, implementations can warm up their own metadata here as well.
+     */
+    protected void preloadType(@NonNull JavaType<?> type) {
+        if (!(type instanceof BeanType))
+            return;
+
+        BeanType<?> beanType = (BeanType<?>) type;
+        beanType.getProperties();
+        beanType.getAccessor();
+
+        InterceptorManager interceptorManager = ApplicationContext.getInterceptorManager();
+        if (interceptorManager != null)
+            interceptorManager.preload(beanType);
+
+        StateManager stateManager = ApplicationContext.getStateManager();
+        if (stateManager != null)
+            stateManager.preload(beanType);
+
+        OperationManager operationManager = ApplicationContext.getOperationManager();
+        if (operationManager != null)
+            operationManager.preload(beanType);
+    }
+
+    /**
+     * Finds the classes to preload in the given packages.
+     * <p> The default implementation takes the {@link BeanClass} annotated classes, except the anonymous and local ones.
+     */
+    @NonNull
+    protected Collection<Class<?>> findPreloadClasses(@NonNull Collection<String> packageNames, @NonNull ClassLoader loader) {
+        ArrayList<Class<?>> result = new ArrayList<>();
+        for (String packageName: packageNames) {
+            for (String className: ReflectionUtils.getPackageClassNames(loader, packageName)) {
+                try {
+                    Class<?> clazz = Class.forName(className, false, loader);
+                    if (!clazz.isAnonymousClass() && !clazz.isLocalClass() && clazz.isAnnotationPresent(BeanClass.class))
+                        result.add(clazz);
+                }
+                catch (ClassNotFoundException | LinkageError e) {
+                    log.fine("Skipping class " + className + " from preload: " + e);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the type of the class exactly once. Different classes are built concurrently, the threads asking for a class
+     * under construction wait for the one building it.
+     */
+    @SuppressWarnings("unchecked")
     protected <_O> JavaType<_O> buildForClass(Class<_O> clazz) {
-        JavaType<_O> type = allTypes.get(clazz);
-        if (type != null) {
-             // annotations are definitely needed and initialization of them is time consuming. So we do it outside the big lock
-             clazz.getAnnotation(BeanClass.class); // any annotation will do
+        TypeSlot slot = getSlot(clazz);
+        JavaType<_O> type = (JavaType<_O>) slot.type;
+        if (type != null)
+            return type;
+
+        if (slot.isCreator())
+            throw new IllegalStateException("Recursive type creation of " + clazz.getName());
+
+        // only the first caller creates the type, the others wait for the result
+        if (!slot.claim())
+            return (JavaType<_O>) slot.getType();
+
+        try {
+            log.config("Creating JavaType " + clazz.getName());
+            Tracer tracer = Tracer.instance();
+            TraceSpan span = tracer != null ? tracer.startTypeCreation(clazz) : null;
+            try {
+                type = createType(clazz);
+            }
+            finally {
+                if (span != null)
+                    span.close();
+            }
+            if (log.isLoggable(Level.FINER))
+                log.finer("Created " + type);
+
+            slot.complete(type, null);
+            return type;
+        }
+        catch (RuntimeException | Error e) {
+            // failed types are not cached, the next call tries again with a new slot
+            if (allTypes.get(clazz) == PARENT_CLASS)
+                parentTypes.remove(clazz, slot);
+            else
+                allTypes.remove(clazz);
+            slot.complete(null, e);
+            throw e;
+        }
+    }
 
-            synchronized(typeMutex) {
-                type = allTypes.get(clazz);
-                if (type == null) {
-                    log.config("Creating JavaType " + clazz.getName());
+    @NonNull
+    private TypeSlot getSlot(@NonNull Class<?> clazz) {
+        Object slot = allTypes.get(clazz);
+        if (slot != PARENT_CLASS)
+            return (TypeSlot) slot;
 
-                    type = createType(clazz);
+        TypeSlot parentSlot = parentTypes.get(clazz);
+        return parentSlot != null ? parentSlot : parentTypes.computeIfAbsent(clazz, TypeSlot::new);
+    }
 
-                     if (log.isLoggable(Level.FINER))
-                        log.config("Created " + type);
+    /**
+     * Checks if the class is loaded by the bootstrap class loader or by a parent of the class loader of the framework.
+     */
+    private boolean isParentClass(@NonNull Class<?> clazz) {
+        ClassLoader loader = clazz.getClassLoader();
+        return loader == null || parentLoaders.contains(loader);
+    }
 
-                    allTypes.put(clazz, type);
+    /**
+     * Registry slot of a class, holds its type once created.
+     * <p> The slot must not refer to the type manager, a reference to the {@link ClassValue} from its own values keeps
+     * the values alive as long as their classes.
+     */
+    private static final class TypeSlot {
+
+        @NonNull private final Class<?> clazz;
+        /** the created type for the lock-free lookups */
+        private volatile JavaType<?> type;
+        /** the thread creating the type, guarded by the slot */
+        private Thread creator;
+        /** the failure of the creation, guarded by the slot */
+        private Throwable failure;
+
+        TypeSlot(@NonNull Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        /**
+         * Claims the creation of the type for the current thread.
+         * @return true if the current thread has to create the type, false if it is created or under creation
+         */
+        synchronized boolean claim() {
+            if (type != null || creator != null || failure != null)
+                return false;
+            creator = Thread.currentThread();
+            return true;
+        }
+
+        synchronized boolean isCreator() {
+            return creator == Thread.currentThread();
+        }
+
+        /**
+         * Stores the result of the creation and wakes up the waiting threads.
+         */
+        synchronized void complete(JavaType<?> type, Throwable failure) {
+            this.type = type;
+            this.failure = failure;
+            creator = null;
+            notifyAll();
+        }
+
+        /**
+         * Waits for the type uninterruptibly and rethrows the failure of the creation, if any.
+         */
+        @NonNull
+        synchronized JavaType<?> getType() {
+            boolean interrupted = false;
+            try {
+                while (type == null && failure == null) {
+                    try {
+                        wait();
+                    }
+                    catch (InterruptedException e) {
+                        interrupted = true;
+                    }
                 }
             }
+            finally {
+                if (interrupted)
+                    Thread.currentThread().interrupt();
+            }
+
+            if (type != null)
+                return type;
+            if (failure instanceof RuntimeException)
+                throw (RuntimeException) failure;
+            if (failure instanceof Error)
+                throw (Error) failure;
+            throw new RuntimeException("Failed to create type of " + clazz.getName(), failure);
         }
-        return type;
     }
 
     /**
@@ -157,14 +417,32 @@ public class TypeManager {
         javaTypes.add(Timestamp.class);
     }
 
+    /**
+     * Builds the property list of the bean type exactly once, under a lock of the type.
+     * The build of a property list must not build the property list of another type.
+     */
     @NonNull
     protected final <_B> PropertyList<PlainBeanProp<_B, ?>> buildBeanProperties(@NonNull BeanType<_B> beanType) {
-        if (beanType.properties != null)
-            return beanType.properties;
-
-        synchronized (typeMutex) {
-            beanType.properties = buildBeanPropertiesImpl(beanType);
-            return beanType.properties;
+        PropertyList<PlainBeanProp<_B, ?>> properties = beanType.properties;
+        if (properties != null)
+            return properties;
+
+        // per type lock, the properties of different types are built concurrently
+        synchronized (beanType.propertiesLock) {
+            properties = beanType.properties;
+            if (properties == null) {
+                Tracer tracer = Tracer.instance();
+                TraceSpan span = tracer != null ? tracer.startPropertiesBuild(beanType) : null;
+                try {
+                    properties = buildBeanPropertiesImpl(beanType);
+                }
+                finally {
+                    if (span != null)
+                        span.close();
+                }
+                beanType.properties = properties;
+            }
+            return properties;
         }
     }
 
@@ -172,18 +450,26 @@ public class TypeManager {
      * Builds a read-only list of property metadata for the given class.
      * Takes only properties which are annotated with {@link BeanProp}.
      * Re-uses (includes) the base class properties.
+     * <p> Uses the compile time {@link GeneratedBeanMetadata} of the class if there is any, scans the class hierarchy otherwise.
      * @param beanType the bean type to create the properties for
      * @return none null list of properties.
      */
     @NonNull
     protected <_B> PropertyList<PlainBeanProp<_B, ?>> buildBeanPropertiesImpl(@NonNull BeanType<_B> beanType) {
+        @SuppressWarnings("unchecked")
+        GeneratedBeanMetadata<_B> generated = (GeneratedBeanMetadata<_B>) ReflectionUtils.newGeneratedInstance(beanType.getTypeClass(), GeneratedBeanMetadata.CLASS_SUFFIX);
+        if (generated != null) {
+            PropertyList<PlainBeanProp<_B, ?>> properties = buildGeneratedBeanProperties(beanType, generated);
+            if (properties != null)
+                return properties;
+        }
+
         ReadOnlyList<Method> methods = ReflectionUtils.getImplementedMethods(beanType.getTypeClass());
         int size = methods.size();
         ExtendedArray<PlainBeanProp<_B, ?>> props = new ExtendedArray<>(size);
         ExtendedArray<PlainBeanProp<_B, ?>> unindexedProps = new ExtendedArray<>(size);
 
         // add annotated getters
-        outer_loop1:
         for (int i = 0; i < size; i++) {
             Method m = methods.get(i);
             if (Modifier.isStatic(m.getModifiers()) ||
@@ -202,29 +488,10 @@ public class TypeManager {
             Field field = ReflectionUtils.getDeclaredField(beanType.getTypeClass(), propName);
 
             PlainBeanProp<_B, ?> prop = createProperty(beanType, false, field, m, setter);
-
-            // Check if we already added this property
-            for (int j = props.size(); --j >= 0; )
-                if (checkDuplicate(beanType, prop, props.get(j)))
-                    continue outer_loop1;
-
-            // Same check for the unindexed properties
-            for (int j = unindexedProps.size(); --j >= 0; )
-                if (checkDuplicate(beanType, prop, unindexedProps.get(j)))
-                    continue outer_loop1;
-
-            int index = anno.index();
-            if (index > -1) {
-                ensureSize(props, index + 1);
-                if (props.set(index, prop) != null)
-                    throw new RuntimeException("Property " + prop.getPropertyName() + " index #" + index + " is defined twice on " + beanType.getSimpleName());
-            }
-            else
-                unindexedProps.add(prop);
+            addProperty(beanType, props, unindexedProps, prop, anno.index());
         }
 
         ReadOnlyList<Field> fields = ReflectionUtils.getDeclaredFields(beanType.getTypeClass());
-        outer_loop2:
         for (int i = 0, n = fields.size(); i < n; i++) {
             Field m = fields.get(i);
 
@@ -237,28 +504,81 @@ public class TypeManager {
             Method setter = ReflectionUtils.getPropertySetter(beanType.getTypeClass(), propName);
 
             PlainBeanProp<_B, ?> prop = createProperty(beanType, true, m, getter, setter);
+            addProperty(beanType, props, unindexedProps, prop, anno.index());
+        }
+
+        return indexProperties(beanType, props, unindexedProps);
+    }
+
+    /**
+     * Builds the property list from the compile time generated metadata.
+     * The members are looked up directly by their declaring class and name.
+     * @return the list of properties or {@code null} if the generated metadata does not match the class anymore
+     */
+    protected <_B> PropertyList<PlainBeanProp<_B, ?>> buildGeneratedBeanProperties(@NonNull BeanType<_B> beanType, @NonNull GeneratedBeanMetadata<_B> generated) {
+        List<GeneratedProperty> members = generated.getProperties();
+        int size = members.size();
+        ExtendedArray<PlainBeanProp<_B, ?>> props = new ExtendedArray<>(size);
+        ExtendedArray<PlainBeanProp<_B, ?>> unindexedProps = new ExtendedArray<>(size);
 
-            // Check if we already added this property
-            for (int j = props.size(); --j >= 0; )
-                if (checkDuplicate(beanType, prop, props.get(j)))
-                    continue outer_loop2;
-
-            // Same check for the unindexed properties
-            for (int j = unindexedProps.size(); --j >= 0; )
-                if (checkDuplicate(beanType, prop, unindexedProps.get(j)))
-                    continue outer_loop2;
-
-            int index = anno.index();
-            if (index > -1) {
-                ensureSize(props, index + 1);
-                if (props.set(index, prop) != null)
-                    throw new RuntimeException("Property " + prop.getPropertyName() + " index #" + index + " is defined twice on " + beanType.getSimpleName());
+        for (int i = 0; i < size; i++) {
+            GeneratedProperty member = members.get(i);
+
+            Field field;
+            Method getter;
+            Method setter;
+            try {
+                field = member.getFieldClass() != null ? member.getFieldClass().getDeclaredField(member.getFieldName()) : null;
+                getter = member.getGetterClass() != null ? member.getGetterClass().getDeclaredMethod(member.getGetterName()) : null;
+                setter = member.getSetterClass() != null ?
+                         member.getSetterClass().getDeclaredMethod(member.getSetterName(), getter != null ? getter.getReturnType() : field.getType()) :
+                         null;
             }
-            else
-                unindexedProps.add(prop);
+            catch (NoSuchFieldException | NoSuchMethodException e) {
+                log.warning("Generated metadata of " + beanType + " does not match the class, falls back to reflection. " + e);
+                return null;
+            }
+
+            PlainBeanProp<_B, ?> prop = createProperty(beanType, member, field, getter, setter);
+            addProperty(beanType, props, unindexedProps, prop, member.getIndex());
         }
 
-        // merge together the indexed and un-indexed props
+        return indexProperties(beanType, props, unindexedProps);
+    }
+
+    /**
+     * Adds the property to the indexed or un-indexed properties, unless it is a duplicate.
+     */
+    private static <_B> void addProperty(@NonNull BeanType<_B> beanType,
+                                         @NonNull ExtendedArray<PlainBeanProp<_B, ?>> props,
+                                         @NonNull ExtendedArray<PlainBeanProp<_B, ?>> unindexedProps,
+                                         @NonNull PlainBeanProp<_B, ?> prop, int index) {
+        // Check if we already added this property
+        for (int j = props.size(); --j >= 0; )
+            if (props.get(j) != null && checkDuplicate(beanType, prop, props.get(j)))
+                return;
+
+        // Same check for the unindexed properties
+        for (int j = unindexedProps.size(); --j >= 0; )
+            if (checkDuplicate(beanType, prop, unindexedProps.get(j)))
+                return;
+
+        if (index > -1) {
+            ensureSize(props, index + 1);
+            if (props.set(index, prop) != null)
+                throw new RuntimeException("Property " + prop.getPropertyName() + " index #" + index + " is defined twice on " + beanType.getSimpleName());
+        }
+        else
+            unindexedProps.add(prop);
+    }
+
+    /**
+     * Merges together the indexed and un-indexed props and sets the final indexes.
+     */
+    @NonNull
+    private static <_B> PropertyList<PlainBeanProp<_B, ?>> indexProperties(@NonNull BeanType<_B> beanType,
+                                                                          @NonNull ExtendedArray<PlainBeanProp<_B, ?>> props,
+                                                                          @NonNull ExtendedArray<PlainBeanProp<_B, ?>> unindexedProps) {
         props.addAll(unindexedProps);
 
         for (int i = 0, n = props.size(); i < n; i++) {
@@ -312,4 +632,13 @@ public class TypeManager {
     protected <_B> PlainBeanProp<_B, ?> createProperty(@NonNull BeanType<_B> beanType, @NonNull boolean fieldAnnotated, Field field, Method getter, Method setter) {
         return new PlainBeanProp<>(beanType, fieldAnnotated, field, getter, setter);
     }
+
+    /**
+     * Creates a bean property instance based on compile time generated metadata.
+     * <p> This is a customization point, same as {@link #createProperty(BeanType, boolean, Field, Method, Method)}.
+     * @param generated the none null generated metadata of the property
+     */
+    protected <_B> PlainBeanProp<_B, ?> createProperty(@NonNull BeanType<_B> beanType, @NonNull GeneratedProperty generated, Field field, Method getter, Method setter) {
+        return new PlainBeanProp<>(beanType, generated.isFieldAnnotated(), field, getter, setter, generated);
+    }
 }
@@ -0,0 +1,224 @@
+/*
+ * InvocationMetrics
+ * Create Date: 2020. 04. 11.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metrics;
+
+import gras.berry.collection.ExtendedArray;
+import gras.presley.evaluator.EvaluatedState;
+import gras.presley.evaluator.EvaluatorInfo;
+import gras.presley.interceptor.BeanInterceptorInfo;
+import gras.presley.interceptor.InterceptorPosition;
+import gras.presley.interceptor.PropertyInterceptorInfo;
+import gras.presley.metadata.BeanType;
+import lombok.NonNull;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The default {@link MetricsRecorder}, which records a {@link LatencyHistogram} per interceptor or evaluator,
+ * per bean type and per interceptor position or evaluated state.
+ *
+ * <p> The recording does not lock and does not allocate once the histogram of the invocation exists.
+ * The statistics are published as an MXBean by {@link #register()}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class InvocationMetrics implements MetricsRecorder, InvocationMetricsMXBean {
+
+    private static final String PROPERTY_INTERCEPTOR = "propertyInterceptor";
+    private static final String BEAN_INTERCEPTOR = "beanInterceptor";
+    private static final String EVALUATOR = "evaluator";
+
+    @NonNull private final String name;
+    /** the histograms by the info objects and the bean types */
+    @NonNull private final ConcurrentHashMap<Object, ConcurrentHashMap<BeanType<?>, AtomicReferenceArray<LatencyHistogram>>> histograms = new ConcurrentHashMap<>();
+    private ObjectName objectName;
+
+    public InvocationMetrics() {
+        this("default");
+    }
+
+    /**
+     * @param name the name of the MBean, if more application contexts are running in the same JVM
+     */
+    public InvocationMetrics(@NonNull String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void recordInterceptor(@NonNull PropertyInterceptorInfo<?, ?> interceptor, @NonNull BeanType<?> beanType, long nanos) {
+        getHistogram(interceptor, beanType, 0, 1).record(nanos);
+    }
+
+    @Override
+    public void recordInterceptor(@NonNull BeanInterceptorInfo<?> interceptor, @NonNull BeanType<?> beanType, long nanos) {
+        getHistogram(interceptor, beanType, 0, 1).record(nanos);
+    }
+
+    @Override
+    public void recordEvaluator(@NonNull EvaluatorInfo<?, ?> evaluator, @NonNull BeanType<?> beanType, @NonNull EvaluatedState state, long nanos) {
+        getHistogram(evaluator, beanType, state.ordinal(), States.VALUES.length).record(nanos);
+    }
+
+    /**
+     * Gets the histogram of a property interceptor on the bean type.
+     * @return the histogram or {@code null} if nothing was recorded
+     */
+    public LatencyHistogram getHistogram(@NonNull PropertyInterceptorInfo<?, ?> interceptor, @NonNull BeanType<?> beanType) {
+        AtomicReferenceArray<LatencyHistogram> categories = getCategories(interceptor, beanType);
+        return categories != null ? categories.get(0) : null;
+    }
+
+    /**
+     * Gets the histogram of a bean interceptor on the bean type.
+     * @return the histogram or {@code null} if nothing was recorded
+     */
+    public LatencyHistogram getHistogram(@NonNull BeanInterceptorInfo<?> interceptor, @NonNull BeanType<?> beanType) {
+        AtomicReferenceArray<LatencyHistogram> categories = getCategories(interceptor, beanType);
+        return categories != null ? categories.get(0) : null;
+    }
+
+    /**
+     * Gets the histogram of an evaluator on the bean type for the state.
+     * @return the histogram or {@code null} if nothing was recorded
+     */
+    public LatencyHistogram getHistogram(@NonNull EvaluatorInfo<?, ?> evaluator, @NonNull BeanType<?> beanType, @NonNull EvaluatedState state) {
+        AtomicReferenceArray<LatencyHistogram> categories = getCategories(evaluator, beanType);
+        return categories != null ? categories.get(state.ordinal()) : null;
+    }
+
+    @Override
+    public List<InvocationStatistics> getStatistics() {
+        ExtendedArray<InvocationStatistics> statistics = new ExtendedArray<>();
+        for (Map.Entry<Object, ConcurrentHashMap<BeanType<?>, AtomicReferenceArray<LatencyHistogram>>> byInfo : histograms.entrySet()) {
+            Object info = byInfo.getKey();
+            String kind;
+            String infoName;
+            InterceptorPosition position;
+            if (info instanceof PropertyInterceptorInfo) {
+                kind = PROPERTY_INTERCEPTOR;
+                infoName = ((PropertyInterceptorInfo<?, ?>) info).getInterceptor().getClass().getName();
+                position = ((PropertyInterceptorInfo<?, ?>) info).getPosition();
+            }
+            else if (info instanceof BeanInterceptorInfo) {
+                kind = BEAN_INTERCEPTOR;
+                infoName = ((BeanInterceptorInfo<?>) info).getInterceptor().getClass().getName();
+                position = ((BeanInterceptorInfo<?>) info).getPosition();
+            }
+            else {
+                kind = EVALUATOR;
+                infoName = ((EvaluatorInfo<?, ?>) info).getEvaluatorClass().getName();
+                position = null;
+            }
+
+            for (Map.Entry<BeanType<?>, AtomicReferenceArray<LatencyHistogram>> byType : byInfo.getValue().entrySet()) {
+                AtomicReferenceArray<LatencyHistogram> categories = byType.getValue();
+                for (int i = 0; i < categories.length(); i++) {
+                    LatencyHistogram histogram = categories.get(i);
+                    if (histogram == null)
+                        continue;
+
+                    String category = position != null ? position.name() : States.VALUES[i].name();
+                    statistics.add(new InvocationStatistics(kind, infoName, byType.getKey().getTypeName(), category,
+                            histogram.getCount(), histogram.getTotalNanos(), histogram.getMaxNanos(),
+                            histogram.getPercentileNanos(50), histogram.getPercentileNanos(99)));
+                }
+            }
+        }
+        return statistics;
+    }
+
+    @Override
+    public long getInvocationCount() {
+        long count = 0;
+        for (ConcurrentHashMap<BeanType<?>, AtomicReferenceArray<LatencyHistogram>> byType : histograms.values())
+            for (AtomicReferenceArray<LatencyHistogram> categories : byType.values())
+                for (int i = 0; i < categories.length(); i++) {
+                    LatencyHistogram histogram = categories.get(i);
+                    if (histogram != null)
+                        count += histogram.getCount();
+                }
+        return count;
+    }
+
+    @Override
+    public void reset() {
+        histograms.clear();
+    }
+
+    /**
+     * Registers the MXBean on the platform MBean server as {@code gras.presley:type=InvocationMetrics,name=<name>}.
+     */
+    public synchronized void register() {
+        if (objectName != null)
+            return;
+        try {
+            ObjectName objectName = new ObjectName("gras.presley:type=InvocationMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("Invocation metrics " + name + " can not be registered", e);
+        }
+    }
+
+    /**
+     * Removes the MXBean from the platform MBean server.
+     */
+    public synchronized void unregister() {
+        if (objectName == null)
+            return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName))
+                server.unregisterMBean(objectName);
+            objectName = null;
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("Invocation metrics " + name + " can not be unregistered", e);
+        }
+    }
+
+    private AtomicReferenceArray<LatencyHistogram> getCategories(@NonNull Object info, @NonNull BeanType<?> beanType) {
+        ConcurrentHashMap<BeanType<?>, AtomicReferenceArray<LatencyHistogram>> byType = histograms.get(info);
+        return byType != null ? byType.get(beanType) : null;
+    }
+
+    @NonNull
+    private LatencyHistogram getHistogram(@NonNull Object info, @NonNull BeanType<?> beanType, int category, int categoryCount) {
+        ConcurrentHashMap<BeanType<?>, AtomicReferenceArray<LatencyHistogram>> byType = histograms.get(info);
+        if (byType == null)
+            byType = histograms.computeIfAbsent(info, k -> new ConcurrentHashMap<>());
+
+        AtomicReferenceArray<LatencyHistogram> categories = byType.get(beanType);
+        if (categories == null)
+            categories = byType.computeIfAbsent(beanType, k -> new AtomicReferenceArray<>(categoryCount));
+
+        LatencyHistogram histogram = categories.get(category);
+        if (histogram == null) {
+            histogram = new LatencyHistogram();
+            if (!categories.compareAndSet(category, null, histogram))
+                histogram = categories.get(category);
+        }
+        return histogram;
+    }
+
+    /**
+     * The states are resolved lazily, so recording only interceptors does not load the evaluator classes.
+     */
+    private static final class States {
+
+        static final EvaluatedState[] VALUES = EvaluatedState.values();
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * InvocationMetricsMXBean
+ * Create Date: 2020. 04. 11.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metrics;
+
+import java.util.List;
+
+/**
+ * JMX management interface of {@link InvocationMetrics}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface InvocationMetricsMXBean {
+
+    /**
+     * Returns the statistics of all recorded interceptors and evaluators by bean type and position or state.
+     */
+    List<InvocationStatistics> getStatistics();
+
+    /**
+     * Total number of the recorded invocations.
+     */
+    long getInvocationCount();
+
+    /**
+     * Clears all recorded values.
+     */
+    void reset();
+}
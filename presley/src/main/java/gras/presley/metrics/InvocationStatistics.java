@@ -0,0 +1,102 @@
+/*
+ * InvocationStatistics
+ * Create Date: 2020. 04. 11.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metrics;
+
+import lombok.NonNull;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Snapshot of the latency histogram of an interceptor or an evaluator for a bean type, see {@link InvocationMetrics}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class InvocationStatistics {
+
+    @NonNull private final String kind;
+    @NonNull private final String name;
+    @NonNull private final String beanType;
+    @NonNull private final String category;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+
+    @ConstructorProperties({"kind", "name", "beanType", "category", "count", "totalNanos", "maxNanos", "p50Nanos", "p99Nanos"})
+    public InvocationStatistics(@NonNull String kind, @NonNull String name, @NonNull String beanType, @NonNull String category,
+                                long count, long totalNanos, long maxNanos, long p50Nanos, long p99Nanos) {
+        this.kind = kind;
+        this.name = name;
+        this.beanType = beanType;
+        this.category = category;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+    }
+
+    /**
+     * One of "propertyInterceptor", "beanInterceptor" or "evaluator".
+     */
+    @NonNull
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * The class name of the interceptor or the evaluator.
+     */
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @NonNull
+    public String getBeanType() {
+        return beanType;
+    }
+
+    /**
+     * The position of the interceptor or the evaluated state.
+     */
+    @NonNull
+    public String getCategory() {
+        return category;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMeanNanos() {
+        return count != 0 ? totalNanos / count : 0;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    @Override
+    public String toString() {
+        return kind + ' ' + name + " on " + beanType + " [" + category + "] count=" + count + " mean=" + getMeanNanos() + "ns p99=" + p99Nanos + "ns max=" + maxNanos + "ns";
+    }
+}
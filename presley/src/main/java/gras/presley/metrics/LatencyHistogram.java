@@ -0,0 +1,102 @@
+/*
+ * LatencyHistogram
+ * Create Date: 2020. 04. 11.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram with power of two nanosecond buckets.
+ *
+ * <p> The counters are striped {@link LongAdder}s, so the concurrent recording threads do not contend on a single
+ * memory location. The percentiles are approximated by the upper bound of their bucket, so they are at most twice
+ * the real value. The reads are not atomic snapshots while recording is in progress.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public final class LatencyHistogram {
+
+    /** bucket i counts the values in [2^(i-1), 2^i), bucket 0 counts the zeros */
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new LongAdder();
+    }
+
+    /**
+     * Records a value, the negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        buckets[BUCKETS - Long.numberOfLeadingZeros(nanos)].increment();
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return total.sum();
+    }
+
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    public long getMeanNanos() {
+        long n = count.sum();
+        return n != 0 ? total.sum() / n : 0;
+    }
+
+    /**
+     * Approximates the given percentile.
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket of the percentile, at most the maximum value
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            n += counts[i] = buckets[i].sum();
+        if (n == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return Math.min(i == 0 ? 0 : i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1, max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears the recorded values.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets)
+            bucket.reset();
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * MetricsRecorder
+ * Create Date: 2020. 04. 11.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metrics;
+
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.EvaluatedState;
+import gras.presley.evaluator.EvaluatorInfo;
+import gras.presley.interceptor.BeanInterceptorInfo;
+import gras.presley.interceptor.PropertyInterceptorInfo;
+import gras.presley.metadata.BeanType;
+import lombok.NonNull;
+
+/**
+ * Service provider interface of the invocation metrics of the interceptors and the evaluators.
+ *
+ * <p> The recorder of the application context is called after each interceptor and evaluator invocation,
+ * see {@link ApplicationContext#getMetricsRecorder()}. If there is no recorder the invocations are not timed at all.
+ * The asynchronous interceptors are recorded when the stage returned by them completes, on the completing thread,
+ * and their time excludes the stage of the rest of the chain.
+ * The implementations must be thread safe and should not block, see {@link InvocationMetrics}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface MetricsRecorder {
+
+    /**
+     * Records a property interceptor invocation.
+     * @param interceptor the invoked interceptor, its position is available from {@link PropertyInterceptorInfo#getPosition()}
+     * @param beanType the type of the intercepted bean
+     * @param nanos the elapsed time of the interceptor, excluding the rest of the chain called by <code>proceed()</code>
+     */
+    void recordInterceptor(@NonNull PropertyInterceptorInfo<?, ?> interceptor, @NonNull BeanType<?> beanType, long nanos);
+
+    /**
+     * Records a bean interceptor invocation.
+     * @param interceptor the invoked interceptor, its position is available from {@link BeanInterceptorInfo#getPosition()}
+     * @param beanType the type of the intercepted bean
+     * @param nanos the elapsed time of the interceptor, excluding the rest of the chain called by <code>proceed()</code>
+     */
+    void recordInterceptor(@NonNull BeanInterceptorInfo<?> interceptor, @NonNull BeanType<?> beanType, long nanos);
+
+    /**
+     * Records an evaluator invocation.
+     * @param evaluator the invoked evaluator
+     * @param beanType the type of the evaluated bean
+     * @param state the evaluated state
+     * @param nanos the elapsed time of the evaluator
+     */
+    void recordEvaluator(@NonNull EvaluatorInfo<?, ?> evaluator, @NonNull BeanType<?> beanType, @NonNull EvaluatedState state, long nanos);
+
+    /**
+     * Gets the recorder of the application context.
+     * @return the recorder or {@code null} if the metrics are not enabled
+     */
+    static MetricsRecorder instance() {
+        return ApplicationContext.getMetricsRecorder();
+    }
+}
@@ -7,6 +7,9 @@
 package gras.presley.operation;
 
 import gras.presley.metadata.BeanType;
+import lombok.NonNull;
+
+import java.lang.reflect.Constructor;
 
 /**
  * @version $Revision$ $LastChangedDate$ 
@@ -15,22 +18,33 @@ import gras.presley.metadata.BeanType;
 public class BeanOperationInfo<_B> {
 
     final Class<BeanOperation<_B>> operation;
-    final BeanType<_B> beanMetadata;
+    /** the bean class of the generic definition of the operation, {@link Object} if the operation is not generic */
+    @NonNull final Class<?> target;
+    /** the no-arg constructor of the operation class */
+    @NonNull private final Constructor<BeanOperation<_B>> constructor;
 
     BeanOperationInfo(Class<BeanOperation<_B>> operation) {
         this.operation = operation;
-        this.beanMetadata = null; // here comes the reflective inspection of the given operation instance
+        this.target = OperationIndex.getTargetClass(operation, BeanOperation.class);
+        this.constructor = OperationManager.getConstructor(operation);
     }
 
+    /**
+     * Checks if the operation is offered for the beans of the type, which is the case if the type is the target class or its subclass.
+     */
     public boolean supports(BeanType<?> metadata) {
-        return metadata.isAssignableFrom(beanMetadata);
+        return target.isAssignableFrom(metadata.getTypeClass());
     }
 
     public boolean supports(_B bean) {
         return true;
     }
 
+    /**
+     * Creates a new instance of the operation for each request.
+     */
+    @NonNull
     BeanOperation<_B> createInstance(_B bean) {
-        return null; // reflective createNew
+        return OperationManager.newInstance(constructor);
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * DefaultOperationRegistry
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.operation;
+
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Operation registry which can be changed at runtime, like {@link gras.presley.interceptor.DefaultInterceptorRegistry}.
+ *
+ * <p> The operations are registered by their classes, a new instance is created for each request.
+ * Every change increases the {@link #getVersion() version}, so the operation lists cached on the metadata
+ * are resolved again lazily on their next use. This class is thread safe, the readers are never blocked.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class DefaultOperationRegistry implements OperationRegistry {
+
+    @NonNull private final CopyOnWriteArrayList<TypeOperationInfo<?>> typeOperations = new CopyOnWriteArrayList<>();
+    @NonNull private final CopyOnWriteArrayList<BeanOperationInfo<?>> beanOperations = new CopyOnWriteArrayList<>();
+    @NonNull private final CopyOnWriteArrayList<PropertyOperationInfo<?, ?>> propertyOperations = new CopyOnWriteArrayList<>();
+    @NonNull private final AtomicLong version = new AtomicLong();
+
+    public DefaultOperationRegistry() {
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <_B> List<TypeOperationInfo<_B>> getTypeOperations() {
+        return (List<TypeOperationInfo<_B>>) (List<?>) typeOperations;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <_B> List<BeanOperationInfo<_B>> getBeanOperations() {
+        return (List<BeanOperationInfo<_B>>) (List<?>) beanOperations;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <_B, _P> List<PropertyOperationInfo<_B, _P>> getPropertyOperations() {
+        return (List<PropertyOperationInfo<_B, _P>>) (List<?>) propertyOperations;
+    }
+
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the operation class has no no-arg constructor
+     */
+    @SuppressWarnings("unchecked")
+    public <_B> void addTypeOperation(@NonNull Class<? extends TypeOperation<_B>> operation) {
+        typeOperations.add(new TypeOperationInfo<>((Class<TypeOperation<_B>>) operation));
+        version.incrementAndGet();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the operation class has no no-arg constructor
+     */
+    @SuppressWarnings("unchecked")
+    public <_B> void addBeanOperation(@NonNull Class<? extends BeanOperation<_B>> operation) {
+        beanOperations.add(new BeanOperationInfo<>((Class<BeanOperation<_B>>) operation));
+        version.incrementAndGet();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the operation class has no no-arg constructor
+     */
+    @SuppressWarnings("unchecked")
+    public <_B, _P> void addPropertyOperation(@NonNull Class<? extends PropertyOperation<_B, _P>> operation) {
+        propertyOperations.add(new PropertyOperationInfo<>((Class<PropertyOperation<_B, _P>>) operation));
+        version.incrementAndGet();
+    }
+
+    /**
+     * Removes all registrations of the operation class.
+     * @return true if the operation was registered
+     */
+    public boolean remove(@NonNull Class<?> operation) {
+        boolean removed = typeOperations.removeIf(info -> info.operation == operation);
+        removed |= beanOperations.removeIf(info -> info.operation == operation);
+        removed |= propertyOperations.removeIf(info -> info.operation == operation);
+        if (removed)
+            version.incrementAndGet();
+        return removed;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * OperationIndex
+ * Create Date: 2020. 04. 08.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.operation;
+
+import gras.berry.collection.ExtendedArray;
+import gras.berry.collection.ReadOnlyList;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import lombok.NonNull;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Inverted index of the registered operations by their target class, so the operations of a type or a property are resolved
+ * without checking all registered operations.
+ *
+ * <p> A lookup walks the class hierarchy of the bean type, and checks only the operations of those classes with the
+ * {@code supports} methods, so the result is the same as checking all operations. The operation infos overriding
+ * the {@code supports} methods are always checked. The resolved lists keep the reverse registration order of the linear resolution.
+ *
+ * <p> Instances are immutable after the creation.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class OperationIndex {
+
+    private static final Class<?>[] EMPTY_CLASSES = {};
+
+    /** the class itself, its super classes and all of its interfaces */
+    private static final ClassValue<Class<?>[]> hierarchies = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            LinkedHashSet<Class<?>> classes = new LinkedHashSet<>();
+            collectHierarchy(type, classes);
+            classes.add(Object.class);
+            return classes.toArray(EMPTY_CLASSES);
+        }
+    };
+
+    /** the version of the registry the index was built from */
+    private final long version;
+    @NonNull private final Targets<TypeOperationInfo<?>> typeOperations;
+    @NonNull private final Targets<BeanOperationInfo<?>> beanOperations;
+    @NonNull private final Targets<PropertyOperationInfo<?, ?>> propertyOperations;
+
+    OperationIndex(long version, @NonNull List<? extends TypeOperationInfo<?>> typeOperationList,
+                   @NonNull List<? extends BeanOperationInfo<?>> beanOperationList, @NonNull List<? extends PropertyOperationInfo<?, ?>> propertyOperationList) {
+        this.version = version;
+        typeOperations = new Targets<>(typeOperationList, TypeOperationInfo.class, info -> info.target);
+        beanOperations = new Targets<>(beanOperationList, BeanOperationInfo.class, info -> info.target);
+        propertyOperations = new Targets<>(propertyOperationList, PropertyOperationInfo.class, info -> info.target);
+    }
+
+    /**
+     * The version of the registry the index was built from.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Resolves the type operations supporting the bean type.
+     */
+    @NonNull
+    <_B> ReadOnlyList<TypeOperationInfo<_B>> getTypeOperations(@NonNull BeanType<_B> beanMetadata) {
+        ExtendedArray<TypeOperationInfo<_B>> supportedOperations = new ExtendedArray<>();
+        for (int i : typeOperations.getCandidates(beanMetadata.getTypeClass())) {
+            @SuppressWarnings("unchecked")
+            TypeOperationInfo<_B> operation = (TypeOperationInfo<_B>) typeOperations.infos.get(i);
+            if (operation.supports(beanMetadata))
+                supportedOperations.add(operation);
+        }
+        return new ReadOnlyList<>(supportedOperations);
+    }
+
+    /**
+     * Resolves the bean operations supporting the bean type.
+     */
+    @NonNull
+    <_B> ReadOnlyList<BeanOperationInfo<_B>> getBeanOperations(@NonNull BeanType<_B> beanMetadata) {
+        ExtendedArray<BeanOperationInfo<_B>> supportedOperations = new ExtendedArray<>();
+        for (int i : beanOperations.getCandidates(beanMetadata.getTypeClass())) {
+            @SuppressWarnings("unchecked")
+            BeanOperationInfo<_B> operation = (BeanOperationInfo<_B>) beanOperations.infos.get(i);
+            if (operation.supports(beanMetadata))
+                supportedOperations.add(operation);
+        }
+        return new ReadOnlyList<>(supportedOperations);
+    }
+
+    /**
+     * Resolves the property operations supporting the property.
+     */
+    @NonNull
+    <_B, _P> ReadOnlyList<PropertyOperationInfo<_B, _P>> getPropertyOperations(@NonNull PlainBeanProp<_B, _P> propertyMetadata) {
+        ExtendedArray<PropertyOperationInfo<_B, _P>> supportedOperations = new ExtendedArray<>();
+        for (int i : propertyOperations.getCandidates(propertyMetadata.getBeanType().getTypeClass())) {
+            @SuppressWarnings("unchecked")
+            PropertyOperationInfo<_B, _P> operation = (PropertyOperationInfo<_B, _P>) propertyOperations.infos.get(i);
+            if (operation.supports(propertyMetadata))
+                supportedOperations.add(operation);
+        }
+        return new ReadOnlyList<>(supportedOperations);
+    }
+
+    /**
+     * Resolves the bean class of the generic definition of the operation class.
+     * @param operationInterface the operation interface, e.g. {@link TypeOperation}
+     * @return the class of the first type argument of the operation interface, or {@link Object} if it is not a class
+     */
+    @NonNull
+    static Class<?> getTargetClass(@NonNull Class<?> operationClass, @NonNull Class<?> operationInterface) {
+        for (Class<?> type = operationClass; type != null; type = type.getSuperclass()) {
+            for (Type inter : type.getGenericInterfaces()) {
+                if (!(inter instanceof ParameterizedType) || ((ParameterizedType) inter).getRawType() != operationInterface)
+                    continue;
+
+                Type target = ((ParameterizedType) inter).getActualTypeArguments()[0];
+                if (target instanceof ParameterizedType)
+                    target = ((ParameterizedType) target).getRawType();
+                return target instanceof Class ? (Class<?>) target : Object.class;
+            }
+        }
+        return Object.class;
+    }
+
+    private static void collectHierarchy(Class<?> type, @NonNull LinkedHashSet<Class<?>> classes) {
+        for (; type != null; type = type.getSuperclass()) {
+            if (!classes.add(type))
+                return;
+            for (Class<?> interfaceType : type.getInterfaces())
+                collectHierarchy(interfaceType, classes);
+        }
+    }
+
+    /**
+     * The positions of the operations of one kind by their target class.
+     */
+    private static final class Targets<_I> {
+
+        /** the snapshot of the registered operations */
+        @NonNull final List<_I> infos;
+        @NonNull private final HashMap<Class<?>, int[]> byTarget = new HashMap<>();
+        /** the positions of the operations which can not be indexed */
+        @NonNull private final int[] unindexed;
+
+        Targets(@NonNull List<? extends _I> infoList, @NonNull Class<?> infoClass, @NonNull Function<_I, Class<?>> targetKey) {
+            infos = new ArrayList<>(infoList);
+
+            ExtendedArray<Integer> unindexedPositions = new ExtendedArray<>();
+            HashMap<Class<?>, ExtendedArray<Integer>> positions = new HashMap<>();
+            for (int i = 0, n = infos.size(); i < n; i++) {
+                _I info = infos.get(i);
+                if (info.getClass() != infoClass)
+                    unindexedPositions.add(i);
+                else
+                    positions.computeIfAbsent(targetKey.apply(info), k -> new ExtendedArray<>()).add(i);
+            }
+
+            unindexed = toArray(unindexedPositions);
+            positions.forEach((target, targetPositions) -> byTarget.put(target, toArray(targetPositions)));
+        }
+
+        /**
+         * Collects the positions of the operations of the class hierarchy and the unindexed ones, in descending order.
+         */
+        @NonNull
+        int[] getCandidates(@NonNull Class<?> beanClass) {
+            int[] result = unindexed.clone();
+            for (Class<?> type : hierarchies.get(beanClass)) {
+                int[] positions = byTarget.get(type);
+                if (positions == null)
+                    continue;
+
+                int[] merged = Arrays.copyOf(result, result.length + positions.length);
+                System.arraycopy(positions, 0, merged, result.length, positions.length);
+                result = merged;
+            }
+
+            Arrays.sort(result);
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                int position = result[i];
+                result[i] = result[j];
+                result[j] = position;
+            }
+            return result;
+        }
+
+        @NonNull
+        private static int[] toArray(@NonNull List<Integer> values) {
+            int[] result = new int[values.size()];
+            for (int i = 0; i < result.length; i++)
+                result[i] = values.get(i);
+            return result;
+        }
+    }
+}
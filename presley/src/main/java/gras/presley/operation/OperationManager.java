@@ -6,12 +6,17 @@
  */
 package gras.presley.operation;
 
-import gras.berry.collection.ExtendedArray;
 import gras.berry.collection.ReadOnlyList;
 import gras.presley.metadata.BeanType;
+import gras.presley.metadata.CachedList;
 import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyList;
+import gras.presley.trace.TraceSpan;
+import gras.presley.trace.Tracer;
 import lombok.NonNull;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,6 +26,9 @@ import java.util.List;
  */
 public class OperationManager {
 
+    /** lazy built index of the registered operations */
+    private volatile OperationIndex index;
+
     protected OperationManager() {
     }
 
@@ -28,11 +36,37 @@ public class OperationManager {
         return null; // gets the configured instance
     }
 
+    /**
+     * Builds and caches the operation lists of the bean type and all of its properties ahead of the first request.
+     * @see gras.presley.metadata.TypeManager#preload(java.util.Collection)
+     */
+    public <_B> void preload(@NonNull BeanType<_B> beanMetadata) {
+        getTypeOperationsImpl(beanMetadata);
+        getBeanOperationsImpl(beanMetadata);
+
+        PropertyList<PlainBeanProp<_B, ?>> props = beanMetadata.getProperties();
+        for (int i = 0, n = props.size(); i < n; i++)
+            getPropertyOperationsImpl(props.get(i));
+    }
+
     /**
      * Returns all registered bean operations for the given bean type.
      * @return the collection of {@link TypeOperation} instances or an empty list if there are none.
      */
     public <_B> List<TypeOperation<_B>> getTypeOperations(BeanType<_B> beanMetadata) {
+        Tracer tracer = Tracer.instance();
+        TraceSpan span = tracer != null ? tracer.startOperationLookup(beanMetadata, null, TypeOperation.class) : null;
+        try {
+            return createTypeOperations(beanMetadata);
+        }
+        finally {
+            if (span != null)
+                span.close();
+        }
+    }
+
+    @NonNull
+    private <_B> List<TypeOperation<_B>> createTypeOperations(BeanType<_B> beanMetadata) {
         ReadOnlyList<TypeOperationInfo<_B>> operations = getTypeOperationsImpl(beanMetadata);
 
         ArrayList<TypeOperation<_B>> result = new ArrayList<>(operations.size());
@@ -49,20 +83,13 @@ public class OperationManager {
     }
 
     protected <_B> ReadOnlyList<TypeOperationInfo<_B>> getTypeOperationsImpl(BeanType<_B> beanMetadata) {
-        ReadOnlyList<TypeOperationInfo<_B>> operations = MetadataAccess.getTypeOperations(beanMetadata);
-        if (operations == null) {
-            List<TypeOperationInfo<_B>> all = OperationRegistry.instance().getTypeOperations();
-            ExtendedArray<TypeOperationInfo<_B>> supportedOperations = new ExtendedArray<>(all.size());
-
-            for (int i = all.size(); --i >= 0; ) {
-                TypeOperationInfo<_B> operation = all.get(i);
-                if (operation.supports(beanMetadata))
-                    supportedOperations.add(operation);
-            }
-            operations = new ReadOnlyList<>(supportedOperations);
+        long version = OperationRegistry.instance().getVersion();
+        CachedList<TypeOperationInfo<_B>, Void> operations = MetadataAccess.getTypeOperations(beanMetadata);
+        if (operations == null || operations.getVersion() != version) {
+            operations = new CachedList<>(getOperationIndex(version).getTypeOperations(beanMetadata), version);
             MetadataAccess.setTypeOperations(beanMetadata, operations);
         }
-        return operations;
+        return operations.getList();
     }
 
     /**
@@ -71,6 +98,19 @@ public class OperationManager {
      * @return the collection of {@link BeanOperation} instances or an empty list if there are none.
      */
     public <_B> List<BeanOperation<_B>> getBeanOperations(_B bean, BeanType<_B> beanMetadata) {
+        Tracer tracer = Tracer.instance();
+        TraceSpan span = tracer != null ? tracer.startOperationLookup(beanMetadata, null, BeanOperation.class) : null;
+        try {
+            return createBeanOperations(bean, beanMetadata);
+        }
+        finally {
+            if (span != null)
+                span.close();
+        }
+    }
+
+    @NonNull
+    private <_B> List<BeanOperation<_B>> createBeanOperations(_B bean, BeanType<_B> beanMetadata) {
         List<BeanOperationInfo<_B>> operations = getBeanOperationsImpl(beanMetadata);
 
         ArrayList<BeanOperation<_B>> result = new ArrayList<>(operations.size());
@@ -87,20 +127,13 @@ public class OperationManager {
     }
 
     protected <_B> ReadOnlyList<BeanOperationInfo<_B>> getBeanOperationsImpl(BeanType<_B> beanMetadata) {
-        ReadOnlyList<BeanOperationInfo<_B>> operations = MetadataAccess.getBeanOperations(beanMetadata);
-        if (operations == null) {
-            List<BeanOperationInfo<_B>> all = OperationRegistry.instance().getBeanOperations();
-            ExtendedArray<BeanOperationInfo<_B>> supportedOperations = new ExtendedArray<>(all.size());
-
-            for (int i = all.size(); --i >= 0; ) {
-                BeanOperationInfo<_B> operation = all.get(i);
-                if (operation.supports(beanMetadata))
-                    supportedOperations.add(operation);
-            }
-            operations = new ReadOnlyList<>(supportedOperations);
+        long version = OperationRegistry.instance().getVersion();
+        CachedList<BeanOperationInfo<_B>, Void> operations = MetadataAccess.getBeanOperations(beanMetadata);
+        if (operations == null || operations.getVersion() != version) {
+            operations = new CachedList<>(getOperationIndex(version).getBeanOperations(beanMetadata), version);
             MetadataAccess.setBeanOperations(beanMetadata, operations);
         }
-        return operations;
+        return operations.getList();
     }
 
     /**
@@ -109,6 +142,19 @@ public class OperationManager {
      */
     @NonNull
     public <_B, _P> List<PropertyOperation<_B, _P>> getPropertyOperations(_B bean, PlainBeanProp<_B, _P> propertyMetadata) {
+        Tracer tracer = Tracer.instance();
+        TraceSpan span = tracer != null ? tracer.startOperationLookup(propertyMetadata.getBeanType(), propertyMetadata, PropertyOperation.class) : null;
+        try {
+            return createPropertyOperations(bean, propertyMetadata);
+        }
+        finally {
+            if (span != null)
+                span.close();
+        }
+    }
+
+    @NonNull
+    private <_B, _P> List<PropertyOperation<_B, _P>> createPropertyOperations(_B bean, PlainBeanProp<_B, _P> propertyMetadata) {
         ReadOnlyList<PropertyOperationInfo<_B, _P>> operations = getPropertyOperationsImpl(propertyMetadata);
 
         ArrayList<PropertyOperation<_B, _P>> result = new ArrayList<>(operations.size());
@@ -125,45 +171,85 @@ public class OperationManager {
     }
 
     protected <_B, _P> ReadOnlyList<PropertyOperationInfo<_B, _P>> getPropertyOperationsImpl(PlainBeanProp<_B, _P> propertyMetadata) {
-        ReadOnlyList<PropertyOperationInfo<_B, _P>> operations = MetadataAccess.getOperations(propertyMetadata);
-        if (operations == null) {
-            List<PropertyOperationInfo<_B, _P>> all = OperationRegistry.instance().getPropertyOperations();
-            ExtendedArray<PropertyOperationInfo<_B, _P>> supportedOperations = new ExtendedArray<>(all.size());
-
-            for (int i = all.size(); --i >= 0; ) {
-                PropertyOperationInfo<_B, _P> operation = all.get(i);
-                if (operation.supports(propertyMetadata))
-                    operations.add(operation);
-            }
-            operations = new ReadOnlyList<>(supportedOperations);
+        long version = OperationRegistry.instance().getVersion();
+        CachedList<PropertyOperationInfo<_B, _P>, Void> operations = MetadataAccess.getOperations(propertyMetadata);
+        if (operations == null || operations.getVersion() != version) {
+            operations = new CachedList<>(getOperationIndex(version).getPropertyOperations(propertyMetadata), version);
             MetadataAccess.setOperations(propertyMetadata, operations);
         }
-        return operations;
+        return operations.getList();
+    }
+
+    /**
+     * Gets the index of the operations of the {@link OperationRegistry}, builds it if the registry has changed.
+     * Concurrent callers may build the same index, the last one is kept.
+     */
+    @NonNull
+    private OperationIndex getOperationIndex(long version) {
+        OperationIndex index = this.index;
+        if (index == null || index.getVersion() != version) {
+            OperationRegistry registry = OperationRegistry.instance();
+            this.index = index = new OperationIndex(version, registry.getTypeOperations(), registry.getBeanOperations(), registry.getPropertyOperations());
+        }
+        return index;
+    }
+
+    /**
+     * Gets the no-arg constructor of the operation class, which does not need to be public.
+     * @throws IllegalArgumentException if the operation class has no no-arg constructor
+     */
+    @NonNull
+    static <_O> Constructor<_O> getConstructor(@NonNull Class<_O> operationClass) {
+        try {
+            Constructor<_O> constructor = operationClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        }
+        catch (NoSuchMethodException | SecurityException e) {
+            throw new IllegalArgumentException("Operation " + operationClass.getName() + " has no accessible no-arg constructor", e);
+        }
+    }
+
+    /**
+     * Creates a new operation with the constructor.
+     * @throws IllegalStateException if the constructor fails
+     */
+    @NonNull
+    static <_O> _O newInstance(@NonNull Constructor<_O> constructor) {
+        try {
+            return constructor.newInstance();
+        }
+        catch (InvocationTargetException e) {
+            throw new IllegalStateException("Operation " + constructor.getDeclaringClass().getName() + " can not be instantiated", e.getCause());
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Operation " + constructor.getDeclaringClass().getName() + " can not be instantiated", e);
+        }
     }
 
     private static final class MetadataAccess extends gras.presley.metadata.PackageAccess {
 
-        protected static <_B> ReadOnlyList<TypeOperationInfo<_B>> getTypeOperations(BeanType<_B> beanType) {
+        protected static <_B> CachedList<TypeOperationInfo<_B>, Void> getTypeOperations(BeanType<_B> beanType) {
             return gras.presley.metadata.PackageAccess.getTypeOperations(beanType);
         }
 
-        protected static <_B> void setTypeOperations(BeanType<_B> beanType, ReadOnlyList<TypeOperationInfo<_B>> typeOperations) {
+        protected static <_B> void setTypeOperations(BeanType<_B> beanType, CachedList<TypeOperationInfo<_B>, Void> typeOperations) {
             gras.presley.metadata.PackageAccess.setTypeOperations(beanType, typeOperations);
         }
 
-        protected static <_B> ReadOnlyList<BeanOperationInfo<_B>> getBeanOperations(BeanType<_B> beanType) {
+        protected static <_B> CachedList<BeanOperationInfo<_B>, Void> getBeanOperations(BeanType<_B> beanType) {
             return gras.presley.metadata.PackageAccess.getBeanOperations(beanType);
         }
 
-        protected static <_B> void setBeanOperations(BeanType<_B> beanType, ReadOnlyList<BeanOperationInfo<_B>> beanOperations) {
+        protected static <_B> void setBeanOperations(BeanType<_B> beanType, CachedList<BeanOperationInfo<_B>, Void> beanOperations) {
             gras.presley.metadata.PackageAccess.setBeanOperations(beanType, beanOperations);
         }
 
-        protected static <_B, _P> ReadOnlyList<PropertyOperationInfo<_B, _P>> getOperations(PlainBeanProp<_B, _P> prop) {
+        protected static <_B, _P> CachedList<PropertyOperationInfo<_B, _P>, Void> getOperations(PlainBeanProp<_B, _P> prop) {
             return gras.presley.metadata.PackageAccess.getOperations(prop);
         }
 
-        protected static <_B, _P> void setOperations(PlainBeanProp<_B, _P> prop, ReadOnlyList<PropertyOperationInfo<_B, _P>> operations) {
+        protected static <_B, _P> void setOperations(PlainBeanProp<_B, _P> prop, CachedList<PropertyOperationInfo<_B, _P>, Void> operations) {
             gras.presley.metadata.PackageAccess.setOperations(prop, operations);
         }
     }
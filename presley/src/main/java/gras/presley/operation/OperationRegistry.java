@@ -22,6 +22,16 @@ public interface OperationRegistry {
 
     <_B, _P> List<PropertyOperationInfo<_B, _P>> getPropertyOperations();
 
+    /**
+     * The version of the registered operations, which must be increased on every change of the lists.
+     * The resolved lists cached on the metadata are checked against this version on each read,
+     * and are resolved again lazily if the registry has changed.
+     * The default implementation returns 0 for the registries which never change.
+     */
+    default long getVersion() {
+        return 0;
+    }
+
     static OperationRegistry instance() {
         return ApplicationContext.getOperationRegistry();
     }
@@ -7,6 +7,9 @@
 package gras.presley.operation;
 
 import gras.presley.metadata.PlainBeanProp;
+import lombok.NonNull;
+
+import java.lang.reflect.Constructor;
 
 /**
  * @version $Revision$ $LastChangedDate$ 
@@ -15,22 +18,33 @@ import gras.presley.metadata.PlainBeanProp;
 public class PropertyOperationInfo<_B, _P> {
 
     final Class<PropertyOperation<_B, _P>> operation;
-    final PlainBeanProp<_B, _P> propertyMetadata;
+    /** the bean class of the generic definition of the operation, {@link Object} if the operation is not generic */
+    @NonNull final Class<?> target;
+    /** the no-arg constructor of the operation class */
+    @NonNull private final Constructor<PropertyOperation<_B, _P>> constructor;
 
     PropertyOperationInfo(Class<PropertyOperation<_B, _P>> operation) {
         this.operation = operation;
-        this.propertyMetadata = null; // here comes the reflective inspection of the given operation instance
+        this.target = OperationIndex.getTargetClass(operation, PropertyOperation.class);
+        this.constructor = OperationManager.getConstructor(operation);
     }
 
+    /**
+     * Checks if the operation is offered for the property, which is the case if its bean type is the target class or its subclass.
+     */
     public boolean supports(PlainBeanProp<?, ?> propertyMetadata) {
-        return true;
+        return target.isAssignableFrom(propertyMetadata.getBeanType().getTypeClass());
     }
 
     public boolean supports(_B bean) {
         return true;
     }
 
+    /**
+     * Creates a new instance of the operation for each request.
+     */
+    @NonNull
     PropertyOperation<_B, _P> createInstance(_B bean) {
-        return null; // reflective createNew
+        return OperationManager.newInstance(constructor);
     }
 }
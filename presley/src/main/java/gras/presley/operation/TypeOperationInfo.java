@@ -7,6 +7,9 @@
 package gras.presley.operation;
 
 import gras.presley.metadata.BeanType;
+import lombok.NonNull;
+
+import java.lang.reflect.Constructor;
 
 /**
  * @version $Revision$ $LastChangedDate$ 
@@ -15,18 +18,29 @@ import gras.presley.metadata.BeanType;
 public class TypeOperationInfo<_B> {
 
     final Class<TypeOperation<_B>> operation;
-    final BeanType<_B> type;
+    /** the bean class of the generic definition of the operation, {@link Object} if the operation is not generic */
+    @NonNull final Class<?> target;
+    /** the no-arg constructor of the operation class */
+    @NonNull private final Constructor<TypeOperation<_B>> constructor;
 
     TypeOperationInfo(Class<TypeOperation<_B>> operation) {
         this.operation = operation;
-        this.type = null; // here comes the reflective inspection of the given operation instance
+        this.target = OperationIndex.getTargetClass(operation, TypeOperation.class);
+        this.constructor = OperationManager.getConstructor(operation);
     }
 
+    /**
+     * Checks if the operation is offered for the bean type, which is the case if the type is the target class or its subclass.
+     */
     public boolean supports(BeanType<?> metadata) {
-        return metadata.isAssignableFrom(type);
+        return target.isAssignableFrom(metadata.getTypeClass());
     }
 
+    /**
+     * Creates a new instance of the operation for each request.
+     */
+    @NonNull
     TypeOperation<_B> createInstance() {
-        return null; // reflective createNew
+        return OperationManager.newInstance(constructor);
     }
 }
@@ -0,0 +1,420 @@
+/*
+ * BeanDecoder
+ * Create Date: 2020. 04. 01.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.serial;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.JavaType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyList;
+import gras.presley.metadata.TypeManager;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+import static gras.presley.serial.SerialFormat.*;
+
+/**
+ * Reads the beans and values written by {@link BeanEncoder}, see {@link SerialFormat}.
+ *
+ * <p> Beans are created by {@link #newBean(BeanType)}, then only the written properties are set.
+ * Lists, sets and maps are read as {@link ArrayList}, {@link LinkedHashSet} and {@link LinkedHashMap}.
+ * The property indexes are checked only by the number of the properties of each bean type,
+ * so the bean classes must be the same as the ones of the encoder.
+ *
+ * <p> Instances are not thread safe.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BeanDecoder implements Closeable {
+
+    @NonNull private final InputStream in;
+    @NonNull private final ClassLoader loader;
+    @NonNull private final byte[] buffer;
+    private int position;
+    private int limit;
+
+    /** classes by id, bean types are resolved on their first use */
+    @NonNull private final ArrayList<ClassEntry> classes = new ArrayList<>();
+    @NonNull private final ArrayList<String> strings = new ArrayList<>();
+    @NonNull private final ArrayList<Object> beans = new ArrayList<>();
+
+    public BeanDecoder(@NonNull InputStream in) throws IOException {
+        this(in, Thread.currentThread().getContextClassLoader() != null ? Thread.currentThread().getContextClassLoader() : BeanDecoder.class.getClassLoader());
+    }
+
+    /**
+     * Creates a decoder and reads the header of the stream.
+     * @param loader the class loader to load the bean and other classes of the stream with
+     * @throws StreamCorruptedException if the stream was not written by {@link BeanEncoder}
+     */
+    public BeanDecoder(@NonNull InputStream in, @NonNull ClassLoader loader) throws IOException {
+        this.in = in;
+        this.loader = loader;
+        this.buffer = new byte[8192];
+
+        int magic = readByte() << 8 | readByte();
+        if (magic != MAGIC)
+            throw new StreamCorruptedException("Invalid stream header: " + Integer.toHexString(magic));
+        int version = readByte();
+        if (version != VERSION)
+            throw new StreamCorruptedException("Unsupported stream version: " + version);
+    }
+
+    /**
+     * Decodes a single value encoded by {@link BeanEncoder#encode(Object)}.
+     */
+    public static Object decode(@NonNull byte[] bytes) throws IOException {
+        try (BeanDecoder decoder = new BeanDecoder(new ByteArrayInputStream(bytes))) {
+            return decoder.readObject();
+        }
+    }
+
+    /**
+     * Reads the next value written by {@link BeanEncoder#writeObject(Object)}.
+     */
+    public Object readObject() throws IOException {
+        int tag = readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_INT:
+                return readVarInt();
+            case TAG_LONG:
+                return readVarLong();
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(readFixedLong());
+            case TAG_FLOAT:
+                return Float.intBitsToFloat(readVarInt());
+            case TAG_SHORT:
+                return (short) readVarInt();
+            case TAG_BYTE:
+                return (byte) readByte();
+            case TAG_CHAR:
+                return (char) readVarInt();
+            case TAG_STRING:
+                return readString();
+            case TAG_BYTES:
+                byte[] bytes = new byte[readLength()];
+                readBytes(bytes, bytes.length);
+                return bytes;
+            case TAG_ENUM:
+                return readEnum();
+            case TAG_LIST:
+                return readCollection(new ArrayList<>());
+            case TAG_SET:
+                return readCollection(new LinkedHashSet<>());
+            case TAG_MAP:
+                return readMap();
+            case TAG_BEAN:
+                return readBean();
+            case TAG_BEAN_REF:
+                int id = readVarInt();
+                if (id < 0 || id >= beans.size())
+                    throw new StreamCorruptedException("Invalid bean reference: " + id);
+                return beans.get(id);
+            case TAG_JAVA:
+                return readOther();
+            default:
+                throw new StreamCorruptedException("Invalid tag: " + tag);
+        }
+    }
+
+    /**
+     * Creates the bean to read the properties into. This is a customization point.
+     * <p> The default implementation calls {@link BeanType#newInstance()}.
+     */
+    @NonNull
+    protected <_B> _B newBean(@NonNull BeanType<_B> type) {
+        return type.newInstance();
+    }
+
+    /**
+     * Loads a class of the stream. This is a customization point.
+     * <p> The default implementation loads the class with the class loader of this decoder.
+     */
+    @NonNull
+    protected Class<?> resolveClass(@NonNull String className) throws IOException {
+        try {
+            return Class.forName(className, false, loader);
+        }
+        catch (ClassNotFoundException e) {
+            throw (IOException) new InvalidClassException(className, "Class not found").initCause(e);
+        }
+    }
+
+    /**
+     * Reads a value written by {@link BeanEncoder#writeOther(Object)}. This is a customization point.
+     * <p> The default implementation reads the value with java serialization.
+     */
+    protected Object readOther() throws IOException {
+        byte[] bytes = new byte[readLength()];
+        readBytes(bytes, bytes.length);
+
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes)) {
+                @Override
+                protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+                    try {
+                        return Class.forName(desc.getName(), false, loader);
+                    }
+                    catch (ClassNotFoundException e) {
+                        return super.resolveClass(desc);
+                    }
+                }
+            }) {
+            return ois.readObject();
+        }
+        catch (ClassNotFoundException e) {
+            throw (IOException) new InvalidClassException(e.getMessage(), "Class not found").initCause(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    private Object readBean() throws IOException {
+        ClassEntry entry = readClass();
+        if (entry.properties == null) {
+            JavaType<?> type = TypeManager.forClass(entry.clazz);
+            if (!(type instanceof BeanType))
+                throw new InvalidClassException(entry.clazz.getName(), "Not a bean class");
+            entry.initBean((BeanType<Object>) type);
+        }
+        if (entry.isNew) {
+            int count = readLength();
+            if (count != entry.properties.length)
+                throw new InvalidClassException(entry.clazz.getName(), "Bean class has " + entry.properties.length + " properties instead of " + count);
+            entry.isNew = false;
+        }
+
+        Object bean = newBean(entry.type);
+        beans.add(bean);
+
+        PlainBeanProp<Object, Object>[] properties = entry.properties;
+        byte[] kinds = entry.kinds;
+        for (int index = readVarInt() - 1; index >= 0; index = readVarInt() - 1) {
+            if (index >= properties.length)
+                throw new StreamCorruptedException("Invalid property index of " + entry.clazz.getName() + ": " + index);
+
+            PlainBeanProp<Object, Object> prop = properties[index];
+            switch (kinds[index]) {
+                case KIND_INT:
+                    prop.setInt(bean, readVarInt());
+                    break;
+                case KIND_LONG:
+                    prop.setLong(bean, readVarLong());
+                    break;
+                case KIND_DOUBLE:
+                    prop.setDouble(bean, Double.longBitsToDouble(readFixedLong()));
+                    break;
+                case KIND_BOOLEAN:
+                    prop.setBoolean(bean, readByte() != 0);
+                    break;
+                default:
+                    prop.setValue(bean, readObject());
+            }
+        }
+        return bean;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @NonNull
+    private Enum<?> readEnum() throws IOException {
+        ClassEntry entry = readClass();
+        entry.isNew = false;
+        String name = readString();
+        try {
+            return Enum.valueOf((Class) entry.clazz, name);
+        }
+        catch (IllegalArgumentException e) {
+            throw (IOException) new InvalidObjectException("Enum constant not found " + entry.clazz.getName() + '.' + name).initCause(e);
+        }
+    }
+
+    @NonNull
+    private Collection<Object> readCollection(@NonNull Collection<Object> values) throws IOException {
+        for (int i = readLength(); i > 0; i--)
+            values.add(readObject());
+        return values;
+    }
+
+    @NonNull
+    private LinkedHashMap<Object, Object> readMap() throws IOException {
+        int size = readLength();
+        LinkedHashMap<Object, Object> map = new LinkedHashMap<>(Math.min(size, 1 << 16) * 4 / 3 + 1);
+        for (int i = 0; i < size; i++)
+            map.put(readObject(), readObject());
+        return map;
+    }
+
+    @NonNull
+    private ClassEntry readClass() throws IOException {
+        int id = readVarInt();
+        if (id >= 0 && id < classes.size())
+            return classes.get(id);
+        if (id != classes.size())
+            throw new StreamCorruptedException("Invalid class reference: " + id);
+
+        ClassEntry entry = new ClassEntry(resolveClass(readString()));
+        classes.add(entry);
+        return entry;
+    }
+
+    @NonNull
+    private String readString() throws IOException {
+        int header = readUnsignedVarInt();
+        if ((header & 1) != 0) {
+            int id = header >>> 1;
+            if (id >= strings.size())
+                throw new StreamCorruptedException("Invalid string reference: " + id);
+            return strings.get(id);
+        }
+
+        int length = header >>> 1;
+        String value;
+        if (length <= buffer.length) {
+            ensure(length);
+            value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+        }
+        else {
+            byte[] bytes = new byte[length];
+            readBytes(bytes, length);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        strings.add(value);
+        return value;
+    }
+
+    private int readLength() throws IOException {
+        int length = readVarInt();
+        if (length < 0)
+            throw new StreamCorruptedException("Invalid length: " + length);
+        return length;
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit)
+            ensure(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Reads a zig-zag encoded varint.
+     */
+    private int readVarInt() throws IOException {
+        int value = readUnsignedVarInt();
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private int readUnsignedVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    /**
+     * Reads a zig-zag encoded varlong.
+     */
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value >>> 1 ^ -(value & 1);
+        }
+        throw new StreamCorruptedException("Malformed varlong");
+    }
+
+    private long readFixedLong() throws IOException {
+        ensure(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++)
+            value = value << 8 | buffer[position++] & 0xFF;
+        return value;
+    }
+
+    private void readBytes(@NonNull byte[] bytes, int length) throws IOException {
+        int offset = Math.min(length, limit - position);
+        System.arraycopy(buffer, position, bytes, 0, offset);
+        position += offset;
+
+        while (offset < length) {
+            int count = in.read(bytes, offset, length - offset);
+            if (count < 0)
+                throw new EOFException();
+            offset += count;
+        }
+    }
+
+    /**
+     * Makes sure that at least the given number of bytes are available in the buffer.
+     */
+    private void ensure(int count) throws IOException {
+        if (limit - position >= count)
+            return;
+
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        while (limit < count) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0)
+                throw new EOFException();
+            limit += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * A class of the stream, with the metadata of the bean classes.
+     */
+    private static final class ClassEntry {
+
+        @NonNull final Class<?> clazz;
+        /** true until the first bean or enum of this class is read */
+        boolean isNew = true;
+
+        BeanType<Object> type;
+        PlainBeanProp<Object, Object>[] properties;
+        byte[] kinds;
+
+        ClassEntry(@NonNull Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        void initBean(@NonNull BeanType<Object> type) {
+            this.type = type;
+
+            PropertyList<PlainBeanProp<Object, ?>> props = type.getProperties();
+            @SuppressWarnings("unchecked")
+            PlainBeanProp<Object, Object>[] properties = (PlainBeanProp<Object, Object>[]) props.toArray(new PlainBeanProp<?, ?>[props.size()]);
+            this.properties = properties;
+            kinds = new byte[properties.length];
+            for (int i = 0; i < properties.length; i++)
+                kinds[i] = getKind(properties[i]);
+        }
+    }
+}
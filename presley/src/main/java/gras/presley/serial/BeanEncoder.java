@@ -0,0 +1,423 @@
+/*
+ * BeanEncoder
+ * Create Date: 2020. 04. 01.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.serial;
+
+import gras.presley.metadata.BeanClass;
+import gras.presley.metadata.BeanDiff;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.JavaType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyList;
+import gras.presley.metadata.TypeManager;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static gras.presley.serial.SerialFormat.*;
+
+/**
+ * Writes beans and their values into a compact binary stream, see {@link SerialFormat}, which can be read by {@link BeanDecoder}.
+ *
+ * <p> Beans are written by their {@link BeanType} metadata instead of java serialization: the writable properties
+ * are written tagged with their property index. The properties having the values of a newly created bean can be skipped,
+ * see {@link #isSkippingDefaults(BeanType)}. Beans written
+ * more than once, e.g. the team shared by the players, are written once and referenced later, so cycles are supported too.
+ * Strings and class names are written once per stream as well. Collections are written by value.
+ * Values which are neither beans nor basic values are written with java serialization, see {@link #writeOther(Object)}.
+ *
+ * <p> Instances are not thread safe, and the references are kept until the encoder is closed,
+ * so an encoder should be used for a single message or snapshot.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BeanEncoder implements Closeable, Flushable {
+
+    @NonNull private final OutputStream out;
+    @NonNull private final byte[] buffer;
+    private int position;
+
+    /** ids of the classes written so far */
+    @NonNull private final IdentityHashMap<Class<?>, Integer> classIds = new IdentityHashMap<>();
+    /** bean metadata by class, {@link #NOT_BEAN} if the class is not handled as a bean */
+    @NonNull private final IdentityHashMap<Class<?>, Object> beanEntries = new IdentityHashMap<>();
+    /** ids of the strings written so far */
+    @NonNull private final HashMap<String, Integer> stringIds = new HashMap<>();
+    /** ids of the beans written so far */
+    @NonNull private final IdentityHashMap<Object, Integer> beanIds = new IdentityHashMap<>();
+
+    private static final Object NOT_BEAN = new Object();
+
+    public BeanEncoder(@NonNull OutputStream out) {
+        this(out, 8192);
+    }
+
+    public BeanEncoder(@NonNull OutputStream out, int bufferSize) {
+        if (bufferSize < 16)
+            throw new IllegalArgumentException("Buffer size is too small: " + bufferSize);
+
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+
+        buffer[position++] = (byte) (MAGIC >>> 8);
+        buffer[position++] = (byte) MAGIC;
+        buffer[position++] = VERSION;
+    }
+
+    /**
+     * Encodes a single value into a new byte array.
+     */
+    @NonNull
+    public static byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (BeanEncoder encoder = new BeanEncoder(out, 1024)) {
+            encoder.writeObject(value);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes a bean, a basic value or a collection of them.
+     */
+    public void writeObject(Object value) throws IOException {
+        if (value == null) {
+            writeByte(TAG_NULL);
+            return;
+        }
+
+        Class<?> clazz = value.getClass();
+        if (clazz == String.class) {
+            writeByte(TAG_STRING);
+            writeString((String) value);
+        }
+        else if (clazz == Integer.class) {
+            writeByte(TAG_INT);
+            writeVarInt((Integer) value);
+        }
+        else if (clazz == Long.class) {
+            writeByte(TAG_LONG);
+            writeVarLong((Long) value);
+        }
+        else if (clazz == Boolean.class)
+            writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        else if (clazz == Double.class) {
+            writeByte(TAG_DOUBLE);
+            writeFixedLong(Double.doubleToLongBits((Double) value));
+        }
+        else if (clazz == Float.class) {
+            writeByte(TAG_FLOAT);
+            writeVarInt(Float.floatToIntBits((Float) value));
+        }
+        else if (clazz == Short.class) {
+            writeByte(TAG_SHORT);
+            writeVarInt((Short) value);
+        }
+        else if (clazz == Byte.class) {
+            writeByte(TAG_BYTE);
+            writeByte((Byte) value);
+        }
+        else if (clazz == Character.class) {
+            writeByte(TAG_CHAR);
+            writeVarInt((Character) value);
+        }
+        else if (clazz == byte[].class) {
+            byte[] bytes = (byte[]) value;
+            writeByte(TAG_BYTES);
+            writeVarInt(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+        else if (value instanceof Enum) {
+            writeByte(TAG_ENUM);
+            writeClass(((Enum<?>) value).getDeclaringClass());
+            writeString(((Enum<?>) value).name());
+        }
+        else if (value instanceof List)
+            writeCollection(TAG_LIST, (List<?>) value);
+        else if (value instanceof Set)
+            writeCollection(TAG_SET, (Set<?>) value);
+        else if (value instanceof Map)
+            writeMap((Map<?, ?>) value);
+        else {
+            Object entry = getBeanEntry(clazz);
+            if (entry != NOT_BEAN)
+                writeBean(value, (BeanEntry) entry);
+            else
+                writeOther(value);
+        }
+    }
+
+    /**
+     * Writes a value which is neither a bean nor a basic value. This is a customization point.
+     * <p> The default implementation writes the value with java serialization.
+     * @throws NotSerializableException if the value is not serializable
+     */
+    protected void writeOther(@NonNull Object value) throws IOException {
+        if (!(value instanceof Serializable))
+            throw new NotSerializableException(value.getClass().getName());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(value);
+        }
+
+        writeByte(TAG_JAVA);
+        writeVarInt(bytes.size());
+        writeBytes(bytes.toByteArray(), 0, bytes.size());
+    }
+
+    /**
+     * Checks if the instances of the given type are written as beans. This is a customization point.
+     * <p> The default implementation accepts the {@link BeanClass} annotated types and the ones having properties,
+     * other classes, e.g. {@link java.math.BigDecimal}, are written by {@link #writeOther(Object)}.
+     */
+    protected boolean isBeanType(@NonNull BeanType<?> type) {
+        return type.getAnnotation(BeanClass.class) != null || !type.getProperties().isEmpty();
+    }
+
+    /**
+     * Checks if the properties having the same value as in a newly created bean are skipped. This is a customization point.
+     * <p> The skipped properties get the values set by the constructor of the bean on the decoder side.
+     * It is correct only if the constructor sets the same values there, not time, user or sequence based ones.
+     * Skipping creates a bean with the no-arg constructor on the encoder side too.
+     * <p> The default implementation returns false, so all the writable properties are written.
+     */
+    protected boolean isSkippingDefaults(@NonNull BeanType<?> type) {
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    @NonNull
+    private Object getBeanEntry(@NonNull Class<?> clazz) {
+        Object entry = beanEntries.get(clazz);
+        if (entry == null) {
+            JavaType<?> type = TypeManager.forClass(clazz);
+            entry = type instanceof BeanType && isBeanType((BeanType<?>) type) ?
+                    new BeanEntry((BeanType<Object>) type, isSkippingDefaults((BeanType<?>) type)) :
+                    NOT_BEAN;
+            beanEntries.put(clazz, entry);
+        }
+        return entry;
+    }
+
+    private void writeBean(@NonNull Object bean, @NonNull BeanEntry entry) throws IOException {
+        Integer id = beanIds.get(bean);
+        if (id != null) {
+            writeByte(TAG_BEAN_REF);
+            writeVarInt(id);
+            return;
+        }
+        beanIds.put(bean, beanIds.size());
+
+        writeByte(TAG_BEAN);
+        if (writeClass(entry.type.getTypeClass()))
+            writeVarInt(entry.properties.length);
+
+        PlainBeanProp<Object, Object>[] properties = entry.properties;
+        byte[] kinds = entry.kinds;
+        for (int i = 0, n = properties.length; i < n; i++) {
+            if (!entry.writable[i] || entry.prototype != null && entry.diff.isEqual(entry.prototype, bean, i))
+                continue;
+
+            PlainBeanProp<Object, Object> prop = properties[i];
+            writeVarInt(i + 1);
+            switch (kinds[i]) {
+                case KIND_INT:
+                    writeVarInt(prop.getInt(bean));
+                    break;
+                case KIND_LONG:
+                    writeVarLong(prop.getLong(bean));
+                    break;
+                case KIND_DOUBLE:
+                    writeFixedLong(Double.doubleToLongBits(prop.getDouble(bean)));
+                    break;
+                case KIND_BOOLEAN:
+                    writeByte(prop.getBoolean(bean) ? 1 : 0);
+                    break;
+                default:
+                    writeObject(prop.getValue(bean));
+            }
+        }
+        writeVarInt(0);
+    }
+
+    private void writeCollection(int tag, @NonNull Collection<?> values) throws IOException {
+        writeByte(tag);
+        writeVarInt(values.size());
+        for (Object value : values)
+            writeObject(value);
+    }
+
+    private void writeMap(@NonNull Map<?, ?> map) throws IOException {
+        writeByte(TAG_MAP);
+        writeVarInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeObject(entry.getKey());
+            writeObject(entry.getValue());
+        }
+    }
+
+    /**
+     * Writes the class id, followed by the class name if it is the first occurrence.
+     * @return true if the class is written the first time
+     */
+    private boolean writeClass(@NonNull Class<?> clazz) throws IOException {
+        Integer id = classIds.get(clazz);
+        if (id != null) {
+            writeVarInt(id);
+            return false;
+        }
+
+        id = classIds.size();
+        classIds.put(clazz, id);
+        writeVarInt(id);
+        writeString(clazz.getName());
+        return true;
+    }
+
+    /**
+     * Writes the string id shifted left with the lowest bit set if the string was written already,
+     * or its UTF-8 length shifted left followed by the bytes.
+     */
+    private void writeString(@NonNull String value) throws IOException {
+        Integer id = stringIds.get(value);
+        if (id != null) {
+            writeUnsignedVarInt(id << 1 | 1);
+            return;
+        }
+        stringIds.put(value, stringIds.size());
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedVarInt(bytes.length << 1);
+        writeBytes(bytes, 0, bytes.length);
+    }
+
+    private void writeByte(int value) throws IOException {
+        if (position == buffer.length)
+            flushBuffer();
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Writes a zig-zag encoded varint.
+     */
+    private void writeVarInt(int value) throws IOException {
+        writeUnsignedVarInt(value << 1 ^ value >> 31);
+    }
+
+    private void writeUnsignedVarInt(int value) throws IOException {
+        if (buffer.length - position < 5)
+            flushBuffer();
+
+        byte[] buffer = this.buffer;
+        int position = this.position;
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        this.position = position;
+    }
+
+    /**
+     * Writes a zig-zag encoded varlong.
+     */
+    private void writeVarLong(long value) throws IOException {
+        if (buffer.length - position < 10)
+            flushBuffer();
+
+        value = value << 1 ^ value >> 63;
+        byte[] buffer = this.buffer;
+        int position = this.position;
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        this.position = position;
+    }
+
+    private void writeFixedLong(long value) throws IOException {
+        if (buffer.length - position < 8)
+            flushBuffer();
+
+        for (int shift = 56; shift >= 0; shift -= 8)
+            buffer[position++] = (byte) (value >>> shift);
+    }
+
+    private void writeBytes(@NonNull byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            flushBuffer();
+            if (length > buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Metadata of a bean class needed to write its instances.
+     */
+    private static final class BeanEntry {
+
+        @NonNull final BeanType<Object> type;
+        @NonNull final PlainBeanProp<Object, Object>[] properties;
+        @NonNull final byte[] kinds;
+        @NonNull final boolean[] writable;
+        @NonNull final BeanDiff<Object> diff;
+        /** a newly created bean, the properties having the same values are not written, {@code null} if no property is skipped */
+        final Object prototype;
+
+        BeanEntry(@NonNull BeanType<Object> type, boolean skipDefaults) {
+            this.type = type;
+
+            PropertyList<PlainBeanProp<Object, ?>> props = type.getProperties();
+            @SuppressWarnings("unchecked")
+            PlainBeanProp<Object, Object>[] properties = (PlainBeanProp<Object, Object>[]) props.toArray(new PlainBeanProp<?, ?>[props.size()]);
+            this.properties = properties;
+            kinds = new byte[properties.length];
+            writable = new boolean[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                kinds[i] = getKind(properties[i]);
+                writable[i] = !properties[i].isReadOnly();
+            }
+            diff = type.getDiff();
+            prototype = skipDefaults ? type.newInstance() : null;
+        }
+    }
+}
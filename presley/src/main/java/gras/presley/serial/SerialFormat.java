@@ -0,0 +1,74 @@
+/*
+ * SerialFormat
+ * Create Date: 2020. 04. 01.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.serial;
+
+import gras.presley.metadata.PlainBeanProp;
+import lombok.NonNull;
+
+/**
+ * Constants of the binary bean format written by {@link BeanEncoder} and read by {@link BeanDecoder}.
+ *
+ * <p> The stream starts with the {@link #MAGIC} bytes and the {@link #VERSION}, followed by the values. Each value
+ * starts with a tag byte. Beans are written as a class reference and the property values tagged with their index plus one,
+ * terminated by a zero. Classes, strings and beans are numbered in the order of their first occurrence,
+ * and referenced by this number later in the stream. Integers are written as zig-zag varints.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+final class SerialFormat {
+
+    static final int MAGIC = 0x5053; // "PS"
+    static final int VERSION = 1;
+
+    static final int TAG_NULL = 0;
+    static final int TAG_TRUE = 1;
+    static final int TAG_FALSE = 2;
+    static final int TAG_INT = 3;
+    static final int TAG_LONG = 4;
+    static final int TAG_DOUBLE = 5;
+    static final int TAG_FLOAT = 6;
+    static final int TAG_SHORT = 7;
+    static final int TAG_BYTE = 8;
+    static final int TAG_CHAR = 9;
+    static final int TAG_STRING = 10;
+    static final int TAG_BYTES = 11;
+    static final int TAG_ENUM = 12;
+    static final int TAG_LIST = 13;
+    static final int TAG_SET = 14;
+    static final int TAG_MAP = 15;
+    static final int TAG_BEAN = 16;
+    static final int TAG_BEAN_REF = 17;
+    /** fallback to java serialization */
+    static final int TAG_JAVA = 18;
+
+    /** property value kinds, primitives are written without tags */
+    static final byte KIND_OBJECT = 0;
+    static final byte KIND_INT = 1;
+    static final byte KIND_LONG = 2;
+    static final byte KIND_DOUBLE = 3;
+    static final byte KIND_BOOLEAN = 4;
+
+    private SerialFormat() {
+    }
+
+    /**
+     * Returns the kind of the property value.
+     */
+    static byte getKind(@NonNull PlainBeanProp<?, ?> prop) {
+        Class<?> valueClass = prop.getValueType().getTypeClass();
+        if (valueClass == int.class)
+            return KIND_INT;
+        if (valueClass == long.class)
+            return KIND_LONG;
+        if (valueClass == double.class)
+            return KIND_DOUBLE;
+        if (valueClass == boolean.class)
+            return KIND_BOOLEAN;
+        return KIND_OBJECT;
+    }
+}
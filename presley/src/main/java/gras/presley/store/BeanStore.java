@@ -0,0 +1,174 @@
+/*
+ * BeanStore
+ * Create Date: 2020. 04. 03.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.store;
+
+import gras.presley.metadata.BeanType;
+import lombok.NonNull;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Stores the property values of many beans of a {@link BeanType} without keeping the bean instances.
+ * The values are addressed by the row of the bean, in the order of addition, and the index of the property.
+ *
+ * <p> The primitive accessors must be used with the properties of the matching value type,
+ * they throw {@link IllegalArgumentException} otherwise.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ * @see ColumnarBeanStore
+ * @see OffHeapBeanStore
+ */
+public interface BeanStore<_B> {
+
+    @NonNull
+    BeanType<_B> getBeanType();
+
+    /**
+     * Number of the stored beans.
+     */
+    int size();
+
+    /**
+     * Appends the property values of the bean.
+     * @return the row of the bean
+     */
+    int add(@NonNull _B bean);
+
+    /**
+     * Appends the property values of the beans.
+     * @return the row of the first bean
+     */
+    default int addAll(@NonNull Collection<? extends _B> beans) {
+        int first = size();
+        for (_B bean : beans)
+            add(bean);
+        return first;
+    }
+
+    /**
+     * Overwrites the property values of the given row with the ones of the bean.
+     */
+    void set(int row, @NonNull _B bean);
+
+    /**
+     * Creates a new bean with the property values of the given row.
+     */
+    @NonNull
+    default _B get(int row) {
+        _B bean = getBeanType().newInstance();
+        read(row, bean);
+        return bean;
+    }
+
+    /**
+     * Writes the property values of the given row into the bean, except the read only ones.
+     */
+    void read(int row, @NonNull _B bean);
+
+    /**
+     * Removes all rows.
+     */
+    void clear();
+
+    int getInt(int row, int property);
+
+    void setInt(int row, int property, int value);
+
+    long getLong(int row, int property);
+
+    void setLong(int row, int property, long value);
+
+    double getDouble(int row, int property);
+
+    void setDouble(int row, int property, double value);
+
+    boolean getBoolean(int row, int property);
+
+    void setBoolean(int row, int property, boolean value);
+
+    /**
+     * Gets the value of any property, the primitive values are boxed.
+     */
+    Object getValue(int row, int property);
+
+    /**
+     * Sets the value of any property, the primitive values are unboxed.
+     * @throws IllegalArgumentException if the value of a primitive property is {@code null}
+     */
+    void setValue(int row, int property, Object value);
+
+    /**
+     * Scans an {@code int} property.
+     * @return the none null set of the matching rows
+     */
+    @NonNull
+    default BitSet selectInt(int property, @NonNull IntPredicate predicate) {
+        BitSet rows = new BitSet(size());
+        for (int row = 0, n = size(); row < n; row++)
+            if (predicate.test(getInt(row, property)))
+                rows.set(row);
+        return rows;
+    }
+
+    /**
+     * Scans a {@code long} property.
+     * @return the none null set of the matching rows
+     */
+    @NonNull
+    default BitSet selectLong(int property, @NonNull LongPredicate predicate) {
+        BitSet rows = new BitSet(size());
+        for (int row = 0, n = size(); row < n; row++)
+            if (predicate.test(getLong(row, property)))
+                rows.set(row);
+        return rows;
+    }
+
+    /**
+     * Scans a {@code double} property.
+     * @return the none null set of the matching rows
+     */
+    @NonNull
+    default BitSet selectDouble(int property, @NonNull DoublePredicate predicate) {
+        BitSet rows = new BitSet(size());
+        for (int row = 0, n = size(); row < n; row++)
+            if (predicate.test(getDouble(row, property)))
+                rows.set(row);
+        return rows;
+    }
+
+    /**
+     * Scans a {@code boolean} property.
+     * @return the none null set of the rows having the given value
+     */
+    @NonNull
+    default BitSet selectBoolean(int property, boolean value) {
+        BitSet rows = new BitSet(size());
+        for (int row = 0, n = size(); row < n; row++)
+            if (getBoolean(row, property) == value)
+                rows.set(row);
+        return rows;
+    }
+
+    /**
+     * Scans any property, the primitive values are boxed.
+     * @return the none null set of the matching rows
+     */
+    @NonNull
+    default BitSet selectValue(int property, @NonNull Predicate<Object> predicate) {
+        BitSet rows = new BitSet(size());
+        for (int row = 0, n = size(); row < n; row++)
+            if (predicate.test(getValue(row, property)))
+                rows.set(row);
+        return rows;
+    }
+}
@@ -0,0 +1,666 @@
+/*
+ * ColumnarBeanStore
+ * Create Date: 2020. 04. 03.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.store;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyList;
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Stores the property values of many beans of a {@link BeanType} in columns instead of bean instances,
+ * e.g. the weights of the persons in an {@code int[]} and the players flags in a {@code boolean[]}.
+ *
+ * <p> Each property gets a column by its index: {@code int}, {@code long}, {@code double} and {@code boolean}
+ * properties are stored in primitive arrays, others in an {@code Object[]}. So there are no object headers
+ * and boxed values per bean, and the scans of a property read a single array. The beans are addressed by their row number
+ * in the order of addition. Read only properties are stored, but they are not written back into the beans.
+ * Properties of the bean subclasses are not stored.
+ *
+ * <p> Instances are not thread safe.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class ColumnarBeanStore<_B> implements BeanStore<_B> {
+
+    @NonNull private final BeanType<_B> beanType;
+    @NonNull private final PlainBeanProp<_B, Object>[] properties;
+    @NonNull private final Column[] columns;
+    private int size;
+    private int capacity;
+
+    public ColumnarBeanStore(@NonNull BeanType<_B> beanType) {
+        this(beanType, 16);
+    }
+
+    public ColumnarBeanStore(@NonNull BeanType<_B> beanType, int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Negative capacity: " + initialCapacity);
+
+        this.beanType = beanType;
+        this.capacity = initialCapacity;
+
+        PropertyList<PlainBeanProp<_B, ?>> props = beanType.getProperties();
+        @SuppressWarnings("unchecked")
+        PlainBeanProp<_B, Object>[] properties = (PlainBeanProp<_B, Object>[]) props.toArray(new PlainBeanProp<?, ?>[props.size()]);
+        this.properties = properties;
+        columns = new Column[properties.length];
+        for (int i = 0; i < properties.length; i++)
+            columns[i] = createColumn(properties[i], initialCapacity);
+    }
+
+    @NonNull
+    private static Column createColumn(@NonNull PlainBeanProp<?, ?> prop, int capacity) {
+        Class<?> valueClass = prop.getValueType().getTypeClass();
+        if (valueClass == int.class)
+            return new IntColumn(capacity);
+        if (valueClass == long.class)
+            return new LongColumn(capacity);
+        if (valueClass == double.class)
+            return new DoubleColumn(capacity);
+        if (valueClass == boolean.class)
+            return new BooleanColumn(capacity);
+        return new ObjectColumn(capacity);
+    }
+
+    @Override
+    @NonNull
+    public final BeanType<_B> getBeanType() {
+        return beanType;
+    }
+
+    /**
+     * Number of the stored beans.
+     */
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Appends the property values of the bean.
+     * @return the row of the bean
+     */
+    @Override
+    public int add(@NonNull _B bean) {
+        if (size == capacity)
+            grow(size + 1);
+
+        int row = size++;
+        load(row, bean);
+        return row;
+    }
+
+    /**
+     * Appends the property values of the beans, column by column.
+     * @return the row of the first bean
+     */
+    @Override
+    public int addAll(@NonNull Collection<? extends _B> beans) {
+        int first = size;
+        if (first + beans.size() > capacity)
+            grow(first + beans.size());
+
+        Object[] array = beans.toArray();
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            PlainBeanProp<_B, Object> prop = properties[i];
+            for (int j = 0; j < array.length; j++) {
+                @SuppressWarnings("unchecked")
+                _B bean = (_B) array[j];
+                column.load(first + j, bean, prop);
+            }
+        }
+        size = first + array.length;
+        return first;
+    }
+
+    /**
+     * Overwrites the property values of the given row with the ones of the bean.
+     */
+    @Override
+    public void set(int row, @NonNull _B bean) {
+        checkRow(row);
+        load(row, bean);
+    }
+
+    private void load(int row, @NonNull _B bean) {
+        for (int i = 0; i < columns.length; i++)
+            columns[i].load(row, bean, properties[i]);
+    }
+
+    /**
+     * Writes the property values of the given row into the bean, except the read only ones.
+     */
+    @Override
+    public void read(int row, @NonNull _B bean) {
+        checkRow(row);
+        for (int i = 0; i < columns.length; i++)
+            if (!properties[i].isReadOnly())
+                columns[i].store(row, bean, properties[i]);
+    }
+
+    /**
+     * Removes all rows and releases the references of the object columns.
+     */
+    @Override
+    public void clear() {
+        for (Column column : columns)
+            column.clear(size);
+        size = 0;
+    }
+
+    /**
+     * Shrinks the columns to the number of the rows.
+     */
+    public void trimToSize() {
+        if (capacity > size)
+            resize(size);
+    }
+
+    private void grow(int minCapacity) {
+        int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1) + 1);
+        if (newCapacity < 0)
+            throw new OutOfMemoryError("Too many rows");
+        resize(newCapacity);
+    }
+
+    private void resize(int newCapacity) {
+        for (Column column : columns)
+            column.resize(newCapacity);
+        capacity = newCapacity;
+    }
+
+    /**
+     * Gets a view of the given row. The view reads the current values of the store.
+     */
+    @NonNull
+    public Row row(int row) {
+        checkRow(row);
+        Row view = new Row();
+        view.row = row;
+        return view;
+    }
+
+    /**
+     * Calls the consumer with the views of all rows. The same view instance is moved from row to row,
+     * so it must not be kept by the consumer.
+     */
+    public void forEachRow(@NonNull Consumer<? super Row> consumer) {
+        Row view = new Row();
+        for (int row = 0; row < size; row++) {
+            view.row = row;
+            consumer.accept(view);
+        }
+    }
+
+    @Override
+    public int getInt(int row, int property) {
+        checkRow(row);
+        return intColumn(property).values[row];
+    }
+
+    @Override
+    public void setInt(int row, int property, int value) {
+        checkRow(row);
+        intColumn(property).values[row] = value;
+    }
+
+    @Override
+    public long getLong(int row, int property) {
+        checkRow(row);
+        return longColumn(property).values[row];
+    }
+
+    @Override
+    public void setLong(int row, int property, long value) {
+        checkRow(row);
+        longColumn(property).values[row] = value;
+    }
+
+    @Override
+    public double getDouble(int row, int property) {
+        checkRow(row);
+        return doubleColumn(property).values[row];
+    }
+
+    @Override
+    public void setDouble(int row, int property, double value) {
+        checkRow(row);
+        doubleColumn(property).values[row] = value;
+    }
+
+    @Override
+    public boolean getBoolean(int row, int property) {
+        checkRow(row);
+        return booleanColumn(property).values[row];
+    }
+
+    @Override
+    public void setBoolean(int row, int property, boolean value) {
+        checkRow(row);
+        booleanColumn(property).values[row] = value;
+    }
+
+    /**
+     * Gets the value of any property, the primitive values are boxed.
+     */
+    @Override
+    public Object getValue(int row, int property) {
+        checkRow(row);
+        return columns[property].getValue(row);
+    }
+
+    /**
+     * Sets the value of any property, the primitive values are unboxed.
+     * @throws IllegalArgumentException if the value of a primitive property is {@code null}
+     */
+    @Override
+    public void setValue(int row, int property, Object value) {
+        checkRow(row);
+        Column column = columns[property];
+        if (value == null && !(column instanceof ObjectColumn))
+            throw new IllegalArgumentException("Property " + properties[property] + " is primitive, it can not be null");
+        column.setValue(row, value);
+    }
+
+    /**
+     * Returns the values of an {@code int} property in row order.
+     */
+    @NonNull
+    public IntStream ints(int property) {
+        return Arrays.stream(intColumn(property).values, 0, size);
+    }
+
+    /**
+     * Returns the values of a {@code long} property in row order.
+     */
+    @NonNull
+    public LongStream longs(int property) {
+        return Arrays.stream(longColumn(property).values, 0, size);
+    }
+
+    /**
+     * Returns the values of a {@code double} property in row order.
+     */
+    @NonNull
+    public DoubleStream doubles(int property) {
+        return Arrays.stream(doubleColumn(property).values, 0, size);
+    }
+
+    /**
+     * Scans an {@code int} property.
+     * @return the none null set of the matching rows
+     */
+    @Override
+    @NonNull
+    public BitSet selectInt(int property, @NonNull IntPredicate predicate) {
+        int[] values = intColumn(property).values;
+        BitSet rows = new BitSet(size);
+        for (int row = 0, n = size; row < n; row++)
+            if (predicate.test(values[row]))
+                rows.set(row);
+        return rows;
+    }
+
+    /**
+     * Scans a {@code long} property.
+     * @return the none null set of the matching rows
+     */
+    @Override
+    @NonNull
+    public BitSet selectLong(int property, @NonNull LongPredicate predicate) {
+        long[] values = longColumn(property).values;
+        BitSet rows = new BitSet(size);
+        for (int row = 0, n = size; row < n; row++)
+            if (predicate.test(values[row]))
+                rows.set(row);
+        return rows;
+    }
+
+    /**
+     * Scans a {@code double} property.
+     * @return the none null set of the matching rows
+     */
+    @Override
+    @NonNull
+    public BitSet selectDouble(int property, @NonNull DoublePredicate predicate) {
+        double[] values = doubleColumn(property).values;
+        BitSet rows = new BitSet(size);
+        for (int row = 0, n = size; row < n; row++)
+            if (predicate.test(values[row]))
+                rows.set(row);
+        return rows;
+    }
+
+    /**
+     * Scans a {@code boolean} property.
+     * @return the none null set of the rows having the given value
+     */
+    @Override
+    @NonNull
+    public BitSet selectBoolean(int property, boolean value) {
+        boolean[] values = booleanColumn(property).values;
+        BitSet rows = new BitSet(size);
+        for (int row = 0, n = size; row < n; row++)
+            if (values[row] == value)
+                rows.set(row);
+        return rows;
+    }
+
+    /**
+     * Scans any property, the primitive values are boxed.
+     * @return the none null set of the matching rows
+     */
+    @Override
+    @NonNull
+    public BitSet selectValue(int property, @NonNull Predicate<Object> predicate) {
+        Column column = columns[property];
+        BitSet rows = new BitSet(size);
+        for (int row = 0, n = size; row < n; row++)
+            if (predicate.test(column.getValue(row)))
+                rows.set(row);
+        return rows;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size)
+            throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+    }
+
+    @NonNull
+    private IntColumn intColumn(int property) {
+        Column column = columns[property];
+        if (column instanceof IntColumn)
+            return (IntColumn) column;
+        throw new IllegalArgumentException("Property " + properties[property] + " is not int");
+    }
+
+    @NonNull
+    private LongColumn longColumn(int property) {
+        Column column = columns[property];
+        if (column instanceof LongColumn)
+            return (LongColumn) column;
+        throw new IllegalArgumentException("Property " + properties[property] + " is not long");
+    }
+
+    @NonNull
+    private DoubleColumn doubleColumn(int property) {
+        Column column = columns[property];
+        if (column instanceof DoubleColumn)
+            return (DoubleColumn) column;
+        throw new IllegalArgumentException("Property " + properties[property] + " is not double");
+    }
+
+    @NonNull
+    private BooleanColumn booleanColumn(int property) {
+        Column column = columns[property];
+        if (column instanceof BooleanColumn)
+            return (BooleanColumn) column;
+        throw new IllegalArgumentException("Property " + properties[property] + " is not boolean");
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarBeanStore of " + beanType + ", size: " + size;
+    }
+
+    /**
+     * A view of a row of the store.
+     */
+    public final class Row {
+
+        private int row;
+
+        private Row() {
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getInt(int property) {
+            return ColumnarBeanStore.this.getInt(row, property);
+        }
+
+        public long getLong(int property) {
+            return ColumnarBeanStore.this.getLong(row, property);
+        }
+
+        public double getDouble(int property) {
+            return ColumnarBeanStore.this.getDouble(row, property);
+        }
+
+        public boolean getBoolean(int property) {
+            return ColumnarBeanStore.this.getBoolean(row, property);
+        }
+
+        public Object getValue(int property) {
+            return ColumnarBeanStore.this.getValue(row, property);
+        }
+
+        /**
+         * Creates a new bean with the values of the row.
+         */
+        @NonNull
+        public _B toBean() {
+            return get(row);
+        }
+
+        @Override
+        public String toString() {
+            return beanType + " row " + row;
+        }
+    }
+
+    /**
+     * Values of a property.
+     */
+    private abstract static class Column {
+
+        abstract void resize(int capacity);
+
+        abstract <_B> void load(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop);
+
+        abstract <_B> void store(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop);
+
+        abstract Object getValue(int row);
+
+        abstract void setValue(int row, Object value);
+
+        void clear(int size) {
+        }
+    }
+
+    private static final class IntColumn extends Column {
+
+        int[] values;
+
+        IntColumn(int capacity) {
+            values = new int[capacity];
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        <_B> void load(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            values[row] = prop.getInt(bean);
+        }
+
+        @Override
+        <_B> void store(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            prop.setInt(bean, values[row]);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Integer) value;
+        }
+    }
+
+    private static final class LongColumn extends Column {
+
+        long[] values;
+
+        LongColumn(int capacity) {
+            values = new long[capacity];
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        <_B> void load(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            values[row] = prop.getLong(bean);
+        }
+
+        @Override
+        <_B> void store(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            prop.setLong(bean, values[row]);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Long) value;
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+
+        double[] values;
+
+        DoubleColumn(int capacity) {
+            values = new double[capacity];
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        <_B> void load(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            values[row] = prop.getDouble(bean);
+        }
+
+        @Override
+        <_B> void store(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            prop.setDouble(bean, values[row]);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Double) value;
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+
+        boolean[] values;
+
+        BooleanColumn(int capacity) {
+            values = new boolean[capacity];
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        <_B> void load(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            values[row] = prop.getBoolean(bean);
+        }
+
+        @Override
+        <_B> void store(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            prop.setBoolean(bean, values[row]);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = (Boolean) value;
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        Object[] values;
+
+        ObjectColumn(int capacity) {
+            values = new Object[capacity];
+        }
+
+        @Override
+        void resize(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        <_B> void load(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            values[row] = prop.getValue(bean);
+        }
+
+        @Override
+        <_B> void store(int row, @NonNull _B bean, @NonNull PlainBeanProp<_B, Object> prop) {
+            prop.setValue(bean, values[row]);
+        }
+
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+
+        @Override
+        void setValue(int row, Object value) {
+            values[row] = value;
+        }
+
+        @Override
+        void clear(int size) {
+            Arrays.fill(values, 0, size, null);
+        }
+    }
+}
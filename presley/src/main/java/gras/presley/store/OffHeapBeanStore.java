@@ -0,0 +1,452 @@
+/*
+ * OffHeapBeanStore
+ * Create Date: 2020. 04. 04.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.store;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.PropertyList;
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Stores the primitive and short string property values of many beans of a {@link BeanType} in direct
+ * {@link ByteBuffer} slabs, outside of the garbage collected heap.
+ *
+ * <p> Each bean is stored as a fixed size record, the property offsets in the record are computed once from the property
+ * indexes: {@code long} and {@code double} values take 8 bytes, {@code int} values 4 bytes and {@code boolean} values
+ * one byte. {@link String} values take a length byte plus the configured maximum number of UTF-8 bytes, the longer ones
+ * are kept on the heap in a column of the property, allocated at its first longer value. Values of the other properties
+ * are kept on the heap in {@code Object[]} columns.
+ * The records are allocated in slabs, so the store is not limited to 2GB. The slabs are released by the garbage collector
+ * after {@link #clear()}, as the direct buffers are.
+ *
+ * <p> Instances are not thread safe.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class OffHeapBeanStore<_B> implements BeanStore<_B> {
+
+    /** default maximum number of UTF-8 bytes of the strings stored off-heap */
+    public static final int DEFAULT_STRING_BYTES = 32;
+    /** default size of the slabs */
+    public static final int DEFAULT_SLAB_BYTES = 64 << 20;
+
+    private static final byte KIND_OBJECT = 0;
+    private static final byte KIND_INT = 1;
+    private static final byte KIND_LONG = 2;
+    private static final byte KIND_DOUBLE = 3;
+    private static final byte KIND_BOOLEAN = 4;
+    private static final byte KIND_STRING = 5;
+
+    /** string length byte of the null value */
+    private static final int STRING_NULL = 0;
+    /** string length byte of the values kept on the heap */
+    private static final int STRING_ON_HEAP = 0xFF;
+
+    @NonNull private final BeanType<_B> beanType;
+    @NonNull private final PlainBeanProp<_B, Object>[] properties;
+    @NonNull private final byte[] kinds;
+    /** offsets of the values in the records, -1 for the values on the heap */
+    @NonNull private final int[] offsets;
+    private final int stringBytes;
+    private final int recordSize;
+    /** rows per slab is a power of two */
+    private final int slabShift;
+    private final int slabMask;
+
+    @NonNull private ByteBuffer[] slabs = new ByteBuffer[0];
+    /**
+     * columns of the values on the heap, {@code null} for the properties stored off-heap,
+     * except the string properties having a value longer than the string bytes
+     */
+    @NonNull private final Object[][] heapColumns;
+    private int size;
+
+    public OffHeapBeanStore(@NonNull BeanType<_B> beanType) {
+        this(beanType, DEFAULT_STRING_BYTES, DEFAULT_SLAB_BYTES);
+    }
+
+    /**
+     * @param stringBytes the maximum number of UTF-8 bytes of the strings stored off-heap, 0 stores all strings on the heap
+     * @param slabBytes the maximum size of a slab, at least a record is stored in each slab
+     */
+    public OffHeapBeanStore(@NonNull BeanType<_B> beanType, int stringBytes, int slabBytes) {
+        if (stringBytes < 0 || stringBytes >= STRING_ON_HEAP - 1)
+            throw new IllegalArgumentException("Invalid string bytes: " + stringBytes);
+        if (slabBytes <= 0)
+            throw new IllegalArgumentException("Invalid slab bytes: " + slabBytes);
+
+        this.beanType = beanType;
+        this.stringBytes = stringBytes;
+
+        PropertyList<PlainBeanProp<_B, ?>> props = beanType.getProperties();
+        @SuppressWarnings("unchecked")
+        PlainBeanProp<_B, Object>[] properties = (PlainBeanProp<_B, Object>[]) props.toArray(new PlainBeanProp<?, ?>[props.size()]);
+        this.properties = properties;
+        kinds = new byte[properties.length];
+        offsets = new int[properties.length];
+        heapColumns = new Object[properties.length][];
+        for (int i = 0; i < properties.length; i++)
+            kinds[i] = getKind(properties[i]);
+
+        // the wider values come first to keep them aligned
+        int offset = 0;
+        for (int width : new int[] {8, 4, 1}) {
+            for (int i = 0; i < properties.length; i++) {
+                int size = getWidth(kinds[i]);
+                if (size == width) {
+                    offsets[i] = offset;
+                    offset += kinds[i] == KIND_STRING ? 1 + stringBytes : size;
+                }
+                else if (size == 0)
+                    offsets[i] = -1;
+            }
+        }
+        recordSize = Math.max(8, (offset + 7) & ~7);
+
+        int rowsPerSlab = Integer.highestOneBit(Math.max(1, slabBytes / recordSize));
+        slabShift = Integer.numberOfTrailingZeros(rowsPerSlab);
+        slabMask = rowsPerSlab - 1;
+    }
+
+    private byte getKind(@NonNull PlainBeanProp<?, ?> prop) {
+        Class<?> valueClass = prop.getValueType().getTypeClass();
+        if (valueClass == int.class)
+            return KIND_INT;
+        if (valueClass == long.class)
+            return KIND_LONG;
+        if (valueClass == double.class)
+            return KIND_DOUBLE;
+        if (valueClass == boolean.class)
+            return KIND_BOOLEAN;
+        if (valueClass == String.class && stringBytes > 0)
+            return KIND_STRING;
+        return KIND_OBJECT;
+    }
+
+    /**
+     * Returns the alignment of the values of the kind in the record, 0 if they are kept on the heap.
+     */
+    private static int getWidth(byte kind) {
+        switch (kind) {
+            case KIND_LONG:
+            case KIND_DOUBLE:
+                return 8;
+            case KIND_INT:
+                return 4;
+            case KIND_BOOLEAN:
+            case KIND_STRING:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    @Override
+    @NonNull
+    public final BeanType<_B> getBeanType() {
+        return beanType;
+    }
+
+    @Override
+    public final int size() {
+        return size;
+    }
+
+    /**
+     * Size of a bean record in the slabs.
+     */
+    public final int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Total size of the allocated slabs.
+     */
+    public final long getOffHeapBytes() {
+        return (long) slabs.length * (slabMask + 1) * recordSize;
+    }
+
+    @Override
+    public int add(@NonNull _B bean) {
+        int row = size;
+        if (row == Integer.MAX_VALUE)
+            throw new IllegalStateException("Too many rows");
+        if (row >>> slabShift == slabs.length)
+            addSlab();
+
+        size++;
+        load(row, bean);
+        return row;
+    }
+
+    private void addSlab() {
+        int rowsPerSlab = slabMask + 1;
+        ByteBuffer slab = ByteBuffer.allocateDirect(rowsPerSlab * recordSize).order(ByteOrder.nativeOrder());
+        slabs = Arrays.copyOf(slabs, slabs.length + 1);
+        slabs[slabs.length - 1] = slab;
+
+        int capacity = slabs.length * rowsPerSlab;
+        for (int i = 0; i < heapColumns.length; i++) {
+            if (heapColumns[i] != null)
+                heapColumns[i] = Arrays.copyOf(heapColumns[i], capacity);
+            else if (offsets[i] < 0)
+                heapColumns[i] = new Object[rowsPerSlab];
+        }
+    }
+
+    @Override
+    public void set(int row, @NonNull _B bean) {
+        checkRow(row);
+        load(row, bean);
+    }
+
+    private void load(int row, @NonNull _B bean) {
+        ByteBuffer slab = slabs[row >>> slabShift];
+        int base = (row & slabMask) * recordSize;
+        for (int i = 0; i < properties.length; i++) {
+            PlainBeanProp<_B, Object> prop = properties[i];
+            switch (kinds[i]) {
+                case KIND_INT:
+                    slab.putInt(base + offsets[i], prop.getInt(bean));
+                    break;
+                case KIND_LONG:
+                    slab.putLong(base + offsets[i], prop.getLong(bean));
+                    break;
+                case KIND_DOUBLE:
+                    slab.putDouble(base + offsets[i], prop.getDouble(bean));
+                    break;
+                case KIND_BOOLEAN:
+                    slab.put(base + offsets[i], prop.getBoolean(bean) ? (byte) 1 : 0);
+                    break;
+                case KIND_STRING:
+                    putString(slab, base + offsets[i], row, i, (String) prop.getValue(bean));
+                    break;
+                default:
+                    heapColumns[i][row] = prop.getValue(bean);
+            }
+        }
+    }
+
+    @Override
+    public void read(int row, @NonNull _B bean) {
+        checkRow(row);
+
+        ByteBuffer slab = slabs[row >>> slabShift];
+        int base = (row & slabMask) * recordSize;
+        for (int i = 0; i < properties.length; i++) {
+            PlainBeanProp<_B, Object> prop = properties[i];
+            if (prop.isReadOnly())
+                continue;
+
+            switch (kinds[i]) {
+                case KIND_INT:
+                    prop.setInt(bean, slab.getInt(base + offsets[i]));
+                    break;
+                case KIND_LONG:
+                    prop.setLong(bean, slab.getLong(base + offsets[i]));
+                    break;
+                case KIND_DOUBLE:
+                    prop.setDouble(bean, slab.getDouble(base + offsets[i]));
+                    break;
+                case KIND_BOOLEAN:
+                    prop.setBoolean(bean, slab.get(base + offsets[i]) != 0);
+                    break;
+                case KIND_STRING:
+                    prop.setValue(bean, getString(slab, base + offsets[i], row, i));
+                    break;
+                default:
+                    prop.setValue(bean, heapColumns[i][row]);
+            }
+        }
+    }
+
+    /**
+     * Removes all rows and drops the slabs.
+     */
+    @Override
+    public void clear() {
+        slabs = new ByteBuffer[0];
+        Arrays.fill(heapColumns, null);
+        size = 0;
+    }
+
+    @Override
+    public int getInt(int row, int property) {
+        return slab(row).getInt(position(row, property, KIND_INT));
+    }
+
+    @Override
+    public void setInt(int row, int property, int value) {
+        slab(row).putInt(position(row, property, KIND_INT), value);
+    }
+
+    @Override
+    public long getLong(int row, int property) {
+        return slab(row).getLong(position(row, property, KIND_LONG));
+    }
+
+    @Override
+    public void setLong(int row, int property, long value) {
+        slab(row).putLong(position(row, property, KIND_LONG), value);
+    }
+
+    @Override
+    public double getDouble(int row, int property) {
+        return slab(row).getDouble(position(row, property, KIND_DOUBLE));
+    }
+
+    @Override
+    public void setDouble(int row, int property, double value) {
+        slab(row).putDouble(position(row, property, KIND_DOUBLE), value);
+    }
+
+    @Override
+    public boolean getBoolean(int row, int property) {
+        return slab(row).get(position(row, property, KIND_BOOLEAN)) != 0;
+    }
+
+    @Override
+    public void setBoolean(int row, int property, boolean value) {
+        slab(row).put(position(row, property, KIND_BOOLEAN), value ? (byte) 1 : 0);
+    }
+
+    @Override
+    public Object getValue(int row, int property) {
+        checkRow(row);
+        ByteBuffer slab = slabs[row >>> slabShift];
+        int position = (row & slabMask) * recordSize + offsets[property];
+        switch (kinds[property]) {
+            case KIND_INT:
+                return slab.getInt(position);
+            case KIND_LONG:
+                return slab.getLong(position);
+            case KIND_DOUBLE:
+                return slab.getDouble(position);
+            case KIND_BOOLEAN:
+                return slab.get(position) != 0;
+            case KIND_STRING:
+                return getString(slab, position, row, property);
+            default:
+                return heapColumns[property][row];
+        }
+    }
+
+    /**
+     * Sets the value of any property, the primitive values are unboxed.
+     * @throws IllegalArgumentException if the value of a primitive property is {@code null}
+     */
+    @Override
+    public void setValue(int row, int property, Object value) {
+        checkRow(row);
+        if (value == null && kinds[property] != KIND_OBJECT && kinds[property] != KIND_STRING)
+            throw new IllegalArgumentException("Property " + properties[property] + " is " + kindName(kinds[property]) + ", it can not be null");
+
+        ByteBuffer slab = slabs[row >>> slabShift];
+        int position = (row & slabMask) * recordSize + offsets[property];
+        switch (kinds[property]) {
+            case KIND_INT:
+                slab.putInt(position, (Integer) value);
+                break;
+            case KIND_LONG:
+                slab.putLong(position, (Long) value);
+                break;
+            case KIND_DOUBLE:
+                slab.putDouble(position, (Double) value);
+                break;
+            case KIND_BOOLEAN:
+                slab.put(position, (Boolean) value ? (byte) 1 : 0);
+                break;
+            case KIND_STRING:
+                putString(slab, position, row, property, (String) value);
+                break;
+            default:
+                heapColumns[property][row] = value;
+        }
+    }
+
+    private String getString(@NonNull ByteBuffer slab, int position, int row, int property) {
+        int length = slab.get(position) & 0xFF;
+        if (length == STRING_NULL)
+            return null;
+        if (length == STRING_ON_HEAP)
+            return (String) heapColumns[property][row];
+
+        byte[] bytes = new byte[length - 1];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = slab.get(position + 1 + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void putString(@NonNull ByteBuffer slab, int position, int row, int property, String value) {
+        if ((slab.get(position) & 0xFF) == STRING_ON_HEAP)
+            heapColumns[property][row] = null;
+
+        if (value == null) {
+            slab.put(position, (byte) STRING_NULL);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > stringBytes) {
+            if (heapColumns[property] == null)
+                heapColumns[property] = new Object[slabs.length * (slabMask + 1)];
+            slab.put(position, (byte) STRING_ON_HEAP);
+            heapColumns[property][row] = value;
+            return;
+        }
+
+        slab.put(position, (byte) (bytes.length + 1));
+        for (int i = 0; i < bytes.length; i++)
+            slab.put(position + 1 + i, bytes[i]);
+    }
+
+    @NonNull
+    private ByteBuffer slab(int row) {
+        checkRow(row);
+        return slabs[row >>> slabShift];
+    }
+
+    /**
+     * Returns the position of the value in the slab of the row.
+     * @throws IllegalArgumentException if the property is not of the given kind
+     */
+    private int position(int row, int property, byte kind) {
+        if (kinds[property] != kind)
+            throw new IllegalArgumentException("Property " + properties[property] + " is not " + kindName(kind));
+        return (row & slabMask) * recordSize + offsets[property];
+    }
+
+    @NonNull
+    private static String kindName(byte kind) {
+        switch (kind) {
+            case KIND_INT:
+                return "int";
+            case KIND_LONG:
+                return "long";
+            case KIND_DOUBLE:
+                return "double";
+            default:
+                return "boolean";
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size)
+            throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapBeanStore of " + beanType + ", size: " + size;
+    }
+}
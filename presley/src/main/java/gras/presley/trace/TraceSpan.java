@@ -0,0 +1,35 @@
+/*
+ * TraceSpan
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.trace;
+
+/**
+ * A traced section of the framework started by a {@link Tracer}, e.g. a type creation or an interceptor chain.
+ *
+ * <p> The span is closed on the thread which started it, also if the section fails. The span is {@code null}
+ * if tracing is disabled, so the callers use:
+ * <pre>
+ *     TraceSpan span = tracer != null ? tracer.startTypeCreation(clazz) : null;
+ *     try {
+ *         ...
+ *     }
+ *     finally {
+ *         if (span != null)
+ *             span.close();
+ *     }
+ * </pre>
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface TraceSpan extends AutoCloseable {
+
+    /**
+     * Ends the section and records it.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,77 @@
+/*
+ * Tracer
+ * Create Date: 2020. 04. 12.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.trace;
+
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.EvaluatedState;
+import gras.presley.interceptor.BeanOperation;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import lombok.NonNull;
+
+/**
+ * Service provider interface of tracing the metadata build, the interceptor chains, the state evaluation and
+ * the operation lookups, e.g. as Java Flight Recorder events.
+ *
+ * <p> The tracer of the application context is asked for a {@link TraceSpan} at the start of each traced section,
+ * see {@link ApplicationContext#getTracer()}. If there is no tracer the sections are not traced at all.
+ * The implementations must be thread safe and should return {@code null} for the disabled sections,
+ * so those do not allocate a span.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public interface Tracer {
+
+    /**
+     * Starts the creation of the type of the class.
+     * @return the span or {@code null} if the section is not traced
+     * @see gras.presley.metadata.TypeManager#createType(Class)
+     */
+    TraceSpan startTypeCreation(@NonNull Class<?> typeClass);
+
+    /**
+     * Starts the build of the property list of the bean type.
+     * @return the span or {@code null} if the section is not traced
+     */
+    TraceSpan startPropertiesBuild(@NonNull BeanType<?> beanType);
+
+    /**
+     * Starts the processing of the bean interceptor chain.
+     * @return the span or {@code null} if the section is not traced
+     */
+    TraceSpan startBeanInterception(@NonNull BeanType<?> beanType, @NonNull BeanOperation operation);
+
+    /**
+     * Starts the processing of the property interceptor chain.
+     * @return the span or {@code null} if the section is not traced
+     */
+    TraceSpan startPropertyInterception(@NonNull PlainBeanProp<?, ?> propertyMetadata);
+
+    /**
+     * Starts the evaluation of a state of a bean or a property.
+     * @param propertyMetadata the evaluated property or {@code null} if the state of the bean is evaluated
+     * @return the span or {@code null} if the section is not traced
+     */
+    TraceSpan startEvaluation(@NonNull BeanType<?> beanType, PlainBeanProp<?, ?> propertyMetadata, @NonNull EvaluatedState state);
+
+    /**
+     * Starts the lookup of the operations of a bean type or a property.
+     * @param propertyMetadata the property or {@code null} if the operations of the bean type are looked up
+     * @param operationClass the kind of the operations, e.g. {@link gras.presley.operation.TypeOperation}
+     * @return the span or {@code null} if the section is not traced
+     */
+    TraceSpan startOperationLookup(@NonNull BeanType<?> beanType, PlainBeanProp<?, ?> propertyMetadata, @NonNull Class<?> operationClass);
+
+    /**
+     * Gets the tracer of the application context.
+     * @return the tracer or {@code null} if the tracing is not enabled
+     */
+    static Tracer instance() {
+        return ApplicationContext.getTracer();
+    }
+}
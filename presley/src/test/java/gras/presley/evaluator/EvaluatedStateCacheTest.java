@@ -0,0 +1,212 @@
+/*
+ * EvaluatedStateCacheTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.evaluator;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TestContext;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class EvaluatedStateCacheTest {
+
+    private VersionedRegistry registry;
+    private EvaluatedStateCache cache;
+
+    @Before
+    public void setUp() {
+        registry = new VersionedRegistry();
+        new Context(registry).activate();
+        cache = new EvaluatedStateCache();
+    }
+
+    @Test
+    public void cachesStatesUntilInvalidated() {
+        Bean bean = new Bean();
+        PlainBeanProp<Bean, ?> name = getProperty("name");
+        Object stamp = cache.getStamp(bean);
+        cache.put(bean, EvaluatedState.VISIBLE, false, stamp);
+        cache.put(bean, name, EvaluatedState.VISIBLE, true, stamp);
+
+        assertEquals(Boolean.FALSE, cache.get(bean, EvaluatedState.VISIBLE));
+        assertEquals(Boolean.TRUE, cache.get(bean, name, EvaluatedState.VISIBLE));
+        assertNull(cache.get(bean, name, EvaluatedState.EDITABLE));
+        assertNull(cache.get(bean, getProperty("size"), EvaluatedState.VISIBLE));
+
+        cache.invalidate(bean);
+        assertNull(cache.get(bean, EvaluatedState.VISIBLE));
+        assertNull(cache.get(bean, name, EvaluatedState.VISIBLE));
+    }
+
+    /**
+     * The states evaluated before an invalidation are not cached, but only for the invalidated bean.
+     */
+    @Test
+    public void invalidationOnlyAffectsItsBean() {
+        Bean changed = new Bean();
+        Bean other = new Bean();
+        Object changedStamp = cache.getStamp(changed);
+        Object otherStamp = cache.getStamp(other);
+
+        cache.invalidate(changed);
+        cache.put(changed, EvaluatedState.VISIBLE, true, changedStamp);
+        cache.put(other, EvaluatedState.VISIBLE, true, otherStamp);
+
+        assertNull(cache.get(changed, EvaluatedState.VISIBLE));
+        assertEquals(Boolean.TRUE, cache.get(other, EvaluatedState.VISIBLE));
+
+        cache.put(changed, EvaluatedState.VISIBLE, true, cache.getStamp(changed));
+        assertEquals(Boolean.TRUE, cache.get(changed, EvaluatedState.VISIBLE));
+    }
+
+    @Test
+    public void registryChangeDropsStates() {
+        Bean bean = new Bean();
+        Object stamp = cache.getStamp(bean);
+        cache.put(bean, EvaluatedState.EDITABLE, true, stamp);
+        assertEquals(Boolean.TRUE, cache.get(bean, EvaluatedState.EDITABLE));
+
+        registry.version++;
+        assertNull(cache.get(bean, EvaluatedState.EDITABLE));
+        cache.put(bean, EvaluatedState.EDITABLE, true, stamp);
+        assertNull(cache.get(bean, EvaluatedState.EDITABLE));
+
+        cache.put(bean, EvaluatedState.EDITABLE, true, cache.getStamp(bean));
+        assertEquals(Boolean.TRUE, cache.get(bean, EvaluatedState.EDITABLE));
+    }
+
+    @Test
+    public void beansAreNotKeptAlive() throws Exception {
+        Bean bean = new Bean();
+        cache.put(bean, EvaluatedState.VISIBLE, true, cache.getStamp(bean));
+        assertEquals(1, cache.size());
+
+        WeakReference<Bean> ref = new WeakReference<>(bean);
+        bean = null;
+        for (int i = 0; i < 50 && (ref.get() != null || cache.size() != 0); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(ref.get());
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Many threads read, cache and invalidate the states of shared beans, while creating many other beans,
+     * so the segments of the cache are resized meanwhile.
+     */
+    @Test
+    public void concurrentAccess() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        Bean[] shared = new Bean[8];
+        for (int i = 0; i < shared.length; i++)
+            shared[i] = new Bean();
+        PlainBeanProp<Bean, ?> name = getProperty("name");
+        CyclicBarrier start = new CyclicBarrier(threads);
+        AtomicInteger hits = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 20000; i++) {
+                        Bean bean = shared[(seed + i) % shared.length];
+                        Boolean cached = cache.get(bean, name, EvaluatedState.VISIBLE);
+                        if (cached != null) {
+                            // only true is ever cached for the shared beans
+                            assertEquals(Boolean.TRUE, cached);
+                            hits.incrementAndGet();
+                        }
+                        else {
+                            cache.put(bean, name, EvaluatedState.VISIBLE, true, cache.getStamp(bean));
+                        }
+                        if (i % 7 == seed % 7)
+                            cache.invalidate(bean);
+
+                        Bean own = new Bean();
+                        cache.put(own, EvaluatedState.ERRORS, false, cache.getStamp(own));
+                        assertEquals(Boolean.FALSE, cache.get(own, EvaluatedState.ERRORS));
+                    }
+                    return null;
+                });
+            }
+            for (Future<?> future : futures)
+                future.get(60, TimeUnit.SECONDS);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertTrue("no cache hits", hits.get() > 0);
+    }
+
+    private static PlainBeanProp<Bean, ?> getProperty(String name) {
+        BeanType<Bean> type = (BeanType<Bean>) TypeManager.forClass(Bean.class);
+        return type.getProperty(name);
+    }
+
+    public static class Bean {
+        @BeanProp
+        public String name;
+        @BeanProp
+        public int size;
+    }
+
+    private static final class VersionedRegistry implements EvaluatorRegistry {
+
+        volatile long version = 1;
+
+        @Override
+        public <_B, _P> List<EvaluatorInfo<_B, _P>> getEvaluators() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    private static final class Context extends TestContext {
+
+        private final EvaluatorRegistry registry;
+
+        Context(EvaluatorRegistry registry) {
+            super(new TypeManager() {});
+            this.registry = registry;
+        }
+
+        void activate() {
+            setInstance(this);
+        }
+
+        @Override
+        protected EvaluatorRegistry getEvaluatorRegistryImpl() {
+            return registry;
+        }
+    }
+}
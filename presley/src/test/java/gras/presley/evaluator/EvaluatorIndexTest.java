@@ -0,0 +1,211 @@
+/*
+ * EvaluatorIndexTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.evaluator;
+
+import gras.presley.interceptor.PropertyDef;
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TestContext;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the evaluators match their bean types and properties, and that the index resolves the same evaluators
+ * in the same order as checking all registered evaluators.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class EvaluatorIndexTest {
+
+    private List<EvaluatorInfo<?, ?>> evaluators;
+    private EvaluatorIndex index;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        TestContext.install();
+
+        evaluators = Arrays.asList(
+                new EvaluatorInfo<>(new PersonEvaluator()),
+                new EvaluatorInfo<>(new NameEvaluator()),
+                new EvaluatorInfo<>(new ScoreEvaluator()),
+                new EvaluatorInfo<>(new AnyEvaluator()),
+                new EvaluatorInfo<Object, Object>(new AnyEvaluator()) {
+                    @Override
+                    public boolean supports(BeanType<?> beanMetadata) {
+                        return beanMetadata.getTypeClass() == Team.class;
+                    }
+                });
+        index = new EvaluatorIndex(1, evaluators);
+    }
+
+    @Test
+    public void targetAndPropertiesAreResolvedFromTheDefinition() {
+        assertEquals(Person.class, evaluators.get(0).target);
+        assertNull(evaluators.get(0).propertyPatterns);
+        assertEquals(Person.class, evaluators.get(1).target);
+        assertEquals(1, evaluators.get(1).propertyPatterns.length);
+        assertEquals(Player.class, evaluators.get(2).target);
+        assertEquals(Object.class, evaluators.get(3).target);
+    }
+
+    @Test
+    public void evaluatorsMatchTheirBeansAndProperties() {
+        BeanType<?> personType = getType(Person.class);
+        BeanType<?> playerType = getType(Player.class);
+        EvaluatorInfo<?, ?> personEvaluator = evaluators.get(0);
+        EvaluatorInfo<?, ?> nameEvaluator = evaluators.get(1);
+        EvaluatorInfo<?, ?> scoreEvaluator = evaluators.get(2);
+
+        assertTrue(personEvaluator.supports(personType));
+        assertTrue(personEvaluator.supports(playerType));
+        assertFalse(personEvaluator.supports(getType(Team.class)));
+        assertFalse(personEvaluator.supports(personType.getProperty("name")));
+
+        assertFalse(nameEvaluator.supports(personType));
+        assertTrue(nameEvaluator.supports(personType.getProperty("name")));
+        assertTrue(nameEvaluator.supports(playerType.getProperty("name")));
+        assertFalse(nameEvaluator.supports(getType(Team.class).getProperty("name")));
+
+        assertTrue(scoreEvaluator.supports(playerType.getProperty("score")));
+        assertTrue(scoreEvaluator.supports(playerType.getProperty("scoreBonus")));
+        assertFalse(scoreEvaluator.supports(playerType.getProperty("name")));
+    }
+
+    @Test
+    public void evaluatorsEqualTheLinearScan() {
+        for (Class<?> beanClass : Arrays.asList(Person.class, Player.class, Team.class)) {
+            BeanType<?> type = getType(beanClass);
+            assertEquals(beanClass.getSimpleName(), linearScan(info -> info.supports(type)), index.getEvaluators(type));
+            for (PlainBeanProp<?, ?> prop : type.getProperties())
+                assertEquals(prop.getSimplePropertyName(), linearScan(info -> info.supports(prop)), index.getEvaluators(prop));
+        }
+    }
+
+    @Test
+    public void evaluatorsOfTheSuperTypesAreResolved() {
+        BeanType<?> playerType = getType(Player.class);
+        assertEquals(Arrays.asList(evaluators.get(3), evaluators.get(0)), index.getEvaluators(playerType));
+        assertEquals(Collections.singletonList(evaluators.get(1)), index.getEvaluators(playerType.getProperty("name")));
+        assertEquals(Arrays.asList(evaluators.get(4), evaluators.get(3)), index.getEvaluators(getType(Team.class)));
+    }
+
+    /**
+     * The evaluators are called for their own property only.
+     */
+    @Test
+    public void statesAreEvaluatedByTheMatchingEvaluators() {
+        DefaultEvaluatorRegistry registry = new DefaultEvaluatorRegistry();
+        registry.addEvaluator(new NameEvaluator());
+        new Context(registry).activate();
+        StateManager stateManager = new StateManager() {};
+
+        @SuppressWarnings("unchecked")
+        BeanType<Person> personType = (BeanType<Person>) getType(Person.class);
+        Person person = new Person();
+        person.name = "Doe";
+        assertTrue(stateManager.isEditable(person, personType.getProperty("name")));
+        person.name = "";
+        assertFalse(stateManager.isEditable(person, personType.getProperty("name")));
+        assertEquals(EvaluatedState.EDITABLE.isInitial(), stateManager.isEditable(person, personType.getProperty("age")));
+    }
+
+    private List<EvaluatorInfo<?, ?>> linearScan(Predicate<EvaluatorInfo<?, ?>> supports) {
+        List<EvaluatorInfo<?, ?>> result = new ArrayList<>();
+        for (int i = evaluators.size(); --i >= 0; )
+            if (supports.test(evaluators.get(i)))
+                result.add(evaluators.get(i));
+        return result;
+    }
+
+    private static BeanType<?> getType(Class<?> beanClass) {
+        return (BeanType<?>) TypeManager.forClass(beanClass);
+    }
+
+    public static class Person {
+        @BeanProp
+        public String name;
+        @BeanProp
+        public int age;
+    }
+
+    public static class Player extends Person {
+        @BeanProp
+        public int score;
+        @BeanProp
+        public int scoreBonus;
+    }
+
+    public static class Team {
+        @BeanProp
+        public String name;
+    }
+
+    public static class PersonEvaluator implements Evaluator<Person, Object> {
+        @Override
+        @EvaluatorDef(states = EvaluatedState.VISIBLE)
+        public boolean evaluateState(EvaluationContext<Person, Object> ctx) {
+            return true;
+        }
+    }
+
+    public static class NameEvaluator implements Evaluator<Person, String> {
+        @Override
+        @EvaluatorDef(states = EvaluatedState.EDITABLE)
+        @PropertyDef(name = "name")
+        public boolean evaluateState(EvaluationContext<Person, String> ctx) {
+            return !ctx.getBean().name.isEmpty();
+        }
+    }
+
+    public static class ScoreEvaluator implements Evaluator<Player, Integer> {
+        @Override
+        @EvaluatorDef(states = EvaluatedState.VISIBLE)
+        @PropertyDef(name = "score*")
+        public boolean evaluateState(EvaluationContext<Player, Integer> ctx) {
+            return true;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static class AnyEvaluator implements Evaluator {
+        @Override
+        public boolean evaluateState(EvaluationContext ctx) {
+            return true;
+        }
+    }
+
+    private static final class Context extends TestContext {
+
+        private final EvaluatorRegistry registry;
+
+        Context(EvaluatorRegistry registry) {
+            super(new TypeManager() {});
+            this.registry = registry;
+        }
+
+        void activate() {
+            setInstance(this);
+        }
+
+        @Override
+        protected EvaluatorRegistry getEvaluatorRegistryImpl() {
+            return registry;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * AsyncInterceptorMetricsTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.presley.interceptor.AsyncInterceptorTest.GatedBeanInterceptor;
+import gras.presley.interceptor.AsyncInterceptorTest.GatedPropertyInterceptor;
+import gras.presley.interceptor.AsyncInterceptorTest.Person;
+import gras.presley.interceptor.AsyncInterceptorTest.SyncBeanInterceptor;
+import gras.presley.interceptor.AsyncInterceptorTest.SyncPropertyInterceptor;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TypeManager;
+import gras.presley.metrics.InvocationMetrics;
+import gras.presley.metrics.LatencyHistogram;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * The histograms of the interceptors of the asynchronous chains, and of the asynchronous interceptors in the synchronous chains.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class AsyncInterceptorMetricsTest {
+
+    private static final long GATE_MILLIS = 20;
+    private static final long SLOW_MILLIS = 200;
+
+    private InterceptorTestContext context;
+    private InvocationMetrics metrics;
+    private List<String> calls;
+    private CompletableFuture<Void> gate;
+    private BeanType<Person> personType;
+    private PlainBeanProp<Person, String> name;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = InterceptorTestContext.install();
+        metrics = context.enableMetrics();
+        calls = new CopyOnWriteArrayList<>();
+        gate = new CompletableFuture<>();
+        personType = (BeanType<Person>) TypeManager.forClass(Person.class);
+        name = (PlainBeanProp<Person, String>) personType.getProperty("name");
+    }
+
+    /**
+     * The asynchronous interceptor is recorded when its stage completes, without the slow synchronous interceptor
+     * running after it.
+     */
+    @Test(timeout = 10000)
+    public void asyncInterceptorIsRecordedWhenItsStageCompletes() throws Exception {
+        GatedPropertyInterceptor async = new GatedPropertyInterceptor(calls, gate);
+        SlowPropertyInterceptor slow = new SlowPropertyInterceptor();
+        context.getRegistry().addPropertyInterceptor(async);
+        context.getRegistry().addPropertyInterceptor(slow);
+
+        CompletionStage<Void> stage = context.getManager().processAsync(name, new Person(), null, "Doe");
+        assertNull(metrics.getHistogram(getPropertyInfo(async), personType));
+
+        Thread.sleep(GATE_MILLIS);
+        gate.complete(null);
+        stage.toCompletableFuture().get();
+
+        LatencyHistogram asyncHistogram = metrics.getHistogram(getPropertyInfo(async), personType);
+        assertEquals(1, asyncHistogram.getCount());
+        assertTrue(asyncHistogram.getTotalNanos() >= TimeUnit.MILLISECONDS.toNanos(GATE_MILLIS));
+        assertTrue(asyncHistogram.getTotalNanos() < TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+
+        LatencyHistogram slowHistogram = metrics.getHistogram(getPropertyInfo(slow), personType);
+        assertEquals(1, slowHistogram.getCount());
+        assertTrue(slowHistogram.getTotalNanos() >= TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS));
+    }
+
+    /**
+     * The synchronous interceptor positioned before the asynchronous one runs after it in the asynchronous chain.
+     */
+    @Test
+    public void syncInterceptorIsRecordedInTheAsyncChain() throws Exception {
+        gate.complete(null);
+        SyncPropertyInterceptor sync = new SyncPropertyInterceptor(calls, "sync");
+        GatedPropertyInterceptor async = new GatedPropertyInterceptor(calls, gate);
+        context.getRegistry().addPropertyInterceptor(sync);
+        context.getRegistry().addPropertyInterceptor(async);
+
+        context.getManager().processAsync(name, new Person(), null, "Doe").toCompletableFuture().get();
+        assertEquals(1, metrics.getHistogram(getPropertyInfo(sync), personType).getCount());
+        assertEquals(1, metrics.getHistogram(getPropertyInfo(async), personType).getCount());
+        assertEquals(2, metrics.getInvocationCount());
+    }
+
+    /**
+     * The failed stage is recorded too.
+     */
+    @Test
+    public void failedStageIsRecorded() throws Exception {
+        GatedPropertyInterceptor async = new GatedPropertyInterceptor(calls, gate);
+        context.getRegistry().addPropertyInterceptor(async);
+
+        CompletionStage<Void> stage = context.getManager().processAsync(name, new Person(), null, "Doe");
+        gate.completeExceptionally(new IllegalStateException("rejected"));
+        try {
+            stage.toCompletableFuture().get();
+            fail();
+        }
+        catch (ExecutionException e) {
+            assertEquals("rejected", e.getCause().getMessage());
+        }
+        assertEquals(1, metrics.getHistogram(getPropertyInfo(async), personType).getCount());
+    }
+
+    /**
+     * In the synchronous chain the asynchronous interceptor continues the chain asynchronously, the rest of the chain is
+     * recorded, and it is not recorded for the interceptors before.
+     */
+    @Test
+    public void asyncInterceptorIsRecordedInTheSyncChain() throws Exception {
+        gate.complete(null);
+        SyncPropertyInterceptor sync = new SyncPropertyInterceptor(calls, "sync");
+        GatedPropertyInterceptor async = new GatedPropertyInterceptor(calls, gate);
+        SlowPropertyInterceptor slow = new SlowPropertyInterceptor();
+        context.getRegistry().addPropertyInterceptor(sync);
+        context.getRegistry().addPropertyInterceptor(async);
+        context.getRegistry().addPropertyInterceptor(slow);
+
+        context.getManager().process(name, new Person(), null, "Doe");
+        long slowNanos = TimeUnit.MILLISECONDS.toNanos(SLOW_MILLIS);
+        assertTrue(metrics.getHistogram(getPropertyInfo(slow), personType).getTotalNanos() >= slowNanos);
+        assertEquals(1, metrics.getHistogram(getPropertyInfo(async), personType).getCount());
+        assertTrue(metrics.getHistogram(getPropertyInfo(async), personType).getTotalNanos() < slowNanos);
+        assertEquals(1, metrics.getHistogram(getPropertyInfo(sync), personType).getCount());
+        assertTrue(metrics.getHistogram(getPropertyInfo(sync), personType).getTotalNanos() < slowNanos);
+    }
+
+    @Test(timeout = 10000)
+    public void asyncBeanInterceptorIsRecordedWhenItsStageCompletes() throws Exception {
+        SyncBeanInterceptor sync = new SyncBeanInterceptor(calls);
+        GatedBeanInterceptor async = new GatedBeanInterceptor(calls, gate);
+        context.getRegistry().addBeanInterceptor(sync);
+        context.getRegistry().addBeanInterceptor(async);
+
+        CompletionStage<Void> stage = context.getManager().processAsync(personType, new Person(), BeanOperation.PERSIST);
+        assertEquals(0, metrics.getInvocationCount());
+
+        Thread.sleep(GATE_MILLIS);
+        gate.complete(null);
+        stage.toCompletableFuture().get();
+        LatencyHistogram asyncHistogram = metrics.getHistogram(getBeanInfo(async), personType);
+        assertEquals(1, asyncHistogram.getCount());
+        assertTrue(asyncHistogram.getTotalNanos() >= TimeUnit.MILLISECONDS.toNanos(GATE_MILLIS));
+        assertEquals(1, metrics.getHistogram(getBeanInfo(sync), personType).getCount());
+    }
+
+    private PropertyInterceptorInfo<Person, String> getPropertyInfo(PropertyInterceptor<Person, String> interceptor) {
+        for (PropertyInterceptorInfo<Person, String> info : context.getRegistry().<Person, String>getPropertyInterceptors())
+            if (info.getInterceptor() == interceptor)
+                return info;
+        throw new AssertionError(interceptor + " is not registered");
+    }
+
+    private BeanInterceptorInfo<Person> getBeanInfo(BeanInterceptor<Person> interceptor) {
+        for (BeanInterceptorInfo<Person> info : context.getRegistry().<Person>getBeanInterceptors())
+            if (info.getInterceptor() == interceptor)
+                return info;
+        throw new AssertionError(interceptor + " is not registered");
+    }
+
+    public static class SlowPropertyInterceptor implements PropertyInterceptor<Person, String> {
+
+        @Override
+        @InterceptorDef(position = InterceptorPosition.AWAY)
+        public void intercept(PropertyInvocation<Person, String> invocation) throws Exception {
+            Thread.sleep(SLOW_MILLIS);
+            invocation.proceed();
+        }
+    }
+}
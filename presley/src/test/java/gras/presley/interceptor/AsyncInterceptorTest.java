@@ -0,0 +1,228 @@
+/*
+ * AsyncInterceptorTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class AsyncInterceptorTest {
+
+    private InterceptorTestContext context;
+    private List<String> calls;
+    private CompletableFuture<Void> gate;
+    private BeanType<Person> personType;
+    private PlainBeanProp<Person, String> name;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = InterceptorTestContext.install();
+        calls = new CopyOnWriteArrayList<>();
+        gate = new CompletableFuture<>();
+        personType = (BeanType<Person>) TypeManager.forClass(Person.class);
+        name = (PlainBeanProp<Person, String>) personType.getProperty("name");
+    }
+
+    /**
+     * The synchronous interceptor is positioned before the asynchronous one, but it runs when the asynchronous stage completes,
+     * so the calling thread is not blocked.
+     */
+    @Test(timeout = 10000)
+    public void syncInterceptorDoesNotBlockTheAsyncChain() throws Exception {
+        context.getRegistry().addPropertyInterceptor(new SyncPropertyInterceptor(calls, "sync"));
+        context.getRegistry().addPropertyInterceptor(new GatedPropertyInterceptor(calls, gate));
+        Person person = new Person();
+
+        CompletionStage<Void> stage = context.getManager().processAsync(name, person, null, "Doe");
+        assertFalse(stage.toCompletableFuture().isDone());
+        assertEquals(Arrays.asList("async"), calls);
+        assertFalse(context.getTracker().isDirty(person));
+
+        gate.complete(null);
+        stage.toCompletableFuture().get();
+        assertEquals(Arrays.asList("async", "sync", "sync done", "async done"), calls);
+        assertTrue(context.getTracker().isDirty(person, name));
+    }
+
+    /**
+     * The interceptors keep their positions within the asynchronous and the synchronous group.
+     */
+    @Test
+    public void asyncInterceptorsAreCalledFirst() throws Exception {
+        gate.complete(null);
+        context.getRegistry().addPropertyInterceptor(new SyncPropertyInterceptor(calls, "sync"));
+        context.getRegistry().addPropertyInterceptor(new GatedPropertyInterceptor(calls, gate));
+        context.getRegistry().addPropertyInterceptor(new LatePropertyInterceptor(calls));
+
+        context.getManager().processAsync(name, new Person(), null, "Doe").toCompletableFuture().get();
+        assertEquals(Arrays.asList("async", "sync", "late", "late done", "sync done", "async done"), calls);
+    }
+
+    /**
+     * The synchronous chain keeps the positions, the asynchronous interceptor is waited for.
+     */
+    @Test
+    public void syncChainKeepsThePositions() throws Exception {
+        gate.complete(null);
+        context.getRegistry().addPropertyInterceptor(new SyncPropertyInterceptor(calls, "sync"));
+        context.getRegistry().addPropertyInterceptor(new GatedPropertyInterceptor(calls, gate));
+
+        context.getManager().process(name, new Person(), null, "Doe");
+        assertEquals(Arrays.asList("sync", "async", "async done", "sync done"), calls);
+    }
+
+    @Test
+    public void failedStageAbortsTheChain() throws Exception {
+        context.getRegistry().addPropertyInterceptor(new SyncPropertyInterceptor(calls, "sync"));
+        context.getRegistry().addPropertyInterceptor(new GatedPropertyInterceptor(calls, gate));
+        Person person = new Person();
+
+        CompletionStage<Void> stage = context.getManager().processAsync(name, person, null, "Doe");
+        gate.completeExceptionally(new IllegalStateException("rejected"));
+        try {
+            stage.toCompletableFuture().get();
+            fail();
+        }
+        catch (ExecutionException e) {
+            assertEquals("rejected", e.getCause().getMessage());
+        }
+        assertEquals(Arrays.asList("async"), calls);
+        assertFalse(context.getTracker().isDirty(person));
+    }
+
+    @Test(timeout = 10000)
+    public void syncBeanInterceptorDoesNotBlockTheAsyncChain() throws Exception {
+        context.getRegistry().addBeanInterceptor(new SyncBeanInterceptor(calls));
+        context.getRegistry().addBeanInterceptor(new GatedBeanInterceptor(calls, gate));
+
+        CompletionStage<Void> stage = context.getManager().processAsync(personType, new Person(), BeanOperation.PERSIST);
+        assertFalse(stage.toCompletableFuture().isDone());
+        assertEquals(Arrays.asList("async PERSIST"), calls);
+
+        gate.complete(null);
+        stage.toCompletableFuture().get();
+        assertEquals(Arrays.asList("async PERSIST", "sync PERSIST"), calls);
+    }
+
+    @Test
+    public void syncBeanChainKeepsThePositions() throws Exception {
+        gate.complete(null);
+        context.getRegistry().addBeanInterceptor(new SyncBeanInterceptor(calls));
+        context.getRegistry().addBeanInterceptor(new GatedBeanInterceptor(calls, gate));
+
+        context.getManager().process(personType, new Person(), BeanOperation.MODIFY);
+        assertEquals(Arrays.asList("sync MODIFY", "async MODIFY"), calls);
+    }
+
+    public static class Person {
+        @BeanProp
+        public String name;
+    }
+
+    public static class SyncPropertyInterceptor implements PropertyInterceptor<Person, String> {
+
+        private final List<String> calls;
+        private final String label;
+
+        SyncPropertyInterceptor(List<String> calls, String label) {
+            this.calls = calls;
+            this.label = label;
+        }
+
+        @Override
+        @InterceptorDef(position = InterceptorPosition.CLOSE)
+        public void intercept(PropertyInvocation<Person, String> invocation) throws Exception {
+            calls.add(label);
+            invocation.proceed();
+            calls.add(label + " done");
+        }
+    }
+
+    public static class LatePropertyInterceptor implements PropertyInterceptor<Person, String> {
+
+        private final List<String> calls;
+
+        LatePropertyInterceptor(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        @InterceptorDef(position = InterceptorPosition.AWAY)
+        public void intercept(PropertyInvocation<Person, String> invocation) throws Exception {
+            calls.add("late");
+            invocation.proceed();
+            calls.add("late done");
+        }
+    }
+
+    public static class GatedPropertyInterceptor implements AsyncPropertyInterceptor<Person, String> {
+
+        private final List<String> calls;
+        private final CompletableFuture<Void> gate;
+
+        GatedPropertyInterceptor(List<String> calls, CompletableFuture<Void> gate) {
+            this.calls = calls;
+            this.gate = gate;
+        }
+
+        @Override
+        public CompletionStage<Void> interceptAsync(AsyncPropertyInvocation<Person, String> invocation) {
+            calls.add("async");
+            return gate.thenCompose(v -> invocation.proceed()).thenRun(() -> calls.add("async done"));
+        }
+    }
+
+    public static class SyncBeanInterceptor implements BeanInterceptor<Person> {
+
+        private final List<String> calls;
+
+        SyncBeanInterceptor(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        @InterceptorDef(position = InterceptorPosition.CLOSE)
+        public void intercept(BeanInvocation<Person> invocation) throws Exception {
+            calls.add("sync " + invocation.getOperation());
+            invocation.proceed();
+        }
+    }
+
+    public static class GatedBeanInterceptor implements AsyncBeanInterceptor<Person> {
+
+        private final List<String> calls;
+        private final CompletableFuture<Void> gate;
+
+        GatedBeanInterceptor(List<String> calls, CompletableFuture<Void> gate) {
+            this.calls = calls;
+            this.gate = gate;
+        }
+
+        @Override
+        public CompletionStage<Void> interceptAsync(AsyncBeanInvocation<Person> invocation) {
+            calls.add("async " + invocation.getOperation());
+            return gate.thenCompose(v -> invocation.proceed());
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * BulkPropertyInterceptorTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BulkPropertyInterceptorTest {
+
+    private InterceptorTestContext context;
+    private List<String> calls;
+    private NameInterceptor nameInterceptor;
+    private PlainBeanProp<Person, String> firstName;
+    private PlainBeanProp<Person, ?> lastName;
+    private PlainBeanProp<Person, ?> age;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = InterceptorTestContext.install();
+        calls = new ArrayList<>();
+        nameInterceptor = new NameInterceptor(calls);
+        context.getRegistry().addPropertyInterceptor(nameInterceptor);
+        context.getRegistry().addPropertyInterceptor(new AuditInterceptor(calls));
+
+        BeanType<Person> type = (BeanType<Person>) TypeManager.forClass(Person.class);
+        firstName = (PlainBeanProp<Person, String>) type.getProperty("firstName");
+        lastName = type.getProperty("lastName");
+        age = type.getProperty("age");
+    }
+
+    /**
+     * The bulk interceptor is called once with all the changes, then the other interceptors per property.
+     */
+    @Test
+    public void bulkInterceptorIsCalledOnce() throws Exception {
+        Person person = Person.of("John", "Doe");
+        context.getManager().processAll(person, changes(firstName, "Jane", lastName, "Roe", age, 31));
+
+        assertEquals(Arrays.asList("all firstName=John>Jane lastName=Doe>Roe", "audit firstName", "audit lastName", "audit age"), calls);
+        assertEquals("Jane Roe", person.name);
+    }
+
+    /**
+     * The new values are set before the first interceptor is called.
+     */
+    @Test
+    public void valuesAreSetBeforeTheChain() throws Exception {
+        Person person = Person.of("John", "Doe");
+        context.getManager().processAll(person, changes(firstName, "Jane", lastName, "Roe"));
+
+        assertEquals(Arrays.asList("Jane", "Roe"), nameInterceptor.seenValues);
+    }
+
+    /**
+     * A bulk interceptor not supporting any of the changed properties is skipped.
+     */
+    @Test
+    public void bulkInterceptorOfOtherPropertiesIsSkipped() throws Exception {
+        Person person = Person.of("John", "Doe");
+        context.getManager().processAll(person, changes(age, 31));
+
+        assertEquals(Arrays.asList("audit age"), calls);
+        assertEquals(31, person.age);
+        assertNull(person.name);
+    }
+
+    /**
+     * A single change calls the per property method of the bulk interceptor.
+     */
+    @Test
+    public void singleChangeCallsIntercept() throws Exception {
+        Person person = Person.of("Jane", "Doe");
+        context.getManager().process(firstName, person, "John", "Jane");
+
+        assertTrue(calls.contains("single firstName=John>Jane"));
+        assertTrue(calls.contains("audit firstName"));
+        assertEquals(2, calls.size());
+        assertEquals("Jane Doe", person.name);
+    }
+
+    @Test
+    public void changedPropertiesAreMarkedDirty() throws Exception {
+        Person person = Person.of("John", "Doe");
+        context.getManager().processAll(person, changes(firstName, "Jane", age, 31));
+
+        DirtyTracker tracker = context.getTracker();
+        assertTrue(tracker.isDirty(person, firstName));
+        assertTrue(tracker.isDirty(person, age));
+        assertFalse(tracker.isDirty(person, lastName));
+    }
+
+    /**
+     * An exception of the bulk interceptor aborts the per property chains, the changes are not recorded.
+     */
+    @Test
+    public void failingBulkInterceptorAbortsTheChain() {
+        Person person = Person.of("John", "Doe");
+        nameInterceptor.fail = true;
+        try {
+            context.getManager().processAll(person, changes(firstName, "Jane"));
+            fail();
+        }
+        catch (Exception e) {
+            assertEquals("rejected", e.getMessage());
+        }
+
+        assertTrue(calls.isEmpty());
+        assertFalse(context.getTracker().isDirty(person));
+    }
+
+    private static Map<PlainBeanProp<Person, ?>, Object> changes(Object... propsAndValues) {
+        Map<PlainBeanProp<Person, ?>, Object> changes = new LinkedHashMap<>();
+        for (int i = 0; i < propsAndValues.length; i += 2) {
+            @SuppressWarnings("unchecked")
+            PlainBeanProp<Person, ?> prop = (PlainBeanProp<Person, ?>) propsAndValues[i];
+            changes.put(prop, propsAndValues[i + 1]);
+        }
+        return changes;
+    }
+
+    public static class Person {
+        @BeanProp
+        public String firstName;
+        @BeanProp
+        public String lastName;
+        @BeanProp
+        public String name;
+        @BeanProp
+        public int age;
+
+        static Person of(String firstName, String lastName) {
+            Person person = new Person();
+            person.firstName = firstName;
+            person.lastName = lastName;
+            return person;
+        }
+    }
+
+    public static class NameInterceptor implements BulkPropertyInterceptor<Person, String> {
+
+        private final List<String> calls;
+        private final List<Object> seenValues = new ArrayList<>();
+        private boolean fail;
+
+        NameInterceptor(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        @PropertyInterceptorDef(names = {"firstName", "lastName"})
+        public void intercept(PropertyInvocation<Person, String> invocation) throws Exception {
+            calls.add("single " + invocation.getPropertyMetadata().getPropertyName() + '=' +
+                    invocation.getOriginalValue() + '>' + invocation.getNewValue());
+            invocation.proceed();
+
+            Person person = invocation.getBean();
+            person.name = person.firstName + " " + person.lastName;
+        }
+
+        @Override
+        public void interceptAll(BulkPropertyInvocation<Person> invocation) throws Exception {
+            if (fail)
+                throw new IllegalStateException("rejected");
+
+            StringBuilder call = new StringBuilder("all");
+            for (int i = 0; i < invocation.size(); i++) {
+                PlainBeanProp<Person, ?> prop = invocation.getProperty(i);
+                if (!prop.getPropertyName().endsWith("Name"))
+                    continue;
+                call.append(' ').append(prop.getPropertyName()).append('=')
+                        .append(invocation.getOriginalValue(i)).append('>').append(invocation.getNewValue(i));
+                seenValues.add(prop.getValue(invocation.getBean()));
+            }
+            calls.add(call.toString());
+            invocation.proceed();
+
+            Person person = invocation.getBean();
+            person.name = person.firstName + " " + person.lastName;
+        }
+    }
+
+    public static class AuditInterceptor implements PropertyInterceptor<Person, Object> {
+
+        private final List<String> calls;
+
+        AuditInterceptor(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public void intercept(PropertyInvocation<Person, Object> invocation) throws Exception {
+            calls.add("audit " + invocation.getPropertyMetadata().getPropertyName());
+            invocation.proceed();
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * DirtyBitsTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TestContext;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class DirtyBitsTest {
+
+    private BeanType<?> smallType;
+    private BeanType<?> wideType;
+
+    @Before
+    public void setUp() {
+        TestContext.install();
+        smallType = (BeanType<?>) TypeManager.forClass(SmallBean.class);
+        wideType = (BeanType<?>) TypeManager.forClass(WideBean.class);
+    }
+
+    @Test
+    public void smallTypeIsTracked() {
+        DirtyBits bits = new DirtyBits(smallType);
+        assertEquals(3, bits.size());
+        assertFalse(bits.isDirty());
+        assertEquals(-1, bits.nextDirty(0));
+
+        bits.set(0);
+        bits.set(2);
+        assertTrue(bits.isDirty());
+        assertTrue(bits.isDirty(2));
+        assertFalse(bits.isDirty(1));
+        assertEquals(2, bits.cardinality());
+        assertEquals(2, bits.nextDirty(1));
+        assertEquals(-1, bits.nextDirty(3));
+
+        bits.clear(0);
+        assertEquals(2, bits.nextDirty(0));
+        bits.clear();
+        assertFalse(bits.isDirty());
+    }
+
+    /**
+     * The bits above 64 properties are stored in several words, the bits of the same word position must not collide.
+     */
+    @Test
+    public void wideTypeIsTracked() {
+        DirtyBits bits = new DirtyBits(wideType);
+        assertEquals(70, bits.size());
+
+        bits.set(1);
+        bits.set(63);
+        bits.set(64);
+        bits.set(69);
+        assertTrue(bits.isDirty(64));
+        assertTrue(bits.isDirty(69));
+        assertFalse(bits.isDirty(0));
+        assertFalse(bits.isDirty(5));
+        assertFalse(bits.isDirty(65));
+        assertEquals(4, bits.cardinality());
+
+        List<Integer> dirty = new ArrayList<>();
+        for (int i = bits.nextDirty(0); i >= 0; i = bits.nextDirty(i + 1))
+            dirty.add(i);
+        assertEquals(Arrays.asList(1, 63, 64, 69), dirty);
+
+        BitSet expected = new BitSet();
+        expected.set(1);
+        expected.set(63);
+        expected.set(64);
+        expected.set(69);
+        assertEquals(expected, bits.toBitSet());
+
+        List<PlainBeanProp<?, ?>> props = bits.getDirtyProperties();
+        assertEquals(4, props.size());
+        assertSame(wideType.getProperty(69), props.get(3));
+
+        bits.clear(63);
+        bits.clear(1);
+        assertEquals(64, bits.nextDirty(0));
+        bits.clear(64);
+        bits.clear(69);
+        assertFalse(bits.isDirty());
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        DirtyBits bits = new DirtyBits(wideType);
+        bits.set(66);
+        DirtyBits copy = bits.copy();
+        bits.clear();
+        assertTrue(copy.isDirty(66));
+        assertFalse(bits.isDirty(66));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexAboveTheSizeIsRejected() {
+        new DirtyBits(wideType).set(70);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexAboveTheSmallSizeIsRejected() {
+        // without the check the unused bit 3 of the single word would be read
+        new DirtyBits(smallType).isDirty(3);
+    }
+
+    @Test
+    public void trackerRecordsTheChanges() {
+        DirtyTracker tracker = new DirtyTracker();
+        WideBean bean = new WideBean();
+        @SuppressWarnings("unchecked")
+        PlainBeanProp<WideBean, ?> prop = (PlainBeanProp<WideBean, ?>) wideType.getProperty(67);
+
+        assertFalse(tracker.isDirty(bean));
+        tracker.markDirty(prop, bean);
+        assertTrue(tracker.isDirty(bean));
+        assertTrue(tracker.isDirty(bean, prop));
+        assertEquals(67, tracker.getDirtyBits(bean).nextDirty(0));
+
+        DirtyBits bits = tracker.checkpoint(bean);
+        assertTrue(bits.isDirty(67));
+        assertFalse(tracker.isDirty(bean));
+        assertNull(tracker.checkpoint(bean));
+    }
+
+    public static class SmallBean {
+        @BeanProp
+        public int a;
+        @BeanProp
+        public int b;
+        @BeanProp
+        public int c;
+    }
+
+    public static class WideBean {
+        @BeanProp
+        public int p00;
+        @BeanProp
+        public int p01;
+        @BeanProp
+        public int p02;
+        @BeanProp
+        public int p03;
+        @BeanProp
+        public int p04;
+        @BeanProp
+        public int p05;
+        @BeanProp
+        public int p06;
+        @BeanProp
+        public int p07;
+        @BeanProp
+        public int p08;
+        @BeanProp
+        public int p09;
+        @BeanProp
+        public int p10;
+        @BeanProp
+        public int p11;
+        @BeanProp
+        public int p12;
+        @BeanProp
+        public int p13;
+        @BeanProp
+        public int p14;
+        @BeanProp
+        public int p15;
+        @BeanProp
+        public int p16;
+        @BeanProp
+        public int p17;
+        @BeanProp
+        public int p18;
+        @BeanProp
+        public int p19;
+        @BeanProp
+        public int p20;
+        @BeanProp
+        public int p21;
+        @BeanProp
+        public int p22;
+        @BeanProp
+        public int p23;
+        @BeanProp
+        public int p24;
+        @BeanProp
+        public int p25;
+        @BeanProp
+        public int p26;
+        @BeanProp
+        public int p27;
+        @BeanProp
+        public int p28;
+        @BeanProp
+        public int p29;
+        @BeanProp
+        public int p30;
+        @BeanProp
+        public int p31;
+        @BeanProp
+        public int p32;
+        @BeanProp
+        public int p33;
+        @BeanProp
+        public int p34;
+        @BeanProp
+        public int p35;
+        @BeanProp
+        public int p36;
+        @BeanProp
+        public int p37;
+        @BeanProp
+        public int p38;
+        @BeanProp
+        public int p39;
+        @BeanProp
+        public int p40;
+        @BeanProp
+        public int p41;
+        @BeanProp
+        public int p42;
+        @BeanProp
+        public int p43;
+        @BeanProp
+        public int p44;
+        @BeanProp
+        public int p45;
+        @BeanProp
+        public int p46;
+        @BeanProp
+        public int p47;
+        @BeanProp
+        public int p48;
+        @BeanProp
+        public int p49;
+        @BeanProp
+        public int p50;
+        @BeanProp
+        public int p51;
+        @BeanProp
+        public int p52;
+        @BeanProp
+        public int p53;
+        @BeanProp
+        public int p54;
+        @BeanProp
+        public int p55;
+        @BeanProp
+        public int p56;
+        @BeanProp
+        public int p57;
+        @BeanProp
+        public int p58;
+        @BeanProp
+        public int p59;
+        @BeanProp
+        public int p60;
+        @BeanProp
+        public int p61;
+        @BeanProp
+        public int p62;
+        @BeanProp
+        public int p63;
+        @BeanProp
+        public int p64;
+        @BeanProp
+        public int p65;
+        @BeanProp
+        public int p66;
+        @BeanProp
+        public int p67;
+        @BeanProp
+        public int p68;
+        @BeanProp
+        public int p69;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * InterceptorIndexTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TestContext;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the index resolves the same interceptors in the same order as checking all registered interceptors.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class InterceptorIndexTest {
+
+    private List<BeanInterceptorInfo<?>> beanInterceptors;
+    private List<PropertyInterceptorInfo<?, ?>> propertyInterceptors;
+    private InterceptorIndex index;
+
+    @Before
+    public void setUp() {
+        TestContext.install();
+
+        beanInterceptors = Arrays.asList(
+                new BeanInterceptorInfo<>(new PersonBeanInterceptor()),
+                new BeanInterceptorInfo<>(new ScoredBeanInterceptor()),
+                new BeanInterceptorInfo<>(new AnyBeanInterceptor()),
+                new BeanInterceptorInfo<>(new PersonBeanInterceptor()));
+
+        propertyInterceptors = Arrays.asList(
+                new PropertyInterceptorInfo<>(new AnyPersonInterceptor()),
+                new PropertyInterceptorInfo<>(new StringInterceptor()),
+                new PropertyInterceptorInfo<>(new NameInterceptor()),
+                new PropertyInterceptorInfo<>(new PatternInterceptor()),
+                new PropertyInterceptorInfo<>(new ScoredInterceptor()),
+                new PropertyInterceptorInfo<>(new TeamInterceptor()),
+                new PropertyInterceptorInfo<>(new NumberInterceptor()),
+                new PropertyInterceptorInfo<Object, Object>(new AnyInterceptor()) {
+                    @Override
+                    public boolean supports(PlainBeanProp<?, ?> target) {
+                        return target.getPropertyName().startsWith("s");
+                    }
+                },
+                new PropertyInterceptorInfo<>(new StringInterceptor()));
+
+        index = new InterceptorIndex(1, beanInterceptors, propertyInterceptors);
+    }
+
+    @Test
+    public void beanInterceptorsEqualTheLinearScan() {
+        for (Class<?> beanClass : Arrays.asList(Person.class, Player.class, Team.class)) {
+            BeanType<?> type = getType(beanClass);
+            assertEquals(beanClass.getSimpleName(), linearScan(beanInterceptors, info -> info.supports(type)), index.getInterceptors(type));
+        }
+    }
+
+    @Test
+    public void propertyInterceptorsEqualTheLinearScan() {
+        int resolved = 0;
+        for (Class<?> beanClass : Arrays.asList(Person.class, Player.class, Team.class)) {
+            for (PlainBeanProp<?, ?> prop : getType(beanClass).getProperties()) {
+                List<PropertyInterceptorInfo<?, ?>> expected = linearScan(propertyInterceptors, info -> info.supports(prop));
+                assertEquals(prop.getSimplePropertyName(), expected, index.getInterceptors(prop));
+                resolved += expected.size();
+            }
+        }
+        // the beans are built so most of the interceptors apply to some property
+        assertTrue(resolved > 20);
+    }
+
+    @Test
+    public void literalNamesAreResolved() {
+        PlainBeanProp<?, ?> firstName = getType(Player.class).getProperty("firstName");
+        List<? extends PropertyInterceptorInfo<?, ?>> interceptors = index.getInterceptors(firstName);
+        assertTrue(interceptors.contains(propertyInterceptors.get(2)));
+        assertTrue(interceptors.contains(propertyInterceptors.get(3)));
+        assertFalse(interceptors.contains(propertyInterceptors.get(5)));
+        // sorted by the position, START is the last one
+        PlainBeanProp<?, ?> teamName = getType(Team.class).getProperty("name");
+        List<? extends PropertyInterceptorInfo<?, ?>> teamInterceptors = index.getInterceptors(teamName);
+        assertSame(propertyInterceptors.get(5), teamInterceptors.get(teamInterceptors.size() - 1));
+    }
+
+    /**
+     * The linear resolution of the interceptor manager before the index: reverse registration order, stable sorted by position.
+     */
+    private static <_I extends InterceptorInfo<?>> List<_I> linearScan(List<? extends _I> all, Predicate<_I> supports) {
+        List<_I> result = new ArrayList<>();
+        for (int i = all.size(); --i >= 0; )
+            if (supports.test(all.get(i)))
+                result.add(all.get(i));
+        result.sort(InterceptorPosition.interceptorInfoComparator::compare);
+        return result;
+    }
+
+    private static BeanType<?> getType(Class<?> beanClass) {
+        return (BeanType<?>) TypeManager.forClass(beanClass);
+    }
+
+    public interface Scored {
+    }
+
+    public static class Person {
+        @BeanProp
+        public String firstName;
+        @BeanProp
+        public String lastName;
+        @BeanProp
+        public String nickName;
+        @BeanProp
+        public int age;
+        @BeanProp
+        public double weight;
+        @BeanProp
+        public String[] aliases;
+    }
+
+    public static class Player extends Person implements Scored {
+        @BeanProp
+        public int score;
+        @BeanProp
+        public Team team;
+    }
+
+    public static class Team {
+        @BeanProp
+        public String name;
+        @BeanProp
+        public long size;
+        @BeanProp
+        public List<String> sponsors;
+    }
+
+    public static class PersonBeanInterceptor implements BeanInterceptor<Person> {
+        @Override
+        public void intercept(BeanInvocation<Person> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class ScoredBeanInterceptor implements BeanInterceptor<Scored> {
+        @Override
+        @InterceptorDef(position = InterceptorPosition.START)
+        public void intercept(BeanInvocation<Scored> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class AnyBeanInterceptor implements BeanInterceptor<Object> {
+        @Override
+        @InterceptorDef(position = InterceptorPosition.CLOSE)
+        public void intercept(BeanInvocation<Object> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class AnyPersonInterceptor implements PropertyInterceptor<Person, Object> {
+        @Override
+        public void intercept(PropertyInvocation<Person, Object> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class StringInterceptor implements PropertyInterceptor<Object, String> {
+        @Override
+        @InterceptorDef(position = InterceptorPosition.CLOSEST)
+        public void intercept(PropertyInvocation<Object, String> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class NameInterceptor implements PropertyInterceptor<Person, String> {
+        @Override
+        @PropertyInterceptorDef(names = {"firstName", "lastName"})
+        public void intercept(PropertyInvocation<Person, String> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class PatternInterceptor implements PropertyInterceptor<Person, Object> {
+        @Override
+        @PropertyInterceptorDef(names = {"*Name", "Player.s*"})
+        public void intercept(PropertyInvocation<Person, Object> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class ScoredInterceptor implements PropertyInterceptor<Scored, Integer> {
+        @Override
+        @InterceptorDef(position = InterceptorPosition.AROUND)
+        public void intercept(PropertyInvocation<Scored, Integer> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class TeamInterceptor implements PropertyInterceptor<Team, Object> {
+        @Override
+        @InterceptorDef(position = InterceptorPosition.START)
+        @PropertyInterceptorDef(names = {"name", "sponsors"})
+        public void intercept(PropertyInvocation<Team, Object> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class NumberInterceptor implements PropertyInterceptor<Object, Number> {
+        @Override
+        public void intercept(PropertyInvocation<Object, Number> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+
+    public static class AnyInterceptor implements PropertyInterceptor<Object, Object> {
+        @Override
+        public void intercept(PropertyInvocation<Object, Object> invocation) throws Exception {
+            invocation.proceed();
+        }
+    }
+}
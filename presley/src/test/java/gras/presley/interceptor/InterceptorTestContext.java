@@ -0,0 +1,111 @@
+/*
+ * InterceptorTestContext
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.interceptor;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TestContext;
+import gras.presley.metadata.TypeManager;
+import gras.presley.metrics.InvocationMetrics;
+import gras.presley.metrics.MetricsRecorder;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Application context of the interceptor tests, having a type manager, a changeable interceptor registry,
+ * an interceptor manager and a dirty tracker. The invocations are timed after {@link #enableMetrics()}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class InterceptorTestContext extends TestContext {
+
+    private final DefaultInterceptorRegistry interceptorRegistry = new DefaultInterceptorRegistry();
+    private final Manager interceptorManager = new Manager();
+    private final DirtyTracker dirtyTracker = new DirtyTracker();
+    private InvocationMetrics metrics;
+
+    protected InterceptorTestContext() {
+        super(new TypeManager() {});
+    }
+
+    /**
+     * Installs a context with a new default type manager and an empty interceptor registry.
+     */
+    public static InterceptorTestContext install() {
+        InterceptorTestContext context = new InterceptorTestContext();
+        setInstance(context);
+        return context;
+    }
+
+    public DefaultInterceptorRegistry getRegistry() {
+        return interceptorRegistry;
+    }
+
+    public Manager getManager() {
+        return interceptorManager;
+    }
+
+    public DirtyTracker getTracker() {
+        return dirtyTracker;
+    }
+
+    /**
+     * Starts recording the invocations of the interceptors.
+     */
+    public InvocationMetrics enableMetrics() {
+        metrics = new InvocationMetrics("test");
+        return metrics;
+    }
+
+    @Override
+    protected InterceptorRegistry getInterceptorRegistryImpl() {
+        return interceptorRegistry;
+    }
+
+    @Override
+    protected InterceptorManager getInterceptorManagerImpl() {
+        return interceptorManager;
+    }
+
+    @Override
+    protected DirtyTracker getDirtyTrackerImpl() {
+        return dirtyTracker;
+    }
+
+    @Override
+    protected MetricsRecorder getMetricsRecorderImpl() {
+        return metrics;
+    }
+
+    /**
+     * Opens the processing methods of the interceptor manager to the tests.
+     */
+    public static class Manager extends InterceptorManager {
+
+        public <_B, _P> void process(PlainBeanProp<_B, _P> prop, _B bean, _P originalValue, _P newValue) throws Exception {
+            processProperty(prop, bean, originalValue, newValue);
+        }
+
+        public <_B> void processAll(_B bean, Map<? extends PlainBeanProp<_B, ?>, ?> newValues) throws Exception {
+            processProperties(bean, newValues);
+        }
+
+        public <_B, _P> CompletionStage<Void> processAsync(PlainBeanProp<_B, _P> prop, _B bean, _P originalValue, _P newValue) {
+            return processPropertyAsync(prop, bean, originalValue, newValue);
+        }
+
+        public <_B> void process(BeanType<_B> type, _B bean, BeanOperation operation) throws Exception {
+            processBean(type, bean, operation);
+        }
+
+        public <_B> CompletionStage<Void> processAsync(BeanType<_B> type, _B bean, BeanOperation operation) {
+            return processBeanAsync(type, bean, operation);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * BeanAccessorTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BeanAccessorTest {
+
+    @Before
+    public void setUp() {
+        TestContext.install();
+        GeneratedBean.BeanMetadata.bulkReads = 0;
+        GeneratedBean.BeanMetadata.bulkWrites = 0;
+    }
+
+    /**
+     * The generated accessor reads and writes the whole bean with one call, in the property index order,
+     * which differs from the generated order.
+     */
+    @Test
+    public void generatedBeanIsAccessedInBulk() {
+        BeanAccessor<GeneratedBean> accessor = getType(GeneratedBean.class).getAccessor();
+        GeneratedBean bean = new GeneratedBean();
+        bean.name = "Doe";
+        bean.size = 3;
+        bean.code = "X";
+
+        Object[] values = accessor.readAll(bean, null);
+        assertArrayEquals(new Object[] {3, "Doe", "X"}, values);
+        assertEquals(1, GeneratedBean.BeanMetadata.bulkReads);
+
+        accessor.writeAll(bean, new Object[] {4, "Roe", "Y"});
+        assertEquals(1, GeneratedBean.BeanMetadata.bulkWrites);
+        assertEquals("Roe", bean.name);
+        assertEquals(4, bean.size);
+        assertEquals("Y", bean.code);
+    }
+
+    /**
+     * A property without a generated writer disables the bulk write only.
+     */
+    @Test
+    public void runtimeLinkedWriterIsWrittenPerProperty() {
+        BeanAccessor<PartlyGeneratedBean> accessor = getType(PartlyGeneratedBean.class).getAccessor();
+        PartlyGeneratedBean bean = new PartlyGeneratedBean();
+        bean.name = "Doe";
+        bean.size = 3;
+        bean.code = "X";
+
+        assertArrayEquals(new Object[] {3, "Doe", "X"}, accessor.readAll(bean, new Object[3]));
+        assertEquals(1, GeneratedBean.BeanMetadata.bulkReads);
+
+        accessor.writeAll(bean, new Object[] {4, "Roe", "Y"});
+        assertEquals(0, GeneratedBean.BeanMetadata.bulkWrites);
+        assertEquals("Roe", bean.name);
+        assertEquals(4, bean.size);
+        assertEquals("Y", bean.code);
+    }
+
+    /**
+     * The getters come first in the reflective property order.
+     */
+    @Test
+    public void reflectiveBeanIsAccessedPerProperty() {
+        BeanAccessor<PlainBean> accessor = getType(PlainBean.class).getAccessor();
+        PlainBean bean = new PlainBean();
+        bean.name = "Doe";
+        bean.size = 3;
+
+        Object[] values = accessor.readAll(bean, null);
+        assertArrayEquals(new Object[] {"DOE", "Doe", 3}, values);
+
+        accessor.writeAll(bean, new Object[] {"ignored", "Roe", 4});
+        assertEquals("Roe", bean.name);
+        assertEquals(4, bean.size);
+        assertEquals("ROE", accessor.get(bean, 0));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyPropertyCanNotBeSet() {
+        getType(PlainBean.class).getAccessor().set(new PlainBean(), 0, "X");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <_B> BeanType<_B> getType(Class<_B> clazz) {
+        return (BeanType<_B>) TypeManager.forClass(clazz);
+    }
+
+    public static class PlainBean {
+        @BeanProp
+        public String name;
+        @BeanProp
+        public int size;
+
+        @BeanProp
+        public String getUpperName() {
+            return name != null ? name.toUpperCase() : null;
+        }
+    }
+
+    public static class GeneratedBean {
+        @BeanProp(index = 1)
+        public String name;
+        @BeanProp(index = 0)
+        public int size;
+        @BeanProp
+        public String code;
+
+        /**
+         * Written as the annotation processor would generate it.
+         */
+        public static final class BeanMetadata implements GeneratedBeanMetadata<GeneratedBean> {
+
+            static int bulkReads;
+            static int bulkWrites;
+
+            @Override
+            public List<GeneratedProperty> getProperties() {
+                return properties(GeneratedBean.class, true);
+            }
+
+            static List<GeneratedProperty> properties(Class<?> beanClass, boolean codeWriter) {
+                return Arrays.asList(
+                        new GeneratedProperty(true, 1, beanClass, "name", null, null, null, null, new Accessor(0), new Accessor(0)),
+                        new GeneratedProperty(true, 0, beanClass, "size", null, null, null, null, new Accessor(1), new Accessor(1)),
+                        new GeneratedProperty(true, -1, beanClass, "code", null, null, null, null, new Accessor(2), codeWriter ? new Accessor(2) : null));
+            }
+        }
+    }
+
+    public static class PartlyGeneratedBean extends GeneratedBean {
+
+        public static final class BeanMetadata implements GeneratedBeanMetadata<PartlyGeneratedBean> {
+
+            @Override
+            public List<GeneratedProperty> getProperties() {
+                return GeneratedBean.BeanMetadata.properties(GeneratedBean.class, false);
+            }
+        }
+    }
+
+    private static final class Accessor implements Function<Object, Object>, BiConsumer<Object, Object>,
+            ToIntFunction<Object>, ObjIntConsumer<Object>, GeneratedAccessor {
+
+        private final int id;
+
+        Accessor(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public int getPropertyCount() {
+            return 3;
+        }
+
+        @Override
+        public Object apply(Object bean) {
+            switch (id) {
+                case 0: return ((GeneratedBean) bean).name;
+                case 1: return ((GeneratedBean) bean).size;
+                case 2: return ((GeneratedBean) bean).code;
+                default: throw new UnsupportedOperationException();
+            }
+        }
+
+        @Override
+        public void accept(Object bean, Object value) {
+            switch (id) {
+                case 0: ((GeneratedBean) bean).name = (String) value; return;
+                case 1: ((GeneratedBean) bean).size = (Integer) value; return;
+                case 2: ((GeneratedBean) bean).code = (String) value; return;
+                default: throw new UnsupportedOperationException();
+            }
+        }
+
+        @Override
+        public int applyAsInt(Object bean) {
+            return ((GeneratedBean) bean).size;
+        }
+
+        @Override
+        public void accept(Object bean, int value) {
+            ((GeneratedBean) bean).size = value;
+        }
+
+        @Override
+        public void readAll(Object bean, Object[] values, int[] positions) {
+            GeneratedBean.BeanMetadata.bulkReads++;
+            values[positions[0]] = ((GeneratedBean) bean).name;
+            values[positions[1]] = ((GeneratedBean) bean).size;
+            values[positions[2]] = ((GeneratedBean) bean).code;
+        }
+
+        @Override
+        public void writeAll(Object bean, Object[] values, int[] positions) {
+            GeneratedBean.BeanMetadata.bulkWrites++;
+            ((GeneratedBean) bean).name = (String) values[positions[0]];
+            ((GeneratedBean) bean).size = (Integer) values[positions[1]];
+            ((GeneratedBean) bean).code = (String) values[positions[2]];
+        }
+    }
+}
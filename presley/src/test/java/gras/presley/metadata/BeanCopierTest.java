@@ -0,0 +1,137 @@
+/*
+ * BeanCopierTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import gras.presley.metadata.BeanDiffTest.PrimitiveBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BeanCopierTest {
+
+    @Before
+    public void setUp() {
+        TestContext.install();
+    }
+
+    @Test
+    public void allPropertiesAreCopied() {
+        BeanType<PrimitiveBean> type = getType(PrimitiveBean.class);
+        PrimitiveBean source = PrimitiveBean.sample();
+        PrimitiveBean target = new PrimitiveBean();
+        type.getCopier().copy(source, target);
+
+        assertTrue(type.getDiff().isEqual(source, target));
+        assertEquals(-300, target.s);
+        assertEquals('x', target.c);
+        assertEquals(1.5f, target.f, 0.0f);
+        assertSame(source.values, target.values);
+    }
+
+    @Test
+    public void selectedPropertiesAreCopied() {
+        BeanType<PrimitiveBean> type = getType(PrimitiveBean.class);
+        BitSet indexes = new BitSet();
+        indexes.set(type.getProperty("b").getIndex());
+        PrimitiveBean target = new PrimitiveBean();
+        type.getCopier().copy(PrimitiveBean.sample(), target, indexes);
+
+        assertEquals(-7, target.b);
+        assertEquals(0, target.s);
+        assertNull(target.name);
+    }
+
+    @Test
+    public void setterPropertiesAreCopied() {
+        BeanType<SetterBean> type = getType(SetterBean.class);
+        SetterBean source = new SetterBean();
+        source.setSmall((short) 12);
+        source.setRatio(0.25f);
+        SetterBean target = new SetterBean();
+        type.getCopier().copy(source, target);
+
+        assertEquals(12, target.getSmall());
+        assertEquals(0.25f, target.getRatio(), 0.0f);
+    }
+
+    /**
+     * The narrow primitives have specialized accessors, a boxed {@link Integer} could not be passed to the setter.
+     */
+    @Test
+    public void narrowPrimitivesAreWrittenAsCast() {
+        BeanType<SetterBean> type = getType(SetterBean.class);
+        SetterBean bean = new SetterBean();
+        type.getProperty("small").setInt(bean, 0x12345);
+        type.getProperty("ratio").setDouble(bean, 0.1);
+
+        assertEquals((short) 0x12345, bean.getSmall());
+        assertEquals(0x2345, type.getProperty("small").getInt(bean));
+        assertEquals(0.1f, bean.getRatio(), 0.0f);
+        assertEquals((double) 0.1f, type.getProperty("ratio").getDouble(bean), 0.0);
+    }
+
+    @Test
+    public void onlyChangedPropertiesAreMerged() {
+        BeanType<SetterBean> type = getType(SetterBean.class);
+        SetterBean source = new SetterBean();
+        source.setSmall((short) 3);
+        SetterBean target = new SetterBean();
+        target.setRatio(0.5f);
+        target.writes = 0;
+
+        BitSet merged = type.getCopier().merge(source, target, null);
+        assertEquals(2, merged.cardinality());
+        assertEquals(2, target.writes);
+        assertEquals(3, target.getSmall());
+        assertEquals(0.0f, target.getRatio(), 0.0f);
+        assertEquals("3", target.getLabel());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <_B> BeanType<_B> getType(Class<_B> clazz) {
+        return (BeanType<_B>) TypeManager.forClass(clazz);
+    }
+
+    public static class SetterBean {
+
+        private short small;
+        private float ratio;
+        int writes;
+
+        @BeanProp
+        public short getSmall() {
+            return small;
+        }
+
+        public void setSmall(short small) {
+            this.small = small;
+            writes++;
+        }
+
+        @BeanProp
+        public float getRatio() {
+            return ratio;
+        }
+
+        public void setRatio(float ratio) {
+            this.ratio = ratio;
+            writes++;
+        }
+
+        @BeanProp
+        public String getLabel() {
+            return String.valueOf(small);
+        }
+    }
+}
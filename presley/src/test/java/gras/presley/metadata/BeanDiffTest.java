@@ -0,0 +1,121 @@
+/*
+ * BeanDiffTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BeanDiffTest {
+
+    private BeanType<PrimitiveBean> type;
+    private BeanDiff<PrimitiveBean> diff;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        TestContext.install();
+        type = (BeanType<PrimitiveBean>) TypeManager.forClass(PrimitiveBean.class);
+        diff = type.getDiff();
+    }
+
+    @Test
+    public void narrowPrimitivesHaveWidenedKinds() {
+        assertEquals(BeanDiff.KIND_INT, BeanDiff.getKind(type.getProperty("s")));
+        assertEquals(BeanDiff.KIND_INT, BeanDiff.getKind(type.getProperty("b")));
+        assertEquals(BeanDiff.KIND_INT, BeanDiff.getKind(type.getProperty("c")));
+        assertEquals(BeanDiff.KIND_DOUBLE, BeanDiff.getKind(type.getProperty("f")));
+        assertEquals(BeanDiff.KIND_LONG, BeanDiff.getKind(type.getProperty("l")));
+        assertEquals(BeanDiff.KIND_BOOLEAN, BeanDiff.getKind(type.getProperty("z")));
+        assertEquals(BeanDiff.KIND_ARRAY, BeanDiff.getKind(type.getProperty("values")));
+        assertEquals(BeanDiff.KIND_OBJECT, BeanDiff.getKind(type.getProperty("name")));
+    }
+
+    @Test
+    public void equalBeansHaveNoDifference() {
+        assertTrue(diff.isEqual(PrimitiveBean.sample(), PrimitiveBean.sample()));
+        assertTrue(diff.diff(PrimitiveBean.sample(), PrimitiveBean.sample()).isEmpty());
+    }
+
+    @Test
+    public void everyPropertyIsCompared() {
+        PrimitiveBean a = PrimitiveBean.sample();
+        PrimitiveBean b = new PrimitiveBean();
+        b.values = new int[0];
+        BitSet expected = new BitSet();
+        expected.set(0, type.getProperties().size());
+        assertEquals(expected, diff.diff(a, b));
+    }
+
+    @Test
+    public void changedPropertyIsReported() {
+        PrimitiveBean a = PrimitiveBean.sample();
+        PrimitiveBean b = PrimitiveBean.sample();
+        b.c = 'y';
+        b.f = -0.5f;
+        b.values[1] = 9;
+
+        BitSet expected = new BitSet();
+        expected.set(type.getProperty("c").getIndex());
+        expected.set(type.getProperty("f").getIndex());
+        expected.set(type.getProperty("values").getIndex());
+        assertEquals(expected, diff.diff(a, b, new BitSet()));
+        assertFalse(diff.isEqual(a, b));
+    }
+
+    @Test
+    public void floatsAreComparedAsFloatEquals() {
+        PrimitiveBean a = new PrimitiveBean();
+        PrimitiveBean b = new PrimitiveBean();
+        int index = type.getProperty("f").getIndex();
+        a.f = Float.NaN;
+        b.f = Float.NaN;
+        assertTrue(diff.isEqual(a, b, index));
+        a.f = 0.0f;
+        b.f = -0.0f;
+        assertFalse(diff.isEqual(a, b, index));
+    }
+
+    public static class PrimitiveBean {
+        @BeanProp
+        public short s;
+        @BeanProp
+        public byte b;
+        @BeanProp
+        public char c;
+        @BeanProp
+        public float f;
+        @BeanProp
+        public long l;
+        @BeanProp
+        public boolean z;
+        @BeanProp
+        public int[] values;
+        @BeanProp
+        public String name;
+
+        static PrimitiveBean sample() {
+            PrimitiveBean bean = new PrimitiveBean();
+            bean.s = -300;
+            bean.b = -7;
+            bean.c = 'x';
+            bean.f = 1.5f;
+            bean.l = 1L << 40;
+            bean.z = true;
+            bean.values = new int[] {1, 2};
+            bean.name = "Doe";
+            return bean;
+        }
+    }
+}
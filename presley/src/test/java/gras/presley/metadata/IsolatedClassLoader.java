@@ -0,0 +1,45 @@
+/*
+ * IsolatedClassLoader
+ * Create Date: 2020. 04. 16.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import gras.berry.ReflectionUtils;
+import org.junit.Assert;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * Loads the framework, the tests and JUnit again, without delegating to the class loader of the tests.
+ * The classes loaded by it start with uninitialized statics, like in a fresh JVM,
+ * and they can be unloaded together with the loader.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class IsolatedClassLoader extends URLClassLoader {
+
+    public IsolatedClassLoader() {
+        super(new URL[] {
+                getLocation(TypeManager.class),
+                getLocation(ReflectionUtils.class),
+                getLocation(IsolatedClassLoader.class),
+                getLocation(Assert.class)
+        }, ClassLoader.getSystemClassLoader().getParent());
+    }
+
+    /**
+     * Runs a new instance of the given test class in this loader.
+     */
+    public void run(Class<? extends Runnable> testClass) throws ReflectiveOperationException {
+        Class<?> isolated = loadClass(testClass.getName());
+        ((Runnable) isolated.getDeclaredConstructor().newInstance()).run();
+    }
+
+    private static URL getLocation(Class<?> clazz) {
+        return clazz.getProtectionDomain().getCodeSource().getLocation();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * PlainBeanPropTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class PlainBeanPropTest {
+
+    private BeanType<Bean> type;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        TestContext.install();
+        type = (BeanType<Bean>) TypeManager.forClass(Bean.class);
+    }
+
+    @Test
+    public void primitiveIsReadWithoutBoxing() {
+        Bean bean = new Bean();
+        type.getProperty("size").setInt(bean, 3);
+        assertEquals(3, type.getProperty("size").getInt(bean));
+    }
+
+    @Test
+    public void wrapperIsUnboxed() {
+        Bean bean = new Bean();
+        bean.count = 5;
+        assertEquals(5, type.getProperty("count").getInt(bean));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullWrapperCanNotBeRead() {
+        type.getProperty("count").getInt(new Bean());
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void otherTypeCanNotBeRead() {
+        Bean bean = new Bean();
+        bean.name = "Doe";
+        type.getProperty("name").getLong(bean);
+    }
+
+    @Test
+    public void failureNamesTheProperty() {
+        try {
+            type.getProperty("count").getDouble(new Bean());
+            fail();
+        }
+        catch (NullPointerException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("count"));
+        }
+    }
+
+    public static class Bean {
+        @BeanProp
+        public int size;
+        @BeanProp
+        public Integer count;
+        @BeanProp
+        public String name;
+    }
+}
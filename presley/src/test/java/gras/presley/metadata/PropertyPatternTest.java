@@ -0,0 +1,114 @@
+/*
+ * PropertyPatternTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class PropertyPatternTest {
+
+    private BeanType<?> trackType;
+
+    @Before
+    public void setUp() {
+        TestContext.install();
+        trackType = (BeanType<?>) TypeManager.forClass(Track.class);
+    }
+
+    @Test
+    public void nameWithoutWildCardMatchesExactly() {
+        PropertyPattern pattern = PropertyPattern.compile("modDate");
+        assertTrue(pattern.matches(prop("modDate")));
+        assertFalse(pattern.matches(prop("modDates")));
+        assertFalse(pattern.matches(prop("lastModDate")));
+        assertTrue(pattern.isLiteral());
+        assertEquals("modDate", pattern.getLiteralPropertyName());
+    }
+
+    /**
+     * A '?' without '*' is not a wild card, so the pattern matches only the same text.
+     */
+    @Test
+    public void questionMarkWithoutStarIsLiteral() {
+        PropertyPattern pattern = PropertyPattern.compile("colou?r");
+        assertFalse(pattern.matches(prop("color")));
+        assertFalse(pattern.matches(prop("colour")));
+        assertTrue(pattern.isLiteral());
+    }
+
+    @Test
+    public void starMatchesAnySequence() {
+        assertTrue(PropertyPattern.compile("*mod*").matches(prop("modDate")));
+        assertTrue(PropertyPattern.compile("*mod*").matches(prop("lastmodified")));
+        assertFalse(PropertyPattern.compile("*mod*").matches(prop("name")));
+        assertTrue(PropertyPattern.compile("*Date").matches(prop("modDate")));
+        assertFalse(PropertyPattern.compile("*Date").matches(prop("modDates")));
+        assertTrue(PropertyPattern.compile("mod*s").matches(prop("modDates")));
+        assertTrue(PropertyPattern.compile("m*D*e").matches(prop("modDate")));
+        assertFalse(PropertyPattern.compile("*mod*").isLiteral());
+    }
+
+    /**
+     * In a pattern with '*' the '?' keeps its regexp meaning, it makes the preceding character optional.
+     */
+    @Test
+    public void questionMarkWithStarIsRegexpQuantifier() {
+        PropertyPattern pattern = PropertyPattern.compile("colou?r*");
+        assertTrue(pattern.matches(prop("color")));
+        assertTrue(pattern.matches(prop("colour")));
+        assertFalse(pattern.matches(prop("colr")));
+        assertFalse(pattern.isLiteral());
+    }
+
+    @Test
+    public void qualifiedPatternMatchesTheClassName() {
+        assertTrue(PropertyPattern.compile("*Track*.*mod*").matches(prop("modDate")));
+        assertFalse(PropertyPattern.compile("*Album*.*mod*").matches(prop("modDate")));
+        assertTrue(PropertyPattern.compile("Track.name").matches(prop("name")));
+        assertFalse(PropertyPattern.compile("Album.name").matches(prop("name")));
+
+        PropertyPattern pattern = PropertyPattern.compile("Tr*.name");
+        assertTrue(pattern.matches(prop("name")));
+        assertFalse(pattern.matches(prop("modDate")));
+        assertEquals("name", pattern.getLiteralPropertyName());
+    }
+
+    @Test
+    public void starMatchesAll() {
+        assertSame(PropertyPattern.MATCH_ALL, PropertyPattern.compile("*"));
+        assertTrue(PropertyPattern.MATCH_ALL.matches(prop("name")));
+    }
+
+    private PlainBeanProp<?, ?> prop(String name) {
+        return trackType.getProperty(name);
+    }
+
+    public static class Track {
+        @BeanProp
+        public String name;
+        @BeanProp
+        public String modDate;
+        @BeanProp
+        public String modDates;
+        @BeanProp
+        public String lastModDate;
+        @BeanProp
+        public String lastmodified;
+        @BeanProp
+        public String color;
+        @BeanProp
+        public String colour;
+        @BeanProp
+        public String colr;
+    }
+}
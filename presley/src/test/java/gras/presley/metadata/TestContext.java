@@ -0,0 +1,78 @@
+/*
+ * TestContext
+ * Create Date: 2020. 04. 16.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import gras.presley.ctx.ApplicationContext;
+import gras.presley.evaluator.EvaluatorRegistry;
+import gras.presley.evaluator.StateManager;
+import gras.presley.interceptor.InterceptorManager;
+import gras.presley.interceptor.InterceptorRegistry;
+import gras.presley.operation.OperationManager;
+import gras.presley.operation.OperationRegistry;
+
+/**
+ * Application context of the metadata tests, having only a type manager.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class TestContext extends ApplicationContext {
+
+    private final TypeManager typeManager;
+
+    protected TestContext(TypeManager typeManager) {
+        this.typeManager = typeManager;
+    }
+
+    /**
+     * Installs a context with a new default type manager.
+     */
+    public static TestContext install() {
+        return install(new TypeManager() {});
+    }
+
+    public static TestContext install(TypeManager typeManager) {
+        TestContext context = new TestContext(typeManager);
+        setInstance(context);
+        return context;
+    }
+
+    @Override
+    protected TypeManager getTypeManagerImpl() {
+        return typeManager;
+    }
+
+    @Override
+    protected InterceptorRegistry getInterceptorRegistryImpl() {
+        return null;
+    }
+
+    @Override
+    protected InterceptorManager getInterceptorManagerImpl() {
+        return null;
+    }
+
+    @Override
+    protected EvaluatorRegistry getEvaluatorRegistryImpl() {
+        return null;
+    }
+
+    @Override
+    protected StateManager getStateManagerImpl() {
+        return null;
+    }
+
+    @Override
+    protected OperationRegistry getOperationRegistryImpl() {
+        return null;
+    }
+
+    @Override
+    protected OperationManager getOperationManagerImpl() {
+        return null;
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * TypeManagerTest
+ * Create Date: 2020. 04. 16.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.metadata;
+
+import gras.berry.ReflectionUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class TypeManagerTest {
+
+    @Before
+    public void setUp() {
+        TestContext.install();
+    }
+
+    /**
+     * The first type of a fresh JVM is a wrapper type, so {@link JavaType} is initialized while its type is created.
+     */
+    @Test
+    public void firstTypeIsWrapperType() throws Exception {
+        new IsolatedClassLoader().run(FirstWrapperType.class);
+    }
+
+    public static final class FirstWrapperType implements Runnable {
+
+        @Override
+        public void run() {
+            TestContext.install();
+            JavaType<Integer> type = TypeManager.forClass(Integer.class);
+            JavaType<Integer> primitive = TypeManager.forClass(int.class);
+            assertSame(type, TypeManager.forClass(Integer.class));
+            assertSame(primitive, type.getPrimitiveType());
+            assertSame(type, primitive.getWrapperType());
+            assertSame(TypeManager.forClass(Long.class), TypeManager.forClass(long.class).getWrapperType());
+        }
+    }
+
+    /**
+     * Many threads ask for the same classes at once, each type is created once and all threads get the same instance.
+     */
+    @Test(timeout = 60000)
+    public void concurrentLookupsCreateEachTypeOnce() throws Exception {
+        CountingTypeManager typeManager = new CountingTypeManager();
+        TestContext.install(typeManager);
+
+        List<Class<?>> classes = new ArrayList<>();
+        Collections.addAll(classes, BeanA.class, BeanB.class, BeanC.class, BeanD.class, Integer.class, int.class, String.class, Object.class);
+        int threads = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        CyclicBarrier start = new CyclicBarrier(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Map<Class<?>, JavaType<?>>>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                List<Class<?>> order = new ArrayList<>(classes);
+                Collections.shuffle(order);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    Map<Class<?>, JavaType<?>> types = new ConcurrentHashMap<>();
+                    for (Class<?> clazz : order)
+                        types.put(clazz, TypeManager.forClass(clazz));
+                    return types;
+                }));
+            }
+
+            Map<Class<?>, JavaType<?>> first = results.get(0).get();
+            for (Future<Map<Class<?>, JavaType<?>>> result : results)
+                for (Class<?> clazz : classes)
+                    assertSame(clazz.getName(), first.get(clazz), result.get().get(clazz));
+            for (Class<?> clazz : classes)
+                assertEquals(clazz.getName(), 1, typeManager.getCreations(clazz));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A slow type creation blocks only the threads asking for the same class.
+     */
+    @Test(timeout = 60000)
+    public void slowCreationBlocksOnlyItsClass() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TestContext.install(new TypeManager() {
+            @Override
+            protected <_O> JavaType<_O> createType(Class<_O> clazz) {
+                if (clazz == BeanA.class) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.createType(clazz);
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<JavaType<?>> slow = executor.submit(() -> TypeManager.forClass(BeanA.class));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<JavaType<?>> waiting = executor.submit(() -> TypeManager.forClass(BeanA.class));
+
+            assertNotNull(TypeManager.forClass(BeanB.class));
+            assertFalse(slow.isDone());
+            assertFalse(waiting.isDone());
+
+            release.countDown();
+            assertSame(slow.get(), waiting.get());
+        }
+        finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A type creation asking for its own type fails instead of deadlocking, and the failure is not cached.
+     */
+    @Test(timeout = 60000)
+    public void recursiveCreationFails() {
+        AtomicInteger attempts = new AtomicInteger();
+        TestContext.install(new TypeManager() {
+            @Override
+            protected <_O> JavaType<_O> createType(Class<_O> clazz) {
+                if (clazz == BeanA.class && attempts.getAndIncrement() == 0)
+                    TypeManager.forClass(clazz);
+                return super.createType(clazz);
+            }
+        });
+
+        try {
+            TypeManager.forClass(BeanA.class);
+            fail("recursive creation must fail");
+        }
+        catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Recursive type creation"));
+        }
+        assertNotNull(TypeManager.forClass(BeanA.class));
+        assertEquals(2, attempts.get());
+    }
+
+    /**
+     * A replaced type manager is collected, although its types of the system classes are stored with the system classes.
+     */
+    @Test
+    public void replacedTypeManagerIsCollected() {
+        TypeManager typeManager = new TypeManager() {};
+        TestContext.install(typeManager);
+        TypeManager.forClass(String.class);
+        TypeManager.forClass(Integer.class);
+        TypeManager.forClass(BeanA.class);
+
+        WeakReference<TypeManager> ref = new WeakReference<>(typeManager);
+        typeManager = null;
+        TestContext.install();
+        assertCollected(Collections.singletonList(ref));
+    }
+
+    /**
+     * The framework loaded by a plugin class loader is unloaded with the loader, after creating types of system classes.
+     */
+    @Test
+    public void pluginClassLoaderIsUnloaded() throws Exception {
+        List<WeakReference<ClassLoader>> refs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            IsolatedClassLoader loader = new IsolatedClassLoader();
+            loader.run(UseTypes.class);
+            refs.add(new WeakReference<>(loader));
+            loader.close();
+        }
+        assertCollected(refs);
+    }
+
+    /**
+     * The framework loaded by a plugin class loader is unloaded with the loader, after reflecting on system classes.
+     */
+    @Test
+    public void pluginClassLoaderIsUnloadedAfterReflection() throws Exception {
+        List<WeakReference<ClassLoader>> refs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            IsolatedClassLoader loader = new IsolatedClassLoader();
+            loader.run(UseReflection.class);
+            refs.add(new WeakReference<>(loader));
+            loader.close();
+        }
+        assertCollected(refs);
+    }
+
+    public static final class UseReflection implements Runnable {
+
+        @Override
+        public void run() {
+            for (Class<?> clazz : new Class<?>[] {String.class, ArrayList.class, BeanA.class}) {
+                assertFalse(ReflectionUtils.getImplementedMethods(clazz).isEmpty());
+                assertSame(ReflectionUtils.getDeclaredFields(clazz), ReflectionUtils.getDeclaredFields(clazz));
+            }
+        }
+    }
+
+    public static final class UseTypes implements Runnable {
+
+        @Override
+        public void run() {
+            TestContext.install();
+            for (Class<?> clazz : new Class<?>[] {String.class, Integer.class, int.class, Object.class, ArrayList.class, BeanA.class, BeanC.class})
+                assertNotNull(TypeManager.forClass(clazz));
+            assertNotNull(((BeanType<?>) TypeManager.forClass(BeanC.class)).getProperty("name"));
+        }
+    }
+
+    /**
+     * Collects the garbage until the references are cleared. The lookups of the system classes through a new type manager
+     * let the JVM drop the stale slots stored with them.
+     */
+    private static void assertCollected(List<? extends WeakReference<?>> refs) {
+        for (int i = 0; i < 50; i++) {
+            boolean collected = true;
+            for (WeakReference<?> ref : refs)
+                collected &= ref.get() == null;
+            if (collected)
+                return;
+
+            TestContext.install();
+            for (Class<?> clazz : new Class<?>[] {String.class, Integer.class, int.class, Object.class, ArrayList.class})
+                TypeManager.forClass(clazz);
+            System.gc();
+            try {
+                Thread.sleep(20);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        fail("Not collected");
+    }
+
+    private static final class CountingTypeManager extends TypeManager {
+
+        private final ConcurrentHashMap<Class<?>, AtomicInteger> creations = new ConcurrentHashMap<>();
+
+        @Override
+        protected <_O> JavaType<_O> createType(Class<_O> clazz) {
+            creations.computeIfAbsent(clazz, k -> new AtomicInteger()).incrementAndGet();
+            return super.createType(clazz);
+        }
+
+        int getCreations(Class<?> clazz) {
+            AtomicInteger count = creations.get(clazz);
+            return count != null ? count.get() : 0;
+        }
+    }
+
+    @BeanClass(label = "A")
+    public static class BeanA {
+        @BeanProp
+        public String name;
+    }
+
+    @BeanClass(label = "B")
+    public static class BeanB {
+        @BeanProp
+        public int count;
+    }
+
+    @BeanClass(label = "C")
+    public static class BeanC extends BeanA {
+        @BeanProp
+        public long size;
+    }
+
+    @BeanClass(label = "D")
+    public static class BeanD {
+        @BeanProp
+        public BeanA a;
+    }
+}
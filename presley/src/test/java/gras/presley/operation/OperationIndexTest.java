@@ -0,0 +1,188 @@
+/*
+ * OperationIndexTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.operation;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TestContext;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the index resolves the same operations in the same order as checking all registered operations.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class OperationIndexTest {
+
+    private List<TypeOperationInfo<?>> typeOperations;
+    private List<BeanOperationInfo<?>> beanOperations;
+    private List<PropertyOperationInfo<?, ?>> propertyOperations;
+    private OperationIndex index;
+
+    @Before
+    public void setUp() {
+        TestContext.install();
+
+        typeOperations = Arrays.asList(
+                new TypeOperationInfo<>(operationClass(NewPerson.class)),
+                new TypeOperationInfo<>(operationClass(NewAnything.class)),
+                new TypeOperationInfo<>(operationClass(NewTeam.class)));
+        beanOperations = Arrays.asList(
+                new BeanOperationInfo<>(operationClass(Transfer.class)),
+                new BeanOperationInfo<>(operationClass(Rate.class)),
+                new BeanOperationInfo<Object>(operationClass(Rename.class)) {
+                    @Override
+                    public boolean supports(BeanType<?> metadata) {
+                        return metadata.getTypeClass() == Team.class;
+                    }
+                });
+        propertyOperations = Arrays.asList(
+                new PropertyOperationInfo<>(operationClass(Reset.class)),
+                new PropertyOperationInfo<>(operationClass(Lookup.class)),
+                new PropertyOperationInfo<>(operationClass(Reset.class)));
+
+        index = new OperationIndex(1, typeOperations, beanOperations, propertyOperations);
+    }
+
+    @Test
+    public void targetIsResolvedFromTheGenericDefinition() {
+        assertEquals(Person.class, typeOperations.get(0).target);
+        assertEquals(Object.class, typeOperations.get(1).target);
+        assertEquals(Player.class, beanOperations.get(0).target);
+        assertEquals(Scored.class, beanOperations.get(1).target);
+        assertEquals(Team.class, propertyOperations.get(1).target);
+        // declared on the super class
+        assertEquals(Person.class, OperationIndex.getTargetClass(ResetAll.class, PropertyOperation.class));
+    }
+
+    @Test
+    public void operationsEqualTheLinearScan() {
+        for (Class<?> beanClass : Arrays.asList(Person.class, Player.class, Team.class)) {
+            BeanType<?> type = getType(beanClass);
+            assertEquals(beanClass.getSimpleName(), linearScan(typeOperations, info -> info.supports(type)), index.getTypeOperations(type));
+            assertEquals(beanClass.getSimpleName(), linearScan(beanOperations, info -> info.supports(type)), index.getBeanOperations(type));
+            for (PlainBeanProp<?, ?> prop : type.getProperties())
+                assertEquals(prop.getSimplePropertyName(), linearScan(propertyOperations, info -> info.supports(prop)), index.getPropertyOperations(prop));
+        }
+    }
+
+    @Test
+    public void operationsOfTheSuperTypesAreResolved() {
+        BeanType<?> playerType = getType(Player.class);
+        assertEquals(Arrays.asList(typeOperations.get(1), typeOperations.get(0)), index.getTypeOperations(playerType));
+        assertEquals(Arrays.asList(beanOperations.get(1), beanOperations.get(0)), index.getBeanOperations(playerType));
+        assertEquals(Collections.singletonList(beanOperations.get(2)), index.getBeanOperations(getType(Team.class)));
+        assertEquals(Collections.emptyList(), index.getBeanOperations(getType(Person.class)));
+    }
+
+    private static <_I> List<_I> linearScan(List<? extends _I> all, Predicate<_I> supports) {
+        List<_I> result = new ArrayList<>();
+        for (int i = all.size(); --i >= 0; )
+            if (supports.test(all.get(i)))
+                result.add(all.get(i));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <_O> Class<_O> operationClass(Class<?> operationClass) {
+        return (Class<_O>) operationClass;
+    }
+
+    private static BeanType<?> getType(Class<?> beanClass) {
+        return (BeanType<?>) TypeManager.forClass(beanClass);
+    }
+
+    public interface Scored {
+    }
+
+    public static class Person {
+        @BeanProp
+        public String name;
+    }
+
+    public static class Player extends Person implements Scored {
+        @BeanProp
+        public int score;
+    }
+
+    public static class Team {
+        @BeanProp
+        public String name;
+    }
+
+    public static class NewPerson implements TypeOperation<Person> {
+        @Override
+        public Object process() {
+            return new Person();
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static class NewAnything implements TypeOperation {
+        @Override
+        public Object process() {
+            return new Object();
+        }
+    }
+
+    public static class NewTeam implements TypeOperation<Team> {
+        @Override
+        public Object process() {
+            return new Team();
+        }
+    }
+
+    public static class Transfer implements BeanOperation<Player> {
+        @Override
+        public Object process(Player bean) {
+            return bean;
+        }
+    }
+
+    public static class Rate implements BeanOperation<Scored> {
+        @Override
+        public Object process(Scored bean) {
+            return bean;
+        }
+    }
+
+    public static class Rename implements BeanOperation<Object> {
+        @Override
+        public Object process(Object bean) {
+            return bean;
+        }
+    }
+
+    public static class Reset implements PropertyOperation<Person, Object> {
+        @Override
+        public Object process(Person bean, PlainBeanProp<Person, Object> propertyMetadata) {
+            return null;
+        }
+    }
+
+    public static class ResetAll extends Reset {
+    }
+
+    public static class Lookup implements PropertyOperation<Team, String> {
+        @Override
+        public Object process(Team bean, PlainBeanProp<Team, String> propertyMetadata) {
+            return null;
+        }
+    }
+}
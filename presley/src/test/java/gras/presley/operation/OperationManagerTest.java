@@ -0,0 +1,151 @@
+/*
+ * OperationManagerTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.operation;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.PlainBeanProp;
+import gras.presley.metadata.TestContext;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class OperationManagerTest {
+
+    private DefaultOperationRegistry registry;
+    private OperationManager manager;
+    private BeanType<Team> teamType;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        registry = new DefaultOperationRegistry();
+        manager = new OperationManager() {};
+        new Context(registry, manager).activate();
+        teamType = (BeanType<Team>) TypeManager.forClass(Team.class);
+    }
+
+    /**
+     * A new instance of the supporting operations is created for each request.
+     */
+    @Test
+    public void registeredOperationsAreCreatedPerRequest() {
+        registry.addTypeOperation(NewTeam.class);
+        registry.addBeanOperation(Rename.class);
+        registry.addPropertyOperation(Clear.class);
+
+        List<TypeOperation<Team>> typeOperations = manager.getTypeOperations(teamType);
+        assertEquals(1, typeOperations.size());
+        assertTrue(typeOperations.get(0) instanceof NewTeam);
+        assertNotSame(typeOperations.get(0), manager.getTypeOperations(teamType).get(0));
+
+        Team team = new Team();
+        List<BeanOperation<Team>> beanOperations = manager.getBeanOperations(team, teamType);
+        assertEquals(1, beanOperations.size());
+        assertEquals("renamed", beanOperations.get(0).process(team));
+
+        @SuppressWarnings("unchecked")
+        PlainBeanProp<Team, String> name = (PlainBeanProp<Team, String>) teamType.getProperty("name");
+        assertEquals(1, manager.getPropertyOperations(team, name).size());
+    }
+
+    /**
+     * The lists cached on the metadata follow the changes of the registry.
+     */
+    @Test
+    public void removedOperationIsNotOffered() {
+        registry.addBeanOperation(Rename.class);
+        assertEquals(1, manager.getBeanOperations(new Team(), teamType).size());
+
+        assertTrue(registry.remove(Rename.class));
+        assertFalse(registry.remove(Rename.class));
+        assertTrue(manager.getBeanOperations(new Team(), teamType).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void operationWithoutNoArgConstructorIsRejected() {
+        registry.addTypeOperation(NamedTeam.class);
+    }
+
+    public static class Team {
+        @BeanProp
+        public String name;
+    }
+
+    public static class NewTeam implements TypeOperation<Team> {
+        @Override
+        public Object process() {
+            return new Team();
+        }
+    }
+
+    public static class NamedTeam implements TypeOperation<Team> {
+
+        private final String name;
+
+        public NamedTeam(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object process() {
+            Team team = new Team();
+            team.name = name;
+            return team;
+        }
+    }
+
+    private static class Rename implements BeanOperation<Team> {
+        @Override
+        public Object process(Team bean) {
+            bean.name = "renamed";
+            return bean.name;
+        }
+    }
+
+    public static class Clear implements PropertyOperation<Team, String> {
+        @Override
+        public Object process(Team bean, PlainBeanProp<Team, String> propertyMetadata) {
+            propertyMetadata.setValue(bean, null);
+            return null;
+        }
+    }
+
+    private static final class Context extends TestContext {
+
+        private final OperationRegistry registry;
+        private final OperationManager manager;
+
+        Context(OperationRegistry registry, OperationManager manager) {
+            super(new TypeManager() {});
+            this.registry = registry;
+            this.manager = manager;
+        }
+
+        void activate() {
+            setInstance(this);
+        }
+
+        @Override
+        protected OperationRegistry getOperationRegistryImpl() {
+            return registry;
+        }
+
+        @Override
+        protected OperationManager getOperationManagerImpl() {
+            return manager;
+        }
+    }
+}
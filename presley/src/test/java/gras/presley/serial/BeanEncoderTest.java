@@ -0,0 +1,205 @@
+/*
+ * BeanEncoderTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.serial;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.TestContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips of {@link BeanEncoder} and {@link BeanDecoder}.
+ *
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class BeanEncoderTest {
+
+    @Before
+    public void setUp() {
+        TestContext.install();
+    }
+
+    @Test
+    public void basicValuesAreRoundTripped() throws IOException {
+        Object[] values = {null, true, false, 0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE, 1L << 40,
+                0.1, -0.0, Double.NaN, 1.5f, (short) -300, (byte) -7, 'x', "", "\u00e1rv\u00edzt\u0171r\u0151", Color.GREEN, new BigDecimal("12.50")};
+        for (Object value : values)
+            assertEquals(value, roundTrip(value));
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) roundTrip(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    public void collectionsAreRoundTripped() throws IOException {
+        List<Object> list = Arrays.asList("a", 1, null, "a");
+        Set<Object> set = new LinkedHashSet<>(Arrays.asList(3L, "b"));
+        Map<Object, Object> map = new LinkedHashMap<>();
+        map.put("k", list);
+        map.put(2, set);
+
+        assertEquals(list, roundTrip(list));
+        assertEquals(set, roundTrip(set));
+        assertEquals(map, roundTrip(map));
+    }
+
+    @Test
+    public void beanPropertiesAreRoundTripped() throws IOException {
+        Player player = Player.sample();
+        Player copy = (Player) roundTrip(player);
+
+        assertNotSame(player, copy);
+        assertEquals("Doe", copy.name);
+        assertEquals(10, copy.number);
+        assertEquals(1L << 40, copy.salary);
+        assertEquals(0.75, copy.rating, 0.0);
+        assertTrue(copy.active);
+        assertEquals(180.5f, copy.height, 0.0f);
+        assertEquals((short) -2, copy.rank);
+        assertEquals(Color.RED, copy.color);
+        assertEquals(Arrays.asList("fast", "tall"), copy.tags);
+        assertEquals("Lions", copy.team.name);
+        assertNull(copy.nickname);
+    }
+
+    @Test
+    public void sharedBeansAreWrittenOnce() throws IOException {
+        Team team = new Team();
+        team.name = "Lions";
+        Player a = Player.sample();
+        Player b = Player.sample();
+        a.team = team;
+        b.team = team;
+        team.captain = a;
+
+        @SuppressWarnings("unchecked")
+        List<Player> copy = (List<Player>) roundTrip(Arrays.asList(a, b));
+        assertSame(copy.get(0).team, copy.get(1).team);
+        assertSame(copy.get(0), copy.get(0).team.captain);
+    }
+
+    @Test
+    public void streamHoldsSeveralValues() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BeanEncoder encoder = new BeanEncoder(out, 16)) {
+            for (int i = 0; i < 100; i++)
+                encoder.writeObject(i % 2 == 0 ? "same" : Player.sample());
+        }
+
+        try (BeanDecoder decoder = new BeanDecoder(new ByteArrayInputStream(out.toByteArray()))) {
+            for (int i = 0; i < 100; i++) {
+                Object value = decoder.readObject();
+                if (i % 2 == 0)
+                    assertEquals("same", value);
+                else
+                    assertEquals("Doe", ((Player) value).name);
+            }
+        }
+    }
+
+    @Test
+    public void defaultValuesAreSkippedOnRequest() throws IOException {
+        Player player = new Player();
+        player.name = "Doe";
+        byte[] all = BeanEncoder.encode(player);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BeanEncoder encoder = new BeanEncoder(out) {
+                @Override
+                protected boolean isSkippingDefaults(BeanType<?> type) {
+                    return true;
+                }
+            }) {
+            encoder.writeObject(player);
+        }
+
+        assertTrue(out.size() < all.length);
+        Player copy = (Player) BeanDecoder.decode(out.toByteArray());
+        assertEquals("Doe", copy.name);
+        assertEquals(Player.DEFAULT_NUMBER, copy.number);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void invalidHeaderIsRejected() throws IOException {
+        BeanDecoder.decode(new byte[] {1, 2, 3, 4});
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void invalidTagIsRejected() throws IOException {
+        byte[] bytes = BeanEncoder.encode("x");
+        bytes[3] = 127;
+        BeanDecoder.decode(bytes);
+    }
+
+    private static Object roundTrip(Object value) throws IOException {
+        return BeanDecoder.decode(BeanEncoder.encode(value));
+    }
+
+    public enum Color {
+        RED, GREEN
+    }
+
+    public static class Team {
+        @BeanProp
+        public String name;
+        @BeanProp
+        public Player captain;
+    }
+
+    public static class Player {
+
+        static final int DEFAULT_NUMBER = 99;
+
+        @BeanProp
+        public String name;
+        @BeanProp
+        public String nickname;
+        @BeanProp
+        public int number = DEFAULT_NUMBER;
+        @BeanProp
+        public long salary;
+        @BeanProp
+        public double rating;
+        @BeanProp
+        public boolean active;
+        @BeanProp
+        public float height;
+        @BeanProp
+        public short rank;
+        @BeanProp
+        public Color color;
+        @BeanProp
+        public List<String> tags;
+        @BeanProp
+        public Team team;
+
+        static Player sample() {
+            Player player = new Player();
+            player.name = "Doe";
+            player.number = 10;
+            player.salary = 1L << 40;
+            player.rating = 0.75;
+            player.active = true;
+            player.height = 180.5f;
+            player.rank = -2;
+            player.color = Color.RED;
+            player.tags = Arrays.asList("fast", "tall");
+            player.team = new Team();
+            player.team.name = "Lions";
+            return player;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * ColumnarBeanStoreTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.store;
+
+import gras.presley.metadata.BeanProp;
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.TestContext;
+import gras.presley.metadata.TypeManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class ColumnarBeanStoreTest {
+
+    private BeanType<Person> type;
+    private ColumnarBeanStore<Person> store;
+    private int name;
+    private int age;
+    private int id;
+    private int weight;
+    private int active;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        TestContext.install();
+        type = (BeanType<Person>) TypeManager.forClass(Person.class);
+        store = new ColumnarBeanStore<>(type, 0);
+        name = type.getProperty("name").getIndex();
+        age = type.getProperty("age").getIndex();
+        id = type.getProperty("id").getIndex();
+        weight = type.getProperty("weight").getIndex();
+        active = type.getProperty("active").getIndex();
+    }
+
+    @Test
+    public void beansAreRoundTripped() {
+        for (int i = 0; i < 100; i++)
+            assertEquals(i, store.add(Person.of(i)));
+
+        assertEquals(100, store.size());
+        for (int i = 0; i < 100; i++)
+            assertTrue(type.getDiff().isEqual(Person.of(i), store.get(i)));
+    }
+
+    @Test
+    public void addAllAppendsInOrder() {
+        store.add(Person.of(0));
+        List<Person> persons = new ArrayList<>();
+        for (int i = 1; i < 40; i++)
+            persons.add(Person.of(i));
+
+        assertEquals(1, store.addAll(persons));
+        assertEquals(40, store.size());
+        for (int i = 0; i < 40; i++)
+            assertEquals(i, store.getInt(i, age));
+    }
+
+    @Test
+    public void typedAccessorsReadTheColumns() {
+        store.add(Person.of(3));
+        store.setInt(0, age, 30);
+        store.setLong(0, id, 1L << 40);
+        store.setDouble(0, weight, 80.5);
+        store.setBoolean(0, active, false);
+        store.setValue(0, name, "Roe");
+
+        assertEquals(30, store.getInt(0, age));
+        assertEquals(1L << 40, store.getLong(0, id));
+        assertEquals(80.5, store.getDouble(0, weight), 0.0);
+        assertFalse(store.getBoolean(0, active));
+        assertEquals("Roe", store.getValue(0, name));
+        assertEquals(30, store.getValue(0, age));
+        assertEquals("Roe", store.row(0).getValue(name));
+        assertEquals(30, store.get(0).age);
+    }
+
+    @Test
+    public void readSkipsReadOnlyProperties() {
+        store.add(Person.of(1));
+        Person person = new Person();
+        store.read(0, person);
+        assertEquals("p1", person.name);
+        assertEquals("P1", store.getValue(0, type.getProperty("upperName").getIndex()));
+    }
+
+    @Test
+    public void setOverwritesTheRow() {
+        store.add(Person.of(1));
+        store.add(Person.of(2));
+        store.set(0, Person.of(5));
+        assertEquals(5, store.getInt(0, age));
+        assertEquals(2, store.getInt(1, age));
+    }
+
+    @Test
+    public void scansMatchTheRows() {
+        for (int i = 0; i < 10; i++)
+            store.add(Person.of(i));
+
+        BitSet even = new BitSet();
+        for (int i = 0; i < 10; i += 2)
+            even.set(i);
+        assertEquals(even, store.selectInt(age, a -> a % 2 == 0));
+        assertEquals(even, store.selectLong(id, i -> i % 2 == 0));
+        assertEquals(even, store.selectDouble(weight, w -> w % 2 == 0));
+        assertEquals(even, store.selectBoolean(active, true));
+        assertEquals(even, store.selectValue(name, n -> ((String) n).matches("p[02468]")));
+        assertEquals(45, store.ints(age).sum());
+        assertEquals(45, store.longs(id).sum());
+        assertEquals(45.0, store.doubles(weight).sum(), 0.0);
+    }
+
+    @Test
+    public void clearRemovesTheRows() {
+        store.add(Person.of(1));
+        store.clear();
+        assertEquals(0, store.size());
+        store.trimToSize();
+        store.add(Person.of(2));
+        assertEquals(2, store.getInt(0, age));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongTypeIsRejected() {
+        store.add(Person.of(1));
+        store.getLong(0, age);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullPrimitiveIsRejected() {
+        store.add(Person.of(1));
+        store.setValue(0, age, null);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void missingRowIsRejected() {
+        store.add(Person.of(1));
+        store.getInt(1, age);
+    }
+
+    public static class Person {
+        @BeanProp
+        public String name;
+        @BeanProp
+        public int age;
+        @BeanProp
+        public long id;
+        @BeanProp
+        public double weight;
+        @BeanProp
+        public boolean active;
+        @BeanProp
+        public List<String> tags;
+
+        @BeanProp
+        public String getUpperName() {
+            return name != null ? name.toUpperCase() : null;
+        }
+
+        static Person of(int i) {
+            Person person = new Person();
+            person.name = "p" + i;
+            person.age = i;
+            person.id = i;
+            person.weight = i;
+            person.active = i % 2 == 0;
+            person.tags = i % 3 == 0 ? null : Arrays.asList("t" + i);
+            return person;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * OffHeapBeanStoreTest
+ * Create Date: 2020. 04. 17.
+ * Copyright: SONY MUSIC ENTERTAINMENT
+ * Initial-Author: barazakos
+ */
+package gras.presley.store;
+
+import gras.presley.metadata.BeanType;
+import gras.presley.metadata.TestContext;
+import gras.presley.metadata.TypeManager;
+import gras.presley.store.ColumnarBeanStoreTest.Person;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version $Revision$ $LastChangedDate$
+ * @author $Author$
+ */
+public class OffHeapBeanStoreTest {
+
+    private BeanType<Person> type;
+    /** small slabs and strings, so the tests cross the slab and the string limits */
+    private OffHeapBeanStore<Person> store;
+    private int name;
+    private int age;
+    private int id;
+    private int weight;
+    private int active;
+    private int tags;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        TestContext.install();
+        type = (BeanType<Person>) TypeManager.forClass(Person.class);
+        store = new OffHeapBeanStore<>(type, 4, 256);
+        name = type.getProperty("name").getIndex();
+        age = type.getProperty("age").getIndex();
+        id = type.getProperty("id").getIndex();
+        weight = type.getProperty("weight").getIndex();
+        active = type.getProperty("active").getIndex();
+        tags = type.getProperty("tags").getIndex();
+    }
+
+    @Test
+    public void recordsAreAligned() {
+        // long, double, int, boolean and two strings of 1 + 4 bytes
+        assertEquals(32, store.getRecordSize());
+        store.add(Person.of(0));
+        assertEquals(256, store.getOffHeapBytes());
+    }
+
+    @Test
+    public void beansAreRoundTrippedAcrossSlabs() {
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i, store.add(Person.of(i)));
+
+        assertEquals(1000, store.size());
+        for (int i = 0; i < 1000; i++)
+            assertTrue(type.getDiff().isEqual(Person.of(i), store.get(i)));
+    }
+
+    @Test
+    public void longStringsAreKeptOnTheHeap() {
+        for (int i = 0; i < 100; i++)
+            store.add(Person.of(i));
+
+        store.setValue(70, name, "a long name");
+        store.setValue(71, name, "\u00e1\u00e9\u00ed");
+        assertEquals("a long name", store.getValue(70, name));
+        assertEquals("\u00e1\u00e9\u00ed", store.getValue(71, name));
+        assertEquals("A LONG NAME", store.get(70).getUpperName());
+
+        store.setValue(70, name, "abcd");
+        assertEquals("abcd", store.getValue(70, name));
+        store.setValue(70, name, null);
+        assertNull(store.getValue(70, name));
+        assertEquals("p69", store.getValue(69, name));
+
+        // grows the heap column of the strings with the slabs
+        Person person = Person.of(100);
+        person.name = "another long name";
+        store.add(person);
+        assertEquals("another long name", store.getValue(100, name));
+        assertEquals("\u00e1\u00e9\u00ed", store.getValue(71, name));
+    }
+
+    @Test
+    public void typedAccessorsReadTheRecord() {
+        store.add(Person.of(3));
+        store.setInt(0, age, 30);
+        store.setLong(0, id, 1L << 40);
+        store.setDouble(0, weight, 80.5);
+        store.setBoolean(0, active, true);
+        store.setValue(0, tags, Arrays.asList("x"));
+
+        assertEquals(30, store.getInt(0, age));
+        assertEquals(1L << 40, store.getLong(0, id));
+        assertEquals(80.5, store.getDouble(0, weight), 0.0);
+        assertTrue(store.getBoolean(0, active));
+        assertEquals(Arrays.asList("x"), store.getValue(0, tags));
+        assertEquals(30, store.getValue(0, age));
+        assertEquals(30, store.get(0).age);
+    }
+
+    @Test
+    public void scansMatchTheRows() {
+        for (int i = 0; i < 10; i++)
+            store.add(Person.of(i));
+
+        BitSet even = new BitSet();
+        for (int i = 0; i < 10; i += 2)
+            even.set(i);
+        assertEquals(even, store.selectInt(age, a -> a % 2 == 0));
+        assertEquals(even, store.selectBoolean(active, true));
+        assertEquals(even, store.selectValue(name, n -> ((String) n).matches("p[02468]")));
+    }
+
+    @Test
+    public void clearDropsTheSlabs() {
+        store.add(Person.of(1));
+        store.setValue(0, name, "a long name");
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(0, store.getOffHeapBytes());
+
+        store.add(Person.of(2));
+        assertEquals("p2", store.getValue(0, name));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullPrimitiveIsRejected() {
+        store.add(Person.of(1));
+        store.setValue(0, weight, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongTypeIsRejected() {
+        store.add(Person.of(1));
+        store.setInt(0, id, 1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void missingRowIsRejected() {
+        store.getInt(0, age);
+    }
+}